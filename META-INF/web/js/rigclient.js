@@ -150,12 +150,20 @@ function updateLogs()
 {
 	$.get(
 		"/logs/update",
-		null,
+		{ since: logSequence, text: logSearch.text, from: logSearch.from, to: logSearch.to },
 		function (response) {
 			response = $.trim(response);
 			if (response.indexOf("<li") == 0)
 			{
-				$("#logslist").empty().append(response);
+				/* New logs are added to the top of the list. */
+				var logs = $(response).filter("li");
+				logSequence = logs.first().attr("data-seq");
+				$("#logslist").prepend(logs);
+				$("#logslist li").slice(logMaxDisplayed).remove();
+				
+				/* Rows are striped by their position in the list. */
+				$("#logslist li:even").removeClass("oddlog").addClass("evenlog");
+				$("#logslist li:odd").removeClass("evenlog").addClass("oddlog");
 				
 				if (!$("#fatalcheck").is(":checked")) $(".fatallog").hide();
 				if (!$("#pricheck").is(":checked")) $(".prilog").hide();
@@ -48,6 +48,7 @@ import au.edu.uts.eng.remotelabs.rigclient.rig.AbstractRig;
 import au.edu.uts.eng.remotelabs.rigclient.rig.AbstractRig.ActionType;
 import au.edu.uts.eng.remotelabs.rigclient.rig.IRig;
 import au.edu.uts.eng.remotelabs.rigclient.status.SchedulingServerProviderStub;
+import au.edu.uts.eng.remotelabs.rigclient.status.SchedulingServerStubPool;
 import au.edu.uts.eng.remotelabs.rigclient.status.StatusUpdater;
 import au.edu.uts.eng.remotelabs.rigclient.status.types.AllocateCallback;
 import au.edu.uts.eng.remotelabs.rigclient.status.types.AllocateCallbackResponse;
@@ -227,9 +228,12 @@ public class AsyncExecutor implements Runnable
             }
         }
         
+        SchedulingServerStubPool pool = null;
+        SchedulingServerProviderStub stub = null;
         try
         {
-            SchedulingServerProviderStub stub = new SchedulingServerProviderStub(this.getEndpoint());
+            pool = SchedulingServerStubPool.getInstance();
+            stub = pool.borrow(this.getEndpoint());
             AllocateCallbackResponse response = stub.allocateCallback(request);
             
             /* If the response indicates a problem, remove allocation. */
@@ -256,6 +260,10 @@ public class AsyncExecutor implements Runnable
             "'. Going to roll back allocation");
             rig.revoke();
         }
+        finally
+        {
+            if (pool != null) pool.release(stub);
+        }
     }
 
     /**
@@ -302,9 +310,12 @@ public class AsyncExecutor implements Runnable
             }
         }
         
+        SchedulingServerStubPool pool = null;
+        SchedulingServerProviderStub stub = null;
         try
         {
-            SchedulingServerProviderStub stub = new SchedulingServerProviderStub(this.getEndpoint());
+            pool = SchedulingServerStubPool.getInstance();
+            stub = pool.borrow(this.getEndpoint());
             ReleaseCallbackResponse response = stub.releaseCallback(request);
             
             /* If the response indicates a problem, remove allocation. */
@@ -326,6 +337,10 @@ public class AsyncExecutor implements Runnable
         {
             this.logger.warn("Async release callback failed with remote execption reason '" + e.getMessage() + "'.");
         }
+        finally
+        {
+            if (pool != null) pool.release(stub);
+        }
     }
     
     /**
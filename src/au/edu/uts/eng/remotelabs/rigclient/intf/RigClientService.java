@@ -50,6 +50,15 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.AbortBatchControl;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.AbortBatchControlResponse;
@@ -84,7 +93,11 @@ import au.edu.uts.eng.remotelabs.rigclient.intf.types.ParamType;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformBatchControl;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformBatchControlResponse;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControl;
+import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControlBatch;
+import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControlBatchResponse;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControlResponse;
+import au.edu.uts.eng.remotelabs.rigclient.intf.types.PrimitiveControlBatchRequestType;
+import au.edu.uts.eng.remotelabs.rigclient.intf.types.PrimitiveControlBatchResponseType;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PrimitiveControlRequestType;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PrimitiveControlResponseType;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.Release;
@@ -131,6 +144,12 @@ public class RigClientService implements RigClientServiceInterface
     /** Asynchronous exeuctor of allocation and release jobs. */
     private static AsyncExecutor executor;
     
+    /** Executor of parallel primitive control batch requests. */
+    private static ExecutorService batchExecutor;
+    
+    /** Maximum number of parallel primitive control batch requests waiting to be run. */
+    private static final int BATCH_QUEUE_SIZE = 256;
+    
     /** Logger. */
     private final ILogger logger;
     
@@ -840,19 +859,218 @@ public class RigClientService implements RigClientServiceInterface
         /* Request parameters. */
         final PrimitiveControlRequestType request = primRequest.getPerformPrimitiveControl();
         final String requestor = request.getRequestor();
-        final StringBuilder builder = new StringBuilder();
-        builder.append("Recevied primitive control request with params: requestor=");
-        builder.append(requestor);
+        final PrimitiveRequest primitiveRequest = this.toPrimitiveRequest(request);
+        if (this.logger.isDebugEnabled())
+        {
+            final StringBuilder builder = new StringBuilder();
+            builder.append("Recevied primitive control request with params: requestor=");
+            builder.append(requestor);
+            this.appendPrimitiveRequest(builder, request);
+            this.logger.debug(builder.toString());
+        }
+        
+        /* User information. */
+        primitiveRequest.setRequestor(requestor);
+        primitiveRequest.setRole(this.rig.isInSession(requestor));
+
+        /* Response parameters. */
+        final PerformPrimitiveControlResponse response = new PerformPrimitiveControlResponse();
+        final PrimitiveControlResponseType control = this.newPrimitiveControlResponse(request);
+        response.setPerformPrimitiveControlResponse(control);
+        
+        if (!(this.isSourceAuthenticated(request.getIdentityToken()) || 
+                this.rig.hasPermission(requestor, Session.SLAVE_PASSIVE)))
+        {
+            /* Requestor does not have permission to request primitive control. */
+            this.logger.warn("Requestor " + requestor + " does not have permission to request primitive control.");
+            control.setSuccess(false);
+            control.getError().setCode(3);
+            control.getError().setReason("Invalid permission.");
+        }
+        else if (this.rig instanceof IRigControl)
+        {
+            this.setPrimitiveResults(control, ((IRigControl)this.rig).performPrimitive(primitiveRequest));
+        }
+        else
+        {
+            /* Controlling a rig not supported. */
+            this.logger.warn("Primitive control not supported on this rig type.");
+            control.setSuccess(false);
+            control.getError().setCode(14);
+            control.getError().setReason("Primitive control not supported.");
+            control.setWasSuccessful("FAILED - Not supported.");
+        }
+        
+        return response;
+    }
+    
+    @Override
+    public PerformPrimitiveControlBatchResponse performPrimitiveControlBatch(final PerformPrimitiveControlBatch batchRequest)
+    {
+        /* Request parameters. */
+        final PrimitiveControlBatchRequestType request = batchRequest.getPerformPrimitiveControlBatch();
+        final String requestor = request.getRequestor();
+        final PrimitiveControlRequestType entries[] = request.getRequest() == null ? 
+                new PrimitiveControlRequestType[0] : request.getRequest();
+        final Session role = this.rig.isInSession(requestor);
+        final PrimitiveRequest primitiveRequests[] = new PrimitiveRequest[entries.length];
+        for (int i = 0; i < entries.length; i++)
+        {
+            primitiveRequests[i] = this.toPrimitiveRequest(entries[i]);
+            primitiveRequests[i].setRequestor(requestor);
+            primitiveRequests[i].setRole(role);
+        }
+        
+        if (this.logger.isDebugEnabled())
+        {
+            final StringBuilder builder = new StringBuilder();
+            builder.append("Received primitive control batch request with params: requestor=");
+            builder.append(requestor);
+            builder.append(", parallel=");
+            builder.append(request.getParallel());
+            for (int i = 0; i < entries.length; i++)
+            {
+                builder.append(", request");
+                builder.append(i + 1);
+                builder.append("=[");
+                this.appendPrimitiveRequest(builder, entries[i]);
+                builder.append(']');
+            }
+            this.logger.debug(builder.toString());
+        }
+        
+        /* Response parameters. */
+        final PerformPrimitiveControlBatchResponse response = new PerformPrimitiveControlBatchResponse();
+        final PrimitiveControlBatchResponseType batch = new PrimitiveControlBatchResponseType();
+        response.setPerformPrimitiveControlBatchResponse(batch);
+        final ErrorType error = new ErrorType();
+        error.setCode(0);
+        error.setOperation("Primitive control batch of " + entries.length + " requests.");
+        error.setReason("");
+        batch.setError(error);
+        
+        if (!(this.isSourceAuthenticated(request.getIdentityToken()) || 
+                this.rig.hasPermission(requestor, Session.SLAVE_PASSIVE)))
+        {
+            /* Requestor does not have permission to request primitive control. */
+            this.logger.warn("Requestor " + requestor + " does not have permission to request primitive control.");
+            batch.setSuccess(false);
+            error.setCode(3);
+            error.setReason("Invalid permission.");
+            return response;
+        }
+        
+        if (!(this.rig instanceof IRigControl))
+        {
+            /* Controlling a rig not supported. */
+            this.logger.warn("Primitive control not supported on this rig type.");
+            batch.setSuccess(false);
+            error.setCode(14);
+            error.setReason("Primitive control not supported.");
+            return response;
+        }
+        
+        final IRigControl controlledRig = (IRigControl)this.rig;
+        final PrimitiveControlResponseType controls[] = new PrimitiveControlResponseType[entries.length];
+        for (int i = 0; i < entries.length; i++)
+        {
+            controls[i] = this.newPrimitiveControlResponse(entries[i]);
+        }
+        
+        if (request.getParallel() && entries.length > 1)
+        {
+            /* The entries are independent so are run concurrently, though the 
+             * responses are still returned in request order. */
+            final List<Future<PrimitiveResponse>> futures = new ArrayList<Future<PrimitiveResponse>>(entries.length);
+            for (final PrimitiveRequest primitiveRequest : primitiveRequests)
+            {
+                futures.add(RigClientService.getBatchExecutor().submit(new Callable<PrimitiveResponse>()
+                {
+                    @Override
+                    public PrimitiveResponse call() throws Exception
+                    {
+                        return controlledRig.performPrimitive(primitiveRequest);
+                    }
+                }));
+            }
+            
+            for (int i = 0; i < entries.length; i++)
+            {
+                try
+                {
+                    this.setPrimitiveResults(controls[i], futures.get(i).get());
+                }
+                catch (InterruptedException ex)
+                {
+                    this.logger.warn("Interrupted waiting for primitive control batch request " + (i + 1) + '.');
+                    Thread.currentThread().interrupt();
+                    controls[i].setSuccess(false);
+                    controls[i].getError().setCode(-7);
+                    controls[i].getError().setReason("Interrupted.");
+                    controls[i].setWasSuccessful("false");
+                }
+                catch (ExecutionException ex)
+                {
+                    this.logger.warn("Primitive control batch request " + (i + 1) + " failed with exception " + 
+                            ex.getCause().getClass().getName() + ", message: " + ex.getCause().getMessage() + '.');
+                    controls[i].setSuccess(false);
+                    controls[i].getError().setCode(-7);
+                    controls[i].getError().setReason(String.valueOf(ex.getCause().getMessage()));
+                    controls[i].setWasSuccessful("false");
+                }
+            }
+        }
+        else
+        {
+            for (int i = 0; i < entries.length; i++)
+            {
+                this.setPrimitiveResults(controls[i], controlledRig.performPrimitive(primitiveRequests[i]));
+            }
+        }
         
+        batch.setSuccess(true);
+        batch.setResponse(controls);
+        return response;
+    }
+    
+    /**
+     * Converts a primitive control request type to a primitive request. The
+     * user information is not set.
+     * 
+     * @param request primitive control request type
+     * @return primitive request
+     */
+    private PrimitiveRequest toPrimitiveRequest(final PrimitiveControlRequestType request)
+    {
         final PrimitiveRequest primitiveRequest = new PrimitiveRequest();
+        primitiveRequest.setController(request.getController());
+        primitiveRequest.setAction(request.getAction());
+        
+        if (request.getParam() != null)
+        {
+            for (ParamType param : request.getParam())
+            {
+                primitiveRequest.addParameter(param.getName(), param.getValue());
+            }
+        }
         
+        return primitiveRequest;
+    }
+    
+    /**
+     * Appends the parameters of a primitive control request type to a log
+     * message.
+     * 
+     * @param builder log message builder
+     * @param request primitive control request type
+     */
+    private void appendPrimitiveRequest(final StringBuilder builder, final PrimitiveControlRequestType request)
+    {
         /* Controller - action. */
         builder.append(", controller=");
         builder.append(request.getController());
-        primitiveRequest.setController(request.getController());
         builder.append(", action=");
         builder.append(request.getAction());
-        primitiveRequest.setAction(request.getAction());
         
         /* Parameter list. */
         int pCount = 1;
@@ -866,19 +1084,20 @@ public class RigClientService implements RigClientServiceInterface
                 builder.append(param.getName());
                 builder.append(':');
                 builder.append(param.getValue());
-                primitiveRequest.addParameter(param.getName(), param.getValue());
             }
         }
-        this.logger.debug(builder.toString());
-        
-        /* User information. */
-        primitiveRequest.setRequestor(requestor);
-        primitiveRequest.setRole(this.rig.isInSession(requestor));
-
-        /* Response parameters. */
-        final PerformPrimitiveControlResponse response = new PerformPrimitiveControlResponse();
+    }
+    
+    /**
+     * Creates a primitive control response type with a default error for
+     * the request.
+     * 
+     * @param request primitive control request type
+     * @return primitive control response type
+     */
+    private PrimitiveControlResponseType newPrimitiveControlResponse(final PrimitiveControlRequestType request)
+    {
         final PrimitiveControlResponseType control = new PrimitiveControlResponseType();
-        response.setPerformPrimitiveControlResponse(control);
         final ErrorType error = new ErrorType();
         error.setCode(0);
         error.setOperation("Primitive control on controller " + request.getController() + " and action " + 
@@ -886,61 +1105,82 @@ public class RigClientService implements RigClientServiceInterface
         error.setReason("");
         control.setError(error);
         control.setWasSuccessful("");
+        return control;
+    }
+    
+    /**
+     * Sets the outcome and results of a primitive response on the primitive 
+     * control response type.
+     * 
+     * @param control primitive control response type
+     * @param primitiveResponse primitive response
+     */
+    private void setPrimitiveResults(final PrimitiveControlResponseType control, 
+            final PrimitiveResponse primitiveResponse)
+    {
+        final ErrorType error = control.getError();
+        control.setSuccess(primitiveResponse.wasSuccessful());
+        error.setCode(primitiveResponse.getErrorCode());
+        error.setReason(primitiveResponse.getErrorReason() != null ? primitiveResponse.getErrorReason() : "");
+        control.setWasSuccessful(String.valueOf(primitiveResponse.wasSuccessful()));
         
-        if (!(this.isSourceAuthenticated(request.getIdentityToken()) || 
-                this.rig.hasPermission(requestor, Session.SLAVE_PASSIVE)))
+        /* Results. */            
+        final List<ParamType> results = new ArrayList<ParamType>();
+        ParamType resultParam;
+        for (Entry<String, String> result : primitiveResponse.getResults().entrySet())
         {
-            /* Requestor does not have permission to request primitive control. */
-            this.logger.warn("Requestor " + requestor + " does not have permission to request primitive control.");
-            control.setSuccess(false);
-            error.setCode(3);
-            error.setReason("Invalid permission.");
+            if (result.getKey() == null)
+            {
+                this.logger.warn("Unable to use a null key for a primitive control response parameter Removing " +
+                        "key=" + result.getKey() + ", value=" + result.getValue() + " pair from result set.");
+            }
+            else if (result.getValue() == null)
+            {
+                this.logger.warn("Unable to use a null value for a primitive control response parameter Removing " +
+                        "key=" + result.getKey() + ", value=" + result.getValue() + " pair from result set.");
+            }
+            else
+            {
+                resultParam = new ParamType();
+                resultParam.setName(result.getKey());
+                resultParam.setValue(result.getValue());
+                results.add(resultParam);
+            }
         }
-        else if (this.rig instanceof IRigControl)
+        control.setResult(results.toArray(new ParamType[results.size()]));
+    }
+    
+    /**
+     * Returns the executor that runs parallel primitive control batch 
+     * requests, creating it if it has not been created. The executor is 
+     * bounded to the number of available processors and at most 
+     * <tt>BATCH_QUEUE_SIZE</tt> requests may be waiting to be run, after 
+     * which requests are run by the requesting thread so every request of
+     * a batch is run.
+     * 
+     * @return batch executor
+     */
+    private static synchronized ExecutorService getBatchExecutor()
+    {
+        if (RigClientService.batchExecutor == null)
         {
-            final IRigControl controlledRig = (IRigControl)this.rig;
-            final PrimitiveResponse primitiveResponse = controlledRig.performPrimitive(primitiveRequest);
-            control.setSuccess(primitiveResponse.wasSuccessful());
-            error.setCode(primitiveResponse.getErrorCode());
-            error.setReason(primitiveResponse.getErrorReason() != null ? primitiveResponse.getErrorReason() : "");
-            control.setWasSuccessful(String.valueOf(primitiveResponse.wasSuccessful()));
-            
-            /* Results. */            
-            final List<ParamType> results = new ArrayList<ParamType>();
-            ParamType resultParam;
-            for (Entry<String, String> result : primitiveResponse.getResults().entrySet())
+            final int threads = Runtime.getRuntime().availableProcessors();
+            RigClientService.batchExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, 
+                    new ArrayBlockingQueue<Runnable>(BATCH_QUEUE_SIZE), new ThreadFactory()
             {
-                if (result.getKey() == null)
-                {
-                    this.logger.warn("Unable to use a null key for a primitive control response parameter Removing " +
-                    		"key=" + result.getKey() + ", value=" + result.getValue() + " pair from result set.");
-                }
-                else if (result.getValue() == null)
-                {
-                    this.logger.warn("Unable to use a null value for a primitive control response parameter Removing " +
-                            "key=" + result.getKey() + ", value=" + result.getValue() + " pair from result set.");
-                }
-                else
+                private final AtomicInteger count = new AtomicInteger();
+                
+                @Override
+                public Thread newThread(Runnable r)
                 {
-                    resultParam = new ParamType();
-                    resultParam.setName(result.getKey());
-                    resultParam.setValue(result.getValue());
-                    results.add(resultParam);
+                    final Thread thr = new Thread(r, "Primitive Batch " + this.count.incrementAndGet());
+                    thr.setDaemon(true);
+                    return thr;
                 }
-            }
-            control.setResult(results.toArray(new ParamType[results.size()]));
-        }
-        else
-        {
-            /* Controlling a rig not supported. */
-            this.logger.warn("Primitive control not supported on this rig type.");
-            control.setSuccess(false);
-            error.setCode(14);
-            error.setReason("Primitive control not supported.");
-            control.setWasSuccessful("FAILED - Not supported.");
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
         }
         
-        return response;
+        return RigClientService.batchExecutor;
     }
 
     @Override
@@ -65,6 +65,8 @@ import au.edu.uts.eng.remotelabs.rigclient.intf.types.NotifyResponse;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformBatchControl;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformBatchControlResponse;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControl;
+import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControlBatch;
+import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControlBatchResponse;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControlResponse;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.Release;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.ReleaseResponse;
@@ -160,6 +162,16 @@ public interface RigClientServiceInterface
      */
     public PerformPrimitiveControlResponse performPrimitiveControl(PerformPrimitiveControl orimRequest);
     
+    /**
+     * Request for the rig client to perform a batch of primitive control 
+     * requests. The batch is authorised once and the responses are returned 
+     * in the same order as the requests.
+     * 
+     * @param batchRequest request parameters
+     * @return batch primitive control response
+     */
+    public PerformPrimitiveControlBatchResponse performPrimitiveControlBatch(PerformPrimitiveControlBatch batchRequest);
+    
     /**
      * Request for the rig client to provide information about the rig.
      * 
@@ -81,6 +81,8 @@ import au.edu.uts.eng.remotelabs.rigclient.intf.types.NotifyResponse;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformBatchControl;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformBatchControlResponse;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControl;
+import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControlBatch;
+import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControlBatchResponse;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControlResponse;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.Release;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.ReleaseResponse;
@@ -132,6 +134,16 @@ public class RigClientServiceMessageReceiverInOut extends AbstractInOutMessageRe
                     primResponse = serviceImpl.performPrimitiveControl(wrappedParam);
                     envelope = this.toEnvelope(this.getSOAPFactory(msgContext), primResponse, false);
                 }
+                else if ("performPrimitiveControlBatch".equals(methodName))
+                {
+                    PerformPrimitiveControlBatchResponse batchResponse = null;
+                    final PerformPrimitiveControlBatch wrappedParam = (PerformPrimitiveControlBatch) this.fromOM(
+                            msgContext.getEnvelope().getBody().getFirstElement(), PerformPrimitiveControlBatch.class,
+                            this.getEnvelopeNamespaces(msgContext.getEnvelope()));
+
+                    batchResponse = serviceImpl.performPrimitiveControlBatch(wrappedParam);
+                    envelope = this.toEnvelope(this.getSOAPFactory(msgContext), batchResponse, false);
+                }
                 else if ("getBatchControlStatus".equals(methodName))
                 {
                     GetBatchControlStatusResponse batchStatus = null;
@@ -306,6 +318,21 @@ public class RigClientServiceMessageReceiverInOut extends AbstractInOutMessageRe
             throw AxisFault.makeFault(e);
         }
     }
+    
+    private SOAPEnvelope toEnvelope(SOAPFactory factory, PerformPrimitiveControlBatchResponse param,
+            boolean optimizeContent) throws AxisFault
+    {
+        try
+        {
+            final SOAPEnvelope emptyEnvelope = factory.getDefaultEnvelope();
+            emptyEnvelope.getBody().addChild(param.getOMElement(PerformPrimitiveControlBatchResponse.MY_QNAME, factory));
+            return emptyEnvelope;
+        }
+        catch (final ADBException e)
+        {
+            throw AxisFault.makeFault(e);
+        }
+    }
 
     
     private SOAPEnvelope toEnvelope(SOAPFactory factory, GetBatchControlStatusResponse param, boolean optimizeContent)
@@ -550,6 +577,12 @@ public class RigClientServiceMessageReceiverInOut extends AbstractInOutMessageRe
             if (PerformPrimitiveControlResponse.class.equals(type))
                 return PerformPrimitiveControlResponse.Factory.parse(param.getXMLStreamReaderWithoutCaching());
 
+            if (PerformPrimitiveControlBatch.class.equals(type))
+                return PerformPrimitiveControlBatch.Factory.parse(param.getXMLStreamReaderWithoutCaching());
+
+            if (PerformPrimitiveControlBatchResponse.class.equals(type))
+                return PerformPrimitiveControlBatchResponse.Factory.parse(param.getXMLStreamReaderWithoutCaching());
+
             if (GetBatchControlStatus.class.equals(type))
                 return GetBatchControlStatus.Factory.parse(param.getXMLStreamReaderWithoutCaching());
 
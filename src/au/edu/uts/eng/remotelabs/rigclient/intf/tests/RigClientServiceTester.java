@@ -99,7 +99,11 @@ import au.edu.uts.eng.remotelabs.rigclient.intf.types.ParamType;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformBatchControl;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformBatchControlResponse;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControl;
+import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControlBatch;
+import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControlBatchResponse;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControlResponse;
+import au.edu.uts.eng.remotelabs.rigclient.intf.types.PrimitiveControlBatchRequestType;
+import au.edu.uts.eng.remotelabs.rigclient.intf.types.PrimitiveControlBatchResponseType;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PrimitiveControlRequestType;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.PrimitiveControlResponseType;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.Release;
@@ -1679,6 +1683,176 @@ public class RigClientServiceTester extends TestCase
        }   
     }
     
+    /**
+     * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.intf.RigClientService#performPrimitiveControlBatch(au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControlBatch)}.
+     */
+    @Test
+    public void testPerformPrimitiveControlBatch()
+    {
+        assertTrue(this.rig.assign("mdiponio"));
+        
+        PerformPrimitiveControlBatch performBatch = new PerformPrimitiveControlBatch();
+        PrimitiveControlBatchRequestType batchRequest = new PrimitiveControlBatchRequestType();
+        performBatch.setPerformPrimitiveControlBatch(batchRequest);
+        batchRequest.setRequestor("mdiponio");
+        
+        for (int i = 0; i < 10; i++)
+        {
+            PrimitiveControlRequestType controlRequest = new PrimitiveControlRequestType();
+            controlRequest.setController("au.edu.uts.eng.remotelabs.rigclient.rig.primitive.tests.MockController");
+            controlRequest.setAction("test");
+            ParamType param = new ParamType();
+            param.setName("sensor");
+            param.setValue("Value_" + i);
+            controlRequest.addParam(param);
+            batchRequest.addRequest(controlRequest);
+        }
+        
+        PerformPrimitiveControlBatchResponse response = this.service.performPrimitiveControlBatch(performBatch);
+        PrimitiveControlBatchResponseType batchResponse = response.getPerformPrimitiveControlBatchResponse();
+        assertNotNull(batchResponse);
+        assertTrue(batchResponse.getSuccess());
+        assertEquals(0, batchResponse.getError().getCode());
+        
+        PrimitiveControlResponseType controlResponses[] = batchResponse.getResponse();
+        assertNotNull(controlResponses);
+        assertEquals(10, controlResponses.length);
+        for (int i = 0; i < controlResponses.length; i++)
+        {
+            assertTrue(controlResponses[i].getSuccess());
+            assertTrue(Boolean.valueOf(controlResponses[i].getWasSuccessful()));
+            assertEquals(0, controlResponses[i].getError().getCode());
+            
+            ParamType resParams[] = controlResponses[i].getResult();
+            assertEquals(1, resParams.length);
+            assertEquals("sensor", resParams[0].getName());
+            assertEquals("Value_" + i, resParams[0].getValue());
+        }
+    }
+    
+    /**
+     * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.intf.RigClientService#performPrimitiveControlBatch(au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControlBatch)}.
+     */
+    @Test
+    public void testPerformPrimitiveControlBatchParallel()
+    {
+        assertTrue(this.rig.assign("mdiponio"));
+        
+        PerformPrimitiveControlBatch performBatch = new PerformPrimitiveControlBatch();
+        PrimitiveControlBatchRequestType batchRequest = new PrimitiveControlBatchRequestType();
+        performBatch.setPerformPrimitiveControlBatch(batchRequest);
+        batchRequest.setRequestor("mdiponio");
+        batchRequest.setParallel(true);
+        
+        for (int i = 0; i < 10; i++)
+        {
+            PrimitiveControlRequestType controlRequest = new PrimitiveControlRequestType();
+            controlRequest.setController("au.edu.uts.eng.remotelabs.rigclient.rig.primitive.tests.MockController");
+            controlRequest.setAction(i == 5 ? "doesNotExist" : "test");
+            ParamType param = new ParamType();
+            param.setName("sensor");
+            param.setValue("Value_" + i);
+            controlRequest.addParam(param);
+            batchRequest.addRequest(controlRequest);
+        }
+        
+        PerformPrimitiveControlBatchResponse response = this.service.performPrimitiveControlBatch(performBatch);
+        PrimitiveControlBatchResponseType batchResponse = response.getPerformPrimitiveControlBatchResponse();
+        assertNotNull(batchResponse);
+        assertTrue(batchResponse.getSuccess());
+        
+        PrimitiveControlResponseType controlResponses[] = batchResponse.getResponse();
+        assertNotNull(controlResponses);
+        assertEquals(10, controlResponses.length);
+        for (int i = 0; i < controlResponses.length; i++)
+        {
+            if (i == 5)
+            {
+                /* The failed entry does not fail the rest of the batch. */
+                assertFalse(controlResponses[i].getSuccess());
+                assertEquals(-3, controlResponses[i].getError().getCode());
+                continue;
+            }
+            
+            assertTrue(controlResponses[i].getSuccess());
+            ParamType resParams[] = controlResponses[i].getResult();
+            assertEquals(1, resParams.length);
+            assertEquals("Value_" + i, resParams[0].getValue());
+        }
+    }
+    
+    /**
+     * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.intf.RigClientService#performPrimitiveControlBatch(au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControlBatch)}.
+     */
+    @Test
+    public void testPerformPrimitiveControlBatchParallelLarge()
+    {
+        assertTrue(this.rig.assign("mdiponio"));
+        
+        PerformPrimitiveControlBatch performBatch = new PerformPrimitiveControlBatch();
+        PrimitiveControlBatchRequestType batchRequest = new PrimitiveControlBatchRequestType();
+        performBatch.setPerformPrimitiveControlBatch(batchRequest);
+        batchRequest.setRequestor("mdiponio");
+        batchRequest.setParallel(true);
+        
+        /* More entries than may be waiting to be run by the batch executor. */
+        for (int i = 0; i < 1000; i++)
+        {
+            PrimitiveControlRequestType controlRequest = new PrimitiveControlRequestType();
+            controlRequest.setController("au.edu.uts.eng.remotelabs.rigclient.rig.primitive.tests.MockController");
+            controlRequest.setAction("test");
+            ParamType param = new ParamType();
+            param.setName("sensor");
+            param.setValue("Value_" + i);
+            controlRequest.addParam(param);
+            batchRequest.addRequest(controlRequest);
+        }
+        
+        PerformPrimitiveControlBatchResponse response = this.service.performPrimitiveControlBatch(performBatch);
+        PrimitiveControlBatchResponseType batchResponse = response.getPerformPrimitiveControlBatchResponse();
+        assertNotNull(batchResponse);
+        assertTrue(batchResponse.getSuccess());
+        
+        PrimitiveControlResponseType controlResponses[] = batchResponse.getResponse();
+        assertEquals(1000, controlResponses.length);
+        for (int i = 0; i < controlResponses.length; i++)
+        {
+            assertTrue(controlResponses[i].getSuccess());
+            assertEquals("Value_" + i, controlResponses[i].getResult()[0].getValue());
+        }
+    }
+    
+    /**
+     * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.intf.RigClientService#performPrimitiveControlBatch(au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControlBatch)}.
+     */
+    @Test
+    public void testPerformPrimitiveControlBatchWrongUser()
+    {
+        assertTrue(this.rig.assign("tmachet"));
+        
+        PerformPrimitiveControlBatch performBatch = new PerformPrimitiveControlBatch();
+        PrimitiveControlBatchRequestType batchRequest = new PrimitiveControlBatchRequestType();
+        performBatch.setPerformPrimitiveControlBatch(batchRequest);
+        batchRequest.setRequestor("mdiponio");
+        batchRequest.setIdentityToken("Wrong...");
+        
+        PrimitiveControlRequestType controlRequest = new PrimitiveControlRequestType();
+        controlRequest.setController("au.edu.uts.eng.remotelabs.rigclient.rig.primitive.tests.MockController");
+        controlRequest.setAction("test");
+        batchRequest.addRequest(controlRequest);
+        
+        PerformPrimitiveControlBatchResponse response = this.service.performPrimitiveControlBatch(performBatch);
+        PrimitiveControlBatchResponseType batchResponse = response.getPerformPrimitiveControlBatchResponse();
+        assertNotNull(batchResponse);
+        assertFalse(batchResponse.getSuccess());
+        assertNull(batchResponse.getResponse());
+        
+        ErrorType err = batchResponse.getError();
+        assertNotNull(err);
+        assertEquals(3, err.getCode());
+        assertEquals("Invalid permission.", err.getReason());
+    }
+    
     /**
      * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.intf.RigClientService#getAttribute(au.edu.uts.eng.remotelabs.rigclient.intf.types.GetAttribute)}.
      */
@@ -90,6 +90,18 @@ public class ExtensionMapper
             return PrimitiveControlResponseType.Factory.parse(reader);
         }
 
+        if ("http://remotelabs.eng.uts.edu.au/rigclient/protocol".equals(namespaceURI) &&
+                "PrimitiveControlBatchRequestType".equals(typeName))
+        {
+            return PrimitiveControlBatchRequestType.Factory.parse(reader);
+        }
+
+        if ("http://remotelabs.eng.uts.edu.au/rigclient/protocol".equals(namespaceURI) &&
+                "PrimitiveControlBatchResponseType".equals(typeName))
+        {
+            return PrimitiveControlBatchResponseType.Factory.parse(reader);
+        }
+
         if ("http://remotelabs.eng.uts.edu.au/rigclient/protocol".equals(namespaceURI) &&
                 "AuthRequiredRequestType".equals(typeName))
         {
@@ -0,0 +1,170 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+
+package au.edu.uts.eng.remotelabs.rigclient.intf.types;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.axiom.om.OMConstants;
+import org.apache.axiom.om.OMDataSource;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.impl.llom.OMSourcedElementImpl;
+import org.apache.axis2.databinding.ADBBean;
+import org.apache.axis2.databinding.ADBDataSource;
+import org.apache.axis2.databinding.ADBException;
+import org.apache.axis2.databinding.utils.writer.MTOMAwareXMLStreamWriter;
+
+/**
+ * PerformPrimitiveControlBatch bean class.
+ */
+public class PerformPrimitiveControlBatch implements ADBBean
+{
+    private static final long serialVersionUID = -2671830158391712845L;
+
+    public static final QName MY_QNAME = new QName("http://remotelabs.eng.uts.edu.au/rigclient/protocol",
+            "performPrimitiveControlBatch", "ns1");
+
+    protected PrimitiveControlBatchRequestType performPrimitiveControlBatch;
+
+    @SuppressWarnings("deprecation")
+    public static boolean isReaderMTOMAware(final XMLStreamReader reader)
+    {
+        boolean isReaderMTOMAware = false;
+        try
+        {
+            isReaderMTOMAware = Boolean.TRUE.equals(reader.getProperty(OMConstants.IS_DATA_HANDLERS_AWARE));
+        }
+        catch (final IllegalArgumentException e)
+        {
+            isReaderMTOMAware = false;
+        }
+        return isReaderMTOMAware;
+    }
+
+    public OMElement getOMElement(final QName parentQName, final OMFactory factory) throws ADBException
+    {
+        final OMDataSource dataSource = new ADBDataSource(this, PerformPrimitiveControlBatch.MY_QNAME)
+        {
+            @Override
+            public void serialize(final MTOMAwareXMLStreamWriter xmlWriter) throws XMLStreamException
+            {
+                PerformPrimitiveControlBatch.this.serialize(PerformPrimitiveControlBatch.MY_QNAME, factory, xmlWriter);
+            }
+        };
+        return new OMSourcedElementImpl(PerformPrimitiveControlBatch.MY_QNAME, factory, dataSource);
+    }
+
+    public PrimitiveControlBatchRequestType getPerformPrimitiveControlBatch()
+    {
+        return this.performPrimitiveControlBatch;
+    }
+
+    @Override
+    public XMLStreamReader getPullParser(final QName qName) throws ADBException
+    {
+        return this.performPrimitiveControlBatch.getPullParser(PerformPrimitiveControlBatch.MY_QNAME);
+    }
+
+    @Override
+    public void serialize(final QName parentQName, final OMFactory factory, final MTOMAwareXMLStreamWriter xmlWriter)
+            throws XMLStreamException, ADBException
+    {
+        this.serialize(parentQName, factory, xmlWriter, false);
+    }
+
+    @Override
+    public void serialize(final QName parentQName, final OMFactory factory, final MTOMAwareXMLStreamWriter xmlWriter,
+            final boolean serializeType) throws XMLStreamException, ADBException
+    {
+        if (this.performPrimitiveControlBatch == null) throw new ADBException("Property cannot be null!");
+        this.performPrimitiveControlBatch.serialize(PerformPrimitiveControlBatch.MY_QNAME, factory, xmlWriter);
+    }
+
+    public void setPerformPrimitiveControlBatch(final PrimitiveControlBatchRequestType param)
+    {
+        this.performPrimitiveControlBatch = param;
+    }
+
+    public static class Factory
+    {
+        public static PerformPrimitiveControlBatch parse(final XMLStreamReader reader) throws Exception
+        {
+            final PerformPrimitiveControlBatch object = new PerformPrimitiveControlBatch();
+            try
+            {
+                while (!reader.isStartElement() && !reader.isEndElement())
+                {
+                    reader.next();
+                }
+
+                while (!reader.isEndElement())
+                {
+                    if (reader.isStartElement())
+                    {
+                        if (reader.isStartElement()
+                                && new QName("http://remotelabs.eng.uts.edu.au/rigclient/protocol",
+                                        "performPrimitiveControlBatch").equals(reader.getName()))
+                        {
+                            object.setPerformPrimitiveControlBatch(PrimitiveControlBatchRequestType.Factory.parse(reader));
+                        }
+                        else
+                        {
+                            throw new ADBException("Unexpected subelement " + reader.getLocalName());
+                        }
+                    }
+                    else
+                    {
+                        reader.next();
+                    }
+                }
+            }
+            catch (final XMLStreamException e)
+            {
+                throw new Exception(e);
+            }
+            return object;
+        }
+    }
+}
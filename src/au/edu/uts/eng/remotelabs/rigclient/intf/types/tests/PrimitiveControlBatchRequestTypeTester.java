@@ -0,0 +1,163 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.intf.types.tests;
+
+import java.io.ByteArrayInputStream;
+
+import junit.framework.TestCase;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.util.StAXUtils;
+import org.junit.Test;
+
+import au.edu.uts.eng.remotelabs.rigclient.intf.types.ParamType;
+import au.edu.uts.eng.remotelabs.rigclient.intf.types.PerformPrimitiveControlBatch;
+import au.edu.uts.eng.remotelabs.rigclient.intf.types.PrimitiveControlBatchRequestType;
+import au.edu.uts.eng.remotelabs.rigclient.intf.types.PrimitiveControlRequestType;
+
+/**
+ * Tests the {@link PrimitiveControlBatchRequestType} class.
+ */
+public class PrimitiveControlBatchRequestTypeTester extends TestCase
+{
+    @Test
+    public void testParse() throws Exception
+    {
+        String xml = "<ns1:performPrimitiveControlBatch xmlns:ns1=\"http://remotelabs.eng.uts.edu.au/rigclient/protocol\">\n" + 
+                "  <requestor>mdiponio</requestor>\n" + 
+                "  <parallel>true</parallel>\n" + 
+                "  <request>\n" + 
+                "    <controller>Sensors</controller>\n" + 
+                "    <action>read</action>\n" + 
+                "    <param>\n" + 
+                "      <name>sensor</name>\n" + 
+                "      <value>1</value>\n" + 
+                "    </param>\n" + 
+                "    <param>\n" + 
+                "      <name>units</name>\n" + 
+                "      <value>mV</value>\n" + 
+                "    </param>\n" + 
+                "  </request>\n" + 
+                "  <request>\n" + 
+                "    <controller>Sensors</controller>\n" + 
+                "    <action>reset</action>\n" + 
+                "  </request>\n" + 
+                "  <request>\n" + 
+                "    <controller>Motors</controller>\n" + 
+                "    <action>stop</action>\n" + 
+                "    <param>\n" + 
+                "      <name>motor</name>\n" + 
+                "      <value>2</value>\n" + 
+                "    </param>\n" + 
+                "  </request>\n" + 
+                "</ns1:performPrimitiveControlBatch>";
+        
+        PrimitiveControlBatchRequestType batch = PerformPrimitiveControlBatch.Factory.parse(
+                StAXUtils.createXMLStreamReader(new ByteArrayInputStream(xml.getBytes())))
+                .getPerformPrimitiveControlBatch();
+        
+        assertNotNull(batch);
+        assertEquals("mdiponio", batch.getRequestor());
+        assertTrue(batch.getParallel());
+        
+        PrimitiveControlRequestType requests[] = batch.getRequest();
+        assertNotNull(requests);
+        assertEquals(3, requests.length);
+        
+        assertEquals("Sensors", requests[0].getController());
+        assertEquals("read", requests[0].getAction());
+        assertEquals(2, requests[0].getParam().length);
+        assertEquals("sensor", requests[0].getParam()[0].getName());
+        assertEquals("1", requests[0].getParam()[0].getValue());
+        assertEquals("units", requests[0].getParam()[1].getName());
+        assertEquals("mV", requests[0].getParam()[1].getValue());
+        
+        assertEquals("Sensors", requests[1].getController());
+        assertEquals("reset", requests[1].getAction());
+        assertNull(requests[1].getParam());
+        
+        assertEquals("Motors", requests[2].getController());
+        assertEquals("stop", requests[2].getAction());
+        assertEquals(1, requests[2].getParam().length);
+        assertEquals("motor", requests[2].getParam()[0].getName());
+    }
+    
+    @Test
+    public void testSerialise() throws Exception
+    {
+        PrimitiveControlBatchRequestType batch = new PrimitiveControlBatchRequestType();
+        batch.setRequestor("mdiponio");
+        batch.setParallel(false);
+        
+        for (int i = 0; i < 2; i++)
+        {
+            PrimitiveControlRequestType request = new PrimitiveControlRequestType();
+            request.setController("Sensors");
+            request.setAction("read" + i);
+            ParamType param = new ParamType();
+            param.setName("sensor");
+            param.setValue(String.valueOf(i));
+            request.addParam(param);
+            batch.addRequest(request);
+        }
+        
+        OMElement ele = batch.getOMElement(PerformPrimitiveControlBatch.MY_QNAME, OMAbstractFactory.getOMFactory());
+        String xml = ele.toStringWithConsume();
+        
+        assertNotNull(xml);
+        assertTrue(xml.contains("performPrimitiveControlBatch"));
+        assertTrue(xml.contains("<requestor>mdiponio</requestor>"));
+        assertTrue(xml.contains("<parallel>false</parallel>"));
+        assertTrue(xml.contains("<action>read0</action>"));
+        assertTrue(xml.contains("<action>read1</action>"));
+        assertTrue(xml.indexOf("<action>read0</action>") < xml.indexOf("<action>read1</action>"));
+        assertEquals(3, xml.split("<request ").length);
+        
+        /* Round trip. */
+        PrimitiveControlBatchRequestType parsed = PrimitiveControlBatchRequestType.Factory.parse(
+                StAXUtils.createXMLStreamReader(new ByteArrayInputStream(xml.getBytes())));
+        assertEquals(2, parsed.getRequest().length);
+        assertEquals("read1", parsed.getRequest()[1].getAction());
+        assertEquals("1", parsed.getRequest()[1].getParam()[0].getValue());
+    }
+}
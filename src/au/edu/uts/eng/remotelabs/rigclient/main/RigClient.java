@@ -46,6 +46,7 @@ import java.io.File;
 import au.edu.uts.eng.remotelabs.rigclient.rig.IRig;
 import au.edu.uts.eng.remotelabs.rigclient.server.EmbeddedJettyServer;
 import au.edu.uts.eng.remotelabs.rigclient.server.IServer;
+import au.edu.uts.eng.remotelabs.rigclient.status.SchedulingServerStubPool;
 import au.edu.uts.eng.remotelabs.rigclient.status.StatusUpdater;
 import au.edu.uts.eng.remotelabs.rigclient.type.RigFactory;
 import au.edu.uts.eng.remotelabs.rigclient.util.AxisCleaner;
@@ -210,6 +211,9 @@ public class RigClient
             this.statusThread.interrupt();
             this.statusThread.join(30000);
             
+            /* Close pooled Scheduling Server connections. */
+            SchedulingServerStubPool.shutdown();
+            
             /* Stop exerciser tests. */
             rig.stopTests();
             
@@ -243,11 +247,13 @@ public class RigClient
                         "platform or a bug. Please consult the Rig Client logs for further details.");
             }
             RigClientDefines.reportBug("Unhandled exception which popped the stack.", thr);
+            this.logger.flush();
             return;
         }
         
         /* Sorry to see you go... */
         this.logger.priority("Rig client shutdown successfully completed...");
+        this.logger.flush();
     }
     
     /**
@@ -41,6 +41,8 @@
  */
 package au.edu.uts.eng.remotelabs.rigclient.rig;
 
+import java.util.concurrent.TimeUnit;
+
 import au.edu.uts.eng.remotelabs.rigclient.rig.control.AbstractBatchRunner;
 import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.PrimitiveFront;
 
@@ -67,8 +69,8 @@ public abstract class AbstractControlledRig extends AbstractRig implements IRigC
     @Override
     public PrimitiveResponse performPrimitive(final PrimitiveRequest req)
     {
-        this.logger.debug("Performing a primitive control operation with the following signature: controller:" + 
-                req.getController() + ", method: " + req.getAction() + ".");
+        this.logger.debug("Performing a primitive control operation with the following signature: controller: {}, " +
+                "method: {}.", req.getController(), req.getAction());
         return this.front.routeRequest(req);
     }
 
@@ -105,30 +107,25 @@ public abstract class AbstractControlledRig extends AbstractRig implements IRigC
         thr.start();
         
         /* Wait until it has been started. */
-        int timeCount = 0;
         final int timeOut = Integer.parseInt(this.configuration.getProperty("Batch_Timeout", "60"));
         this.logger.debug("Loaded batch start up timeout as " + timeOut + " seconds.");
-        while (timeOut > 0 && !(this.runner.isStarted() || this.runner.isFailed()))
+        try
         {
-            try
+            if (timeOut > 0 && !this.runner.awaitStarted(timeOut, TimeUnit.SECONDS))
             {
-                Thread.sleep(1000);
-                if (++timeCount >= timeOut)
-                {
-                    this.logger.warn("Batch process has not started in " + timeCount + " seconds, aborting " +
-                    		"batch control.");
-                    this.runner.terminate();
-                    return false;
-                }
-            }
-            catch (InterruptedException e)
-            {
-                /* This could only happen when the Rig Client is about to 
-                 * shutdown so return false to notify that the batch
-                 * process (probably) won't be started and run. */ 
+                this.logger.warn("Batch process has not started in " + timeOut + " seconds, aborting " +
+                        "batch control.");
+                this.runner.terminate();
                 return false;
             }
         }
+        catch (InterruptedException e)
+        {
+            /* This could only happen when the Rig Client is about to 
+             * shutdown so return false to notify that the batch
+             * process (probably) won't be started and run. */ 
+            return false;
+        }
         return true;
     }
 
@@ -152,20 +149,15 @@ public abstract class AbstractControlledRig extends AbstractRig implements IRigC
         this.runner.terminate();
         
         final int termTimeOut = Integer.parseInt(this.configuration.getProperty("Batch_Termination_TimeOut", "10"));
-        int termTimeCount = 0;
-        while (this.runner.isRunning() && (termTimeCount < termTimeOut))
+        try
         {
-            ++termTimeCount;
-            try
-            {
-                Thread.sleep(1000);
-            }
-            catch (InterruptedException e)
-            {
-                /* This could only occurr at rig client shutdown, so provide
-                 * immediate response to not hold up shutdown. */
-                return !this.isBatchRunning();
-            }
+            this.runner.awaitStopped(termTimeOut, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            /* This could only occurr at rig client shutdown, so provide
+             * immediate response to not hold up shutdown. */
+            return !this.isBatchRunning();
         }
         
         return !this.isBatchRunning();
@@ -196,35 +188,9 @@ public abstract class AbstractControlledRig extends AbstractRig implements IRigC
         /* Batch invocation failed or finished. */
         if (!this.isBatchRunning()) return 100;
         
-        /* Batch invocation is running, so try and get a progression value. */
-        /* DODGY This makes the assumption that the batch process prints an 
-         * integer to standard out specifying the percentage complete and if 
-         * this integer is updated, it should print a number on a new line. So
-         * the standard output should look like:
-         * 
-         *     <progress number>[space]<optional junk>[new line]
-         * 
-         * For example:
-         * mdiponio@eng047151~$ runprocess.sh
-         * 1 <optional junk>\n
-         * 2 <optional junk>\n
-         * ...
-         * 100 <optional junk>\n
-         * mdiponio@eng047151~$ 
-         */
-        final String stdOutRead = this.runner.getBatchStandardOut();
-        final String lines[] = stdOutRead.split(System.getProperty("line.separator"));
-        final String words[] = lines[lines.length - 1].split(" ", 2);
-        try
-        {
-            final int progress = Integer.parseInt(words[0]);
-            return progress > 1 && progress <= 100 ? progress : -1;
-        }
-        catch (NumberFormatException nfe)
-        {
-            /* DODGY Oh, well, the assumption we made is wrong. */
-            return -1;
-        }
+        /* Batch invocation is running, so get the last progression value 
+         * parsed from its standard out. */
+        return this.runner.getProgress();
     }
 
     @Override
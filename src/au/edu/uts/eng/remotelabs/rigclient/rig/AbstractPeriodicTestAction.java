@@ -0,0 +1,167 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig;
+
+/**
+ * Base of exerciser tests that are run periodically by the rig test 
+ * scheduler. Implementations provide a single test iteration in 
+ * <code>runTest</code>, which sets the test status using 
+ * <code>pass</code> or <code>fail</code>. The test period is set from the 
+ * test interval.
+ * <br />
+ * If the test is not run by the test scheduler, the <code>run</code> 
+ * method loops calling <code>runTest</code> at the test period while the
+ * test is started.
+ */
+public abstract class AbstractPeriodicTestAction implements IPeriodicTestAction
+{
+    /** Default test period in milliseconds. */
+    public static final long DEFAULT_PERIOD = 60000;
+    
+    /** Test period in milliseconds. */
+    private volatile long period;
+    
+    /** Whether the test is started. */
+    private volatile boolean started;
+    
+    /** Test status. */
+    private volatile boolean status;
+    
+    /** Reason the test has failed, <code>null</code> if it is passing. */
+    private volatile String reason;
+    
+    public AbstractPeriodicTestAction()
+    {
+        this.period = DEFAULT_PERIOD;
+        this.status = true;
+    }
+    
+    /**
+     * Sets the test as passing.
+     */
+    protected void pass()
+    {
+        this.reason = null;
+        this.status = true;
+    }
+    
+    /**
+     * Sets the test as failed.
+     * 
+     * @param failReason reason the test failed
+     */
+    protected void fail(final String failReason)
+    {
+        this.reason = failReason;
+        this.status = false;
+    }
+    
+    @Override
+    public void run()
+    {
+        while (!Thread.interrupted())
+        {
+            if (this.started) this.runTest();
+            
+            try
+            {
+                Thread.sleep(this.period);
+            }
+            catch (InterruptedException e)
+            {
+                return;
+            }
+        }
+    }
+    
+    @Override
+    public void startTest()
+    {
+        this.started = true;
+    }
+    
+    @Override
+    public void stopTest()
+    {
+        this.started = false;
+    }
+    
+    @Override
+    public boolean getStatus()
+    {
+        return this.status;
+    }
+    
+    @Override
+    public String getReason()
+    {
+        return this.reason;
+    }
+    
+    @Override
+    public void setInterval(final int interval)
+    {
+        if (interval > 0) this.period = interval * 60000L;
+    }
+    
+    @Override
+    public long getPeriod()
+    {
+        return this.period;
+    }
+    
+    /**
+     * Sets the test period in milliseconds.
+     * 
+     * @param millis test period
+     */
+    protected void setPeriod(final long millis)
+    {
+        this.period = millis;
+    }
+    
+    @Override
+    public String getFailureReason()
+    {
+        return this.reason;
+    }
+}
@@ -39,6 +39,7 @@
 package au.edu.uts.eng.remotelabs.rigclient.rig;
 
 import java.io.File;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -47,8 +48,20 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import au.edu.uts.eng.remotelabs.rigclient.rig.internal.AttributeMacroSubstituter;
+import au.edu.uts.eng.remotelabs.rigclient.rig.internal.TestScheduler;
 import au.edu.uts.eng.remotelabs.rigclient.rig.transfer.DataTransferWatcher;
 import au.edu.uts.eng.remotelabs.rigclient.util.ConfigFactory;
 import au.edu.uts.eng.remotelabs.rigclient.util.IConfig;
@@ -74,6 +87,9 @@ import au.edu.uts.eng.remotelabs.rigclient.util.LoggerFactory;
  */
 public abstract class AbstractRig implements IRig
 {
+    /** Default maximum number of actions that are run concurrently. */
+    public static final int DEFAULT_ACTION_CONCURRENCY = 4;
+    
     /** 
      * Action types that may be registered with <code>registerAction</code>.
      */
@@ -95,7 +111,19 @@ public abstract class AbstractRig implements IRig
         FILES
     }
     
-    /** Session users in the form key => user name, value => user type */
+    /** Current session users snapshot. This is replaced, never modified, 
+     *  when the session users change so it may be read without locking. */
+    private final AtomicReference<SessionSnapshot> session;
+    
+    /** Lock serialising session changes. */
+    private final Object sessionLock;
+    
+    /** Session users in the form key => user name, value => user type. This
+     *  is a view of the current session snapshot and is also the session 
+     *  lock. 
+     *  @deprecated Use {@link #getSessionSnapshot()}. This will be removed 
+     *  in the next release. */
+    @Deprecated
     protected Map<String, Session> sessionUsers;
     
     /** Access action list. */
@@ -119,11 +147,29 @@ public abstract class AbstractRig implements IRig
     /** File detector action list. */
     private final List<IFilesDetectorAction> filesActions;
     
-    /** Test actions thread group. */
-    private final ThreadGroup testThreads;
+    /** Absolute files listed by the file detectors which cannot check a 
+     *  single file, as of the last session file detection. */
+    private volatile Set<File> listedFiles;
+    
+    /** Scheduler that runs the test actions. */
+    private final TestScheduler testScheduler;
+    
+    /** Periodic test actions, which publish their status changes. */
+    private final List<IPeriodicTestAction> periodicTests;
+    
+    /** Test actions which are not periodic, so have their status read 
+     *  when it is requested. */
+    private final List<ITestAction> polledTests;
+    
+    /** Aggregate status of the periodic tests and maintenance state. This 
+     *  is replaced, never modified, when the status changes. */
+    private volatile MonitorStatus monitorStatus;
+    
+    /** Lock serialising monitor status updates. */
+    private final Object monitorLock;
     
     /** Maintenance flag. */
-    private boolean inMaintenance;
+    private volatile boolean inMaintenance;
     
     /** Maintenance reason. */
     private String maintenanceReason;
@@ -141,6 +187,15 @@ public abstract class AbstractRig implements IRig
     /** Macro substituter for the <code>getRigAttribute</code> method. */ 
     protected final AttributeMacroSubstituter macroSubstituter;
     
+    /** Executor that runs concurrent actions, created when first needed. */
+    private ExecutorService actionExecutor;
+    
+    /** Lock for creating and shutting down the action executor. */
+    private final Object actionExecutorLock;
+    
+    /** Listeners of rig status changes. */
+    private final List<IRigStatusListener> statusListeners;
+    
     /** Thread used to transfer files to the Scheduling Server. */
     private final DataTransferWatcher dataTransfer;
     
@@ -158,7 +213,9 @@ public abstract class AbstractRig implements IRig
         this.logger = LoggerFactory.getLoggerInstance();
         this.configuration = ConfigFactory.getInstance();
         
-        this.sessionUsers = Collections.synchronizedMap(new HashMap<String, Session>());
+        this.session = new AtomicReference<SessionSnapshot>(SessionSnapshot.EMPTY);
+        this.sessionUsers = new SessionUsersView();
+        this.sessionLock = this.sessionUsers;
         
         this.accessActions = new ArrayList<IAccessAction>();
         this.slaveActions = new ArrayList<ISlaveAccessAction>();
@@ -167,11 +224,26 @@ public abstract class AbstractRig implements IRig
         this.testActions = new ArrayList<ITestAction>();
         this.detectionActions = new ArrayList<IActivityDetectorAction>();
         this.filesActions = new ArrayList<IFilesDetectorAction>();
-        this.testThreads = new ThreadGroup("Test Threads");
+        this.listedFiles = Collections.emptySet();
+        this.testScheduler = new TestScheduler(new TestScheduler.TestStatusListener()
+        {
+            @Override
+            public void testStatusChanged(final IPeriodicTestAction test)
+            {
+                AbstractRig.this.logger.debug("Periodic test " + test.getActionType() + " status changed.");
+                if (AbstractRig.this.updateMonitorStatus()) AbstractRig.this.fireStatusChanged();
+            }
+        });
+        this.periodicTests = new CopyOnWriteArrayList<IPeriodicTestAction>();
+        this.polledTests = new CopyOnWriteArrayList<ITestAction>();
+        this.monitorLock = new Object();
+        this.statusListeners = new CopyOnWriteArrayList<IRigStatusListener>();
+        this.actionExecutorLock = new Object();
         
         this.macroSubstituter = new AttributeMacroSubstituter();
         
         this.inMaintenance = false;
+        this.monitorStatus = new MonitorStatus(true, "", null);
 
         try
         {
@@ -373,11 +445,17 @@ public abstract class AbstractRig implements IRig
                     this.logger.info("Registering a test access action with provided type of " + 
                             test.getActionType() + ".");
                     
-                    /* Test actions run it their own thread, so create one and start it. */
-                    final Thread thr = new Thread(this.testThreads, test);
-                    thr.setName(test.getActionType());
-                    thr.setDaemon(true); /* To not keep the JVM chugging on shutdown. */
-                    thr.start();
+                    /* Periodic tests are run by the scheduler, other tests in their own thread. */
+                    this.testScheduler.schedule(test);
+                    if (test instanceof IPeriodicTestAction)
+                    {
+                        this.periodicTests.add((IPeriodicTestAction)test);
+                        this.updateMonitorStatus();
+                    }
+                    else
+                    {
+                        this.polledTests.add(test);
+                    }
                     return this.testActions.add(test);
                 }
                 
@@ -509,7 +587,7 @@ public abstract class AbstractRig implements IRig
     public String getName()
     {
         final String name = this.configuration.getProperty("Rig_Name");
-        this.logger.debug("Loaded Rig_Name configuration item as " + name);
+        this.logger.debug("Loaded Rig_Name configuration item as {}", name);
         if (name == null)
         {
             this.logger.error("Rig client name configuration item not found. Please check configuration" +
@@ -523,7 +601,7 @@ public abstract class AbstractRig implements IRig
     @Override
     public String getRigAttribute(final String key)
     {
-        this.logger.debug("Requested to provide the " + key + " rig attribute.");
+        this.logger.debug("Requested to provide the {} rig attribute.", key);
         if (key == null)
         {
             this.logger.info("Received a null rig attribute request, provided a null response.");
@@ -533,12 +611,12 @@ public abstract class AbstractRig implements IRig
         final String value = this.configuration.getProperty(key);
         if (value == null)
         {
-            this.logger.debug("Rig attribute value for " + key + " not found.");
+            this.logger.debug("Rig attribute value for {} not found.", key);
             return null;
         }
         else
         {
-            this.logger.debug("Found rig attribute value, value of " + key + " is " + value + ".");
+            this.logger.debug("Found rig attribute value, value of {} is {}.", key, value);
         }
         try
         {
@@ -576,8 +654,11 @@ public abstract class AbstractRig implements IRig
     @Override
     public String getMonitorReason()
     {
+        final MonitorStatus status = this.monitorStatus;
+        if (this.polledTests.isEmpty()) return status.reason;
+        
         final StringBuilder buf = new StringBuilder();
-        for (ITestAction test : this.testActions)
+        for (ITestAction test : this.polledTests)
         {
             if (test == null) continue;
             if (!test.getStatus())
@@ -589,9 +670,10 @@ public abstract class AbstractRig implements IRig
             }
         }
         
-        if (this.maintenanceReason != null)
+        buf.append(status.testReason);
+        if (status.maintenanceReason != null)
         {
-            buf.append(this.maintenanceReason);
+            buf.append(status.maintenanceReason);
         }
         
         if (buf.length() == 0)
@@ -606,8 +688,8 @@ public abstract class AbstractRig implements IRig
     @Override
     public boolean isMonitorStatusGood()
     {
-        if (this.inMaintenance) return false;
-        for (ITestAction test : this.testActions)
+        if (!this.monitorStatus.good) return false;
+        for (ITestAction test : this.polledTests)
         {
             if (test == null) continue;
             if (!test.getStatus()) return false;
@@ -634,6 +716,7 @@ public abstract class AbstractRig implements IRig
                 test.setInterval(interval);                
             }
         }
+        this.testScheduler.reschedule();
         
         /* DODGY In hindsight, the interface of setInterval shouldn't return
          * a value. */
@@ -652,8 +735,10 @@ public abstract class AbstractRig implements IRig
                 this.revoke();
             }
             this.logger.warn("Putting the rig into maintenance mode. Provided reason is " + reason + ".");
-            this.inMaintenance = true;
             this.maintenanceReason = reason;
+            this.inMaintenance = true;
+            this.updateMonitorStatus();
+            this.fireStatusChanged();
             
             if (runTests)
             {
@@ -669,8 +754,11 @@ public abstract class AbstractRig implements IRig
         else
         {
             this.logger.debug("Taking the rig out of maintenance mode.");
+            final boolean changed = this.inMaintenance;
             this.inMaintenance = false;
             this.maintenanceReason = null;
+            this.updateMonitorStatus();
+            if (changed) this.fireStatusChanged();
             
             /* Clear the action failure counts. */
             synchronized (this.actionFailures)
@@ -706,6 +794,7 @@ public abstract class AbstractRig implements IRig
                 test.startTest();
             }
         }
+        this.testScheduler.setRunning(true);
     }
 
     @Override
@@ -713,6 +802,9 @@ public abstract class AbstractRig implements IRig
     {
         this.logger.debug("Stopping exerciser tests.");
         
+        /* In progress periodic test iterations are not waited on. */
+        this.testScheduler.setRunning(false);
+        
         synchronized (this.testActions)
         {
             for (ITestAction test : this.testActions)
@@ -737,7 +829,17 @@ public abstract class AbstractRig implements IRig
     @Override
     public Map<String, Session> getSessionUsers()
     {
-        return this.getSessionUsersClone();
+        return this.session.get().getUsers();
+    }
+    
+    /**
+     * Returns a consistent snapshot of the current session users.
+     * 
+     * @return session snapshot
+     */
+    public SessionSnapshot getSessionSnapshot()
+    {
+        return this.session.get();
     }
 
     @Override
@@ -746,13 +848,13 @@ public abstract class AbstractRig implements IRig
         this.logger.debug("Adding slave user " + name + " with " + (passive ? "passive" : "active") + " access.");
         
         /* Slaves can't be assigned if there is no session. */
-        synchronized (this.sessionUsers)
+        synchronized (this.sessionLock)
         {
             if (!this.isSessionActive()) return false;
 
-            if (this.sessionUsers.containsKey(name))
+            final Session currentPerm = this.session.get().getPermission(name);
+            if (currentPerm != Session.NOT_IN)
             {
-                final Session currentPerm = this.sessionUsers.get(name);
                 if (passive && currentPerm == Session.SLAVE_PASSIVE) // Requested passive, already a passive user
                 {
                     this.logger.warn("User " + name + " is already a passive slave user, nothing to do.");
@@ -778,21 +880,23 @@ public abstract class AbstractRig implements IRig
         
         synchronized (this.slaveActions)
         {
-            for (int i = 0; i < this.slaveActions.size(); i++)
+            if (!this.runActions(this.slaveActions, ActionType.SLAVE_ACCESS, true, 
+                    new ActionInvoker<ISlaveAccessAction>()
             {
-                ISlaveAccessAction action = this.slaveActions.get(i);
-                if (action == null) continue;
-                if (!action.assign(name, passive))
+                @Override
+                public boolean invoke(final ISlaveAccessAction action)
                 {
-                    this.setMaintenanceFromActionFailure(action, ActionType.SLAVE_ACCESS);
-                    return false;
+                    return action.assign(name, passive);
                 }
+            }))
+            {
+                return false;
             }
         }
         
-        synchronized (this.sessionUsers)
+        synchronized (this.sessionLock)
         {
-            this.sessionUsers.put(name, passive ? Session.SLAVE_PASSIVE : Session.SLAVE_ACTIVE);
+            this.session.set(this.session.get().withUser(name, passive ? Session.SLAVE_PASSIVE : Session.SLAVE_ACTIVE));
         }
         
         return true;
@@ -802,11 +906,12 @@ public abstract class AbstractRig implements IRig
     public boolean assign(final String name)
     {
         this.logger.debug("Assigning master access to " + name);
+        final long start = System.currentTimeMillis();
         
-        synchronized (this.sessionUsers)
+        synchronized (this.sessionLock)
         {
             /* Check there isn't an existing session (master user). */
-            if (this.sessionUsers.containsValue(Session.MASTER))
+            if (this.isSessionActive())
             {
                 this.logger.warn("Failed allocation, the rig is already in session with another user.");
                 return false;
@@ -832,39 +937,38 @@ public abstract class AbstractRig implements IRig
             /* Stop tests. */
             this.stopTests();
 
-            for (int i = 0; i < this.accessActions.size(); i++)
+            if (!this.runActions(this.accessActions, ActionType.ACCESS, true, new ActionInvoker<IAccessAction>()
             {
-                IAccessAction action = this.accessActions.get(i);
-                if (action == null) continue;            
-                if (!action.assign(name))
+                @Override
+                public boolean invoke(final IAccessAction action)
                 {
-                    this.setMaintenanceFromActionFailure(action, ActionType.ACCESS);
-                    this.startTests();
-                    return false;
+                    return action.assign(name);
                 }
+            }))
+            {
+                this.startTests();
+                this.logger.info("Failed allocation to " + name + " took " + 
+                        (System.currentTimeMillis() - start) + " ms.");
+                return false;
             }
 
-            this.sessionUsers.put(name, Session.MASTER);
+            this.session.set(this.session.get().withUser(name, Session.MASTER));
         }
         
         /* Notify the data transfer service a session has started. */
        this.dataTransfer.sessionStarted(name);
         
+        this.logger.info("Allocation to " + name + " took " + (System.currentTimeMillis() - start) + " ms.");
         return true;
     }
 
     @Override
     public boolean hasPermission(final String name, final Session ses)
     {
-        Session userSes = this.sessionUsers.get(name);
-
-        if (userSes == null)
-        {
-            return ses == Session.NOT_IN;
-        }
-
-        switch (userSes)
+        switch (this.session.get().getPermission(name))
         {
+            case NOT_IN:
+                return ses == Session.NOT_IN;
             case MASTER:
                 return ses == Session.MASTER || ses == Session.SLAVE_ACTIVE || ses == Session.SLAVE_PASSIVE ||
                 ses == Session.NOT_IN;
@@ -882,37 +986,29 @@ public abstract class AbstractRig implements IRig
     @Override
     public Session isInSession(final String name)
     {
-        synchronized (this.sessionUsers)
-        {
-            if (!this.sessionUsers.containsKey(name))
-            {
-                return Session.NOT_IN;
-            }
-
-            return this.sessionUsers.get(name);
-        }
+        return this.session.get().getPermission(name);
     }
 
     @Override
     public boolean notify(final String message)
     {
-        if (!this.isSessionActive()) return false;
+        final SessionSnapshot snapshot = this.session.get();
+        if (!snapshot.isActive()) return false;
         
         boolean ret = true;
-        final String typeSafe[] = new String[0];
+        final String users[] = snapshot.getUsers().keySet().toArray(new String[snapshot.getUsers().size()]);
         this.logger.debug("Running notification for all users with message " + message);
         
         synchronized (this.notifyActions)
         {
-            for (INotifyAction action : this.notifyActions)
+            ret = this.runActions(this.notifyActions, ActionType.NOTIFY, false, new ActionInvoker<INotifyAction>()
             {
-                if (action == null) continue;
-                if (!action.notify(message, this.sessionUsers.keySet().toArray(typeSafe)))
+                @Override
+                public boolean invoke(final INotifyAction action)
                 {
-                    this.setMaintenanceFromActionFailure(action, ActionType.NOTIFY);
-                    ret = false;
+                    return action.notify(message, users);
                 }
-            }
+            });
         }
         return ret;
     }
@@ -921,6 +1017,7 @@ public abstract class AbstractRig implements IRig
     public boolean revoke()
     {
         this.logger.debug("Terminating a session and revoking access from master user.");
+        final long start = System.currentTimeMillis();
         boolean ret = true;
         
         /* First check there is a master user. */
@@ -955,9 +1052,9 @@ public abstract class AbstractRig implements IRig
 
         String user = null;
         Session perm;
-        synchronized (this.sessionUsers)
+        synchronized (this.sessionLock)
         {
-            for (Entry<String, Session> entry : this.getSessionUsersClone().entrySet())
+            for (Entry<String, Session> entry : this.session.get().getUsers().entrySet())
             {
                 user = entry.getKey();
                 perm = entry.getValue();
@@ -965,16 +1062,16 @@ public abstract class AbstractRig implements IRig
                 if (perm == Session.MASTER) // If master, run revoke actions  
                 {
                     this.logger.info("Terminating and revoking master session user: " + user + "."); 
-                    for (int i = 1; i <= this.accessActions.size(); i++)
+                    final String master = user;
+                    ret &= this.runActions(this.reversed(this.accessActions), ActionType.ACCESS, false, 
+                            new ActionInvoker<IAccessAction>()
                     {
-                        IAccessAction action = this.accessActions.get(this.accessActions.size() - i);
-                        if (action == null) continue;
-                        if (!action.revoke(user))
+                        @Override
+                        public boolean invoke(final IAccessAction action)
                         {
-                            this.setMaintenanceFromActionFailure(action, ActionType.ACCESS);
-                            ret = false;
+                            return action.revoke(master);
                         }
-                    }
+                    });
                 }
                 else if ((perm == Session.SLAVE_ACTIVE || perm == Session.SLAVE_PASSIVE) && !this.revokeSlave(user))
                 {
@@ -983,34 +1080,34 @@ public abstract class AbstractRig implements IRig
             }
 
             /* Remove the session users. */
-            this.sessionUsers.clear();
+            this.session.set(SessionSnapshot.EMPTY);
         }
         
         /* Reset the rig. */
         synchronized (this.resetActions)
         {
             this.logger.debug("Running the rig reset actions.");
-            for (int i = 0; i < this.resetActions.size(); i++)
+            ret &= this.runActions(this.resetActions, ActionType.RESET, false, new ActionInvoker<IResetAction>()
             {
-                IResetAction action = this.resetActions.get(i);
-                if (action == null) continue;
-                if (!action.reset())
+                @Override
+                public boolean invoke(final IResetAction action)
                 {
-                    this.setMaintenanceFromActionFailure(action, ActionType.RESET);
-                    ret = false;
+                    return action.reset();
                 }
-            }
+            });
         }
         
         /* Start the tests. */
         this.startTests();
+        
+        this.logger.info("Release of session took " + (System.currentTimeMillis() - start) + " ms.");
         return ret;
     }
 
     @Override
     public boolean isSessionActive()
     {
-        return this.sessionUsers.values().contains(Session.MASTER);
+        return this.session.get().isActive();
     }
    
     @Override
@@ -1043,7 +1140,7 @@ public abstract class AbstractRig implements IRig
         this.logger.info("Revoking slave access from: " + name + '.');
         
         Session perm = Session.NOT_IN;
-        synchronized (this.sessionUsers)
+        synchronized (this.sessionLock)
         {
             /* First check the user is actually a slave user. */
             perm = this.isInSession(name);
@@ -1054,22 +1151,22 @@ public abstract class AbstractRig implements IRig
             }
             
             /* Remove user from being a slave user. */
-            this.sessionUsers.remove(name);
+            this.session.set(this.session.get().withoutUser(name));
         }
         
         /* Run the slave revocation actions. */
+        final boolean passive = perm == Session.SLAVE_PASSIVE;
         synchronized (this.slaveActions)
         {
-            for (int i = 1; i <= this.slaveActions.size(); i++)
+            ret = this.runActions(this.reversed(this.slaveActions), ActionType.SLAVE_ACCESS, false, 
+                    new ActionInvoker<ISlaveAccessAction>()
             {
-                ISlaveAccessAction action = this.slaveActions.get(this.slaveActions.size() - i);
-                if (action == null) continue;
-                if (!action.revoke(name, perm == Session.SLAVE_PASSIVE ? true : false))
+                @Override
+                public boolean invoke(final ISlaveAccessAction action)
                 {
-                    this.setMaintenanceFromActionFailure(action, ActionType.SLAVE_ACCESS);
-                    ret = false;
+                    return action.revoke(name, passive);
                 }
-            }
+            });
         }
         
         return ret;
@@ -1082,13 +1179,41 @@ public abstract class AbstractRig implements IRig
         if (!this.isSessionActive()) return Collections.emptySet();
         
         Set<File> files = new HashSet<File>();
+        Set<File> listed = new HashSet<File>();
         for (IFilesDetectorAction detector : this.filesActions)
         {
-            files.addAll(detector.listFiles());
+            final Set<File> detected = detector.listFiles();
+            files.addAll(detected);
+            
+            if (!(detector instanceof IMatchingFilesDetectorAction))
+            {
+                for (File f : detected) listed.add(f.getAbsoluteFile());
+            }
         }
+        this.listedFiles = listed;
         return files;
     }
     
+    @Override
+    public boolean isSessionFile(File file)
+    {
+        if (!this.isSessionActive()) return false;
+        
+        file = file.getAbsoluteFile();
+        for (IFilesDetectorAction detector : this.filesActions)
+        {
+            if (detector instanceof IMatchingFilesDetectorAction && 
+                    ((IMatchingFilesDetectorAction)detector).isSessionFile(file))
+            {
+                return true;
+            }
+        }
+        
+        /* Detectors that cannot check a single file are only listed when
+         * the session files are detected. */
+        return this.listedFiles.contains(file);
+    }
+    
     /**
      * Returns the failure reason of an action. May return <tt>null</tt> if
      * the previous invocation of the action method did not fail.
@@ -1147,8 +1272,13 @@ public abstract class AbstractRig implements IRig
     @Override
     public void cleanUp()
     {
-        this.testThreads.interrupt();
+        this.testScheduler.shutdown();
         this.dataTransfer.shutdown();
+        
+        synchronized (this.actionExecutorLock)
+        {
+            if (this.actionExecutor != null) this.actionExecutor.shutdown();
+        }
     }
     
     /**
@@ -1189,6 +1319,7 @@ public abstract class AbstractRig implements IRig
         this.logger.error(typeStr + " action of type " + action.getActionType() + " failed with reason " + 
                 action.getFailureReason() + ".");
 
+        boolean changed = false;
         synchronized (this.actionFailures)
         {
             if (this.actionFailures.containsKey(action))
@@ -1209,28 +1340,355 @@ public abstract class AbstractRig implements IRig
             {
                 this.logger.error("Rig has been put into maintenance mode because an action failure " + 
                         action.getActionType() + " count has reached the failure threshold.");
-                this.inMaintenance = true;
+                changed = !this.inMaintenance;
                 this.maintenanceReason = typeStr + " action failed with reason " + action.getFailureReason(); 
+                this.inMaintenance = true;
             }
         }
+        
+        this.updateMonitorStatus();
+        if (changed) this.fireStatusChanged();
     }
     
     /**
-     * Returns a deep clone of the session users hash map.
+     * Recomputes the aggregate status of the periodic tests and maintenance
+     * state.
      * 
-     * @return session users map clone
+     * @return true if the aggregate test status changed
      */
-    private Map<String, Session> getSessionUsersClone()
+    private boolean updateMonitorStatus()
     {
-        synchronized (this.sessionUsers)
+        synchronized (this.monitorLock)
         {
-            final Map<String, Session> sessions = new HashMap<String, Session>(this.sessionUsers.size());
-            for (Entry<String, Session> entry : this.sessionUsers.entrySet())
+            boolean good = true;
+            final StringBuilder buf = new StringBuilder();
+            for (IPeriodicTestAction test : this.periodicTests)
             {
-                sessions.put(entry.getKey(), entry.getValue());
+                if (!test.getStatus())
+                {
+                    good = false;
+                    buf.append(test.getActionType());
+                    buf.append(": ");
+                    buf.append(test.getReason());
+                    buf.append(' ');
+                }
             }
-            return sessions;
+            
+            final MonitorStatus status = new MonitorStatus(good && !this.inMaintenance, buf.toString(), 
+                    this.maintenanceReason);
+            final boolean changed = status.good != this.monitorStatus.good || 
+                    !status.testReason.equals(this.monitorStatus.testReason);
+            this.monitorStatus = status;
+            return changed;
         }
     }
-
+    
+    /**
+     * Runs the actions in their ordering groups. Each group of adjacent 
+     * <code>IConcurrentAction</code> actions with the same ordering group
+     * is run concurrently and every other action is run on its own. The next
+     * group is only run after all the actions in the previous group have 
+     * completed. Actions that fail put the rig into maintenance through 
+     * <code>setMaintenanceFromActionFailure</code>.
+     * 
+     * @param actions actions in the order they should be run
+     * @param type action type
+     * @param stopOnFailure whether to stop running groups after a group with a failed action 
+     * @param invoker invokes the action method
+     * @return true if all the run actions succeeded
+     */
+    private <T extends IAction> boolean runActions(final List<T> actions, final ActionType type, 
+            final boolean stopOnFailure, final ActionInvoker<T> invoker)
+    {
+        boolean ret = true;
+        int i = 0;
+        while (i < actions.size())
+        {
+            final T first = actions.get(i++);
+            if (first == null) continue;
+            
+            /* Adjacent actions in the same ordering group are run together. */
+            final List<T> group = new ArrayList<T>();
+            group.add(first);
+            if (first instanceof IConcurrentAction)
+            {
+                final int order = ((IConcurrentAction)first).getOrderingGroup();
+                while (i < actions.size() && actions.get(i) instanceof IConcurrentAction && 
+                        ((IConcurrentAction)actions.get(i)).getOrderingGroup() == order)
+                {
+                    group.add(actions.get(i++));
+                }
+            }
+            
+            for (T action : this.runGroup(group, invoker))
+            {
+                this.setMaintenanceFromActionFailure(action, type);
+                ret = false;
+            }
+            
+            if (!ret && stopOnFailure) break;
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Runs a group of actions, concurrently if there is more than one action,
+     * and waits for them all to complete.
+     * 
+     * @param group actions to run
+     * @param invoker invokes the action method
+     * @return actions that failed, empty if all succeeded
+     */
+    private <T extends IAction> List<T> runGroup(final List<T> group, final ActionInvoker<T> invoker)
+    {
+        final List<T> failed = new ArrayList<T>();
+        if (group.size() == 1)
+        {
+            if (!invoker.invoke(group.get(0))) failed.add(group.get(0));
+            return failed;
+        }
+        
+        this.logger.debug("Running " + group.size() + " actions concurrently.");
+        final ExecutorService executor = this.getActionExecutor();
+        final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>(group.size());
+        for (final T action : group)
+        {
+            results.add(executor.submit(new Callable<Boolean>()
+            {
+                @Override
+                public Boolean call()
+                {
+                    return invoker.invoke(action);
+                }
+            }));
+        }
+        
+        /* All actions must complete before the session state changes, so 
+         * interruption is deferred until they have. */
+        boolean interrupted = false;
+        for (int i = 0; i < group.size(); i++)
+        {
+            while (true)
+            {
+                try
+                {
+                    if (!results.get(i).get()) failed.add(group.get(i));
+                    break;
+                }
+                catch (InterruptedException ex)
+                {
+                    interrupted = true;
+                }
+                catch (ExecutionException ex)
+                {
+                    this.logger.error("Action of type " + group.get(i).getActionType() + " failed with error " + 
+                            ex.getCause().getClass().getSimpleName() + ": " + ex.getCause().getMessage() + '.');
+                    failed.add(group.get(i));
+                    break;
+                }
+            }
+        }
+        
+        if (interrupted) Thread.currentThread().interrupt();
+        return failed;
+    }
+    
+    /**
+     * Returns the executor that runs concurrent actions, creating it if it 
+     * has not been created.
+     * 
+     * @return action executor
+     */
+    private ExecutorService getActionExecutor()
+    {
+        synchronized (this.actionExecutorLock)
+        {
+            if (this.actionExecutor == null)
+            {
+                int threads = DEFAULT_ACTION_CONCURRENCY;
+                try
+                {
+                    threads = Integer.parseInt(this.configuration.getProperty("Action_Concurrency", 
+                            String.valueOf(DEFAULT_ACTION_CONCURRENCY)));
+                    if (threads < 1) threads = 1;
+                }
+                catch (NumberFormatException ex)
+                {
+                    this.logger.warn("Invalid 'Action_Concurrency' configuration, should be a number. Using " + 
+                            "the default " + DEFAULT_ACTION_CONCURRENCY + '.');
+                }
+                this.logger.debug("Running up to " + threads + " actions concurrently.");
+                
+                final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, 
+                        new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+                {
+                    private final AtomicInteger count = new AtomicInteger();
+                    
+                    @Override
+                    public Thread newThread(Runnable r)
+                    {
+                        final Thread thr = new Thread(r, "Action " + this.count.incrementAndGet());
+                        thr.setDaemon(true);
+                        return thr;
+                    }
+                });
+                executor.allowCoreThreadTimeOut(true);
+                this.actionExecutor = executor;
+            }
+            return this.actionExecutor;
+        }
+    }
+    
+    /**
+     * Returns a copy of the actions in reverse order.
+     * 
+     * @param actions actions
+     * @return reversed actions
+     */
+    private <T extends IAction> List<T> reversed(final List<T> actions)
+    {
+        final List<T> rev = new ArrayList<T>(actions);
+        Collections.reverse(rev);
+        return rev;
+    }
+    
+    /**
+     * Adds a listener that is notified when the rig status changes.
+     * 
+     * @param listener status listener
+     */
+    public void addStatusListener(final IRigStatusListener listener)
+    {
+        this.statusListeners.add(listener);
+    }
+    
+    /**
+     * Removes a rig status listener.
+     * 
+     * @param listener status listener
+     */
+    public void removeStatusListener(final IRigStatusListener listener)
+    {
+        this.statusListeners.remove(listener);
+    }
+    
+    /**
+     * Notifies the status listeners that the rig status has changed.
+     */
+    protected void fireStatusChanged()
+    {
+        for (IRigStatusListener listener : this.statusListeners)
+        {
+            try
+            {
+                listener.statusChanged(this);
+            }
+            catch (RuntimeException ex)
+            {
+                this.logger.error("Rig status listener " + listener.getClass().getName() + " failed with error " + 
+                        ex.getClass().getSimpleName() + ": " + ex.getMessage() + '.');
+            }
+        }
+    }
+    
+    /**
+     * Aggregate status of the periodic tests and maintenance state.
+     */
+    private static final class MonitorStatus
+    {
+        /** Whether the periodic tests are passing and the rig is not in 
+         *  maintenance. */
+        final boolean good;
+        
+        /** Failure reasons of the periodic tests, empty if they are passing. */
+        final String testReason;
+        
+        /** Maintenance reason. */
+        final String maintenanceReason;
+        
+        /** Monitor reason, <code>null</code> if there is no reason. */
+        final String reason;
+        
+        MonitorStatus(final boolean good, final String testReason, final String maintenanceReason)
+        {
+            this.good = good;
+            this.testReason = testReason;
+            this.maintenanceReason = maintenanceReason;
+            
+            final String full = maintenanceReason == null ? testReason : testReason + maintenanceReason;
+            this.reason = full.length() == 0 ? null : full;
+        }
+    }
+    
+    /**
+     * Map view of the current session snapshot for subclasses that use the 
+     * deprecated <code>sessionUsers</code> field. Changes made through the
+     * view replace the session snapshot.
+     */
+    private class SessionUsersView extends AbstractMap<String, Session>
+    {
+        @Override
+        public Set<Entry<String, Session>> entrySet()
+        {
+            return AbstractRig.this.session.get().getUsers().entrySet();
+        }
+        
+        @Override
+        public Session get(final Object key)
+        {
+            return AbstractRig.this.session.get().getUsers().get(key);
+        }
+        
+        @Override
+        public boolean containsKey(final Object key)
+        {
+            return AbstractRig.this.session.get().getUsers().containsKey(key);
+        }
+        
+        @Override
+        public Session put(final String name, final Session ses)
+        {
+            synchronized (this)
+            {
+                final Session old = this.get(name);
+                AbstractRig.this.session.set(AbstractRig.this.session.get().withUser(name, ses));
+                return old;
+            }
+        }
+        
+        @Override
+        public Session remove(final Object key)
+        {
+            synchronized (this)
+            {
+                final Session old = this.get(key);
+                if (old != null) AbstractRig.this.session.set(AbstractRig.this.session.get().withoutUser((String)key));
+                return old;
+            }
+        }
+        
+        @Override
+        public void clear()
+        {
+            synchronized (this)
+            {
+                AbstractRig.this.session.set(SessionSnapshot.EMPTY);
+            }
+        }
+    }
+    
+    /**
+     * Invokes the method of an action.
+     */
+    private interface ActionInvoker<T extends IAction>
+    {
+        /**
+         * Invokes the action method.
+         * 
+         * @param action action to invoke
+         * @return true if the action succeeded
+         */
+        public boolean invoke(T action);
+    }
 }
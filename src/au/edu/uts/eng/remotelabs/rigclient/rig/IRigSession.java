@@ -190,4 +190,14 @@ public interface IRigSession
      * @return list of session files
      */
     public Set<File> detectSessionFiles();
+    
+    /**
+     * Returns whether a file is a session file of this session, without 
+     * listing all the session files if the files detectors can check the
+     * file on its own.
+     * 
+     * @param file file to check
+     * @return true if the file is a session file
+     */
+    public boolean isSessionFile(File file);
 }
@@ -46,6 +46,8 @@ package au.edu.uts.eng.remotelabs.rigclient.rig;
  * is started on test construction. The <code>run</code> method should be
  * defensive to not allow this thread to terminate. Causing this thread to
  * terminate will cause the test to terminate and not be re-startable. 
+ * Tests that implement <code>IPeriodicTestAction</code> are instead run 
+ * periodically by the rig test scheduler.
  */
 public interface ITestAction extends IAction, Runnable
 {
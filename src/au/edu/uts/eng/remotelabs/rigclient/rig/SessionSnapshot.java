@@ -0,0 +1,206 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import au.edu.uts.eng.remotelabs.rigclient.rig.IRigSession.Session;
+
+/**
+ * Immutable snapshot of the users in a rig session. A snapshot is never 
+ * modified once it is created, changing the session users creates a new
+ * snapshot with the change applied so a snapshot may be safely read without
+ * locking and always presents a consistent view of the session.
+ */
+public final class SessionSnapshot
+{
+    /** Snapshot with no session users. */
+    public static final SessionSnapshot EMPTY = new SessionSnapshot(new LinkedHashMap<String, Session>());
+    
+    /** Session users in the form key => user name, value => user type. */
+    private final Map<String, Session> users;
+    
+    /** Master user, or <code>null</code> if there is no session. */
+    private final String master;
+    
+    /** Active slave users. */
+    private final List<String> activeSlaves;
+    
+    /** Passive slave users. */
+    private final List<String> passiveSlaves;
+    
+    /**
+     * Constructor. The users map must not be modified after it has been 
+     * used to construct a snapshot.
+     * 
+     * @param users session users
+     */
+    private SessionSnapshot(final Map<String, Session> users)
+    {
+        this.users = Collections.unmodifiableMap(users);
+        
+        String masterUser = null;
+        final List<String> active = new ArrayList<String>();
+        final List<String> passive = new ArrayList<String>();
+        for (Entry<String, Session> entry : users.entrySet())
+        {
+            switch (entry.getValue())
+            {
+                case MASTER:
+                    masterUser = entry.getKey();
+                    break;
+                case SLAVE_ACTIVE:
+                    active.add(entry.getKey());
+                    break;
+                case SLAVE_PASSIVE:
+                    passive.add(entry.getKey());
+                    break;
+                default:
+                    throw new IllegalArgumentException("User " + entry.getKey() + " cannot be a session user with " +
+                            "session type " + entry.getValue() + '.');
+            }
+        }
+        
+        this.master = masterUser;
+        this.activeSlaves = Collections.unmodifiableList(active);
+        this.passiveSlaves = Collections.unmodifiableList(passive);
+    }
+    
+    /**
+     * Returns a snapshot with the user added to the session, replacing their
+     * existing permission if they are already in the session.
+     * 
+     * @param name user name
+     * @param ses session permission
+     * @return new snapshot
+     */
+    public SessionSnapshot withUser(final String name, final Session ses)
+    {
+        final Map<String, Session> next = new LinkedHashMap<String, Session>(this.users);
+        next.put(name, ses);
+        return new SessionSnapshot(next);
+    }
+    
+    /**
+     * Returns a snapshot with the user removed from the session.
+     * 
+     * @param name user name
+     * @return new snapshot, or this snapshot if the user is not in session
+     */
+    public SessionSnapshot withoutUser(final String name)
+    {
+        if (!this.users.containsKey(name)) return this;
+        
+        final Map<String, Session> next = new LinkedHashMap<String, Session>(this.users);
+        next.remove(name);
+        return new SessionSnapshot(next);
+    }
+    
+    /**
+     * Returns the session permission of the user.
+     * 
+     * @param name user name
+     * @return session permission or <code>Session.NOT_IN</code>
+     */
+    public Session getPermission(final String name)
+    {
+        final Session ses = this.users.get(name);
+        return ses == null ? Session.NOT_IN : ses;
+    }
+    
+    /**
+     * Returns whether there is a session, which is when there is a master
+     * user.
+     * 
+     * @return true if in session
+     */
+    public boolean isActive()
+    {
+        return this.master != null;
+    }
+    
+    /**
+     * Returns the session users in the form key => user name, 
+     * value => user type. The returned map is unmodifiable.
+     * 
+     * @return session users
+     */
+    public Map<String, Session> getUsers()
+    {
+        return this.users;
+    }
+    
+    /**
+     * Returns the master user.
+     * 
+     * @return master user or <code>null</code> if there is no session
+     */
+    public String getMaster()
+    {
+        return this.master;
+    }
+    
+    /**
+     * Returns the active slave users. The returned list is unmodifiable.
+     * 
+     * @return active slave users
+     */
+    public List<String> getActiveSlaves()
+    {
+        return this.activeSlaves;
+    }
+    
+    /**
+     * Returns the passive slave users. The returned list is unmodifiable.
+     * 
+     * @return passive slave users
+     */
+    public List<String> getPassiveSlaves()
+    {
+        return this.passiveSlaves;
+    }
+}
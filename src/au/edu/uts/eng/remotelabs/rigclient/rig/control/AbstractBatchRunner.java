@@ -45,6 +45,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
@@ -53,6 +54,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import au.edu.uts.eng.remotelabs.rigclient.util.ConfigFactory;
 import au.edu.uts.eng.remotelabs.rigclient.util.IConfig;
@@ -85,7 +88,11 @@ public abstract class AbstractBatchRunner implements Runnable
     public static final String LINE_SEPARATOR = System.getProperty("line.separator");
     
     /** Number of characters to read from stdin and stderr at a time. */
-    private static final int READ_SZ = 255;
+    private static final int READ_SZ = 1024;
+    
+    /** Milliseconds to wait for the stream pumps to reach the end of the 
+     *  batch process streams after the process has terminated. */
+    private static final int PUMP_JOIN_TIMEOUT = 5000;
     
     /** Batch process. */
     protected Process batchProc;
@@ -96,17 +103,26 @@ public abstract class AbstractBatchRunner implements Runnable
     /** Standard err of the batch process. */
     protected BufferedReader batchStdErr;
     
-    /** Buffer containing all captured batch process standard out. */
-    protected final StringBuffer stdOutBuffer;
+    /** Buffer containing the captured batch process standard out scroll back. */
+    protected final ScrollbackBuffer stdOutBuffer;
+    
+    /** Offset of the last read of the standard out buffer. */ 
+    private long stdOutCursor;
+    
+    /** Buffer containing the captured batch process standard err scroll back. */
+    protected final ScrollbackBuffer stdErrBuffer;
+    
+    /** Offset of the last read of the standard error buffer. */
+    private long stdErrCursor;
     
-    /** The number of lines in the standard out buffer. */ 
-    private int stdOutBufferSize;
+    /** Thread continuously reading the standard out of the batch process. */
+    private Thread stdOutPump;
     
-    /** Buffer containing all captured batch process standard err. */
-    protected final StringBuffer stdErrBuffer;
+    /** Thread continuously reading the standard error of the batch process. */
+    private Thread stdErrPump;
     
-    /** The number of lines in the standard error buffer. */
-    private int stdErrBufferSize;
+    /** Last progress value parsed from standard out, -1 if not parsed. */
+    private volatile int progress = -1;
     
     /** The maximum allowed number of lines in the stdout / stderr buffers. */
     protected final int scrollBackSize;
@@ -154,11 +170,18 @@ public abstract class AbstractBatchRunner implements Runnable
     protected boolean failed;
     
     /** Flag to specify if the batch execution was killed. */
-    protected boolean killed;
+    protected volatile boolean killed;
     
     /** Batch process exit code. */
     protected int exitCode;
     
+    /** Released when the batch process has started or the invocation has
+     *  ended without starting it. */
+    private final CountDownLatch startLatch = new CountDownLatch(1);
+    
+    /** Released when the batch invocation is no longer in setup or running. */
+    private final CountDownLatch stopLatch = new CountDownLatch(1);
+    
     /* File test error information. */
     /** Invocation error code (e.g. if file test failed). */
     protected int errorCode;
@@ -202,9 +225,6 @@ public abstract class AbstractBatchRunner implements Runnable
         this.commandArgs = new ArrayList<String>();
         this.envMap = new HashMap<String, String>();
         
-        this.stdOutBuffer = new StringBuffer();
-        this.stdErrBuffer = new StringBuffer();
-        
         int tmp = 1000;
         try
         {
@@ -215,8 +235,8 @@ public abstract class AbstractBatchRunner implements Runnable
             this.logger.warn("Loaded batch scroll size is invalid, using the default size of 1000 lines.");
         }
         this.scrollBackSize = tmp;
-        this.stdOutBufferSize = 0;
-        this.stdErrBufferSize = 0;
+        this.stdOutBuffer = new ScrollbackBuffer(this.scrollBackSize, LINE_SEPARATOR);
+        this.stdErrBuffer = new ScrollbackBuffer(this.scrollBackSize, LINE_SEPARATOR);
     }
     
     /**
@@ -263,13 +283,26 @@ public abstract class AbstractBatchRunner implements Runnable
             else
             {
                 this.exitCode = this.batchProc.waitFor(); // Blocks up process completion.
+                
+                /* Stopping is signalled as soon as the process has terminated
+                 * because its streams may be held open by something other than 
+                 * the batch process (e.g. a forked child). */
+                this.inSetup = false;
+                this.running = false;
+                this.stopLatch.countDown();
+                
                 this.logger.info("The batch control process terminated with exit code " + this.exitCode + " at " +
                         this.getTimeStamp('/', ' ', ':') + ".");
                 this.failed = false;
+                
+                /* The remaining output is only waited for if the process completed, 
+                 * as a killed process has no results to synchronise. */
+                if (!this.killed) this.joinPumps();
             }
             
             this.inSetup = false;
             this.running = false;
+            this.stopLatch.countDown();
             
             if (!this.failed)
             {            
@@ -293,9 +326,18 @@ public abstract class AbstractBatchRunner implements Runnable
         finally
         {
             /* Cleanup. */
-            this.cleanup();
-            this.inSetup = false;
-            this.running = false;
+            try
+            {
+                this.cleanup();
+            }
+            finally
+            {
+                /* Waiters are always released, even if cleanup fails. */
+                this.inSetup = false;
+                this.running = false;
+                this.startLatch.countDown();
+                this.stopLatch.countDown();
+            }
         }
     }
 
@@ -534,9 +576,22 @@ public abstract class AbstractBatchRunner implements Runnable
             this.batchStdErr = new BufferedReader(new InputStreamReader(this.batchProc.getErrorStream()));
             this.logger.info("Invoked batch command at " + this.getTimeStamp('/', ' ', ':'));
             
+            /* The streams are continuously read so the batch process never
+             * blocks on a full pipe, whether or not its output is polled. */
+            this.stdOutPump = new Thread(new StreamPump(this.batchStdOut, this.stdOutBuffer, true));
+            this.stdOutPump.setName("Batch Standard Out Pump");
+            this.stdOutPump.setDaemon(true);
+            this.stdOutPump.start();
+            
+            this.stdErrPump = new Thread(new StreamPump(this.batchStdErr, this.stdErrBuffer, false));
+            this.stdErrPump.setName("Batch Standard Error Pump");
+            this.stdErrPump.setDaemon(true);
+            this.stdErrPump.start();
+            
             this.started = true;
             this.running = true;
             this.inSetup = false;
+            this.startLatch.countDown();
             return true;
         }
         else
@@ -583,18 +638,15 @@ public abstract class AbstractBatchRunner implements Runnable
      */
     public void terminate()
     {
+        /* Flagged before destroying so the invocation thread does not 
+         * wait for the output of a killed process. */
+        this.killed = true;
+        
         if (this.batchProc != null)
         {
-            /* Do a read as the input streams may not be readable after 
-             * termination. */
-            this.getBatchStandardOut();
-            this.getBatchStandardError();
-            
             this.logger.debug("Terminating batch process.");        
             this.batchProc.destroy();
         }
-        
-        this.killed = true;
     }
     
     /**
@@ -605,15 +657,17 @@ public abstract class AbstractBatchRunner implements Runnable
         this.logger.debug("Cleaning a batch control invocation.");
         try
         {
-            if (this.batchStdErr != null) 
+            /* A pump still reading has its stream held open by something 
+             * other than the batch process (e.g. a forked child), so the 
+             * stream is left to the daemon pump to close instead of 
+             * blocking here. */
+            if (this.batchStdErr != null && !this.isAlive(this.stdErrPump)) 
             {
-                this.getBatchStandardError();
                 this.batchStdErr.close();
                 this.batchStdErr = null;
             }
-            if (this.batchStdOut != null)
+            if (this.batchStdOut != null && !this.isAlive(this.stdOutPump))
             {
-                this.getAllStandardOut();
                 this.batchStdOut.close();
                 this.batchStdOut = null;
             }
@@ -641,40 +695,20 @@ public abstract class AbstractBatchRunner implements Runnable
     }
     
     /**
-     * Reads and returns the batch process standard output stream. 
-     * <code>null</code> is returned if there is nothing to read.
-     * This returns the portion of the standard output stream which is
-     * between the end of the last read of the standard output stream
-     * and the end of the stream.
+     * Returns the batch process standard output which has been captured 
+     * since the last call of this method. The standard output stream is 
+     * continuously read whilst the batch process is running so this does 
+     * not block.
      * <br /><br />
      * <strong>NOTE:</strong> The standard output stream is buffered
      * and may be accessed using <code>getAllStandardOut</code>.
      * 
      * @return batch process standard out 
      */
-    public String getBatchStandardOut()
+    public synchronized String getBatchStandardOut()
     {
         final StringBuilder buf = new StringBuilder();
-        char str[] = new char[READ_SZ];
-        int numLines = 0, read, nl = 0;
-        
-        try
-        {
-            while (this.batchStdOut != null && this.batchStdOut.ready() && (read = this.batchStdOut.read(str)) > 0)
-            {
-                buf.append(str, 0, read);
-                
-                String s = String.valueOf(str);
-                while ((nl = s.indexOf(LINE_SEPARATOR, nl + 1)) != -1) numLines++;
-            }
-        }
-        catch (IOException e)
-        {
-            this.logger.warn("Reading batch process standard out failed with error " + e.getMessage() + ".");
-            return null;
-        }
-        
-        this.stdOutBufferSize = this.appendScrollback(this.stdOutBuffer, this.stdOutBufferSize, buf, numLines);
+        this.stdOutCursor = this.stdOutBuffer.read(this.stdOutCursor, buf);
         return buf.toString();
     }
     
@@ -685,80 +719,197 @@ public abstract class AbstractBatchRunner implements Runnable
      */
     public String getAllStandardOut()
     {
-        this.getBatchStandardOut();
         return this.stdOutBuffer.toString();
     }
     
     /**
-     * Reads and returns the batch process standard error stream. 
-     * <code>null</code> is returned if there is nothing to read.
-     * This returns the portion of the standard error stream which is
-     * between the end of the last read of the standard error stream
-     * and the end of the stream.
+     * Returns the batch process standard error which has been captured 
+     * since the last call of this method. The standard error stream is 
+     * continuously read whilst the batch process is running so this does 
+     * not block.
      * <br /><br />
      * <strong>NOTE:</strong> The standard error stream is buffered
      * and may be accessed using <code>getAllStandardErr</code>.
      * 
      * @return batch process standard error 
      */
-    public String getBatchStandardError()
+    public synchronized String getBatchStandardError()
     {
         final StringBuilder buf = new StringBuilder();
-        char str[] = new char[READ_SZ];
-        int numLines = 0, read, nl = 0;
-        
+        this.stdErrCursor = this.stdErrBuffer.read(this.stdErrCursor, buf);
+        return buf.toString();
+    }
+    
+    /**
+     * Returns the captured standard err of the batch process.
+     */
+    public String getAllStandardErr()
+    {
+        return this.stdErrBuffer.toString();
+    }
+    
+    /**
+     * Returns the progress of the batch process as a percentage. This 
+     * is parsed from the last complete line of standard output as it is 
+     * read, so is not dependent on how often it is polled.
+     * 
+     * @return progress percentage or -1 if the progress is unknown
+     */
+    public int getProgress()
+    {
+        return this.progress;
+    }
+    
+    /**
+     * Updates the progress from a line of standard output.
+     * 
+     * @param line complete standard output line
+     */
+    private void updateProgress(final String line)
+    {
+        /* DODGY This makes the assumption that the batch process prints an 
+         * integer to standard out specifying the percentage complete and if 
+         * this integer is updated, it should print a number on a new line. So
+         * the standard output should look like:
+         * 
+         *     <progress number>[space]<optional junk>[new line]
+         * 
+         * For example:
+         * mdiponio@eng047151~$ runprocess.sh
+         * 1 <optional junk>\n
+         * 2 <optional junk>\n
+         * ...
+         * 100 <optional junk>\n
+         * mdiponio@eng047151~$ 
+         */
+        final String words[] = line.split(" ", 2);
         try
         {
-            while (this.batchStdErr != null && this.batchStdErr.ready() && 
-                    (read = this.batchStdErr.read(str)) > 0)
-            {
-                buf.append(str, 0, read);
-                
-                String s = String.valueOf(str);
-                while ((nl = s.indexOf(LINE_SEPARATOR, nl + 1)) != -1) numLines++;
-            }
+            final int prog = Integer.parseInt(words[0]);
+            this.progress = prog > 1 && prog <= 100 ? prog : -1;
         }
-        catch (IOException e)
+        catch (NumberFormatException nfe)
         {
-            this.logger.warn("Reading batch process standard error stream failed with error " + e.getMessage() + ".");
-            return null;
+            /* DODGY Oh, well, the assumption we made is wrong. */
+            this.progress = -1;
         }
-        
-        this.stdErrBufferSize = this.appendScrollback(this.stdErrBuffer, this.stdErrBufferSize, buf, numLines);
-        return buf.toString();
     }
     
     /**
-     * Returns the captured standard err of the batch process.
+     * Waits for the stream pumps to reach the end of the batch process
+     * streams, up to a timeout.
      */
-    public String getAllStandardErr()
+    private void joinPumps()
     {
-        this.getBatchStandardError();
-        return this.stdErrBuffer.toString();
+        try
+        {
+            if (this.stdOutPump != null) this.stdOutPump.join(PUMP_JOIN_TIMEOUT);
+            if (this.stdErrPump != null) this.stdErrPump.join(PUMP_JOIN_TIMEOUT);
+        }
+        catch (InterruptedException ex)
+        {
+            this.logger.debug("Interrupted waiting for the batch process stream pumps.");
+            Thread.currentThread().interrupt();
+        }
     }
     
     /**
-     * Appends a buffer to the destination buffer whilst not allowing the 
-     * destination buffer to exceed the allowed buffer scroll back size.
+     * Returns whether a thread is running.
      * 
-     * @param dest destination buffer
-     * @param destSize the number of lines in the destination buffer
-     * @param src the source to append into the destination
-     * @param srcSize the number of lines in the source
-     * @return the new size of the destination
+     * @param thr thread, may be <code>null</code>
+     * @return true if running
+     */
+    private boolean isAlive(final Thread thr)
+    {
+        return thr != null && thr.isAlive();
+    }
+    
+    /**
+     * Continuously reads a batch process stream into its scroll back buffer
+     * until the end of the stream. 
      */
-    private int appendScrollback(StringBuffer dest, int destSize, StringBuilder src, int srcSize)
+    private class StreamPump implements Runnable
     {
-        dest.append(src);
-        destSize += srcSize;
+        /** Batch process stream. */
+        private final BufferedReader reader;
         
-        while (this.scrollBackSize > 0 && destSize > this.scrollBackSize)
+        /** Scroll back buffer. */
+        private final ScrollbackBuffer buffer;
+        
+        /** Whether to parse progress from the read lines. */
+        private final boolean parseProgress;
+        
+        public StreamPump(final BufferedReader reader, final ScrollbackBuffer buffer, final boolean parseProgress)
+        {
+            this.reader = reader;
+            this.buffer = buffer;
+            this.parseProgress = parseProgress;
+        }
+        
+        @Override
+        public void run()
         {
-            dest.delete(0, dest.indexOf(LINE_SEPARATOR) + 1);
-            destSize--;
+            final char str[] = new char[READ_SZ];
+            int read;
+            
+            try
+            {
+                while ((read = this.reader.read(str)) != -1)
+                {
+                    if (this.buffer.append(CharBuffer.wrap(str, 0, read)) > 0 && this.parseProgress)
+                    {
+                        AbstractBatchRunner.this.updateProgress(this.buffer.getLastLine());
+                    }
+                }
+            }
+            catch (IOException ex)
+            {
+                /* The stream is closed when the batch process is destroyed. */
+                AbstractBatchRunner.this.logger.debug("Stopped reading batch process stream because of error " + 
+                        ex.getMessage() + ".");
+            }
+            finally
+            {
+                try
+                {
+                    this.reader.close();
+                }
+                catch (IOException ex)
+                {
+                    /* Already closed. */
+                }
+            }
         }
-       
-        return destSize;
+    }
+    
+    /**
+     * Waits until the batch process has been started or the batch 
+     * invocation has ended without starting it (for example it failed 
+     * or was killed in setup).
+     * 
+     * @param timeout maximum time to wait
+     * @param unit unit of the timeout
+     * @return true if the start state is known, false if the wait timed out
+     * @throws InterruptedException if interrupted whilst waiting
+     */
+    public boolean awaitStarted(final long timeout, final TimeUnit unit) throws InterruptedException
+    {
+        return this.startLatch.await(timeout, unit);
+    }
+    
+    /**
+     * Waits until the batch invocation is no longer in setup or running, 
+     * which is when the batch process has completed, failed or was killed.
+     * 
+     * @param timeout maximum time to wait
+     * @param unit unit of the timeout
+     * @return true if the batch invocation has stopped, false if the wait 
+     *         timed out
+     * @throws InterruptedException if interrupted whilst waiting
+     */
+    public boolean awaitStopped(final long timeout, final TimeUnit unit) throws InterruptedException
+    {
+        return this.stopLatch.await(timeout, unit);
     }
     
     /**
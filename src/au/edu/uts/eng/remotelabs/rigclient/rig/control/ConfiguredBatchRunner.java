@@ -70,6 +70,11 @@ public class ConfiguredBatchRunner extends AbstractBatchRunner
      * file type fingerprint should be able to be determined. */
     public static final int MAGIC_NUMBER_LEN = 8;
     
+    /** Default extensions of results files which are stored in the results
+     *  archive without compression, which is none so all files are 
+     *  compressed unless configured. */
+    public static final String DEFAULT_STORE_EXTENSIONS = "";
+    
     /** Macro substituter. */
     private final BatchMacroSubstituter substiter;
     
@@ -340,8 +345,19 @@ public class ConfiguredBatchRunner extends AbstractBatchRunner
             /* Compress results directory. */
             this.logger.info("Compressing results directory " + this.workingDir + " into " + 
                     destFile.getName() + " archive located in " + destFile.getParent() + ".");
-            final DirectoryZipper zipper = new 
-                    DirectoryZipper(this.batchConfig.getProperty("Batch_Compression_Level", "DEFAULT"));
+            int threads = 1;
+            try
+            {
+                threads = Integer.parseInt(this.batchConfig.getProperty("Batch_Compression_Threads", "1"));
+            }
+            catch (NumberFormatException ex)
+            {
+                this.logger.warn("Invalid batch compression threads configuration, it should be a number. Using " +
+                        "sequential compression.");
+            }
+            final DirectoryZipper zipper = new DirectoryZipper(
+                    this.batchConfig.getProperty("Batch_Compression_Level", "DEFAULT"), threads,
+                    this.batchConfig.getProperty("Batch_Compression_Store_Extensions", DEFAULT_STORE_EXTENSIONS));
             return zipper.compressDirectory(this.workingDir, destFile.getAbsolutePath());
         }
         else
@@ -349,10 +365,44 @@ public class ConfiguredBatchRunner extends AbstractBatchRunner
             /* Move results directory. */
             this.logger.info("Moving results directory files " + this.workingDir + " to " + destFile.getAbsolutePath() 
                     + ".");
-            /* This actually uses a copy operation instead of a move. Doing a 
-             * copy is more expensive but clean *should* be before in the
-             * super cleanup method. */
-            final DirectoryCopier copier = new DirectoryCopier();
+            /* By default files are copied. The working directory is left in 
+             * place for the super cleanup method, unless configured to move it. */
+            DirectoryCopier.Method method = DirectoryCopier.Method.COPY;
+            try
+            {
+                method = DirectoryCopier.Method.valueOf(
+                        this.batchConfig.getProperty("Batch_Sync_Method", "COPY").trim().toUpperCase());
+            }
+            catch (IllegalArgumentException ex)
+            {
+                this.logger.warn("Invalid batch sync method configuration, it should be one of COPY, LINK or MOVE. " +
+                        "Using COPY.");
+            }
+            
+            /* If the working directory is not nested, it is shared by each 
+             * invocation so it cannot be moved and linked files would be 
+             * overwritten by the next invocation. */
+            if (method != DirectoryCopier.Method.COPY && this.workingDirBase != null && 
+                    new File(this.workingDir).getAbsoluteFile().equals(new File(this.workingDirBase).getAbsoluteFile()))
+            {
+                this.logger.warn("Unable to use batch sync method " + method + " because the working directory " +
+                        this.workingDir + " is the base working directory (Batch_Create_Nested_Dir is false). " +
+                        "Using COPY.");
+                method = DirectoryCopier.Method.COPY;
+            }
+            
+            int threads = 1;
+            try
+            {
+                threads = Integer.parseInt(this.batchConfig.getProperty("Batch_Sync_Threads", "1"));
+            }
+            catch (NumberFormatException ex)
+            {
+                this.logger.warn("Invalid batch sync threads configuration, it should be a number. Using " +
+                        "sequential copying.");
+            }
+            
+            final DirectoryCopier copier = new DirectoryCopier(method, threads);
             return copier.copyDirectory(this.workingDir, destFile.getAbsolutePath());
         }
     }
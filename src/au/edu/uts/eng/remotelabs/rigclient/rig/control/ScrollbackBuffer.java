@@ -0,0 +1,319 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig.control;
+
+/**
+ * Bounded, line indexed ring buffer of process output. Complete lines are
+ * stored in a fixed size ring so appending a line and evicting the oldest 
+ * line are both constant time operations. Text that has not yet been 
+ * terminated by a line separator is held as a partial line until the rest
+ * of the line is appended.
+ * <br />
+ * Every appended character has an absolute offset so readers may consume
+ * the buffer incrementally by holding a cursor, which is the offset 
+ * returned by their last read. A reader that falls further behind than the
+ * buffer size only loses the evicted lines. 
+ * <br />
+ * If the buffer size is zero or negative, no lines are evicted, which 
+ * matches the unlimited <tt>Batch_ScrollBack</tt> behaviour.
+ * <br />
+ * Lines longer than <tt>MAX_LINE_LENGTH</tt> are split into multiple lines
+ * so output which is never terminated by a line separator is still bounded.
+ */
+public class ScrollbackBuffer
+{
+    /** Maximum length of a line excluding its separator, after which the line is split. */
+    public static final int MAX_LINE_LENGTH = 64 * 1024;
+    
+    /** Initial ring capacity when the buffer is unbounded. */
+    private static final int UNBOUNDED_INITIAL = 64;
+    
+    /** Line separator which terminates a line. */
+    private final String separator;
+    
+    /** Maximum number of complete lines, or zero or less for unbounded. */
+    private final int maxLines;
+    
+    /** Ring of complete lines, each including its line separator. */
+    private String lines[];
+    
+    /** Absolute offsets of the start of each line in the ring. */
+    private long starts[];
+    
+    /** Ring index of the oldest line. */
+    private int head;
+    
+    /** Number of complete lines in the ring. */
+    private int count;
+    
+    /** Text which has not yet been terminated by a line separator. */
+    private final StringBuilder partial;
+    
+    /** Absolute offset of the start of the partial line. */
+    private long partialStart;
+    
+    /** Cached string of the entire buffer, cleared on each append. */
+    private String all;
+    
+    /**
+     * Constructor.
+     * 
+     * @param maxLines maximum number of complete lines to hold, zero or 
+     *        less for unbounded
+     * @param separator line separator
+     */
+    public ScrollbackBuffer(final int maxLines, final String separator)
+    {
+        this.maxLines = maxLines;
+        this.separator = separator;
+        
+        final int capacity = maxLines > 0 ? maxLines : UNBOUNDED_INITIAL;
+        this.lines = new String[capacity];
+        this.starts = new long[capacity];
+        this.partial = new StringBuilder();
+    }
+    
+    /**
+     * Appends text to the buffer, evicting the oldest lines if the number
+     * of complete lines exceeds the buffer size. Text longer than the 
+     * maximum line length without a line separator is added as a complete
+     * line.
+     * 
+     * @param text text to append
+     * @return number of complete lines added
+     */
+    public synchronized int append(final CharSequence text)
+    {
+        if (text == null || text.length() == 0) return 0;
+        
+        /* A separator may have been split across appends so the search
+         * starts a separator length before the end of the old partial. */
+        final int searchFrom = Math.max(0, this.partial.length() - this.separator.length() + 1);
+        this.partial.append(text);
+        this.all = null;
+        
+        int added = 0, lineStart = 0, nl = this.partial.indexOf(this.separator, searchFrom);
+        while (true)
+        {
+            final int lineEnd;
+            if (nl != -1 && nl - lineStart <= MAX_LINE_LENGTH)
+            {
+                lineEnd = nl + this.separator.length();
+            }
+            else if (this.partial.length() - lineStart > MAX_LINE_LENGTH)
+            {
+                /* Too long so the line is split. */
+                lineEnd = lineStart + this.splitLength(lineStart);
+            }
+            else
+            {
+                break;
+            }
+            
+            this.addLine(this.partial.substring(lineStart, lineEnd), this.partialStart + lineStart);
+            added++;
+            lineStart = lineEnd;
+            if (nl != -1 && nl < lineStart) nl = this.partial.indexOf(this.separator, lineStart);
+        }
+        
+        if (lineStart > 0)
+        {
+            this.partialStart += lineStart;
+            this.partial.delete(0, lineStart);
+        }
+        
+        return added;
+    }
+    
+    /**
+     * Returns the length to split an overlong line at so a line separator 
+     * is not split between lines.
+     * 
+     * @param lineStart start of the line in the partial line
+     * @return split length
+     */
+    private int splitLength(final int lineStart)
+    {
+        final int end = lineStart + MAX_LINE_LENGTH;
+        for (int k = this.separator.length() - 1; k > 0; k--)
+        {
+            if (this.separator.regionMatches(0, this.partial.substring(end - k, end), 0, k))
+            {
+                return MAX_LINE_LENGTH - k;
+            }
+        }
+        return MAX_LINE_LENGTH;
+    }
+    
+    /**
+     * Adds a complete line to the ring.
+     * 
+     * @param line line including separator
+     * @param start absolute offset of the line
+     */
+    private void addLine(final String line, final long start)
+    {
+        if (this.count == this.lines.length)
+        {
+            if (this.maxLines > 0)
+            {
+                /* Full so the oldest line is overwritten. */
+                this.head = (this.head + 1) % this.lines.length;
+                this.count--;
+            }
+            else
+            {
+                this.grow();
+            }
+        }
+        
+        final int idx = (this.head + this.count) % this.lines.length;
+        this.lines[idx] = line;
+        this.starts[idx] = start;
+        this.count++;
+    }
+    
+    /**
+     * Doubles the capacity of an unbounded ring.
+     */
+    private void grow()
+    {
+        final String newLines[] = new String[this.lines.length * 2];
+        final long newStarts[] = new long[newLines.length];
+        for (int i = 0; i < this.count; i++)
+        {
+            final int idx = (this.head + i) % this.lines.length;
+            newLines[i] = this.lines[idx];
+            newStarts[i] = this.starts[idx];
+        }
+        
+        this.lines = newLines;
+        this.starts = newStarts;
+        this.head = 0;
+    }
+    
+    /**
+     * Appends the buffer text after the cursor to the destination and 
+     * returns the new cursor. A cursor of zero reads the entire buffer. 
+     * Only the lines appended since the cursor are visited.
+     * 
+     * @param cursor offset returned by the previous read
+     * @param dest destination of the read text
+     * @return cursor for the next read
+     */
+    public synchronized long read(final long cursor, final StringBuilder dest)
+    {
+        final long end = this.partialStart + this.partial.length();
+        if (cursor >= end) return end;
+        
+        /* Walk back from the newest line to the first line containing the cursor. */
+        int i = this.count;
+        while (i > 0 && this.starts[(this.head + i - 1) % this.lines.length] + 
+                this.lines[(this.head + i - 1) % this.lines.length].length() > cursor)
+        {
+            i--;
+        }
+        
+        for ( ; i < this.count; i++)
+        {
+            final int idx = (this.head + i) % this.lines.length;
+            final int skip = (int) Math.max(0, cursor - this.starts[idx]);
+            dest.append(this.lines[idx], skip, this.lines[idx].length());
+        }
+        
+        dest.append(this.partial, (int) Math.max(0, cursor - this.partialStart), this.partial.length());
+        return end;
+    }
+    
+    /**
+     * Returns the absolute offset of the end of the buffer, which is a 
+     * cursor that reads only subsequently appended text.
+     * 
+     * @return end offset
+     */
+    public synchronized long getEnd()
+    {
+        return this.partialStart + this.partial.length();
+    }
+    
+    /**
+     * Returns the number of complete lines in the buffer.
+     * 
+     * @return number of lines
+     */
+    public synchronized int getLineCount()
+    {
+        return this.count;
+    }
+    
+    /**
+     * Returns the last complete line in the buffer without its separator.
+     * 
+     * @return last line or <code>null</code> if there are no complete lines
+     */
+    public synchronized String getLastLine()
+    {
+        if (this.count == 0) return null;
+        
+        final String line = this.lines[(this.head + this.count - 1) % this.lines.length];
+        
+        /* Split lines are not terminated by a separator. */
+        return line.endsWith(this.separator) ? line.substring(0, line.length() - this.separator.length()) : line;
+    }
+    
+    /**
+     * Returns the entire contents of the buffer.
+     * 
+     * @return buffer contents
+     */
+    @Override
+    public synchronized String toString()
+    {
+        if (this.all == null)
+        {
+            final StringBuilder buf = new StringBuilder();
+            this.read(0, buf);
+            this.all = buf.toString();
+        }
+        return this.all;
+    }
+}
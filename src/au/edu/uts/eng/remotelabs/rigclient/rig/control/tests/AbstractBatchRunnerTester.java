@@ -52,7 +52,9 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import junit.framework.TestCase;
 
@@ -96,6 +98,8 @@ public class AbstractBatchRunnerTester extends TestCase
         expect(this.mockConfig.getProperty("WARN_Log_Format")).andReturn(null);
         expect(this.mockConfig.getProperty("INFO_Log_Format")).andReturn(null);
         expect(this.mockConfig.getProperty("DEBUG_Log_Format")).andReturn(null);
+        expect(this.mockConfig.getProperty("Log_Buffer_Size", "2000")).andReturn("2000");
+        expect(this.mockConfig.getProperty("Log_Async", "false")).andReturn("false");
         expect(this.mockConfig.getProperty("Batch_ScrollBack", "1000")).andReturn("1000");
         replay(this.mockConfig);
         
@@ -765,6 +769,148 @@ public class AbstractBatchRunnerTester extends TestCase
         }
     }
     
+    /**
+     * Tests a batch process which writes more than a pipe buffer of output
+     * without its output being polled runs to completion.
+     */
+    @Test
+    public void testRunLargeOutputNotPolled() throws Exception
+    {
+        final String wdBase = System.getProperty("user.dir") + "/test/resources/BatchRunner";
+        reset(this.mockConfig);
+        expect(this.mockConfig.getProperty("Batch_ScrollBack", "1000")).andReturn("100");
+        expect(this.mockConfig.getProperty("Batch_Working_Dir")).andReturn(wdBase);
+        expect(this.mockConfig.getProperty("Batch_Create_Nested_Dir", "true")).andReturn("true").anyTimes();
+        expect(this.mockConfig.getProperty("Batch_Flush_Env", "false")).andReturn("false");
+        expect(this.mockConfig.getProperty("Batch_Clean_Up", "false")).andReturn("true");
+        expect(this.mockConfig.getProperty("Batch_Instruct_File_Delete", "true")).andReturn("false");
+        replay(this.mockConfig);
+        
+        List<String> args = new ArrayList<String>();
+        args.add("1");
+        args.add("200000");
+        AbstractBatchRunner r = new MockBatchRunner("", "tuser", "/usr/bin/seq", args, 
+                new HashMap<String, String>(), true);
+        
+        Thread t = new Thread(r);
+        t.start();
+        t.join(20000);
+        assertFalse("Batch process stalled writing output.", t.isAlive());
+        
+        assertFalse(r.isFailed());
+        assertEquals(0, r.getExitCode());
+        assertEquals(-1, r.getProgress()); // Last line is not a percentage
+        
+        String stdout = r.getAllStandardOut();
+        String lines[] = stdout.split(AbstractBatchRunner.LINE_SEPARATOR);
+        assertEquals(100, lines.length);
+        assertEquals("199901", lines[0]);
+        assertEquals("200000", lines[99]);
+    }
+    
+    /**
+     * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.rig.control.AbstractBatchRunner#awaitStarted(long, TimeUnit)}.
+     */
+    @Test
+    public void testAwaitStartedAndStopped() throws Exception
+    {
+        final String wdBase = System.getProperty("user.dir") + "/test/resources/BatchRunner";
+        reset(this.mockConfig);
+        expect(this.mockConfig.getProperty("Batch_ScrollBack", "1000")).andReturn("1000");
+        expect(this.mockConfig.getProperty("Batch_Working_Dir")).andReturn(wdBase);
+        expect(this.mockConfig.getProperty("Batch_Create_Nested_Dir", "true")).andReturn("true").anyTimes();
+        expect(this.mockConfig.getProperty("Batch_Flush_Env", "false")).andReturn("false");
+        expect(this.mockConfig.getProperty("Batch_Clean_Up", "false")).andReturn("true");
+        expect(this.mockConfig.getProperty("Batch_Instruct_File_Delete", "true")).andReturn("false");
+        replay(this.mockConfig);
+        
+        List<String> args = new ArrayList<String>();
+        args.add("30");
+        AbstractBatchRunner r = new MockBatchRunner("", "tuser", "/bin/sleep", args, 
+                new HashMap<String, String>(), true);
+        
+        assertFalse(r.awaitStarted(10, TimeUnit.MILLISECONDS));
+        
+        Thread t = new Thread(r);
+        t.start();
+        assertTrue(r.awaitStarted(5, TimeUnit.SECONDS));
+        assertTrue(r.isStarted());
+        assertTrue(r.isRunning());
+        assertFalse(r.awaitStopped(100, TimeUnit.MILLISECONDS));
+        
+        long start = System.currentTimeMillis();
+        r.terminate();
+        assertTrue(r.awaitStopped(5, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertFalse(r.isRunning());
+        assertTrue(r.isKilled());
+        
+        /* Wait for cleanup of the working directory. */
+        t.join(10000);
+    }
+    
+    /**
+     * Tests aborting a batch process whose forked child keeps the batch
+     * process standard out open is not held up by the child.
+     */
+    @Test
+    public void testTerminateChildHoldsOutput() throws Exception
+    {
+        final String wdBase = System.getProperty("user.dir") + "/test/resources/BatchRunner";
+        reset(this.mockConfig);
+        expect(this.mockConfig.getProperty("Batch_ScrollBack", "1000")).andReturn("1000");
+        expect(this.mockConfig.getProperty("Batch_Working_Dir")).andReturn(wdBase);
+        expect(this.mockConfig.getProperty("Batch_Create_Nested_Dir", "true")).andReturn("true").anyTimes();
+        expect(this.mockConfig.getProperty("Batch_Flush_Env", "false")).andReturn("false");
+        expect(this.mockConfig.getProperty("Batch_Clean_Up", "false")).andReturn("true");
+        expect(this.mockConfig.getProperty("Batch_Instruct_File_Delete", "true")).andReturn("false");
+        replay(this.mockConfig);
+        
+        List<String> args = new ArrayList<String>();
+        args.add("-c");
+        args.add("echo started; sleep 10 & wait");
+        AbstractBatchRunner r = new MockBatchRunner("", "tuser", "/bin/sh", args, 
+                new HashMap<String, String>(), true);
+        
+        Thread t = new Thread(r);
+        t.start();
+        assertTrue(r.awaitStarted(5, TimeUnit.SECONDS));
+        Thread.sleep(500);
+        
+        long start = System.currentTimeMillis();
+        r.terminate();
+        assertTrue(r.awaitStopped(2, TimeUnit.SECONDS));
+        assertFalse(r.isRunning());
+        assertTrue(r.isKilled());
+        
+        /* The invocation completes without waiting for the child to exit. */
+        t.join(3000);
+        assertFalse(t.isAlive());
+        assertTrue(System.currentTimeMillis() - start < 3000);
+    }
+    
+    /**
+     * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.rig.control.AbstractBatchRunner#awaitStarted(long, TimeUnit)}.
+     */
+    @Test
+    public void testAwaitStartedFailed() throws Exception
+    {
+        reset(this.mockConfig);
+        expect(this.mockConfig.getProperty("Batch_ScrollBack", "1000")).andReturn("1000");
+        expect(this.mockConfig.getProperty("Batch_Clean_Up", "false")).andReturn("false");
+        expect(this.mockConfig.getProperty("Batch_Instruct_File_Delete", "true")).andReturn("false");
+        replay(this.mockConfig);
+        
+        AbstractBatchRunner r = new MockBatchRunner("", "tuser", false);
+        new Thread(r).start();
+        
+        /* A failed invocation releases the start wait. */
+        assertTrue(r.awaitStarted(5, TimeUnit.SECONDS));
+        assertTrue(r.awaitStopped(5, TimeUnit.SECONDS));
+        assertFalse(r.isStarted());
+        assertTrue(r.isFailed());
+    }
+    
     /**
      * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.rig.control.AbstractBatchRunner#getBatchUser()}
      */
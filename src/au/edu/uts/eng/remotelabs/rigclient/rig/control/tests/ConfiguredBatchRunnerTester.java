@@ -568,6 +568,10 @@ public class ConfiguredBatchRunnerTester extends TestCase
             .andReturn("__USER__/__ISO8601__");
         expect(this.mockConfig.getProperty("Batch_Compress_Dir", "false"))
             .andReturn("false");
+        expect(this.mockConfig.getProperty("Batch_Sync_Method", "COPY"))
+            .andReturn("LINK");
+        expect(this.mockConfig.getProperty("Batch_Sync_Threads", "1"))
+            .andReturn("2");
         replay(this.mockConfig);
         
         try
@@ -590,6 +594,46 @@ public class ConfiguredBatchRunnerTester extends TestCase
         verify(this.mockConfig);
     }
     
+    /**
+     * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.rig.control.ConfiguredBatchRunner#sync()}.
+     */
+    @Test
+    public void testSyncMoveBaseWorkingDir() throws Exception
+    {
+        String wd = System.getProperty("user.dir") + "/test/resources/BatchRunner/ResultsFiles";
+        Field field = AbstractBatchRunner.class.getDeclaredField("workingDirBase");
+        field.setAccessible(true);
+        field.set(this.runner, wd);
+        
+        reset(this.mockConfig);
+        expect(this.mockConfig.getProperty("Batch_Sync_Results_Dir", "false"))
+            .andReturn("true");
+        expect(this.mockConfig.getProperty("Batch_Sync_Dir_Destination"))
+        .andReturn(System.getProperty("user.dir") + "/test/resources/BatchRunner/tmp/");
+        expect(this.mockConfig.getProperty("Batch_Sync_Dir_Name"))
+            .andReturn("__USER__");
+        expect(this.mockConfig.getProperty("Batch_Compress_Dir", "false"))
+            .andReturn("false");
+        expect(this.mockConfig.getProperty("Batch_Sync_Method", "COPY"))
+            .andReturn("MOVE");
+        expect(this.mockConfig.getProperty("Batch_Sync_Threads", "1"))
+            .andReturn("1");
+        replay(this.mockConfig);
+        
+        Method meth = ConfiguredBatchRunner.class.getDeclaredMethod("sync");
+        meth.setAccessible(true);
+        assertTrue((Boolean)meth.invoke(this.runner));
+        
+        /* The shared base working directory is copied instead of moved. */
+        File file = new File(System.getProperty("user.dir") + "/test/resources/BatchRunner/tmp/tuser");
+        assertTrue(file.isDirectory());
+        assertTrue(new File(wd).isDirectory());
+        assertEquals(new File(wd).list().length, file.list().length);
+        
+        this.recusiveDelete(file.getParentFile());
+        verify(this.mockConfig);
+    }
+    
     /**
      * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.rig.control.ConfiguredBatchRunner#sync()}.
      */
@@ -607,6 +651,10 @@ public class ConfiguredBatchRunnerTester extends TestCase
             .andReturn("true");
         expect(this.mockConfig.getProperty("Batch_Compression_Level", "DEFAULT"))
             .andReturn("FASTEST");
+        expect(this.mockConfig.getProperty("Batch_Compression_Threads", "1"))
+            .andReturn("2");
+        expect(this.mockConfig.getProperty("Batch_Compression_Store_Extensions", 
+                ConfiguredBatchRunner.DEFAULT_STORE_EXTENSIONS)).andReturn("zip,png");
         replay(this.mockConfig);
         
         try
@@ -0,0 +1,213 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig.control.tests;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import au.edu.uts.eng.remotelabs.rigclient.rig.control.ScrollbackBuffer;
+
+/**
+ * Tests the {@link ScrollbackBuffer} class.
+ */
+public class ScrollbackBufferTester extends TestCase
+{
+    @Test
+    public void testAppendLines()
+    {
+        ScrollbackBuffer buf = new ScrollbackBuffer(10, "\n");
+        assertEquals(2, buf.append("line1\nline2\npart"));
+        assertEquals(2, buf.getLineCount());
+        assertEquals("line1\nline2\npart", buf.toString());
+        
+        assertEquals(1, buf.append("ial\n"));
+        assertEquals(3, buf.getLineCount());
+        assertEquals("line1\nline2\npartial\n", buf.toString());
+    }
+    
+    @Test
+    public void testEviction()
+    {
+        ScrollbackBuffer buf = new ScrollbackBuffer(3, "\n");
+        for (int i = 0; i < 10000; i++)
+        {
+            buf.append("line" + i + "\n");
+        }
+        
+        assertEquals(3, buf.getLineCount());
+        assertEquals("line9997\nline9998\nline9999\n", buf.toString());
+    }
+    
+    @Test
+    public void testEvictionSingleAppend()
+    {
+        ScrollbackBuffer buf = new ScrollbackBuffer(2, "\n");
+        assertEquals(4, buf.append("a\nb\nc\nd\ne"));
+        assertEquals(2, buf.getLineCount());
+        assertEquals("c\nd\ne", buf.toString());
+    }
+    
+    @Test
+    public void testUnbounded()
+    {
+        ScrollbackBuffer buf = new ScrollbackBuffer(0, "\n");
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; i++)
+        {
+            buf.append("line" + i + "\n");
+            expected.append("line" + i + "\n");
+        }
+        
+        assertEquals(1000, buf.getLineCount());
+        assertEquals(expected.toString(), buf.toString());
+    }
+    
+    @Test
+    public void testSplitSeparator()
+    {
+        ScrollbackBuffer buf = new ScrollbackBuffer(10, "\r\n");
+        assertEquals(0, buf.append("line1\r"));
+        assertEquals(1, buf.append("\nline2"));
+        assertEquals(1, buf.getLineCount());
+        assertEquals(1, buf.append("\r\n"));
+        assertEquals(2, buf.getLineCount());
+        assertEquals("line1\r\nline2\r\n", buf.toString());
+    }
+    
+    @Test
+    public void testLongLineSplit()
+    {
+        ScrollbackBuffer buf = new ScrollbackBuffer(10, "\n");
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < ScrollbackBuffer.MAX_LINE_LENGTH * 2 + 10; i++)
+        {
+            line.append((char)('a' + i % 26));
+        }
+        
+        /* Output without a line separator is split at the maximum line length. */
+        assertEquals(2, buf.append(line));
+        assertEquals(2, buf.getLineCount());
+        assertEquals(ScrollbackBuffer.MAX_LINE_LENGTH, buf.getLastLine().length());
+        
+        assertEquals(1, buf.append("\n"));
+        assertEquals(3, buf.getLineCount());
+        assertEquals(line.substring(ScrollbackBuffer.MAX_LINE_LENGTH * 2), buf.getLastLine());
+        assertEquals(line + "\n", buf.toString());
+    }
+    
+    @Test
+    public void testLongLineSplitSeparator()
+    {
+        ScrollbackBuffer buf = new ScrollbackBuffer(10, "\r\n");
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < ScrollbackBuffer.MAX_LINE_LENGTH - 1; i++)
+        {
+            line.append('a');
+        }
+        line.append('\r');
+        
+        /* The split does not separate the separator characters. */
+        assertEquals(0, buf.append(line));
+        assertEquals(1, buf.append("\nb"));
+        assertEquals(line + "\nb", buf.toString());
+        
+        buf.append(line.substring(1));
+        assertEquals(1, buf.append("aaa"));
+        assertEquals(ScrollbackBuffer.MAX_LINE_LENGTH - 1, buf.getLastLine().length());
+        assertEquals(2, buf.getLineCount());
+        assertEquals(1, buf.append("\r\n"));
+        assertEquals(line + "\nb" + line.substring(1) + "aaa\r\n", buf.toString());
+    }
+    
+    @Test
+    public void testGetLastLine()
+    {
+        ScrollbackBuffer buf = new ScrollbackBuffer(10, "\n");
+        assertNull(buf.getLastLine());
+        
+        buf.append("10 percent\n20 per");
+        assertEquals("10 percent", buf.getLastLine());
+        
+        buf.append("cent\n");
+        assertEquals("20 percent", buf.getLastLine());
+    }
+    
+    @Test
+    public void testRead()
+    {
+        ScrollbackBuffer buf = new ScrollbackBuffer(10, "\n");
+        StringBuilder out = new StringBuilder();
+        long cursor = buf.read(0, out);
+        assertEquals(0, cursor);
+        assertEquals("", out.toString());
+        
+        buf.append("line1\nline2\npar");
+        cursor = buf.read(cursor, out);
+        assertEquals("line1\nline2\npar", out.toString());
+        assertEquals(buf.getEnd(), cursor);
+        
+        out = new StringBuilder();
+        cursor = buf.read(cursor, out);
+        assertEquals("", out.toString());
+        
+        buf.append("tial\nline4\n");
+        out = new StringBuilder();
+        cursor = buf.read(cursor, out);
+        assertEquals("tial\nline4\n", out.toString());
+    }
+    
+    @Test
+    public void testReadBehindEviction()
+    {
+        ScrollbackBuffer buf = new ScrollbackBuffer(2, "\n");
+        StringBuilder out = new StringBuilder();
+        long cursor = buf.read(0, out);
+        
+        buf.append("a\nb\nc\nd\n");
+        cursor = buf.read(cursor, out);
+        
+        /* Evicted lines are lost to a reader that fell behind. */
+        assertEquals("c\nd\n", out.toString());
+        assertEquals(8, cursor);
+    }
+}
@@ -38,6 +38,7 @@
  *
  * Changelog:
  * - 08/11/2009 - mdiponio - Initial file creation.
+ * - 18/10/2026 - mdiponio - Added move, link and channel transfer copying.
  */
 package au.edu.uts.eng.remotelabs.rigclient.rig.internal;
 
@@ -45,17 +46,58 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import au.edu.uts.eng.remotelabs.rigclient.util.ILogger;
 import au.edu.uts.eng.remotelabs.rigclient.util.LoggerFactory;
 
 /**
  * Moves the contents into a new directory.
+ * <br />
+ * The contents may be transferred using one of the following methods:
+ * <ul>
+ *  <li>COPY - Files are copied using file channel transfers.</li>
+ *  <li>LINK - Files are hard linked into the destination. If the source and
+ *  destination are not on the same file system, files are copied.</li>
+ *  <li>MOVE - The source directory is atomically renamed to the destination.
+ *  If this is not possible, files are linked or copied and the source 
+ *  directory is left in place.</li>
+ * </ul>
+ * Files may be copied in parallel when a large number of files are copied.
  */
 public class DirectoryCopier
 {
-    /** File content buffer. */
-    private final byte buf[];
+    /** Method used to transfer directory contents. */
+    public enum Method 
+    {
+        /** Copy file contents. */
+        COPY, 
+        /** Hard link files, falling back to copying. */
+        LINK, 
+        /** Rename directory, falling back to linking. */
+        MOVE
+    }
+    
+    /** Transfer method. */
+    private final Method method;
+    
+    /** Number of copy threads. */
+    private final int threads;
+    
+    /** Whether hard linking has failed, in which case it is not 
+     *  attempted again. */
+    private volatile boolean linkFailed;
     
     /** Logger object. */
     private final ILogger logger;
@@ -64,10 +106,23 @@ public class DirectoryCopier
      * Constructor.
      */
     public DirectoryCopier()
+    {
+        this(Method.COPY, 1);
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param method transfer method
+     * @param threads number of copy threads, if less than 2 files are copied
+     *          sequentially
+     */
+    public DirectoryCopier(final Method method, final int threads)
     {
         this.logger = LoggerFactory.getLoggerInstance();
         
-        this.buf = new byte[4096];
+        this.method = method == null ? Method.COPY : method;
+        this.threads = threads;
     }
     
     /**
@@ -83,6 +138,11 @@ public class DirectoryCopier
     {
         try
         {
+            if (this.method == Method.MOVE && this.moveDirectory(new File(fromDir), new File(toDir)))
+            {
+                return true;
+            }
+            
             this.recursiveCopy(fromDir, toDir);
             return true;
         }
@@ -103,6 +163,66 @@ public class DirectoryCopier
      * @throws IOException error copying directories
      */
     public void recursiveCopy(final String fromDir, final String toDir) throws IOException
+    {
+        if (this.threads < 2)
+        {
+            this.recursiveCopy(fromDir, toDir, null, null);
+            return;
+        }
+        
+        final ExecutorService pool = Executors.newFixedThreadPool(this.threads, new ThreadFactory()
+        {
+            private final AtomicInteger count = new AtomicInteger();
+            
+            @Override
+            public Thread newThread(Runnable r)
+            {
+                final Thread thr = new Thread(r, "Directory Copier " + this.count.incrementAndGet());
+                thr.setDaemon(true);
+                return thr;
+            }
+        });
+        
+        try
+        {
+            final List<Future<Void>> copies = new ArrayList<Future<Void>>();
+            this.recursiveCopy(fromDir, toDir, pool, copies);
+            
+            for (Future<Void> copy : copies)
+            {
+                copy.get();
+            }
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException) throw (IOException)e.getCause();
+            throw new IOException(e.getCause());
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted copying " + fromDir + ".");
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+    
+    /**
+     * Recursively copies a directories contents to another directory, 
+     * either in the calling thread or by submitting the file copies to 
+     * the pool.
+     * 
+     * @param fromDir location of files to copy
+     * @param toDir destination of files
+     * @param pool pool to copy files with or <code>null</code> to copy files
+     *          in the calling thread
+     * @param copies list of submitted file copies
+     * @throws IOException error copying directories
+     */
+    private void recursiveCopy(final String fromDir, final String toDir, final ExecutorService pool, 
+            final List<Future<Void>> copies) throws IOException
     {
         this.logger.debug("Copying the contents of " + fromDir + " to " + toDir + ".");
         
@@ -121,21 +241,34 @@ public class DirectoryCopier
             throw new IOException("Failed to create directory " + toDir + ".");
         }
         
-        for (File f : fromFile.listFiles())
+        for (final File f : fromFile.listFiles())
         {
             if (f.isDirectory())
             {
-                this.copyDirectory(f.getAbsolutePath(), toDir + File.separatorChar + f.getName());
+                this.recursiveCopy(f.getAbsolutePath(), toDir + File.separatorChar + f.getName(), pool, copies);
             }
-            else
+            else if (pool == null)
             {
                 this.copyFile(f, toFile);
             }
+            else
+            {
+                copies.add(pool.submit(new Callable<Void>()
+                {
+                    @Override
+                    public Void call() throws IOException
+                    {
+                        DirectoryCopier.this.copyFile(f, toFile);
+                        return null;
+                    }
+                }));
+            }
         }
     }
     
     /**
-     * Copies the provided file into the destination directory.
+     * Copies the provided file into the destination directory. If linking 
+     * is enabled, the file is hard linked if possible.
      * 
      * @param fromFile file to copy
      * @param destination directory to copy file into
@@ -144,19 +277,56 @@ public class DirectoryCopier
     public void copyFile(final File fromFile, final File destination) throws IOException
     {
         this.logger.debug("Copying file " + fromFile.getName() + " in " + fromFile.getParent() + " to " + destination + ".");
-        int len;
+        final File toFile = new File(destination, fromFile.getName());
+        
+        if (this.method != Method.COPY && !this.linkFailed)
+        {
+            try
+            {
+                Files.createLink(toFile.toPath(), fromFile.toPath());
+                return;
+            }
+            catch (IOException e)
+            {
+                /* Only a link across file systems fails for every file, other
+                 * failures (e.g. the file already exists) are for this file. */
+                if (this.isCrossFileSystem(fromFile, destination))
+                {
+                    this.linkFailed = true;
+                    this.logger.info("Unable to hard link " + fromFile.getName() + " into " + destination + " (" + 
+                            e.getMessage() + ") because it is on a different file system, copying files instead.");
+                }
+                else
+                {
+                    this.logger.debug("Unable to hard link " + fromFile.getName() + " into " + destination + " (" + 
+                            e.getMessage() + "), copying it instead.");
+                }
+            }
+            catch (UnsupportedOperationException e)
+            {
+                this.linkFailed = true;
+                this.logger.info("Hard links are not supported, copying files instead.");
+            }
+        }
         
         FileInputStream fis = null;
         FileOutputStream fos = null;
         try
         {
-            final File toFile = new File(destination, fromFile.getName());
             fis = new FileInputStream(fromFile);
             fos = new FileOutputStream(toFile);
             
-            while ((len = fis.read(this.buf)) > 0)
+            /* Channel transfers allow the kernel to copy file contents 
+             * without buffering them in the heap. */
+            final FileChannel in = fis.getChannel();
+            final FileChannel out = fos.getChannel();
+            final long size = in.size();
+            long pos = 0;
+            long transferred;
+            while (pos < size && (transferred = in.transferTo(pos, size - pos, out)) > 0)
             {
-                fos.write(this.buf, 0, len);
+                /* Nothing is transferred if the source shrunk during the copy. */
+                pos += transferred;
             }
         }
         finally
@@ -164,5 +334,64 @@ public class DirectoryCopier
             if (fis != null) fis.close();
             if (fos != null) fos.close();
         }
+        
+        toFile.setLastModified(fromFile.lastModified());
+    }
+    
+    /**
+     * Returns whether the file and directory are on different file systems.
+     * 
+     * @param file file
+     * @param directory directory
+     * @return true if on different file systems, false if on the same file
+     *      system or it cannot be determined
+     */
+    private boolean isCrossFileSystem(final File file, final File directory)
+    {
+        try
+        {
+            return !Files.getFileStore(file.toPath()).equals(Files.getFileStore(directory.toPath()));
+        }
+        catch (IOException e)
+        {
+            return false;
+        }
+    }
+    
+    /**
+     * Attempts to atomically rename the source directory to the destination.
+     * This is only possible if the destination does not exist and is on the 
+     * same file system as the source.
+     * 
+     * @param fromDir directory to move
+     * @param toDir destination directory
+     * @return true if the directory was moved
+     */
+    private boolean moveDirectory(final File fromDir, final File toDir)
+    {
+        if (toDir.exists())
+        {
+            this.logger.debug("Not moving " + fromDir + " because " + toDir + " already exists.");
+            return false;
+        }
+        
+        final File parent = toDir.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs())
+        {
+            return false;
+        }
+        
+        try
+        {
+            Files.move(fromDir.toPath(), toDir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            this.logger.debug("Moved directory " + fromDir + " to " + toDir + ".");
+            return true;
+        }
+        catch (IOException e)
+        {
+            this.logger.info("Unable to move directory " + fromDir + " to " + toDir + " (" + e.getMessage() + 
+                    "), linking or copying files instead.");
+            return false;
+        }
     }
 }
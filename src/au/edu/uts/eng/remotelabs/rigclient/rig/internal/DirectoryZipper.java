@@ -38,14 +38,39 @@
  *
  * Changelog:
  * - 07/11/2009 - mdiponio - Initial file creation.
+ * - 18/10/2026 - mdiponio - Added parallel compression and stored entries.
  */
 package au.edu.uts.eng.remotelabs.rigclient.rig.internal;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
 import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -54,9 +79,39 @@ import au.edu.uts.eng.remotelabs.rigclient.util.LoggerFactory;
 
 /**
  * Zips a directory. 
+ * <br />
+ * If more than one compression thread is specified, files are deflated 
+ * concurrently on a bounded pool and the compressed entries are written to
+ * the archive in directory order (in a similar manner to <em>pigz</em>). 
+ * Files whose extension is in the stored extensions list (typically already
+ * compressed formats) are not deflated.
  */
 public class DirectoryZipper
 {
+    /** Size of I/O buffers. */
+    private static final int BUF_SIZE = 256 * 1024;
+    
+    /** Files larger than this are streamed by the writer instead of being
+     *  compressed into memory by a worker. */
+    private static final long STREAM_THRESHOLD = 16 * 1024 * 1024;
+    
+    /** Maximum size of the files being compressed into memory or waiting 
+     *  to be written. Each file is held uncompressed while being compressed
+     *  so the memory used is up to twice this. */
+    private static final long WINDOW_BYTES = 64 * 1024 * 1024;
+    
+    /** Size each in memory entry is counted as in addition to its file 
+     *  size, which bounds the number of small entries in the window. */
+    private static final long ENTRY_OVERHEAD = 4096;
+    
+    /** Largest size and offset that may be stored in a zip (not Zip64) 
+     *  header. */
+    private static final long ZIP_MAX = 0xFFFFFFFFL;
+    
+    /** Largest number of entries that may be stored in a zip (not Zip64) 
+     *  archive. */
+    private static final int ZIP_MAX_ENTRIES = 0xFFFF;
+    
     /** Zip output stream. */
     private ZipOutputStream zipOutput;
     
@@ -66,6 +121,13 @@ public class DirectoryZipper
     /** Compression level. */
     private int level;
     
+    /** Number of compression threads. */
+    private final int threads;
+    
+    /** Extensions (lower case, without the leading dot) of files that are 
+     *  stored without compression. */
+    private final Set<String> storeExtensions;
+    
     /** Logger. */
     private final ILogger logger;
     
@@ -77,6 +139,22 @@ public class DirectoryZipper
      * @param compLevel compression level either DEFAULT, BEST or FASTEST
      */
     public DirectoryZipper(final String compLevel)
+    {
+        this(compLevel, 1, null);
+    }
+    
+    /**
+     * Constructor. The compression level may be either DEFAULT, BEST or 
+     * FASTEST. If the provided level is none of these values or
+     * <code>null</code>, the DEFAULT level is used. 
+     * 
+     * @param compLevel compression level either DEFAULT, BEST or FASTEST
+     * @param threads number of compression threads, if less than 2 files are 
+     *          compressed sequentially
+     * @param storeExts comma separated list of extensions of files that are 
+     *          stored without compression, may be <code>null</code>
+     */
+    public DirectoryZipper(final String compLevel, final int threads, final String storeExts)
     {
         this.logger = LoggerFactory.getLoggerInstance();
         
@@ -96,6 +174,19 @@ public class DirectoryZipper
         {
             this.level = Deflater.DEFAULT_COMPRESSION;
         }
+        
+        this.threads = threads;
+        
+        this.storeExtensions = new HashSet<String>();
+        if (storeExts != null)
+        {
+            for (String ext : storeExts.split(","))
+            {
+                ext = ext.trim().toLowerCase(Locale.ENGLISH);
+                if (ext.startsWith(".")) ext = ext.substring(1);
+                if (ext.length() > 0) this.storeExtensions.add(ext);
+            }
+        }
     }
     
     
@@ -137,11 +228,27 @@ public class DirectoryZipper
             return false;
         }
         
+        if (this.threads > 1)
+        {
+            final List<File> files = new ArrayList<File>();
+            final long total = this.listFiles(from, files);
+            
+            /* The parallel writer does not write Zip64 extensions so large
+             * archives are left to the zip output stream. */
+            if (files.size() < ZIP_MAX_ENTRIES && total < ZIP_MAX / 2)
+            {
+                return this.parallelCompress(files, dest);
+            }
+            
+            this.logger.info("Results directory " + fromDirectory + " is too large for parallel compression, " +
+                    "compressing sequentially.");
+        }
+        
         try
         {
             this.zipOutput = new ZipOutputStream(new FileOutputStream(dest));
             this.zipOutput.setLevel(this.level);
-            this.recusiveCompress(from);
+            this.recusiveCompress(from, new byte[BUF_SIZE]);
         }
         catch (IOException e)
         {
@@ -153,7 +260,7 @@ public class DirectoryZipper
         {
             try
             {
-                this.zipOutput.close();
+                if (this.zipOutput != null) this.zipOutput.close();
             }
             catch (IOException e)
             {
@@ -167,32 +274,535 @@ public class DirectoryZipper
      * Recursively compress a directory.
      * 
      * @param dir directory to compress
+     * @param buf copy buffer
      * @throws IOException error compressing files
      */
-    private void recusiveCompress(final File dir) throws IOException
+    private void recusiveCompress(final File dir, final byte buf[]) throws IOException
     {
-        final byte buf[] = new byte[4096];
         int read = 0;
         
         for (File file : dir.listFiles())
         {
             if (file.isDirectory())
             {
-                this.recusiveCompress(file);
+                this.recusiveCompress(file, buf);
                 continue;
             }
             
-            final FileInputStream input = new FileInputStream(file);
             /* Remove the absolute directory base, to set the destination name
              * as the zip file root directory. */
-            final ZipEntry entry = new ZipEntry(file.getAbsolutePath().substring(this.destBase.length()));
-            this.zipOutput.putNextEntry(entry);
+            final ZipEntry entry = new ZipEntry(this.entryName(file));
+            if (this.isStored(file))
+            {
+                /* Stored entries must have their sizes and checksum set 
+                 * before they are written. */
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(file.length());
+                entry.setCompressedSize(file.length());
+                entry.setCrc(this.checksum(file, buf));
+            }
             
+            final FileInputStream input = new FileInputStream(file);
+            try
+            {
+                this.zipOutput.putNextEntry(entry);
+
+                while ((read = input.read(buf)) > 0)
+                {
+                    this.zipOutput.write(buf, 0, read);
+                }
+            }
+            finally
+            {
+                input.close();
+            }
+        }
+    }
+    
+    /**
+     * Calculates the CRC-32 checksum of a file.
+     * 
+     * @param file file 
+     * @param buf read buffer
+     * @return checksum
+     * @throws IOException error reading file
+     */
+    private long checksum(final File file, final byte buf[]) throws IOException
+    {
+        final CRC32 crc = new CRC32();
+        final FileInputStream input = new FileInputStream(file);
+        try
+        {
+            int read;
             while ((read = input.read(buf)) > 0)
             {
-                this.zipOutput.write(buf, 0, read);
+                crc.update(buf, 0, read);
+            }
+        }
+        finally
+        {
+            input.close();
+        }
+        return crc.getValue();
+    }
+    
+    /**
+     * Compresses the files into the destination archive, deflating files 
+     * concurrently and writing them to the archive in order.
+     * 
+     * @param files files to compress
+     * @param dest destination archive
+     * @return true if successful
+     */
+    private boolean parallelCompress(final List<File> files, final File dest)
+    {
+        final ExecutorService pool = Executors.newFixedThreadPool(this.threads, new ThreadFactory()
+        {
+            private final AtomicInteger count = new AtomicInteger();
+            
+            @Override
+            public Thread newThread(Runnable r)
+            {
+                final Thread thr = new Thread(r, "Directory Zipper " + this.count.incrementAndGet());
+                thr.setDaemon(true);
+                return thr;
             }
+        });
+        
+        /* Pending entries in archive order. Entries which are streamed by the
+         * writer have no future. */
+        final LinkedList<File> pendingFiles = new LinkedList<File>();
+        final LinkedList<Future<Entry>> pending = new LinkedList<Future<Entry>>();
+        long pendingBytes = 0;
+        
+        FileOutputStream out = null;
+        try
+        {
+            out = new FileOutputStream(dest);
+            final FileChannel channel = out.getChannel();
+            final List<Entry> written = new ArrayList<Entry>(files.size());
+            final byte buf[] = new byte[BUF_SIZE];
+            
+            int next = 0;
+            while (next < files.size() || !pending.isEmpty())
+            {
+                /* Keep the pool busy up to the window of in memory entries. The
+                 * next entry is always taken if nothing is pending so a file 
+                 * larger than the window is still compressed. */
+                while (next < files.size() && (pending.isEmpty() || 
+                        pendingBytes + this.windowSize(files.get(next)) <= WINDOW_BYTES))
+                {
+                    final File file = files.get(next++);
+                    pendingFiles.add(file);
+                    pendingBytes += this.windowSize(file);
+                    pending.add(file.length() > STREAM_THRESHOLD ? null : pool.submit(new Callable<Entry>()
+                    {
+                        @Override
+                        public Entry call() throws IOException
+                        {
+                            return DirectoryZipper.this.compressEntry(file);
+                        }
+                    }));
+                }
+                
+                final File file = pendingFiles.removeFirst();
+                final Future<Entry> future = pending.removeFirst();
+                pendingBytes -= this.windowSize(file);
+                final Entry entry;
+                if (future == null)
+                {
+                    entry = this.streamEntry(file, channel, buf);
+                }
+                else
+                {
+                    entry = future.get();
+                    entry.offset = channel.position();
+                    this.writeFully(channel, this.localHeader(entry));
+                    this.writeFully(channel, ByteBuffer.wrap(entry.data, 0, entry.length));
+                    entry.data = null;
+                }
+                written.add(entry);
+            }
+            
+            this.writeCentralDirectory(channel, written);
+        }
+        catch (ExecutionException e)
+        {
+            final Throwable cause = e.getCause() == null ? e : e.getCause();
+            this.logger.error("Failed compressing directory with exception " + cause.getClass().getName() + 
+                    " and message " + cause.getMessage() + ".");
+            return false;
+        }
+        catch (InterruptedException e)
+        {
+            this.logger.error("Interrupted compressing directory.");
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        catch (IOException e)
+        {
+            this.logger.error("Failed compressing directory with exception " + e.getClass().getName() + " and message "
+                    + e.getMessage() + ".");
+            return false;
+        }
+        finally
+        {
+            pool.shutdownNow();
+            try
+            {
+                if (out != null) out.close();
+            }
+            catch (IOException e)
+            {
+               this.logger.warn("Failed closing zip file output stream with message " + e.getMessage() + ".");
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Returns the size a file is counted as in the window of in memory 
+     * entries. Files that are streamed are not held in memory.
+     * 
+     * @param file file
+     * @return window size
+     */
+    private long windowSize(final File file)
+    {
+        final long length = file.length();
+        return length > STREAM_THRESHOLD ? ENTRY_OVERHEAD : length + ENTRY_OVERHEAD;
+    }
+    
+    /**
+     * Reads and compresses a file into memory.
+     * 
+     * @param file file to compress
+     * @return compressed entry
+     * @throws IOException error reading file
+     */
+    private Entry compressEntry(final File file) throws IOException
+    {
+        final Entry entry = new Entry(this.entryName(file), file.lastModified(), this.isStored(file));
+        final byte raw[] = new byte[(int)file.length()];
+        
+        final InputStream input = new FileInputStream(file);
+        try
+        {
+            int off = 0, read;
+            while (off < raw.length && (read = input.read(raw, off, raw.length - off)) > 0)
+            {
+                off += read;
+            }
+            entry.size = off;
+        }
+        finally
+        {
             input.close();
         }
+        
+        final CRC32 crc = new CRC32();
+        crc.update(raw, 0, (int)entry.size);
+        entry.crc = crc.getValue();
+        
+        if (entry.stored)
+        {
+            entry.data = raw;
+            entry.length = (int)entry.size;
+        }
+        else
+        {
+            final Deflater deflater = new Deflater(this.level, true);
+            try
+            {
+                final ExposedByteArrayOutputStream bytes = new ExposedByteArrayOutputStream(raw.length / 2 + 64);
+                final DeflaterOutputStream deflate = new DeflaterOutputStream(bytes, deflater, BUF_SIZE);
+                deflate.write(raw, 0, (int)entry.size);
+                deflate.finish();
+                entry.data = bytes.buffer();
+                entry.length = bytes.size();
+            }
+            finally
+            {
+                deflater.end();
+            }
+        }
+        entry.compressedSize = entry.length;
+        
+        return entry;
+    }
+    
+    /**
+     * Streams a large file into the archive. The local header is written 
+     * before the file data and is updated with the checksum and sizes 
+     * once the data is written.
+     * 
+     * @param file file to stream
+     * @param channel archive channel
+     * @param buf copy buffer
+     * @return written entry
+     * @throws IOException error reading or writing
+     */
+    private Entry streamEntry(final File file, final FileChannel channel, final byte buf[]) throws IOException
+    {
+        final Entry entry = new Entry(this.entryName(file), file.lastModified(), this.isStored(file));
+        entry.offset = channel.position();
+        this.writeFully(channel, this.localHeader(entry));
+        final long dataStart = channel.position();
+
+        final CRC32 crc = new CRC32();
+        final Deflater deflater = entry.stored ? null : new Deflater(this.level, true);
+        final InputStream input = new FileInputStream(file);
+        try
+        {
+            /* The channel stream must not be closed as that closes the archive. */
+            final OutputStream chOut = Channels.newOutputStream(channel);
+            final OutputStream out = deflater == null ? chOut : new DeflaterOutputStream(chOut, deflater, BUF_SIZE);
+            
+            int read;
+            while ((read = input.read(buf)) > 0)
+            {
+                crc.update(buf, 0, read);
+                out.write(buf, 0, read);
+                entry.size += read;
+            }
+            
+            if (out instanceof DeflaterOutputStream) ((DeflaterOutputStream)out).finish();
+            out.flush();
+        }
+        finally
+        {
+            input.close();
+            if (deflater != null) deflater.end();
+        }
+        
+        entry.crc = crc.getValue();
+        entry.compressedSize = channel.position() - dataStart;
+        
+        /* Update the checksum and sizes in the local header. */
+        final ByteBuffer patch = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        patch.putInt((int)entry.crc).putInt((int)entry.compressedSize).putInt((int)entry.size).flip();
+        long pos = entry.offset + 14;
+        while (patch.hasRemaining())
+        {
+            pos += channel.write(patch, pos);
+        }
+        
+        return entry;
+    }
+    
+    /**
+     * Writes the central directory and end of central directory record.
+     * 
+     * @param channel archive channel
+     * @param entries written entries
+     * @throws IOException error writing
+     */
+    private void writeCentralDirectory(final FileChannel channel, final List<Entry> entries) throws IOException
+    {
+        final long start = channel.position();
+        for (Entry entry : entries)
+        {
+            final ByteBuffer buf = ByteBuffer.allocate(46 + entry.name.length).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(0x02014b50);
+            buf.putShort((short)20);
+            buf.putShort((short)20);
+            buf.putShort((short)0x0800);
+            buf.putShort((short)(entry.stored ? ZipEntry.STORED : ZipEntry.DEFLATED));
+            buf.putInt(entry.dosTime);
+            buf.putInt((int)entry.crc);
+            buf.putInt((int)entry.compressedSize);
+            buf.putInt((int)entry.size);
+            buf.putShort((short)entry.name.length);
+            buf.putShort((short)0); // Extra field length
+            buf.putShort((short)0); // Comment length
+            buf.putShort((short)0); // Disk number
+            buf.putShort((short)0); // Internal attributes
+            buf.putInt(0);          // External attributes
+            buf.putInt((int)entry.offset);
+            buf.put(entry.name);
+            buf.flip();
+            this.writeFully(channel, buf);
+        }
+        final long size = channel.position() - start;
+        
+        final ByteBuffer end = ByteBuffer.allocate(22).order(ByteOrder.LITTLE_ENDIAN);
+        end.putInt(0x06054b50);
+        end.putShort((short)0);
+        end.putShort((short)0);
+        end.putShort((short)entries.size());
+        end.putShort((short)entries.size());
+        end.putInt((int)size);
+        end.putInt((int)start);
+        end.putShort((short)0);
+        end.flip();
+        this.writeFully(channel, end);
+    }
+    
+    /**
+     * Returns the local file header of an entry.
+     * 
+     * @param entry entry 
+     * @return header buffer ready for writing
+     */
+    private ByteBuffer localHeader(final Entry entry)
+    {
+        final ByteBuffer buf = ByteBuffer.allocate(30 + entry.name.length).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(0x04034b50);
+        buf.putShort((short)20);
+        buf.putShort((short)0x0800);
+        buf.putShort((short)(entry.stored ? ZipEntry.STORED : ZipEntry.DEFLATED));
+        buf.putInt(entry.dosTime);
+        buf.putInt((int)entry.crc);
+        buf.putInt((int)entry.compressedSize);
+        buf.putInt((int)entry.size);
+        buf.putShort((short)entry.name.length);
+        buf.putShort((short)0);
+        buf.put(entry.name);
+        buf.flip();
+        return buf;
+    }
+    
+    /**
+     * Writes the remaining buffer contents to the channel.
+     * 
+     * @param channel channel to write to
+     * @param buf buffer to write
+     * @throws IOException error writing
+     */
+    private void writeFully(final FileChannel channel, final ByteBuffer buf) throws IOException
+    {
+        while (buf.hasRemaining())
+        {
+            channel.write(buf);
+        }
+    }
+    
+    /**
+     * Recursively lists the files in a directory in archive order.
+     * 
+     * @param dir directory to list
+     * @param files list to add files to
+     * @return total size of the listed files
+     */
+    private long listFiles(final File dir, final List<File> files)
+    {
+        long total = 0;
+        for (File file : dir.listFiles())
+        {
+            if (file.isDirectory())
+            {
+                total += this.listFiles(file, files);
+            }
+            else
+            {
+                files.add(file);
+                total += file.length();
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Returns the archive name of the file. The absolute directory base is 
+     * removed to set the destination name as the zip file root directory.
+     * 
+     * @param file file 
+     * @return entry name
+     */
+    private String entryName(final File file)
+    {
+        return file.getAbsolutePath().substring(this.destBase.length());
+    }
+    
+    /**
+     * Returns whether the file should be stored without compression.
+     * 
+     * @param file file
+     * @return true if stored
+     */
+    private boolean isStored(final File file)
+    {
+        if (this.storeExtensions.isEmpty()) return false;
+        
+        final String name = file.getName();
+        final int dot = name.lastIndexOf('.');
+        return dot >= 0 && this.storeExtensions.contains(name.substring(dot + 1).toLowerCase(Locale.ENGLISH));
+    }
+    
+    /**
+     * Archive entry that is being written by the parallel writer.
+     */
+    private static class Entry
+    {
+        /** UTF-8 encoded name. */
+        final byte name[];
+        
+        /** Modification time in MS-DOS format. */
+        final int dosTime;
+        
+        /** Whether the entry is stored instead of deflated. */
+        final boolean stored;
+        
+        /** Uncompressed data checksum. */
+        long crc;
+        
+        /** Uncompressed size. */
+        long size;
+        
+        /** Compressed size. */
+        long compressedSize;
+        
+        /** Offset of the local header in the archive. */
+        long offset;
+        
+        /** Compressed data, only set if compressed into memory. */
+        byte data[];
+        
+        /** Length of compressed data. */
+        int length;
+        
+        Entry(final String name, final long modified, final boolean stored)
+        {
+            this.name = name.getBytes(Charset.forName("UTF-8"));
+            this.stored = stored;
+            
+            final Calendar cal = Calendar.getInstance();
+            cal.setTimeInMillis(modified);
+            final int year = cal.get(Calendar.YEAR);
+            if (year < 1980)
+            {
+                this.dosTime = (1 << 21) | (1 << 16);
+            }
+            else
+            {
+                this.dosTime = (year - 1980) << 25 | (cal.get(Calendar.MONTH) + 1) << 21 | 
+                        cal.get(Calendar.DAY_OF_MONTH) << 16 | cal.get(Calendar.HOUR_OF_DAY) << 11 | 
+                        cal.get(Calendar.MINUTE) << 5 | cal.get(Calendar.SECOND) >> 1;
+            }
+        }
+    }
+    
+    /**
+     * Byte array output stream which allows its buffer to be used without 
+     * copying.
+     */
+    private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream
+    {
+        ExposedByteArrayOutputStream(final int size)
+        {
+            super(size);
+        }
+        
+        /**
+         * Returns the internal buffer. Only the first <code>size()</code> 
+         * bytes are valid.
+         * 
+         * @return buffer
+         */
+        byte[] buffer()
+        {
+            return this.buf;
+        }
     }
 }
@@ -0,0 +1,470 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig.internal;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import au.edu.uts.eng.remotelabs.rigclient.rig.IPeriodicTestAction;
+import au.edu.uts.eng.remotelabs.rigclient.rig.ITestAction;
+import au.edu.uts.eng.remotelabs.rigclient.util.ConfigFactory;
+import au.edu.uts.eng.remotelabs.rigclient.util.IConfig;
+import au.edu.uts.eng.remotelabs.rigclient.util.ILogger;
+import au.edu.uts.eng.remotelabs.rigclient.util.LoggerFactory;
+
+/**
+ * Runs exerciser tests. Periodic tests (<code>IPeriodicTestAction</code>)
+ * share a small pool of scheduler threads and are run at their period on a
+ * fixed timeline so their intervals do not drift. Each iteration is offset 
+ * from the timeline by a random jitter so tests with the same period do not
+ * all run at once. An iteration that has not completed by the latest time 
+ * the next iteration may be due, including jitter, has overrun its deadline,
+ * in which case the missed iterations are skipped and counted.
+ * <br />
+ * Other tests run their own test loop, so each is adapted by running it in 
+ * its own thread.
+ * <br />
+ * After each periodic test iteration, if the status of the test has changed
+ * the test status listener is notified so the test status is published
+ * without it being polled.
+ */
+public class TestScheduler
+{
+    /** Default number of threads running periodic tests. */
+    public static final int DEFAULT_THREADS = 2;
+    
+    /** Default maximum jitter as a percentage of the test period. */
+    public static final int DEFAULT_JITTER = 10;
+    
+    /** Periodic tests. */
+    private final List<ScheduledTest> scheduled;
+    
+    /** Thread group for tests that run in their own thread. */
+    private final ThreadGroup testThreads;
+    
+    /** Executor running periodic tests, created when the first periodic 
+     *  test is scheduled. */
+    private ScheduledThreadPoolExecutor executor;
+    
+    /** Maximum jitter as a percentage of the test period. */
+    private int jitter;
+    
+    /** Whether periodic tests are running. */
+    private volatile boolean running;
+    
+    /** Random for jitter. */
+    private final Random random;
+    
+    /** Listener notified when periodic test status changes, may be 
+     *  <code>null</code>. */
+    private final TestStatusListener listener;
+    
+    /** Logger. */
+    private final ILogger logger;
+    
+    /**
+     * Constructor.
+     */
+    public TestScheduler()
+    {
+        this(null);
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param listener listener notified when the status of a periodic test 
+     *      changes
+     */
+    public TestScheduler(final TestStatusListener listener)
+    {
+        this.logger = LoggerFactory.getLoggerInstance();
+        this.listener = listener;
+        
+        this.scheduled = new CopyOnWriteArrayList<ScheduledTest>();
+        this.testThreads = new ThreadGroup("Test Threads");
+        this.random = new Random();
+        this.running = false;
+    }
+    
+    /**
+     * Schedules a test to run. 
+     * 
+     * @param test test to run
+     */
+    public synchronized void schedule(final ITestAction test)
+    {
+        if (test instanceof IPeriodicTestAction)
+        {
+            if (this.executor == null) this.createExecutor();
+            
+            final ScheduledTest st = new ScheduledTest((IPeriodicTestAction)test);
+            this.scheduled.add(st);
+            synchronized (st)
+            {
+                st.due = System.nanoTime();
+                this.scheduleNext(st);
+            }
+        }
+        else
+        {
+            /* Tests that are not periodic run their own test loop. */
+            final Thread thr = new Thread(this.testThreads, test);
+            thr.setName(test.getActionType());
+            thr.setDaemon(true); /* To not keep the JVM chugging on shutdown. */
+            thr.start();
+        }
+    }
+    
+    /**
+     * Sets whether periodic tests are running. Periodic tests do not run 
+     * until they are set running. When the tests are paused, no further 
+     * test iterations are started but this does not wait for any in progress
+     * test iterations to complete, so a test that does not return does not
+     * block the caller.
+     * 
+     * @param run whether tests should run
+     */
+    public void setRunning(final boolean run)
+    {
+        this.running = run;
+        this.logger.debug((run ? "Running" : "Paused") + " periodic tests.");
+    }
+    
+    /**
+     * Reschedules periodic tests from now, which should be called when 
+     * the test periods have changed.
+     */
+    public void reschedule()
+    {
+        for (ScheduledTest st : this.scheduled)
+        {
+            synchronized (st)
+            {
+                if (st.future != null) st.future.cancel(false);
+                st.due = System.nanoTime();
+                this.scheduleNext(st);
+            }
+        }
+    }
+    
+    /**
+     * Returns the scheduling details of a periodic test.
+     * 
+     * @param test test 
+     * @return scheduled test or <code>null</code> if the test is not a 
+     *      scheduled periodic test 
+     */
+    public ScheduledTest getScheduledTest(final ITestAction test)
+    {
+        for (ScheduledTest st : this.scheduled)
+        {
+            if (st.test == test) return st;
+        }
+        return null;
+    }
+    
+    /**
+     * Stops running tests. 
+     */
+    public synchronized void shutdown()
+    {
+        this.running = false;
+        this.testThreads.interrupt();
+        if (this.executor != null) this.executor.shutdownNow();
+    }
+    
+    /**
+     * Runs an iteration of a periodic test and schedules the next iteration.
+     * 
+     * @param st scheduled test
+     */
+    private void execute(final ScheduledTest st)
+    {
+        boolean changed = false;
+        synchronized (st)
+        {
+            if (this.running)
+            {
+                final long start = System.nanoTime();
+                try
+                {
+                    st.test.runTest();
+                }
+                catch (Throwable ex)
+                {
+                    /* The test is rescheduled whatever the test throws. */
+                    this.logger.error("Periodic test " + st.test.getActionType() + " failed with error " + 
+                            ex.getClass().getSimpleName() + ": " + ex.getMessage() + '.');
+                }
+                
+                final long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                st.runs++;
+                st.lastDuration = duration;
+                if (duration > st.maxDuration) st.maxDuration = duration;
+                
+                boolean status;
+                String reason;
+                try
+                {
+                    status = st.test.getStatus();
+                    reason = status ? null : st.test.getReason();
+                }
+                catch (Throwable ex)
+                {
+                    this.logger.error("Failed to get the status of periodic test " + st.test.getActionType() + 
+                            ", error " + ex.getClass().getSimpleName() + ": " + ex.getMessage() + '.');
+                    status = false;
+                    reason = "Test status error";
+                }
+                changed = st.runs == 1 || status != st.status || 
+                        (reason == null ? st.reason != null : !reason.equals(st.reason));
+                st.status = status;
+                st.reason = reason;
+            }
+            
+            /* The deadline of an iteration is the latest time the next 
+             * iteration may be due, as the iteration may have started late
+             * by up to the maximum jitter. */
+            final long period = this.getPeriod(st);
+            st.due += period;
+            final long late = System.nanoTime() - st.due - period * this.jitter / 100;
+            if (late > 0)
+            {
+                final long missed = late / period + 1;
+                st.due += missed * period;
+                st.overruns++;
+                st.missed += missed;
+                this.logger.warn("Periodic test " + st.test.getActionType() + " overran its deadline, skipping " + 
+                        missed + " iteration(s). The test has overrun " + st.overruns + " time(s).");
+            }
+            
+            this.scheduleNext(st);
+        }
+        
+        if (changed && this.listener != null)
+        {
+            try
+            {
+                this.listener.testStatusChanged(st.test);
+            }
+            catch (RuntimeException ex)
+            {
+                this.logger.error("Test status listener failed with error " + ex.getClass().getSimpleName() + 
+                        ": " + ex.getMessage() + '.');
+            }
+        }
+    }
+    
+    /**
+     * Schedules the next iteration of a test at its due time plus jitter.
+     * Must be called holding the scheduled test lock.
+     * 
+     * @param st scheduled test
+     */
+    private void scheduleNext(final ScheduledTest st)
+    {
+        if (this.executor.isShutdown()) return;
+        
+        final long period = this.getPeriod(st);
+        final long offset = this.jitter > 0 ? (long)(this.random.nextDouble() * period * this.jitter / 100) : 0;
+        st.future = this.executor.schedule(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                TestScheduler.this.execute(st);
+            }
+        }, st.due + offset - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Returns the period of test in nanoseconds.
+     * 
+     * @param st scheduled test
+     * @return period in nanoseconds
+     */
+    private long getPeriod(final ScheduledTest st)
+    {
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(st.test.getPeriod(), 1));
+    }
+    
+    /**
+     * Creates the periodic test executor.
+     */
+    private void createExecutor()
+    {
+        final IConfig config = ConfigFactory.getInstance();
+        
+        int threads = DEFAULT_THREADS;
+        try
+        {
+            threads = Integer.parseInt(config.getProperty("Test_Scheduler_Threads", String.valueOf(DEFAULT_THREADS)));
+            if (threads < 1) threads = 1;
+        }
+        catch (NumberFormatException ex)
+        {
+            this.logger.warn("Invalid 'Test_Scheduler_Threads' configuration, should be a number. Using the " +
+                    "default " + DEFAULT_THREADS + '.');
+        }
+        
+        this.jitter = DEFAULT_JITTER;
+        try
+        {
+            this.jitter = Integer.parseInt(config.getProperty("Test_Schedule_Jitter", String.valueOf(DEFAULT_JITTER)));
+            if (this.jitter < 0 || this.jitter > 100) this.jitter = DEFAULT_JITTER;
+        }
+        catch (NumberFormatException ex)
+        {
+            this.logger.warn("Invalid 'Test_Schedule_Jitter' configuration, should be a percentage. Using the " +
+                    "default " + DEFAULT_JITTER + '.');
+        }
+        
+        this.logger.debug("Running periodic tests on " + threads + " threads with " + this.jitter + "% jitter.");
+        this.executor = new ScheduledThreadPoolExecutor(threads, new ThreadFactory()
+        {
+            private final AtomicInteger count = new AtomicInteger();
+            
+            @Override
+            public Thread newThread(Runnable r)
+            {
+                final Thread thr = new Thread(TestScheduler.this.testThreads, r, 
+                        "Test Scheduler " + this.count.incrementAndGet());
+                thr.setDaemon(true);
+                return thr;
+            }
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+    
+    /**
+     * Listener of changes to the status of periodic tests.
+     */
+    public interface TestStatusListener
+    {
+        /**
+         * Called after a periodic test iteration if the test status or 
+         * failure reason has changed. This is called on the scheduler thread
+         * so should not block.
+         * 
+         * @param test test whose status changed
+         */
+        public void testStatusChanged(IPeriodicTestAction test);
+    }
+    
+    /**
+     * Scheduling details of a periodic test. 
+     */
+    public static class ScheduledTest
+    {
+        /** Test. */
+        private final IPeriodicTestAction test;
+        
+        /** Time the next iteration is due, without jitter, in nanoseconds. */
+        private long due;
+        
+        /** Next iteration. */
+        private ScheduledFuture<?> future;
+        
+        /** Test status after the last iteration. */
+        private boolean status;
+        
+        /** Test failure reason after the last iteration. */
+        private String reason;
+        
+        /** Number of test iterations. */
+        private volatile long runs;
+        
+        /** Number of iterations which overran their deadline. */
+        private volatile long overruns;
+        
+        /** Number of iterations skipped because of overruns. */
+        private volatile long missed;
+        
+        /** Duration of the last iteration in milliseconds. */
+        private volatile long lastDuration;
+        
+        /** Longest iteration duration in milliseconds. */
+        private volatile long maxDuration;
+        
+        ScheduledTest(final IPeriodicTestAction test)
+        {
+            this.test = test;
+        }
+        
+        public IPeriodicTestAction getTest()
+        {
+            return this.test;
+        }
+
+        public long getRuns()
+        {
+            return this.runs;
+        }
+
+        public long getOverruns()
+        {
+            return this.overruns;
+        }
+
+        public long getMissed()
+        {
+            return this.missed;
+        }
+
+        public long getLastDuration()
+        {
+            return this.lastDuration;
+        }
+
+        public long getMaxDuration()
+        {
+            return this.maxDuration;
+        }
+    }
+}
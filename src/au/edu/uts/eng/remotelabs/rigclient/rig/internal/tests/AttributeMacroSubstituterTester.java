@@ -91,6 +91,8 @@ public class AttributeMacroSubstituterTester extends TestCase
         expect(this.mockConfig.getProperty("WARN_Log_Format")).andReturn(null);
         expect(this.mockConfig.getProperty("INFO_Log_Format")).andReturn(null);
         expect(this.mockConfig.getProperty("DEBUG_Log_Format")).andReturn(null);
+        expect(this.mockConfig.getProperty("Log_Buffer_Size", "2000")).andReturn("2000");
+        expect(this.mockConfig.getProperty("Log_Async", "false")).andReturn("false");
         
         expect(this.mockConfig.getProperty("Rig_Class")).andReturn("does.not.exist.MockRig");
         expect(this.mockConfig.getProperty("Rig_Client_IP_Address")).andReturn(null).times(2);
@@ -95,6 +95,8 @@ public class ConfigurationActionLoaderTester extends TestCase
         expect(this.mockConfig.getProperty("WARN_Log_Format")).andReturn(null);
         expect(this.mockConfig.getProperty("INFO_Log_Format")).andReturn(null);
         expect(this.mockConfig.getProperty("DEBUG_Log_Format")).andReturn(null);
+        expect(this.mockConfig.getProperty("Log_Buffer_Size", "2000")).andReturn("2000");
+        expect(this.mockConfig.getProperty("Log_Async", "false")).andReturn("false");
         replay(this.mockConfig);
         
         ConfigFactory.getInstance();
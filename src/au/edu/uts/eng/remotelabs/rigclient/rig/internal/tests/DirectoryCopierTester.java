@@ -43,6 +43,8 @@ package au.edu.uts.eng.remotelabs.rigclient.rig.internal.tests;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
 
 import junit.framework.TestCase;
 
@@ -140,6 +142,98 @@ public class DirectoryCopierTester extends TestCase
         }
     }
     
+    /**
+     * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.rig.internal.DirectoryCopier#copyDirectory(java.lang.String, java.lang.String)}.
+     */
+    @Test
+    public void testCopyDirectoryLink() throws IOException
+    {
+        String from = System.getProperty("user.dir") + "/test/resources/BatchRunner/ResultsFiles";
+        String to = System.getProperty("user.dir") + "/test/resources/BatchRunner/tmp";
+        
+        DirectoryCopier link = new DirectoryCopier(DirectoryCopier.Method.LINK, 1);
+        assertTrue(link.copyDirectory(from, to));
+        
+        File a = new File(to, "a.txt");
+        assertTrue(a.isFile());
+        assertTrue(Files.isSameFile(new File(from, "a.txt").toPath(), a.toPath()));
+        assertTrue(new File(from, "a.txt").isFile());
+        this.recusiveDelete(new File(to));
+    }
+    
+    /**
+     * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.rig.internal.DirectoryCopier#copyFile(java.io.File, java.io.File)}.
+     */
+    @Test
+    public void testCopyFileLinkExists() throws IOException
+    {
+        File from = new File(System.getProperty("user.dir") + "/test/resources/BatchRunner/ResultsFiles");
+        File to = new File(System.getProperty("user.dir") + "/test/resources/BatchRunner/tmp");
+        assertTrue(to.mkdir());
+        
+        try
+        {
+            /* A file that cannot be linked is copied without stopping later 
+             * files from being linked. */
+            assertTrue(new File(to, "a.txt").createNewFile());
+            DirectoryCopier link = new DirectoryCopier(DirectoryCopier.Method.LINK, 1);
+            link.copyFile(new File(from, "a.txt"), to);
+            assertEquals(new File(from, "a.txt").length(), new File(to, "a.txt").length());
+            assertFalse(Files.isSameFile(new File(from, "a.txt").toPath(), new File(to, "a.txt").toPath()));
+            
+            link.copyFile(new File(from, "b.txt"), to);
+            assertTrue(Files.isSameFile(new File(from, "b.txt").toPath(), new File(to, "b.txt").toPath()));
+        }
+        finally
+        {
+            this.recusiveDelete(to);
+        }
+    }
+    
+    /**
+     * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.rig.internal.DirectoryCopier#copyDirectory(java.lang.String, java.lang.String)}.
+     */
+    @Test
+    public void testCopyDirectoryMove() throws IOException
+    {
+        String from = System.getProperty("user.dir") + "/test/resources/BatchRunner/tmp";
+        String to = System.getProperty("user.dir") + "/test/resources/BatchRunner/tmp2";
+        assertTrue(this.copier.copyDirectory(System.getProperty("user.dir") + "/test/resources/BatchRunner/ResultsFiles", 
+                from));
+        
+        DirectoryCopier move = new DirectoryCopier(DirectoryCopier.Method.MOVE, 1);
+        assertTrue(move.copyDirectory(from, to));
+        
+        assertFalse(new File(from).exists());
+        assertTrue(new File(to, "a.txt").isFile());
+        assertTrue(new File(to, "b.txt").isFile());
+        assertTrue(new File(to, "c.txt").isFile());
+        this.recusiveDelete(new File(to));
+    }
+    
+    /**
+     * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.rig.internal.DirectoryCopier#recursiveCopy(String, String)}
+     */
+    @Test
+    public void testRecursiveCopyParallel() throws IOException
+    {
+        String from = System.getProperty("user.dir") + "/test/resources/BatchRunner/ResultsFiles";
+        String to = System.getProperty("user.dir") + "/test/resources/BatchRunner/tmp";
+        
+        DirectoryCopier parallel = new DirectoryCopier(DirectoryCopier.Method.COPY, 3);
+        parallel.recursiveCopy(from, to);
+        
+        for (String name : new String[] { "a.txt", "b.txt", "c.txt" })
+        {
+            File copy = new File(to, name);
+            assertTrue(copy.isFile());
+            assertFalse(Files.isSameFile(new File(from, name).toPath(), copy.toPath()));
+            assertTrue(Arrays.equals(Files.readAllBytes(new File(from, name).toPath()), 
+                    Files.readAllBytes(copy.toPath())));
+        }
+        this.recusiveDelete(new File(to));
+    }
+    
     /**
      * Recursively delete directory and contents.
      * 
@@ -44,9 +44,14 @@ package au.edu.uts.eng.remotelabs.rigclient.rig.internal.tests;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -151,4 +156,167 @@ public class DirectoryZipperTester extends TestCase
             fail("Exception " + e.getClass().getName() + ", message: " + e.getMessage());
         }
     }
+    
+    /**
+     * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.rig.internal.DirectoryZipper#compressDirectory(String, String)}
+     */
+    @Test
+    public void testCompressDirectoryParallel() throws Exception
+    {
+        File dir = this.createResults("ParallelResults", 20, 64 * 1024);
+        File seq = new File(dir.getParent(), "seq.zip");
+        File par = new File(dir.getParent(), "par.zip");
+        
+        try
+        {
+            assertTrue(new DirectoryZipper("FASTEST").compressDirectory(dir.getAbsolutePath(), seq.getAbsolutePath()));
+            assertTrue(new DirectoryZipper("FASTEST", 4, "png").compressDirectory(dir.getAbsolutePath(), 
+                    par.getAbsolutePath()));
+            
+            Map<String, byte[]> seqEntries = this.readZip(seq);
+            Map<String, byte[]> parEntries = this.readZip(par);
+            assertEquals(22, seqEntries.size());
+            assertEquals(seqEntries.keySet(), parEntries.keySet());
+            for (String name : seqEntries.keySet())
+            {
+                assertTrue(name, Arrays.equals(seqEntries.get(name), parEntries.get(name)));
+            }
+            
+            ZipFile zip = new ZipFile(par);
+            try
+            {
+                assertEquals(ZipEntry.STORED, zip.getEntry("/ParallelResults/image.png").getMethod());
+                assertEquals(ZipEntry.DEFLATED, zip.getEntry("/ParallelResults/sub/file0.dat").getMethod());
+            }
+            finally
+            {
+                zip.close();
+            }
+        }
+        finally
+        {
+            seq.delete();
+            par.delete();
+            this.delete(dir.getParentFile());
+        }
+    }
+    
+    /**
+     * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.rig.internal.DirectoryZipper#compressDirectory(String, String)}
+     */
+    @Test
+    public void testCompressDirectoryStored() throws Exception
+    {
+        File dir = this.createResults("StoredResults", 2, 1024);
+        File seq = new File(dir.getParent(), "seq.zip");
+        
+        try
+        {
+            assertTrue(new DirectoryZipper("DEFAULT", 1, "png").compressDirectory(dir.getAbsolutePath(), 
+                    seq.getAbsolutePath()));
+            
+            ZipFile zip = new ZipFile(seq);
+            try
+            {
+                assertEquals(ZipEntry.STORED, zip.getEntry("/StoredResults/image.png").getMethod());
+                assertEquals(ZipEntry.DEFLATED, zip.getEntry("/StoredResults/sub/file0.dat").getMethod());
+            }
+            finally
+            {
+                zip.close();
+            }
+            assertEquals(4, this.readZip(seq).size());
+        }
+        finally
+        {
+            seq.delete();
+            this.delete(dir.getParentFile());
+        }
+    }
+    
+    /**
+     * Creates a results directory of compressible data files in a 
+     * sub-directory, a large file and an incompressible image.
+     * 
+     * @param name results directory name
+     * @param num number of data files
+     * @param size size of each data file
+     * @return results directory
+     */
+    private File createResults(String name, int num, int size) throws IOException
+    {
+        File base = new File(System.getProperty("java.io.tmpdir"), "ziptest-" + System.nanoTime());
+        File dir = new File(base, name);
+        File sub = new File(dir, "sub");
+        assertTrue(sub.mkdirs());
+        
+        Random rand = new Random(num);
+        byte data[] = new byte[size];
+        for (int i = 0; i < num; i++)
+        {
+            for (int j = 0; j < size; j++)
+            {
+                data[j] = (byte)('a' + rand.nextInt(4));
+            }
+            this.write(new File(sub, "file" + i + ".dat"), data);
+        }
+        
+        /* Larger than the in memory compression threshold. */
+        byte large[] = new byte[17 * 1024 * 1024];
+        for (int j = 0; j < large.length; j += 4096) large[j] = (byte)j;
+        this.write(new File(dir, "large.dat"), large);
+        
+        rand.nextBytes(data);
+        this.write(new File(dir, "image.png"), data);
+        
+        return dir;
+    }
+    
+    private void write(File file, byte data[]) throws IOException
+    {
+        FileOutputStream out = new FileOutputStream(file);
+        try
+        {
+            out.write(data);
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+    
+    private Map<String, byte[]> readZip(File file) throws IOException
+    {
+        Map<String, byte[]> entries = new HashMap<String, byte[]>();
+        ZipFile zip = new ZipFile(file);
+        try
+        {
+            Enumeration<? extends ZipEntry> en = zip.entries();
+            while (en.hasMoreElements())
+            {
+                ZipEntry z = en.nextElement();
+                byte data[] = new byte[(int)z.getSize()];
+                InputStream in = zip.getInputStream(z);
+                int off = 0, read;
+                while (off < data.length && (read = in.read(data, off, data.length - off)) > 0) off += read;
+                in.close();
+                assertEquals(data.length, off);
+                entries.put(z.getName(), data);
+            }
+        }
+        finally
+        {
+            zip.close();
+        }
+        return entries;
+    }
+    
+    private void delete(File file)
+    {
+        if (file.isDirectory())
+        {
+            for (File f : file.listFiles()) this.delete(f);
+        }
+        file.delete();
+    }
 }
@@ -0,0 +1,421 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig.internal.tests;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import au.edu.uts.eng.remotelabs.rigclient.rig.AbstractPeriodicTestAction;
+import au.edu.uts.eng.remotelabs.rigclient.rig.ITestAction;
+import au.edu.uts.eng.remotelabs.rigclient.rig.internal.TestScheduler;
+import au.edu.uts.eng.remotelabs.rigclient.rig.internal.TestScheduler.ScheduledTest;
+import au.edu.uts.eng.remotelabs.rigclient.util.ConfigFactory;
+import au.edu.uts.eng.remotelabs.rigclient.util.IConfig;
+
+/**
+ * Tests the {@link TestScheduler} class.
+ */
+public class TestSchedulerTester extends TestCase
+{
+    /** Object of class under test. */
+    private TestScheduler scheduler;
+    
+    @Override
+    @Before
+    public void setUp() throws Exception
+    {
+        IConfig mockConfig = createMock(IConfig.class);
+        expect(mockConfig.getProperty("Test_Scheduler_Threads", "2")).andReturn("2").anyTimes();
+        expect(mockConfig.getProperty("Test_Schedule_Jitter", "10")).andReturn("0").anyTimes();
+        
+        /* Logging configuration. */
+        expect(mockConfig.getProperty("Logger_Type")).andReturn("SystemErr");
+        expect(mockConfig.getProperty("Log_Level")).andReturn("WARN");
+        expect(mockConfig.getProperty("Default_Log_Format", "[__LEVEL__] - [__ISO8601__] - __MESSAGE__"))
+            .andReturn("[__LEVEL__] - [__ISO8601__] - __MESSAGE__");
+        expect(mockConfig.getProperty("FATAL_Log_Format")).andReturn(null);
+        expect(mockConfig.getProperty("PRIORITY_Log_Format")).andReturn(null);
+        expect(mockConfig.getProperty("ERROR_Log_Format")).andReturn(null);
+        expect(mockConfig.getProperty("WARN_Log_Format")).andReturn(null);
+        expect(mockConfig.getProperty("INFO_Log_Format")).andReturn(null);
+        expect(mockConfig.getProperty("DEBUG_Log_Format")).andReturn(null);
+        expect(mockConfig.getProperty("Log_Buffer_Size", "2000")).andReturn("2000");
+        expect(mockConfig.getProperty("Log_Async", "false")).andReturn("false");
+        replay(mockConfig);
+        
+        Field field = ConfigFactory.class.getDeclaredField("instance");
+        field.setAccessible(true);
+        field.set(null, mockConfig);
+        
+        this.scheduler = new TestScheduler();
+        this.scheduler.setRunning(true);
+    }
+    
+    @Override
+    @After
+    public void tearDown()
+    {
+        this.scheduler.shutdown();
+    }
+    
+    @Test
+    public void testPeriodicRuns() throws Exception
+    {
+        PeriodicTest test = new PeriodicTest(50, 0);
+        this.scheduler.schedule(test);
+        
+        Thread.sleep(525);
+        
+        ScheduledTest st = this.scheduler.getScheduledTest(test);
+        assertNotNull(st);
+        assertSame(test, st.getTest());
+        
+        /* Runs at 0, 50, ..., 500 ms. */
+        assertTrue(test.runs.get() >= 9);
+        assertTrue(test.runs.get() <= 12);
+        assertEquals(test.runs.get(), st.getRuns());
+        assertEquals(0, st.getOverruns());
+        assertEquals(0, st.getMissed());
+        assertTrue(test.threadName.startsWith("Test Scheduler"));
+    }
+    
+    @Test
+    public void testOverrun() throws Exception
+    {
+        PeriodicTest test = new PeriodicTest(50, 120);
+        this.scheduler.schedule(test);
+        
+        Thread.sleep(400);
+        this.scheduler.setRunning(false);
+        
+        ScheduledTest st = this.scheduler.getScheduledTest(test);
+        assertTrue(st.getRuns() >= 2);
+        assertTrue(st.getRuns() <= 4);
+        assertTrue(st.getOverruns() >= 2);
+        assertTrue(st.getMissed() >= st.getOverruns());
+        assertTrue(st.getMaxDuration() >= 120);
+    }
+    
+    @Test
+    public void testRunTestFails() throws Exception
+    {
+        PeriodicTest test = new PeriodicTest(50, 0)
+        {
+            @Override
+            public void runTest()
+            {
+                super.runTest();
+                throw new IllegalStateException("Test failure");
+            }
+        };
+        this.scheduler.schedule(test);
+        
+        Thread.sleep(275);
+        
+        assertTrue(test.runs.get() >= 4);
+    }
+    
+    @Test
+    public void testRunTestError() throws Exception
+    {
+        PeriodicTest test = new PeriodicTest(50, 0)
+        {
+            @Override
+            public void runTest()
+            {
+                super.runTest();
+                throw new AssertionError("Test error");
+            }
+        };
+        this.scheduler.schedule(test);
+        
+        Thread.sleep(275);
+        
+        /* Errors do not stop the test being rescheduled. */
+        assertTrue(test.runs.get() >= 4);
+    }
+    
+    @Test
+    public void testJitterNotOverrun() throws Exception
+    {
+        PeriodicTest test = new PeriodicTest(100, 60);
+        this.scheduler.schedule(test);
+        
+        Field field = TestScheduler.class.getDeclaredField("jitter");
+        field.setAccessible(true);
+        field.set(this.scheduler, 50);
+        
+        /* Runs that start late by the jitter and complete within a period
+         * have not overrun. */
+        Thread.sleep(650);
+        this.scheduler.setRunning(false);
+        
+        ScheduledTest st = this.scheduler.getScheduledTest(test);
+        assertTrue(st.getRuns() >= 4);
+        assertEquals(0, st.getOverruns());
+    }
+    
+    @Test
+    public void testPeriodicTestAction() throws Exception
+    {
+        PeriodicTest test = new PeriodicTest(50, 0);
+        assertEquals(50, test.getPeriod());
+        test.setInterval(2);
+        assertEquals(120000, test.getPeriod());
+        
+        assertTrue(test.getStatus());
+        test.failTest("Broken");
+        assertFalse(test.getStatus());
+        assertEquals("Broken", test.getReason());
+        assertEquals("Broken", test.getFailureReason());
+        
+        test.runTest();
+        assertTrue(test.getStatus());
+        assertNull(test.getReason());
+    }
+    
+    @Test
+    public void testNotRunning() throws Exception
+    {
+        TestScheduler scheduler = new TestScheduler();
+        try
+        {
+            /* Tests are not run until the scheduler is set running. */
+            PeriodicTest test = new PeriodicTest(20, 0);
+            scheduler.schedule(test);
+            Thread.sleep(100);
+            assertEquals(0, test.runs.get());
+            
+            scheduler.setRunning(true);
+            Thread.sleep(100);
+            assertTrue(test.runs.get() > 0);
+        }
+        finally
+        {
+            scheduler.shutdown();
+        }
+    }
+    
+    @Test
+    public void testPause() throws Exception
+    {
+        PeriodicTest test = new PeriodicTest(20, 300);
+        this.scheduler.schedule(test);
+        
+        /* Pausing does not wait for the in progress run to complete. */
+        Thread.sleep(50);
+        final long start = System.currentTimeMillis();
+        this.scheduler.setRunning(false);
+        assertTrue(System.currentTimeMillis() - start < 100);
+        assertTrue(test.inRun);
+        
+        Thread.sleep(400);
+        assertFalse(test.inRun);
+        final int runs = test.runs.get();
+        Thread.sleep(200);
+        assertEquals(runs, test.runs.get());
+        
+        this.scheduler.setRunning(true);
+        Thread.sleep(200);
+        assertTrue(test.runs.get() > runs);
+    }
+    
+    @Test
+    public void testReschedule() throws Exception
+    {
+        PeriodicTest test = new PeriodicTest(10000, 0);
+        this.scheduler.schedule(test);
+        
+        Thread.sleep(100);
+        assertEquals(1, test.runs.get());
+        
+        test.setPeriod(50);
+        this.scheduler.reschedule();
+        Thread.sleep(175);
+        assertTrue(test.runs.get() >= 4);
+    }
+    
+    @Test
+    public void testNotPeriodic() throws Exception
+    {
+        final CountDownLatch latch = new CountDownLatch(1);
+        ITestAction test = new LegacyTest(latch);
+        
+        /* Tests which are not periodic run in their own thread. */
+        this.scheduler.schedule(test);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertNull(this.scheduler.getScheduledTest(test));
+    }
+    
+    /**
+     * Periodic test that counts its runs.
+     */
+    private static class PeriodicTest extends AbstractPeriodicTestAction
+    {
+        /** How long each run takes. */
+        final long duration;
+        
+        /** Number of runs. */
+        final AtomicInteger runs = new AtomicInteger();
+        
+        /** Whether a run is in progress. */
+        volatile boolean inRun;
+        
+        /** Name of the thread the test was last run on. */
+        volatile String threadName;
+        
+        PeriodicTest(long period, long duration)
+        {
+            this.setPeriod(period);
+            this.duration = duration;
+        }
+        
+        @Override
+        public void runTest()
+        {
+            this.inRun = true;
+            this.threadName = Thread.currentThread().getName();
+            this.runs.incrementAndGet();
+            try
+            {
+                if (this.duration > 0) Thread.sleep(this.duration);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            this.pass();
+            this.inRun = false;
+        }
+        
+        @Override
+        public void setPeriod(long millis)
+        {
+            super.setPeriod(millis);
+        }
+        
+        void failTest(String reason)
+        {
+            this.fail(reason);
+        }
+
+        @Override
+        public void run()
+        {
+            TestSchedulerTester.fail("Periodic tests should not be run in a thread.");
+        }
+
+        @Override
+        public String getActionType()
+        {
+            return "Periodic test";
+        }
+    }
+    
+    /**
+     * Test that runs its own test loop.
+     */
+    private static class LegacyTest implements ITestAction
+    {
+        /** Latch counted down when the test loop is run. */
+        private final CountDownLatch latch;
+        
+        LegacyTest(CountDownLatch latch)
+        {
+            this.latch = latch;
+        }
+        
+        @Override
+        public void run()
+        {
+            this.latch.countDown();
+        }
+        
+        @Override
+        public void startTest()
+        { /* Does nothing. */ }
+
+        @Override
+        public void stopTest()
+        { /* Does nothing. */ }
+
+        @Override
+        public boolean getStatus()
+        {
+            return true;
+        }
+
+        @Override
+        public String getReason()
+        {
+            return null;
+        }
+
+        @Override
+        public void setInterval(int interval)
+        { /* Does nothing. */ }
+
+        @Override
+        public String getActionType()
+        {
+            return "Legacy test";
+        }
+
+        @Override
+        public String getFailureReason()
+        {
+            return null;
+        }
+    }
+}
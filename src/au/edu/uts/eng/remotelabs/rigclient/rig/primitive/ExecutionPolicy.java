@@ -0,0 +1,97 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig.primitive;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares how concurrent primitive control requests to a controller are 
+ * executed. The policy applies to the complete routing of a request, that 
+ * is the <code>preRoute</code>, action and <code>postRoute</code> 
+ * invocations. Controllers without this annotation have the 
+ * {@link Policy#CONCURRENT} policy.
+ * <br />
+ * For example, a controller where sensor reads may run in parallel but
+ * actuator moves must run one at a time:
+ * <pre>
+ *   &#64;ExecutionPolicy(Policy.READ_WRITE)
+ *   public class PendulumController implements IPrimitiveController
+ *   {
+ *       &#64;ReadOnlyAction
+ *       public PrimitiveResponse angleAction(PrimitiveRequest request) { ... }
+ *       
+ *       public PrimitiveResponse moveAction(PrimitiveRequest request) { ... }
+ *       ...
+ *   }
+ * </pre>
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface ExecutionPolicy
+{
+    /**
+     * Execution policies.
+     */
+    public enum Policy
+    {
+        /** Requests run concurrently without any ordering. */
+        CONCURRENT,
+        
+        /** Requests are run one at a time, in the order they arrive. */
+        SERIALIZED,
+        
+        /** Requests to actions marked with {@link ReadOnlyAction} may run 
+         *  concurrently, all other requests run exclusively and in the 
+         *  order they arrive. */
+        READ_WRITE
+    }
+    
+    /** The execution policy of the controller. */
+    Policy value();
+}
@@ -80,6 +80,10 @@ package au.edu.uts.eng.remotelabs.rigclient.rig.primitive;
  * </ol> 
  * It is safe to have resources (open files, handles...) as instance fields
  * provided they are cleaned in the <code>cleanup</code> method.
+ * <br />
+ * By default, requests from different users may run actions on the same
+ * controller instance concurrently. Controllers that need requests to be
+ * ordered should declare an {@link ExecutionPolicy}.
  */
 public interface IPrimitiveController
 {
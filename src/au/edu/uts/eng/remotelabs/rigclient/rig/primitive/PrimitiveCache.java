@@ -42,10 +42,11 @@
 package au.edu.uts.eng.remotelabs.rigclient.rig.primitive;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import au.edu.uts.eng.remotelabs.rigclient.main.RigClientDefines;
 import au.edu.uts.eng.remotelabs.rigclient.util.ConfigFactory;
@@ -53,12 +54,35 @@ import au.edu.uts.eng.remotelabs.rigclient.util.ILogger;
 import au.edu.uts.eng.remotelabs.rigclient.util.LoggerFactory;
 
 /**
- * Cache for <code>IPrimitiveController</code> instances.
+ * Cache for <code>IPrimitiveController</code> instances. Lookups of loaded
+ * controllers do not lock, only loading and removing controllers are 
+ * serialized.
  */
 public class PrimitiveCache
 {
-    /** The list of loaded primitive controller instances. */
+    /** Default time in seconds a controller name that cannot be resolved is remembered. */
+    public static final int DEFAULT_NOT_FOUND_CACHE_TIME = 60;
+    
+    /** Maximum number of requested names that are remembered as resolved or not found. */
+    public static final int MAX_REMEMBERED_NAMES = 1024;
+    
+    /** Maximum length of a controller name. */
+    private static final int MAX_NAME_LENGTH = 255;
+    
+    /** The list of loaded primitive controller instances keyed by resolved class name. */
     private final Map<String, IPrimitiveController> cache;
+    
+    /** Requested controller names to the class name they were resolved to. */
+    private final Map<String, String> resolvedNames;
+    
+    /** Requested controller names that could not be resolved to the time the result expires. */
+    private final Map<String, Long> notFound;
+    
+    /** Time in milliseconds a controller name that cannot be resolved is remembered. */
+    private final long notFoundCacheTime;
+    
+    /** Action dispatch tables of loaded primitive controller classes. */
+    private final Map<Class<?>, PrimitiveDispatchTable> dispatchTables;
 
     /** Packages where the the primitive controller may reside. */
     private final List<String> packages;
@@ -73,7 +97,10 @@ public class PrimitiveCache
     {
         this.logger = LoggerFactory.getLoggerInstance();
         this.logger.debug("Created a primitive control cache.");
-        this.cache = new HashMap<String, IPrimitiveController>();
+        this.cache = new ConcurrentHashMap<String, IPrimitiveController>();
+        this.resolvedNames = new ConcurrentHashMap<String, String>();
+        this.notFound = new ConcurrentHashMap<String, Long>();
+        this.dispatchTables = new ConcurrentHashMap<Class<?>, PrimitiveDispatchTable>();
 
         this.packages = new ArrayList<String>();
         final String confPrefixes = ConfigFactory.getInstance().getProperty("Package_Prefixes");
@@ -91,6 +118,19 @@ public class PrimitiveCache
                 this.packages.add(prefix);
             }
         }
+        
+        int cacheTime = DEFAULT_NOT_FOUND_CACHE_TIME;
+        try
+        {
+            cacheTime = Integer.parseInt(ConfigFactory.getInstance().getProperty("Primitive_Not_Found_Cache_Time", 
+                    String.valueOf(DEFAULT_NOT_FOUND_CACHE_TIME)));
+        }
+        catch (NumberFormatException ex)
+        {
+            this.logger.warn("Loaded primitive controller not found cache time is invalid, using the default " +
+                    "of " + DEFAULT_NOT_FOUND_CACHE_TIME + " seconds.");
+        }
+        this.notFoundCacheTime = cacheTime * 1000L;
     }
 
     /**
@@ -108,6 +148,14 @@ public class PrimitiveCache
      *  <li>The <code>initController</code> method must succeed, that is 
      *  return <code>true</code>.
      * </ol>
+     * The name the class was resolved to is remembered, so subsequent
+     * requests for a cached controller are a lookup. Names that cannot
+     * be resolved are remembered for the configured not found cache
+     * time (<tt>Primitive_Not_Found_Cache_Time</tt>) to not repeat
+     * class resolution over all the configured packages on each 
+     * request. Names that are not valid class names are rejected 
+     * without resolution and at most <tt>MAX_REMEMBERED_NAMES</tt>
+     * names are remembered.
      * 
      * @param className class to get an instance of
      * @return instance or null if the name cannot be resolved
@@ -115,67 +163,66 @@ public class PrimitiveCache
     public IPrimitiveController getInstance(final String className)
     {
         /* First try and find a previously loaded instance. */
-        if (this.cache.containsKey(className))
+        final String resolved = this.resolvedNames.get(className);
+        if (resolved != null)
         {
-            this.logger.debug("Returning cached primitive controller " + className + ".");
-            return this.cache.get(className);
+            final IPrimitiveController controller = this.cache.get(resolved);
+            if (controller != null) return controller;
         }
-
-        /* Try all the configured packages. */
-        String controllerName;
-        for (String packagePrefix : this.packages)
+        
+        /* Names that cannot be class names are not resolved or remembered. */
+        if (!PrimitiveCache.isValidName(className))
         {
-            controllerName = RigClientDefines.prependPackage(packagePrefix, className);
-            if (this.cache.containsKey(RigClientDefines.prependPackage(packagePrefix, className)))
-            {
-                this.logger.debug("Returning cached primitive controller " + packagePrefix + className + ".");
-                return this.cache.get(controllerName);
-            }
+            this.logger.warn("Primitive controller name " + className + " is not a valid class name.");
+            return null;
+        }
+        
+        /* Check whether the name was recently found to not be resolvable. */
+        final Long expiry = this.notFound.get(className);
+        if (expiry != null)
+        {
+            if (expiry.longValue() > System.currentTimeMillis()) return null;
+            this.notFound.remove(className);
         }
         
         synchronized (this)
         {
             /* Try again in case another thread has loaded the class. */
-            if (this.cache.containsKey(className))
+            String controllerName = this.resolvedNames.get(className);
+            if (controllerName != null && this.cache.containsKey(controllerName))
             {
-                this.logger.debug("Returning cached primitive controller " + className + ".");
-                return this.cache.get(className);
+                this.logger.debug("Returning cached primitive controller {}.", controllerName);
+                return this.cache.get(controllerName);
             }
-            for (String packagePrefix : this.packages)
+            
+            /* The controller may have been loaded with a different name. */
+            for (String name : this.candidateNames(className))
             {
-                controllerName = RigClientDefines.prependPackage(packagePrefix, className);
-                if (this.cache.containsKey(controllerName))
+                if (this.cache.containsKey(name))
                 {
-                    this.logger.debug("Returning cached primitive controller " + packagePrefix + className + ".");
-                    return this.cache.get(controllerName);
+                    this.logger.debug("Returning cached primitive controller {}.", name);
+                    this.rememberResolved(className, name);
+                    return this.cache.get(name);
                 }
             }
              
             /* Create the controller class, and check if it is the correct type. */
             IPrimitiveController controller = null;
             Class<?> controllerClass = null;
-            controllerName = null;
-
-            /* This is pretty ugly... */
-            try
+            
+            if (controllerName == null)
             {
-                controllerName = className;
-                controllerClass = Class.forName(controllerName);
-            }
-            catch (ClassNotFoundException e)
-            {
-                this.logger.debug("Class " + className + " not found.");
-                for (String prefix : this.packages)
+                for (String name : this.candidateNames(className))
                 {
                     try
                     {
-                        controllerName = RigClientDefines.prependPackage(prefix, className);
-                        controllerClass = Class.forName(controllerName);
+                        controllerClass = Class.forName(name);
+                        controllerName = name;
                         break;
                     }
                     catch (ClassNotFoundException ex)
                     {
-                        this.logger.debug("Class " + controllerName + " not found.");
+                        this.logger.debug("Class {} not found.", name);
                     }
                     catch (Throwable t)
                     {
@@ -184,16 +231,25 @@ public class PrimitiveCache
                     }
                 }
             }
-            catch (Throwable t)
+            else
             {
-                this.logger.error("Failed class initalisation, exception: " + t.getClass().getSimpleName() + 
-                        ", reason: " + t.getMessage());
+                /* Previously resolved, but its instance has been removed. */
+                try
+                {
+                    controllerClass = Class.forName(controllerName);
+                }
+                catch (Throwable t)
+                {
+                    this.logger.error("Failed class initalisation, exception: " + t.getClass().getSimpleName() + 
+                            ", reason: " + t.getMessage());
+                }
             }
 
             /* Check if a class was found. */
             if (controllerClass == null)
             {
                 this.logger.warn("Unable to load primitive controller " + className + ".");
+                this.rememberNotFound(className);
                 return null;
             }
 
@@ -204,6 +260,7 @@ public class PrimitiveCache
                 {
                     this.logger.warn("Instantiated class " + controllerClass.getName() + " not an instance of "
                             + " IPrimitiveController interface. Failing primitive controller resolution.");
+                    this.rememberNotFound(className);
                     return null;
                 }
 
@@ -228,12 +285,137 @@ public class PrimitiveCache
                 return null;
             }
 
-            this.logger.debug("Caching primitive controller " + controllerName + ".");
+            if (!this.dispatchTables.containsKey(controllerClass))
+            {
+                this.dispatchTables.put(controllerClass, new PrimitiveDispatchTable(controllerClass));
+            }
+
+            this.logger.debug("Caching primitive controller {}.", controllerName);
             this.cache.put(controllerName, controller);
+            this.rememberResolved(className, controllerName);
+            this.rememberResolved(controllerName, controllerName);
             return controller;
         }
     }
     
+    /**
+     * Remembers the class name a requested name was resolved to. Once the 
+     * maximum number of names are remembered, further names are resolved
+     * by checking the loaded controllers on each request.
+     * 
+     * @param className requested controller name
+     * @param controllerName resolved class name
+     */
+    private void rememberResolved(final String className, final String controllerName)
+    {
+        if (this.resolvedNames.size() < MAX_REMEMBERED_NAMES || this.resolvedNames.containsKey(className))
+        {
+            this.resolvedNames.put(className, controllerName);
+        }
+    }
+    
+    /**
+     * Remembers a requested name could not be resolved. If the maximum
+     * number of names are remembered, expired names are purged and if 
+     * none have expired, the name is not remembered.
+     * 
+     * @param className requested controller name
+     */
+    private void rememberNotFound(final String className)
+    {
+        final long now = System.currentTimeMillis();
+        if (this.notFound.size() >= MAX_REMEMBERED_NAMES)
+        {
+            final Iterator<Long> it = this.notFound.values().iterator();
+            while (it.hasNext())
+            {
+                if (it.next().longValue() <= now) it.remove();
+            }
+            
+            if (this.notFound.size() >= MAX_REMEMBERED_NAMES)
+            {
+                this.logger.debug("Not remembering unresolvable primitive controller {} as the not found cache " +
+                        "is full.", className);
+                return;
+            }
+        }
+        
+        this.notFound.put(className, now + this.notFoundCacheTime);
+    }
+    
+    /**
+     * Returns whether a requested controller name may be a class name, 
+     * that is a sequence of Java identifiers separated by periods.
+     * 
+     * @param className requested controller name
+     * @return true if the name may be a class name
+     */
+    private static boolean isValidName(final String className)
+    {
+        if (className == null || className.length() == 0 || className.length() > MAX_NAME_LENGTH) return false;
+        
+        boolean start = true;
+        for (int i = 0; i < className.length(); i++)
+        {
+            final char c = className.charAt(i);
+            if (c == '.')
+            {
+                if (start) return false;
+                start = true;
+            }
+            else if (start ? Character.isJavaIdentifierStart(c) : Character.isJavaIdentifierPart(c))
+            {
+                start = false;
+            }
+            else
+            {
+                return false;
+            }
+        }
+        
+        return !start;
+    }
+    
+    /**
+     * Returns the class names a requested controller name may resolve to, in
+     * resolution order. The first name is the requested name, followed by 
+     * the name prefixed with each of the configured packages.
+     * 
+     * @param className requested controller name
+     * @return list of candidate names
+     */
+    private List<String> candidateNames(final String className)
+    {
+        final List<String> names = new ArrayList<String>(this.packages.size() + 1);
+        names.add(className);
+        for (String packagePrefix : this.packages)
+        {
+            names.add(RigClientDefines.prependPackage(packagePrefix, className));
+        }
+        return names;
+    }
+    
+    /**
+     * Gets the action dispatch table of a controller. The dispatch table is 
+     * generated when the controller class is first loaded so this is 
+     * generally only a lookup.
+     * 
+     * @param controller controller instance
+     * @return dispatch table of the controllers class
+     */
+    public PrimitiveDispatchTable getDispatchTable(final IPrimitiveController controller)
+    {
+        final Class<?> clazz = controller.getClass();
+        PrimitiveDispatchTable table = this.dispatchTables.get(clazz);
+        if (table == null)
+        {
+            /* Controller was not loaded through this cache. */
+            table = new PrimitiveDispatchTable(clazz);
+            this.dispatchTables.put(clazz, table);
+        }
+        return table;
+    }
+    
     /**
      * Removes a cached instance from the cache.
      * 
@@ -241,30 +423,22 @@ public class PrimitiveCache
      */
     public void removeCachedInstance(String className)
     {
-        this.logger.debug("Removing " + className + " instance from the primitive control cache.");
-        String controllerName;
+        this.logger.debug("Removing {} instance from the primitive control cache.", className);
         
         synchronized (this)
         {
-            /* Try again in case another thread has loaded the class. */
-            if (this.cache.containsKey(className))
+            final String resolved = this.resolvedNames.get(className);
+            IPrimitiveController controller = resolved == null ? null : this.cache.remove(resolved);
+            
+            if (controller == null)
             {
-                this.cache.get(className).cleanup();
-                this.cache.remove(className);                
-            }
-            else
-            {
-                for (String packagePrefix : this.packages)
+                for (String name : this.candidateNames(className))
                 {
-                    controllerName = RigClientDefines.prependPackage(packagePrefix, className);
-                    if (this.cache.containsKey(controllerName))
-                    {
-                        this.cache.get(controllerName).cleanup();
-                        this.cache.remove(controllerName);
-                        break;
-                    }
+                    if ((controller = this.cache.remove(name)) != null) break;
                 }
             }
+            
+            if (controller != null) controller.cleanup();
         }
     }
 
@@ -278,10 +452,11 @@ public class PrimitiveCache
         {
             for (Entry<String, IPrimitiveController> e : this.cache.entrySet())
             {
-                this.logger.debug("Cleaning up controller " + e.getKey() + ".");
+                this.logger.debug("Cleaning up controller {}.", e.getKey());
                 e.getValue().cleanup();
             }
             this.cache.clear();
+            this.notFound.clear();
         }
     }
 }
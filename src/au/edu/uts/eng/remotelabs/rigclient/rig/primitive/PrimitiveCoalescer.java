@@ -0,0 +1,296 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig.primitive;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import au.edu.uts.eng.remotelabs.rigclient.rig.IRigControl.PrimitiveRequest;
+import au.edu.uts.eng.remotelabs.rigclient.rig.IRigControl.PrimitiveResponse;
+import au.edu.uts.eng.remotelabs.rigclient.util.ILogger;
+import au.edu.uts.eng.remotelabs.rigclient.util.LoggerFactory;
+
+/**
+ * Coalesces identical primitive control requests to idempotent actions 
+ * (actions marked with {@link IdempotentAction}). The first request of a 
+ * set of identical concurrent requests runs the action and the other 
+ * requests wait for, and are given, a copy of its response. If the action 
+ * specifies a result cache time, successful responses are also reused for 
+ * identical requests until the cache time expires.
+ */
+public class PrimitiveCoalescer
+{
+    /** Number of cached results after which expired results are purged. */
+    private static final int PURGE_THRESHOLD = 100;
+    
+    /** Requests currently being run. */
+    private final ConcurrentMap<RequestKey, FutureTask<PrimitiveResponse>> inFlight;
+    
+    /** Recent successful responses. */
+    private final Map<RequestKey, CachedResponse> results;
+    
+    /** Logger. */
+    private final ILogger logger;
+    
+    /**
+     * Constructor.
+     */
+    public PrimitiveCoalescer()
+    {
+        this.logger = LoggerFactory.getLoggerInstance();
+        
+        this.inFlight = new ConcurrentHashMap<RequestKey, FutureTask<PrimitiveResponse>>();
+        this.results = new ConcurrentHashMap<RequestKey, CachedResponse>();
+    }
+    
+    /**
+     * Runs the request invocation unless an identical request is already
+     * being run or has a cached response, in which case the response of 
+     * that request is returned.
+     * 
+     * @param controllerClass class of the requested controller
+     * @param request request
+     * @param cacheTime time in milliseconds a successful response may be reused
+     * @param invocation routes the request if it is not coalesced
+     * @return response
+     */
+    public PrimitiveResponse coalesce(final Class<?> controllerClass, final PrimitiveRequest request, 
+            final long cacheTime, final Callable<PrimitiveResponse> invocation)
+    {
+        final RequestKey key = new RequestKey(controllerClass, request);
+        
+        if (cacheTime > 0)
+        {
+            final CachedResponse cached = this.results.get(key);
+            if (cached != null)
+            {
+                if (cached.expiry > System.currentTimeMillis()) return PrimitiveCoalescer.copy(cached.response);
+                this.results.remove(key);
+            }
+        }
+        
+        final FutureTask<PrimitiveResponse> task = new FutureTask<PrimitiveResponse>(invocation);
+        FutureTask<PrimitiveResponse> running = this.inFlight.putIfAbsent(key, task);
+        if (running == null)
+        {
+            /* This is the first request so it runs the action. */
+            try
+            {
+                task.run();
+                
+                /* The response is cached before the request stops being in flight so an 
+                 * identical request arriving in between does not run the action again. */
+                if (cacheTime > 0) this.cache(key, task, cacheTime);
+            }
+            finally
+            {
+                this.inFlight.remove(key);
+            }
+            running = task;
+        }
+        else
+        {
+            this.logger.debug("Coalescing primitive request to {} on {} with an in progress identical request.", 
+                    request.getAction(), controllerClass.getName());
+        }
+        
+        try
+        {
+            /* Each caller is given its own copy as responses are mutable. */
+            return running == task ? running.get() : PrimitiveCoalescer.copy(running.get());
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            final PrimitiveResponse response = new PrimitiveResponse();
+            response.setErrorCode(-7);
+            response.setErrorReason("Interrupted waiting for the response of " + request.getAction() + " on " +
+                    controllerClass.getName() + ".");
+            response.setSuccessful(false);
+            return response;
+        }
+        catch (ExecutionException e)
+        {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+            if (cause instanceof Error) throw (Error)cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+    
+    /**
+     * Caches a copy of the response of a completed request if it was 
+     * successful.
+     * 
+     * @param key request key
+     * @param task completed request
+     * @param cacheTime time in milliseconds to cache the response
+     */
+    private void cache(final RequestKey key, final FutureTask<PrimitiveResponse> task, final long cacheTime)
+    {
+        final PrimitiveResponse response;
+        try
+        {
+            response = task.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        catch (ExecutionException e)
+        {
+            /* Failed requests are not cached. */
+            return;
+        }
+        
+        if (response == null || !response.wasSuccessful()) return;
+        
+        final long now = System.currentTimeMillis();
+        if (this.results.size() > PURGE_THRESHOLD)
+        {
+            final Iterator<CachedResponse> it = this.results.values().iterator();
+            while (it.hasNext())
+            {
+                if (it.next().expiry <= now) it.remove();
+            }
+        }
+        
+        this.results.put(key, new CachedResponse(PrimitiveCoalescer.copy(response), now + cacheTime));
+    }
+    
+    /**
+     * Copies a response.
+     * 
+     * @param response response to copy
+     * @return copy of the response
+     */
+    private static PrimitiveResponse copy(final PrimitiveResponse response)
+    {
+        if (response == null) return null;
+        
+        final PrimitiveResponse copy = new PrimitiveResponse();
+        copy.setSuccessful(response.wasSuccessful());
+        copy.setErrorCode(response.getErrorCode());
+        copy.setErrorReason(response.getErrorReason());
+        if (response.getResults() != null) copy.getResults().putAll(response.getResults());
+        return copy;
+    }
+    
+    /**
+     * Clears all cached responses.
+     */
+    public void clear()
+    {
+        this.results.clear();
+    }
+    
+    /**
+     * Identity of a primitive request, consisting of the controller, action 
+     * and request parameters.
+     */
+    private static class RequestKey
+    {
+        /** Controller class. */
+        private final Class<?> controller;
+        
+        /** Action name. */
+        private final String action;
+        
+        /** Copy of the request parameters. */
+        private final Map<String, String> parameters;
+        
+        /** Hash code. */
+        private final int hash;
+        
+        RequestKey(Class<?> controller, PrimitiveRequest request)
+        {
+            this.controller = controller;
+            this.action = request.getAction();
+            this.parameters = request.getParameters() == null ? new HashMap<String, String>() :
+                    new HashMap<String, String>(request.getParameters());
+            
+            this.hash = 31 * (31 * controller.hashCode() + this.action.hashCode()) + this.parameters.hashCode();
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return this.hash;
+        }
+        
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) return true;
+            if (!(obj instanceof RequestKey)) return false;
+            
+            final RequestKey other = (RequestKey)obj;
+            return this.hash == other.hash && this.controller == other.controller && 
+                    this.action.equals(other.action) && this.parameters.equals(other.parameters);
+        }
+    }
+    
+    /**
+     * A cached response.
+     */
+    private static class CachedResponse
+    {
+        /** Response. */
+        final PrimitiveResponse response;
+        
+        /** Time the response expires. */
+        final long expiry;
+        
+        CachedResponse(PrimitiveResponse response, long expiry)
+        {
+            this.response = response;
+            this.expiry = expiry;
+        }
+    }
+}
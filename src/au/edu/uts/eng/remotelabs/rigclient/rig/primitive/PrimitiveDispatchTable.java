@@ -0,0 +1,350 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig.primitive;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import au.edu.uts.eng.remotelabs.rigclient.rig.IRigControl.PrimitiveRequest;
+import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.ExecutionPolicy.Policy;
+import au.edu.uts.eng.remotelabs.rigclient.util.ILogger;
+import au.edu.uts.eng.remotelabs.rigclient.util.LoggerFactory;
+
+/**
+ * Action dispatch table for a primitive controller class. All the public 
+ * action methods of the controller class (methods with the signature
+ * <tt>public PrimitiveResponse nameAction(PrimitiveRequest)</tt>) are
+ * resolved once when the table is created, so routing a primitive control 
+ * request is a single map lookup using the request action name followed
+ * by a method handle invocation, instead of a reflective method search and
+ * invocation per request.
+ * <br />
+ * The table also holds the execution policy of the controller (declared 
+ * with the {@link ExecutionPolicy} annotation) and the lock used to
+ * enforce it.
+ * <br />
+ * Dispatch tables are immutable after construction and may be shared 
+ * between threads.
+ */
+public class PrimitiveDispatchTable
+{
+    /** Suffix of action method names. */
+    public static final String ACTION_SUFFIX = "Action";
+    
+    /** Type all action method handles are adapted to. */
+    private static final MethodType ACTION_TYPE = 
+            MethodType.methodType(Object.class, Object.class, PrimitiveRequest.class);
+    
+    /** Controller class the table was generated from. */
+    private final Class<?> controllerClass;
+    
+    /** Actions keyed by requested action name (without 'Action' suffix). */
+    private final Map<String, Action> actions;
+    
+    /** Execution policy of the controller. */
+    private final Policy policy;
+    
+    /** Fair lock used to enforce the execution policy. */
+    private final ReadWriteLock executionLock;
+    
+    /** Logger. */
+    private final ILogger logger;
+    
+    /**
+     * Constructor which resolves all the action methods of the controller class.
+     * 
+     * @param clazz controller class
+     */
+    public PrimitiveDispatchTable(final Class<?> clazz)
+    {
+        this.logger = LoggerFactory.getLoggerInstance();
+        this.controllerClass = clazz;
+        
+        final ExecutionPolicy declared = clazz.getAnnotation(ExecutionPolicy.class);
+        this.policy = declared == null ? Policy.CONCURRENT : declared.value();
+        this.executionLock = new ReentrantReadWriteLock(true);
+        
+        final Map<String, Action> resolved = new HashMap<String, Action>();
+        final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        
+        for (Method meth : clazz.getMethods())
+        {
+            final String name = meth.getName();
+            final Class<?> params[] = meth.getParameterTypes();
+            if (!name.endsWith(ACTION_SUFFIX) || name.length() == ACTION_SUFFIX.length() || 
+                    params.length != 1 || params[0] != PrimitiveRequest.class)
+            {
+                continue;
+            }
+            
+            final String actionName = name.substring(0, name.length() - ACTION_SUFFIX.length());
+            
+            /* Covariant overrides may have more than one method with the same signature, 
+             * the method with the most specific return type is used. */
+            final Action existing = resolved.get(actionName);
+            if (existing != null && !existing.method.getReturnType().isAssignableFrom(meth.getReturnType()))
+            {
+                continue;
+            }
+
+            MethodHandle handle = null;
+            try
+            {
+                handle = lookup.unreflect(meth);
+                if (Modifier.isStatic(meth.getModifiers()))
+                {
+                    /* Static actions ignore the controller instance parameter. */
+                    handle = MethodHandles.dropArguments(handle, 0, Object.class);
+                }
+                handle = handle.asType(ACTION_TYPE);
+            }
+            catch (IllegalAccessException e)
+            {
+                this.logger.info("Action " + name + " on " + clazz.getName() + " is not accessible, it will " +
+                        "not be able to be invoked.");
+                handle = null;
+            }
+            
+            this.logger.debug("Resolved action method " + meth.toGenericString() + '.');
+            resolved.put(actionName, new Action(actionName, meth, handle, 
+                    meth.isAnnotationPresent(ReadOnlyAction.class), meth.getAnnotation(IdempotentAction.class)));
+        }
+        
+        this.actions = Collections.unmodifiableMap(resolved);
+        this.logger.debug("Generated dispatch table for primitive controller " + clazz.getName() + " with " + 
+                this.actions.size() + " actions and " + this.policy + " execution policy.");
+    }
+    
+    /**
+     * Gets the action with the specified name.
+     * 
+     * @param name action name without the 'Action' suffix
+     * @return action or null if the controller has no such action
+     */
+    public Action getAction(final String name)
+    {
+        return this.actions.get(name);
+    }
+    
+    /**
+     * Gets the lock that must be held while routing a request to the action 
+     * so the controller execution policy is enforced. If no lock is 
+     * required, <code>null</code> is returned.
+     * 
+     * @param action action that is requested, may be null if the action does not exist
+     * @return lock to hold or null if no locking is required
+     */
+    public Lock getExecutionLock(final Action action)
+    {
+        switch (this.policy)
+        {
+            case SERIALIZED:
+                return this.executionLock.writeLock();
+            case READ_WRITE:
+                return action != null && action.isReadOnly() ? this.executionLock.readLock() :
+                        this.executionLock.writeLock();
+            default:
+                return null;
+        }
+    }
+    
+    /**
+     * Returns the execution policy of the controller.
+     * 
+     * @return execution policy
+     */
+    public Policy getPolicy()
+    {
+        return this.policy;
+    }
+    
+    /**
+     * Returns the names of all the actions of the controller.
+     * 
+     * @return action names
+     */
+    public Set<String> getActionNames()
+    {
+        return this.actions.keySet();
+    }
+    
+    /**
+     * Returns the controller class this dispatch table was generated from.
+     * 
+     * @return controller class
+     */
+    public Class<?> getControllerClass()
+    {
+        return this.controllerClass;
+    }
+    
+    /**
+     * A resolved controller action.
+     */
+    public static class Action
+    {
+        /** Action name. */
+        private final String name;
+        
+        /** Reflected action method. */
+        private final Method method;
+        
+        /** Handle to invoke the method, null if the method is not accessible. */
+        private final MethodHandle handle;
+        
+        /** Whether the action is marked read-only. */
+        private final boolean readOnly;
+        
+        /** Whether the action is marked idempotent. */
+        private final boolean idempotent;
+        
+        /** Time in milliseconds successful responses of an idempotent action may be reused. */
+        private final long cacheTime;
+        
+        Action(String name, Method method, MethodHandle handle, boolean readOnly, IdempotentAction idempotent)
+        {
+            this.name = name;
+            this.method = method;
+            this.handle = handle;
+            this.readOnly = readOnly;
+            this.idempotent = idempotent != null;
+            this.cacheTime = idempotent == null ? 0 : idempotent.cacheTime();
+        }
+        
+        /**
+         * Invokes the action. If the action is a static method, the 
+         * controller parameter is ignored.
+         * 
+         * @param controller controller instance
+         * @param request request to provide to the action
+         * @return action return
+         * @throws IllegalAccessException if the action is not accessible
+         * @throws InvocationTargetException wraps an exception thrown by the action
+         */
+        public Object invoke(final IPrimitiveController controller, final PrimitiveRequest request) 
+                throws IllegalAccessException, InvocationTargetException
+        {
+            if (this.handle == null)
+            {
+                throw new IllegalAccessException("Action " + this.method.getName() + " is not accessible.");
+            }
+            
+            try
+            {
+                return (Object)this.handle.invokeExact((Object)controller, request);
+            }
+            catch (Throwable thr)
+            {
+                /* Wrapped the same as reflective invocation. */
+                throw new InvocationTargetException(thr);
+            }
+        }
+        
+        /**
+         * Returns whether the action may be invoked.
+         * 
+         * @return true if accessible
+         */
+        public boolean isAccessible()
+        {
+            return this.handle != null;
+        }
+        
+        /**
+         * Returns whether the action is marked with {@link ReadOnlyAction}.
+         * 
+         * @return true if read-only
+         */
+        public boolean isReadOnly()
+        {
+            return this.readOnly;
+        }
+        
+        /**
+         * Returns whether the action is marked with {@link IdempotentAction}.
+         * 
+         * @return true if idempotent
+         */
+        public boolean isIdempotent()
+        {
+            return this.idempotent;
+        }
+        
+        /**
+         * Returns the time in milliseconds a successful response of an 
+         * idempotent action may be reused.
+         * 
+         * @return cache time
+         */
+        public long getCacheTime()
+        {
+            return this.cacheTime;
+        }
+        
+        /**
+         * @return the name
+         */
+        public String getName()
+        {
+            return this.name;
+        }
+
+        /**
+         * @return the method
+         */
+        public Method getMethod()
+        {
+            return this.method;
+        }
+    }
+}
@@ -42,7 +42,8 @@
 package au.edu.uts.eng.remotelabs.rigclient.rig.primitive;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.Lock;
 
 import au.edu.uts.eng.remotelabs.rigclient.rig.IRigControl.PrimitiveRequest;
 import au.edu.uts.eng.remotelabs.rigclient.rig.IRigControl.PrimitiveResponse;
@@ -52,13 +53,17 @@ import au.edu.uts.eng.remotelabs.rigclient.util.LoggerFactory;
 /**
  * Front controller for the primitive control. Routes a primitive control 
  * requests to the specified controller (a <code>IPrimitiveController</code>
- * instance) and action.
+ * instance) and action. Concurrent requests to the same controller are 
+ * run according to the controllers {@link ExecutionPolicy}.
  */
 public class PrimitiveFront
 {
     /** Controller cache. */
     private final PrimitiveCache cache;
     
+    /** Coalescer of identical requests to idempotent actions. */
+    private final PrimitiveCoalescer coalescer;
+    
     /** Logger object. */
     private final ILogger logger;
     
@@ -71,6 +76,7 @@ public class PrimitiveFront
         this.logger.debug("Creating a new primitive front controller.");
         
         this.cache = new PrimitiveCache();
+        this.coalescer = new PrimitiveCoalescer();
     }
     
     /**
@@ -89,7 +95,7 @@ public class PrimitiveFront
          * ---- 1. Get the requested controller instance. ---------------------
          * ------------------------------------------------------------------*/
         final String controllerName = request.getController();
-        this.logger.debug("Requested controller is " + controllerName + ".");
+        this.logger.debug("Requested controller is {}.", controllerName);
         if (controllerName == null)
         {
             this.logger.info("The primitive control requested controller is null. Failing primitive control " +
@@ -137,8 +143,78 @@ public class PrimitiveFront
             response.setSuccessful(false);
             return response;
         }
-        final String actionName = request.getAction() + "Action";
-        this.logger.debug("Requested action is " + actionName + ".");
+        final String actionName = request.getAction();
+        this.logger.debug("Requested action is {}.", actionName);
+        
+        final PrimitiveDispatchTable table = this.cache.getDispatchTable(controller);
+        final PrimitiveDispatchTable.Action action = table.getAction(actionName);
+        if (action != null && action.isIdempotent())
+        {
+            /* Identical concurrent requests to idempotent actions share a 
+             * single invocation. */
+            return this.coalescer.coalesce(table.getControllerClass(), request, action.getCacheTime(), 
+                    new Callable<PrimitiveResponse>()
+            {
+                @Override
+                public PrimitiveResponse call()
+                {
+                    return PrimitiveFront.this.execute(table, controller, controllerName, action, request);
+                }
+            });
+        }
+        
+        return this.execute(table, controller, controllerName, action, request);
+    }
+    
+    /**
+     * Routes the request according to the execution policy of the 
+     * controller.
+     * 
+     * @param table dispatch table of the controller
+     * @param controller controller instance
+     * @param controllerName requested controller name
+     * @param action the action to invoke, null if the controller does not have the action
+     * @param request request parameters
+     * @return response results of operation
+     */
+    private PrimitiveResponse execute(final PrimitiveDispatchTable table, final IPrimitiveController controller, 
+            final String controllerName, final PrimitiveDispatchTable.Action action, final PrimitiveRequest request)
+    {
+        /* The execution policy of the controller may require the request
+         * to be run exclusively or in shared mode with other requests. */
+        final Lock lock = table.getExecutionLock(action);
+        if (lock == null)
+        {
+            return this.route(controller, controllerName, action, request);
+        }
+        
+        lock.lock();
+        try
+        {
+            return this.route(controller, controllerName, action, request);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Routes the request to the action, invoking the controller 
+     * <code>preRoute</code> and <code>postRoute</code> methods around the
+     * action invocation.
+     * 
+     * @param controller controller instance
+     * @param controllerName requested controller name
+     * @param action the action to invoke, null if the controller does not have the action
+     * @param request request parameters
+     * @return response results of operation
+     */
+    private PrimitiveResponse route(final IPrimitiveController controller, final String controllerName,
+            final PrimitiveDispatchTable.Action action, final PrimitiveRequest request)
+    {
+        final String actionName = request.getAction();
+        PrimitiveResponse response = new PrimitiveResponse();
         
         /* --------------------------------------------------------------------
          * ---- 4. Invoke the preRoute method. --------------------------------
@@ -154,74 +230,68 @@ public class PrimitiveFront
             return response;
         }
         
-        try
-        {
-            final Method meth = controller.getClass().getMethod(actionName, PrimitiveRequest.class);
-            this.logger.debug("Found action method has the signature: " + meth.toGenericString());
-            
-            /* ----------------------------------------------------------------
-             * ---- 5. Invoke the action method. ------------------------------
-             * --------------------------------------------------------------*/
-            /* Works for both static and instance methods. If it is a static 
-             * method the instance parameter is ignored. */
-            final Object obj = meth.invoke(controller, request);
-            if (obj instanceof PrimitiveResponse)
-            {
-                /* Success response! */
-                this.logger.debug("Successfully routed and invoked " + actionName + " on " + controllerName + ".");
-                response = (PrimitiveResponse)obj;
-            }
-            else
-            {
-                this.logger.warn("The action " + actionName + " on " + controllerName + " did not provide a " +
-                		"PrimitiveResponse instance as the invocation return.");
-                response.setErrorCode(-6);
-                response.setErrorReason(actionName + " on " + controllerName + " has an invalid signature (must return" +
-                		"a PrimitiveResponse instance).");
-                response.setSuccessful(false);
-            }
-        }
-        catch (SecurityException e) // Either method not public or no access to the package with which the class resides
-        {
-            this.logger.warn("Security exception accessing action " + actionName + " on " + controllerName + ".");   
-            response.setErrorCode(-4);
-            response.setErrorReason("Security execption attempting to access " + actionName + " on " + controllerName + ".");
-            response.setSuccessful(false);
-        }
-        catch (NoSuchMethodException e) // Method not found
+        if (action == null) // Method not found
         {
             this.logger.warn("The action " + actionName + " on " + controllerName + " does not exist.");
             response.setErrorCode(-3);
-            response.setErrorReason("Action method " + actionName + " not found on " + controllerName + ".");
+            response.setErrorReason("Action method " + actionName + PrimitiveDispatchTable.ACTION_SUFFIX + 
+                    " not found on " + controllerName + ".");
             response.setSuccessful(false);
         }
-        catch (IllegalArgumentException e) // Method does not take a PrimitiveRequest parameter
-        {                                  // Unlikely because resolution should fail
-            this.logger.warn("The action " + actionName + " on " + controllerName + " has an invalid signature." +
-            		" Must only take a PrimitiveRequest instance as a parameter.");
-            response.setErrorCode(-6);
-            response.setErrorReason(actionName + " on " + controllerName + " has an invalid signature (must only take" +
-            		"a PrimitiveRequest parameter).");
-            response.setSuccessful(false);
-         }
-        catch (IllegalAccessException e) // Method not public
+        else if (!action.isAccessible()) // Method not public
         {
             this.logger.warn("Illegally accesing " + actionName + " on " + controllerName + " (" + actionName +
-            		" not public).");
+                    " not public).");
             response.setErrorCode(-5);
             response.setErrorReason("Illegally accesing " + actionName + " on " + controllerName + " (" + actionName +
-            		" not public).");
+                    " not public).");
             response.setSuccessful(false);
         }
-        catch (InvocationTargetException e) // Method threw an exception
+        else
         {
-            final Throwable cause = e.getCause();
-            this.logger.warn("Action " + actionName + " on " + controllerName + " threw an exception of type: " + 
-                    cause.getClass().getName() + " with message: " + cause.getMessage());
-            response.setErrorCode(-7);
-            response.setErrorReason("Action " + actionName + " on " + controllerName + " threw an exception of type " + 
-                    cause.getClass().getName() + " with message: " + cause.getMessage());
-            response.setSuccessful(false);
+            try
+            {
+                /* ------------------------------------------------------------
+                 * ---- 5. Invoke the action method. --------------------------
+                 * ----------------------------------------------------------*/
+                /* Works for both static and instance methods. If it is a static 
+                 * method the instance parameter is ignored. */
+                final Object obj = action.invoke(controller, request);
+                if (obj instanceof PrimitiveResponse)
+                {
+                    /* Success response! */
+                    this.logger.debug("Successfully routed and invoked {} on {}.", actionName, controllerName);
+                    response = (PrimitiveResponse)obj;
+                }
+                else
+                {
+                    this.logger.warn("The action " + actionName + " on " + controllerName + " did not provide a " +
+                            "PrimitiveResponse instance as the invocation return.");
+                    response.setErrorCode(-6);
+                    response.setErrorReason(actionName + " on " + controllerName + " has an invalid signature (must " +
+                            "return a PrimitiveResponse instance).");
+                    response.setSuccessful(false);
+                }
+            }
+            catch (IllegalAccessException e) // Method not public
+            {
+                this.logger.warn("Illegally accesing " + actionName + " on " + controllerName + " (" + actionName +
+                        " not public).");
+                response.setErrorCode(-5);
+                response.setErrorReason("Illegally accesing " + actionName + " on " + controllerName + " (" + 
+                        actionName + " not public).");
+                response.setSuccessful(false);
+            }
+            catch (InvocationTargetException e) // Method threw an exception
+            {
+                final Throwable cause = e.getCause();
+                this.logger.warn("Action " + actionName + " on " + controllerName + " threw an exception of type: " + 
+                        cause.getClass().getName() + " with message: " + cause.getMessage());
+                response.setErrorCode(-7);
+                response.setErrorReason("Action " + actionName + " on " + controllerName + " threw an exception of " +
+                        "type " + cause.getClass().getName() + " with message: " + cause.getMessage());
+                response.setSuccessful(false);
+            }
         }
         
         /* --------------------------------------------------------------------
@@ -251,5 +321,6 @@ public class PrimitiveFront
     public void expungeCache()
     {
         this.cache.expungeCache();
+        this.coalescer.clear();
     }
 }
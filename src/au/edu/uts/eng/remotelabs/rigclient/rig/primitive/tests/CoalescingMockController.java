@@ -0,0 +1,143 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig.primitive.tests;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import au.edu.uts.eng.remotelabs.rigclient.rig.IRigControl.PrimitiveRequest;
+import au.edu.uts.eng.remotelabs.rigclient.rig.IRigControl.PrimitiveResponse;
+import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.IPrimitiveController;
+import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.IdempotentAction;
+
+/**
+ * Mock controller with idempotent actions that counts how many times its 
+ * actions are invoked.
+ */
+public class CoalescingMockController implements IPrimitiveController
+{
+    /** Time each action takes in milliseconds. */
+    public static final int ACTION_TIME = 50;
+    
+    /** Number of action invocations. */
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    @Override
+    public boolean initController()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean preRoute()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean postRoute()
+    {
+        return true;
+    }
+
+    @Override
+    public void cleanup()
+    {
+        /* Does nothing. */
+    }
+    
+    /**
+     * Idempotent action that echos its parameters.
+     * 
+     * @param request request
+     * @return response
+     */
+    @IdempotentAction
+    public PrimitiveResponse readAction(PrimitiveRequest request) throws InterruptedException
+    {
+        return this.respond(request);
+    }
+    
+    /**
+     * Idempotent action with a result cache time.
+     * 
+     * @param request request
+     * @return response
+     */
+    @IdempotentAction(cacheTime = 60000)
+    public PrimitiveResponse cachedAction(PrimitiveRequest request) throws InterruptedException
+    {
+        return this.respond(request);
+    }
+    
+    /**
+     * Action that isn't idempotent.
+     * 
+     * @param request request
+     * @return response
+     */
+    public PrimitiveResponse writeAction(PrimitiveRequest request) throws InterruptedException
+    {
+        return this.respond(request);
+    }
+    
+    /**
+     * Counts the invocation and echos the request parameters.
+     */
+    private PrimitiveResponse respond(PrimitiveRequest request) throws InterruptedException
+    {
+        this.invocations.incrementAndGet();
+        Thread.sleep(ACTION_TIME);
+        
+        PrimitiveResponse response = new PrimitiveResponse();
+        response.setSuccessful(true);
+        response.setResults(request.getParameters());
+        return response;
+    }
+
+    /**
+     * @return the number of action invocations
+     */
+    public int getInvocations()
+    {
+        return this.invocations.get();
+    }
+}
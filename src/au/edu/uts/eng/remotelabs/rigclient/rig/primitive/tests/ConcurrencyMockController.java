@@ -0,0 +1,145 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig.primitive.tests;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import au.edu.uts.eng.remotelabs.rigclient.rig.IRigControl.PrimitiveRequest;
+import au.edu.uts.eng.remotelabs.rigclient.rig.IRigControl.PrimitiveResponse;
+import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.IPrimitiveController;
+import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.ReadOnlyAction;
+
+/**
+ * Mock controller which records how many requests are concurrently running
+ * its actions. The execution policy is declared by subclasses.
+ */
+public class ConcurrencyMockController implements IPrimitiveController
+{
+    /** Time each action takes in milliseconds. */
+    public static final int ACTION_TIME = 2;
+    
+    /** Number of requests currently routed to this controller. */
+    private final AtomicInteger active = new AtomicInteger();
+    
+    /** Maximum number of requests that have been concurrently routed. */
+    private final AtomicInteger maxActive = new AtomicInteger();
+    
+    /** Whether a write action has run concurrently with another action. */
+    private final AtomicBoolean writeOverlapped = new AtomicBoolean();
+
+    @Override
+    public boolean initController()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean preRoute()
+    {
+        final int now = this.active.incrementAndGet();
+        int max;
+        while (now > (max = this.maxActive.get()) && !this.maxActive.compareAndSet(max, now));
+        return true;
+    }
+
+    @Override
+    public boolean postRoute()
+    {
+        this.active.decrementAndGet();
+        return true;
+    }
+
+    @Override
+    public void cleanup()
+    {
+        /* Does nothing. */
+    }
+    
+    /**
+     * Read action.
+     * 
+     * @param request request
+     * @return response
+     */
+    @ReadOnlyAction
+    public PrimitiveResponse readAction(PrimitiveRequest request) throws InterruptedException
+    {
+        Thread.sleep(ACTION_TIME);
+        PrimitiveResponse response = new PrimitiveResponse();
+        response.setSuccessful(true);
+        return response;
+    }
+    
+    /**
+     * Write action.
+     * 
+     * @param request request
+     * @return response
+     */
+    public PrimitiveResponse writeAction(PrimitiveRequest request) throws InterruptedException
+    {
+        if (this.active.get() > 1) this.writeOverlapped.set(true);
+        Thread.sleep(ACTION_TIME);
+        if (this.active.get() > 1) this.writeOverlapped.set(true);
+        
+        PrimitiveResponse response = new PrimitiveResponse();
+        response.setSuccessful(true);
+        return response;
+    }
+
+    /**
+     * @return the maximum number of concurrently routed requests
+     */
+    public int getMaxActive()
+    {
+        return this.maxActive.get();
+    }
+
+    /**
+     * @return whether a write action overlapped another action
+     */
+    public boolean isWriteOverlapped()
+    {
+        return this.writeOverlapped.get();
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig.primitive.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import au.edu.uts.eng.remotelabs.rigclient.rig.IRigControl.PrimitiveRequest;
+import au.edu.uts.eng.remotelabs.rigclient.rig.IRigControl.PrimitiveResponse;
+import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.ExecutionPolicy;
+import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.PrimitiveFront;
+
+/**
+ * Tests primitive control requests are routed according to the controllers
+ * {@link ExecutionPolicy}.
+ */
+public class ExecutionPolicyTester extends TestCase
+{
+    /** Number of concurrent requesting threads. */
+    private static final int THREADS = 8;
+    
+    /** Number of requests each thread makes. */
+    private static final int REQUESTS = 50;
+    
+    /** Object of class under test. */
+    private PrimitiveFront front;
+    
+    /** Request threads. */
+    private ExecutorService executor;
+
+    @Override
+    @Before
+    public void setUp() throws Exception
+    {
+        this.front = new PrimitiveFront();
+        this.executor = Executors.newFixedThreadPool(THREADS);
+    }
+    
+    @Override
+    @After
+    public void tearDown() throws Exception
+    {
+        this.executor.shutdownNow();
+    }
+    
+    @Test
+    public void testConcurrent() throws Exception
+    {
+        ConcurrencyMockController controller = this.run(ConcurrencyMockController.class, "read", "write");
+        assertTrue(controller.getMaxActive() > 1);
+    }
+    
+    @Test
+    public void testSerialized() throws Exception
+    {
+        ConcurrencyMockController controller = this.run(SerializedMockController.class, "read", "write");
+        assertEquals(1, controller.getMaxActive());
+        assertFalse(controller.isWriteOverlapped());
+    }
+    
+    @Test
+    public void testReadWriteReadOnly() throws Exception
+    {
+        ConcurrencyMockController controller = this.run(ReadWriteMockController.class, "read");
+        assertTrue(controller.getMaxActive() > 1);
+    }
+    
+    @Test
+    public void testReadWriteWrites() throws Exception
+    {
+        ConcurrencyMockController controller = this.run(ReadWriteMockController.class, "write");
+        assertEquals(1, controller.getMaxActive());
+        assertFalse(controller.isWriteOverlapped());
+    }
+    
+    @Test
+    public void testReadWriteMixed() throws Exception
+    {
+        ConcurrencyMockController controller = this.run(ReadWriteMockController.class, "read", "write");
+        assertFalse(controller.isWriteOverlapped());
+    }
+    
+    /**
+     * Concurrently routes requests to the controller, alternating between
+     * the specified actions.
+     * 
+     * @param clazz controller class
+     * @param actions actions to request
+     * @return the cached controller instance
+     * @throws Exception
+     */
+    private ConcurrencyMockController run(Class<? extends ConcurrencyMockController> clazz, 
+            final String... actions) throws Exception
+    {
+        final String controllerName = clazz.getName();
+        List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+        for (int i = 0; i < THREADS; i++)
+        {
+            final int offset = i;
+            tasks.add(new Callable<Integer>()
+            {
+                @Override
+                public Integer call()
+                {
+                    int succeeded = 0;
+                    for (int j = 0; j < REQUESTS; j++)
+                    {
+                        PrimitiveRequest request = new PrimitiveRequest(controllerName, 
+                                actions[(offset + j) % actions.length]);
+                        PrimitiveResponse response = ExecutionPolicyTester.this.front.routeRequest(request);
+                        if (response.wasSuccessful()) succeeded++;
+                    }
+                    return succeeded;
+                }
+            });
+        }
+        
+        int succeeded = 0;
+        for (Future<Integer> f : this.executor.invokeAll(tasks))
+        {
+            succeeded += f.get();
+        }
+        
+        assertEquals(THREADS * REQUESTS, succeeded);
+        
+        return (ConcurrencyMockController) this.front.getCache().getInstance(controllerName);
+    }
+}
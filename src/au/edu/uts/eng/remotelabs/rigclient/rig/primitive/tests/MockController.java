@@ -137,6 +137,17 @@ public class MockController implements IPrimitiveController
         throw new Exception("An exception.");
     }
     
+    /**
+     * Throws an error.
+     * 
+     * @param req request
+     * @return never returns
+     */
+    public PrimitiveResponse errorAction(PrimitiveRequest req)
+    {
+        throw new Error("An error.");
+    }
+    
     /**
      * Wrong sig action
      * 
@@ -46,6 +46,7 @@ import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 
 import java.lang.reflect.Field;
+import java.util.Map;
 
 import junit.framework.TestCase;
 
@@ -82,6 +83,8 @@ public class PrimitiveCacheTester extends TestCase
             .andReturn("DEBUG");
         expect(this.mockConfig.getProperty("Package_Prefixes"))
             .andReturn("au.edu.uts.eng.remotelabs;au.edu.uts.eng.remotelabs.rigclient.rig.primitive.tests");
+        expect(this.mockConfig.getProperty("Primitive_Not_Found_Cache_Time", "60"))
+            .andReturn("60");
         expect(this.mockConfig.getProperty("Default_Log_Format", "[__LEVEL__] - [__ISO8601__] - __MESSAGE__"))
             .andReturn("[__LEVEL__] - [__ISO8601__] - __MESSAGE__");
         expect(this.mockConfig.getProperty("FATAL_Log_Format")).andReturn(null);
@@ -90,6 +93,8 @@ public class PrimitiveCacheTester extends TestCase
         expect(this.mockConfig.getProperty("WARN_Log_Format")).andReturn(null);
         expect(this.mockConfig.getProperty("INFO_Log_Format")).andReturn(null);
         expect(this.mockConfig.getProperty("DEBUG_Log_Format")).andReturn(null);
+        expect(this.mockConfig.getProperty("Log_Buffer_Size", "2000")).andReturn("2000");
+        expect(this.mockConfig.getProperty("Log_Async", "false")).andReturn("false");
         replay(this.mockConfig);
         
         ConfigFactory.getInstance();
@@ -306,4 +311,61 @@ public class PrimitiveCacheTester extends TestCase
        controller = this.cache.getInstance("FooController");
        assertNull(controller);
     }
+
+    /**
+     * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.rig.primitive.PrimitiveCache#getInstance()}.
+     */
+    @Test
+    public void testGetInstanceInvalidName() throws Exception
+    {
+        assertNull(this.cache.getInstance(""));
+        assertNull(this.cache.getInstance("Foo Controller"));
+        assertNull(this.cache.getInstance("Foo..Controller"));
+        assertNull(this.cache.getInstance("../FooController"));
+        
+        Field field = PrimitiveCache.class.getDeclaredField("notFound");
+        field.setAccessible(true);
+        assertTrue(((Map<?, ?>)field.get(this.cache)).isEmpty());
+    }
+    
+    /**
+     * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.rig.primitive.PrimitiveCache#getInstance()}.
+     */
+    @Test
+    public void testGetInstanceNotFoundBounded() throws Exception
+    {
+        for (int i = 0; i < PrimitiveCache.MAX_REMEMBERED_NAMES + 10; i++)
+        {
+            assertNull(this.cache.getInstance("FooController" + i));
+        }
+        
+        Field field = PrimitiveCache.class.getDeclaredField("notFound");
+        field.setAccessible(true);
+        assertEquals(PrimitiveCache.MAX_REMEMBERED_NAMES, ((Map<?, ?>)field.get(this.cache)).size());
+    }
+    
+    /**
+     * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.rig.primitive.PrimitiveCache#getInstance()}.
+     */
+    @Test
+    public void testGetInstanceQualifiedAndNotQualified()
+    {
+        IPrimitiveController controller = this.cache.getInstance("MockController");
+        assertNotNull(controller);
+        
+        IPrimitiveController qualified = this.cache.getInstance("au.edu.uts.eng.remotelabs.rigclient.rig." +
+                "primitive.tests.MockController");
+        assertNotNull(qualified);
+        assertTrue(controller == qualified);
+        
+        /* Removing with the qualified name removes the controller for the short name. */
+        this.cache.removeCachedInstance("au.edu.uts.eng.remotelabs.rigclient.rig.primitive.tests.MockController");
+        assertTrue(((MockController)controller).isCleanedUp());
+        
+        IPrimitiveController newController = this.cache.getInstance("MockController");
+        assertNotNull(newController);
+        assertFalse(newController == controller);
+        assertTrue(newController == this.cache.getInstance("au.edu.uts.eng.remotelabs.rigclient.rig." +
+                "primitive.tests.MockController"));
+    }
 }
@@ -0,0 +1,221 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig.primitive.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import au.edu.uts.eng.remotelabs.rigclient.rig.IRigControl.PrimitiveRequest;
+import au.edu.uts.eng.remotelabs.rigclient.rig.IRigControl.PrimitiveResponse;
+import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.PrimitiveCoalescer;
+import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.PrimitiveFront;
+
+/**
+ * Tests the {@link PrimitiveCoalescer} class through {@link PrimitiveFront}.
+ */
+public class PrimitiveCoalescerTester extends TestCase
+{
+    /** Number of concurrent requesting threads. */
+    private static final int THREADS = 8;
+    
+    /** Object of class under test. */
+    private PrimitiveFront front;
+    
+    /** Request threads. */
+    private ExecutorService executor;
+    
+    /** Controller instance. */
+    private CoalescingMockController controller;
+
+    @Override
+    @Before
+    public void setUp() throws Exception
+    {
+        this.front = new PrimitiveFront();
+        this.executor = Executors.newFixedThreadPool(THREADS);
+        this.controller = (CoalescingMockController) this.front.getCache().getInstance(
+                CoalescingMockController.class.getName());
+    }
+    
+    @Override
+    @After
+    public void tearDown() throws Exception
+    {
+        this.executor.shutdownNow();
+    }
+    
+    @Test
+    public void testCoalesced() throws Exception
+    {
+        List<PrimitiveResponse> responses = this.run("read", false);
+        for (PrimitiveResponse resp : responses)
+        {
+            assertTrue(resp.wasSuccessful());
+            assertEquals("val", resp.getResult("param"));
+        }
+        
+        /* Each caller is given its own response. */
+        for (int i = 0; i < responses.size(); i++)
+        {
+            for (int j = i + 1; j < responses.size(); j++)
+            {
+                assertNotSame(responses.get(i), responses.get(j));
+            }
+        }
+        
+        /* All the requests started together so should have shared only a few invocations. */
+        assertTrue(this.controller.getInvocations() < THREADS);
+    }
+    
+    @Test
+    public void testNotCoalescedDifferentParams() throws Exception
+    {
+        List<PrimitiveResponse> responses = this.run("read", true);
+        for (int i = 0; i < responses.size(); i++)
+        {
+            assertTrue(responses.get(i).wasSuccessful());
+            assertEquals(String.valueOf(i), responses.get(i).getResult("param"));
+        }
+        assertEquals(THREADS, this.controller.getInvocations());
+    }
+    
+    @Test
+    public void testNotIdempotent() throws Exception
+    {
+        List<PrimitiveResponse> responses = this.run("write", false);
+        for (PrimitiveResponse resp : responses)
+        {
+            assertTrue(resp.wasSuccessful());
+        }
+        assertEquals(THREADS, this.controller.getInvocations());
+    }
+    
+    @Test
+    public void testCached()
+    {
+        PrimitiveRequest request = new PrimitiveRequest(CoalescingMockController.class.getName(), "cached");
+        request.addParameter("param", "val");
+        
+        PrimitiveResponse first = this.front.routeRequest(request);
+        assertTrue(first.wasSuccessful());
+        assertEquals(1, this.controller.getInvocations());
+        
+        /* Sequential identical requests are answered from cache. */
+        PrimitiveResponse second = this.front.routeRequest(request);
+        assertNotSame(first, second);
+        assertEquals("val", second.getResult("param"));
+        assertEquals(1, this.controller.getInvocations());
+        
+        /* Modifying a response does not change the cached response. */
+        second.addResult("param", "changed");
+        second.setSuccessful(false);
+        PrimitiveResponse again = this.front.routeRequest(request);
+        assertTrue(again.wasSuccessful());
+        assertEquals("val", again.getResult("param"));
+        assertEquals("val", first.getResult("param"));
+        assertEquals(1, this.controller.getInvocations());
+        
+        /* Different parameters are a different request. */
+        request = new PrimitiveRequest(CoalescingMockController.class.getName(), "cached");
+        request.addParameter("param", "other");
+        PrimitiveResponse third = this.front.routeRequest(request);
+        assertEquals("other", third.getResult("param"));
+        assertEquals(2, this.controller.getInvocations());
+    }
+    
+    @Test
+    public void testNotCachedWithoutCacheTime()
+    {
+        PrimitiveRequest request = new PrimitiveRequest(CoalescingMockController.class.getName(), "read");
+        
+        assertTrue(this.front.routeRequest(request).wasSuccessful());
+        assertTrue(this.front.routeRequest(request).wasSuccessful());
+        assertEquals(2, this.controller.getInvocations());
+    }
+    
+    /**
+     * Concurrently sends a request to the action from each thread.
+     * 
+     * @param action action to request
+     * @param distinct whether each thread uses different parameters
+     * @return responses in thread order
+     * @throws Exception
+     */
+    private List<PrimitiveResponse> run(final String action, final boolean distinct) throws Exception
+    {
+        final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+        List<Callable<PrimitiveResponse>> tasks = new ArrayList<Callable<PrimitiveResponse>>();
+        for (int i = 0; i < THREADS; i++)
+        {
+            final int num = i;
+            tasks.add(new Callable<PrimitiveResponse>()
+            {
+                @Override
+                public PrimitiveResponse call() throws Exception
+                {
+                    PrimitiveRequest request = new PrimitiveRequest(CoalescingMockController.class.getName(), action);
+                    request.addParameter("param", distinct ? String.valueOf(num) : "val");
+                    barrier.await();
+                    return PrimitiveCoalescerTester.this.front.routeRequest(request);
+                }
+            });
+        }
+        
+        List<PrimitiveResponse> responses = new ArrayList<PrimitiveResponse>();
+        for (Future<PrimitiveResponse> f : this.executor.invokeAll(tasks))
+        {
+            responses.add(f.get());
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig.primitive.tests;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import au.edu.uts.eng.remotelabs.rigclient.rig.IRigControl.PrimitiveRequest;
+import au.edu.uts.eng.remotelabs.rigclient.rig.IRigControl.PrimitiveResponse;
+import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.IPrimitiveController;
+import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.PrimitiveDispatchTable;
+import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.PrimitiveDispatchTable.Action;
+
+/**
+ * Tests the {@link PrimitiveDispatchTable} class.
+ */
+public class PrimitiveDispatchTableTester extends TestCase
+{
+    @Test
+    public void testActionNames()
+    {
+        PrimitiveDispatchTable table = new PrimitiveDispatchTable(MockController.class);
+        assertEquals(MockController.class, table.getControllerClass());
+        
+        Set<String> names = table.getActionNames();
+        assertTrue(names.contains("test"));
+        assertTrue(names.contains("testStatic"));
+        assertTrue(names.contains("exception"));
+        assertTrue(names.contains("wrongSig"));
+        assertTrue(names.contains("callCount"));
+        
+        /* Doesn't take a primitive request parameter. */
+        assertFalse(names.contains("wrongParamSig"));
+        
+        /* Not an action. */
+        assertFalse(names.contains("cleanup"));
+        assertFalse(names.contains("call"));
+        
+        assertNull(table.getAction("foo"));
+        assertNull(table.getAction("testAction"));
+    }
+    
+    @Test
+    public void testDerivedActions()
+    {
+        PrimitiveDispatchTable table = new PrimitiveDispatchTable(DerivedMockController.class);
+        assertNotNull(table.getAction("test"));
+        assertNotNull(table.getAction("testStatic"));
+        assertNotNull(table.getAction("callCount"));
+    }
+    
+    @Test
+    public void testInvoke() throws Exception
+    {
+        MockController controller = new MockController();
+        PrimitiveDispatchTable table = new PrimitiveDispatchTable(MockController.class);
+        
+        PrimitiveRequest request = new PrimitiveRequest();
+        request.addParameter("param1", "val1");
+        
+        Action action = table.getAction("test");
+        assertNotNull(action);
+        assertTrue(action.isAccessible());
+        assertEquals("test", action.getName());
+        assertEquals("testAction", action.getMethod().getName());
+        
+        Object obj = action.invoke(controller, request);
+        assertTrue(obj instanceof PrimitiveResponse);
+        PrimitiveResponse resp = (PrimitiveResponse)obj;
+        assertTrue(resp.wasSuccessful());
+        assertEquals("val1", resp.getResult("param1"));
+        
+        obj = table.getAction("callCount").invoke(controller, request);
+        assertEquals("1", ((PrimitiveResponse)obj).getResult("count"));
+        obj = table.getAction("callCount").invoke(controller, request);
+        assertEquals("2", ((PrimitiveResponse)obj).getResult("count"));
+    }
+    
+    @Test
+    public void testInvokeStatic() throws Exception
+    {
+        PrimitiveDispatchTable table = new PrimitiveDispatchTable(MockController.class);
+        
+        PrimitiveRequest request = new PrimitiveRequest();
+        request.addParameter("param1", "val1");
+        
+        Object obj = table.getAction("testStatic").invoke(null, request);
+        assertTrue(obj instanceof PrimitiveResponse);
+        assertEquals("val1", ((PrimitiveResponse)obj).getResult("param1"));
+    }
+    
+    @Test
+    public void testInvokeWrongReturn() throws Exception
+    {
+        PrimitiveDispatchTable table = new PrimitiveDispatchTable(MockController.class);
+        
+        PrimitiveRequest request = new PrimitiveRequest();
+        Object obj = table.getAction("wrongSig").invoke(new MockController(), request);
+        assertSame(request, obj);
+    }
+    
+    @Test
+    public void testInvokeException()
+    {
+        PrimitiveDispatchTable table = new PrimitiveDispatchTable(MockController.class);
+        try
+        {
+            table.getAction("exception").invoke(new MockController(), new PrimitiveRequest());
+            fail("Exception should be thrown.");
+        }
+        catch (Exception e)
+        {
+            /* The action exception is wrapped the same as reflective invocation. */
+            assertTrue(e instanceof InvocationTargetException);
+            assertEquals(Exception.class, e.getCause().getClass());
+            assertEquals("An exception.", e.getCause().getMessage());
+        }
+    }
+    
+    @Test
+    public void testInvokeError() throws Exception
+    {
+        PrimitiveDispatchTable table = new PrimitiveDispatchTable(MockController.class);
+        try
+        {
+            table.getAction("error").invoke(new MockController(), new PrimitiveRequest());
+            fail("Error should be wrapped.");
+        }
+        catch (InvocationTargetException e)
+        {
+            /* Errors are wrapped the same as reflective invocation. */
+            assertEquals(Error.class, e.getCause().getClass());
+            assertEquals("An error.", e.getCause().getMessage());
+        }
+    }
+    
+    @Test
+    public void testNotAccessible()
+    {
+        PrimitiveDispatchTable table = new PrimitiveDispatchTable(HiddenController.class);
+        Action action = table.getAction("hidden");
+        assertNotNull(action);
+        assertFalse(action.isAccessible());
+        
+        try
+        {
+            action.invoke(new HiddenController(), new PrimitiveRequest());
+            fail("Exception should be thrown.");
+        }
+        catch (Throwable e)
+        {
+            assertTrue(e instanceof IllegalAccessException);
+        }
+    }
+    
+    /**
+     * Controller which isn't publicly accessible. 
+     */
+    static class HiddenController implements IPrimitiveController
+    {
+        @Override
+        public boolean initController()
+        {
+            return true;
+        }
+
+        @Override
+        public boolean preRoute()
+        {
+            return true;
+        }
+
+        @Override
+        public boolean postRoute()
+        {
+            return true;
+        }
+
+        @Override
+        public void cleanup()
+        {
+            /* Does nothing. */
+        }
+        
+        public PrimitiveResponse hiddenAction(PrimitiveRequest request)
+        {
+            return new PrimitiveResponse();
+        }
+    }
+}
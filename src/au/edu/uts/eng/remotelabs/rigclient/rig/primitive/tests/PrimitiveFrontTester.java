@@ -144,6 +144,23 @@ public class PrimitiveFrontTester extends TestCase
        assertNotNull(resp.getErrorReason());
     }
     
+    /**
+     * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.rig.primitive.PrimitiveFront#routeRequest(au.edu.uts.eng.remotelabs.rigclient.rig.IRigControl.PrimitiveRequest)}.
+     */
+    @Test
+    public void testRouteRequestError()
+    {
+       PrimitiveRequest request = new PrimitiveRequest();
+       request.setController("au.edu.uts.eng.remotelabs.rigclient.rig.primitive.tests.MockController");
+       request.setAction("error");
+       
+       PrimitiveResponse resp = this.front.routeRequest(request);
+       assertNotNull(resp);
+       assertFalse(resp.wasSuccessful());
+       assertEquals(-7, resp.getErrorCode());
+       assertTrue(resp.getErrorReason().contains("java.lang.Error"));
+    }
+    
     /**
      * Test method for {@link au.edu.uts.eng.remotelabs.rigclient.rig.primitive.PrimitiveFront#routeRequest(au.edu.uts.eng.remotelabs.rigclient.rig.IRigControl.PrimitiveRequest)}.
      */
@@ -87,6 +87,8 @@ public class AbstractControlledRigTester extends TestCase
         this.mockConfig = createMock(IConfig.class);
         expect(this.mockConfig.getProperty("Package_Prefixes"))
             .andReturn("");
+        expect(this.mockConfig.getProperty("Primitive_Not_Found_Cache_Time", "60"))
+            .andReturn("60");
         expect(this.mockConfig.getProperty("Logger_Type"))
             .andReturn("SystemErr");
         expect(this.mockConfig.getProperty("Log_Level"))
@@ -101,6 +103,8 @@ public class AbstractControlledRigTester extends TestCase
         expect(this.mockConfig.getProperty("WARN_Log_Format")).andReturn(null);
         expect(this.mockConfig.getProperty("INFO_Log_Format")).andReturn(null);
         expect(this.mockConfig.getProperty("DEBUG_Log_Format")).andReturn(null);
+        expect(this.mockConfig.getProperty("Log_Buffer_Size", "2000")).andReturn("2000");
+        expect(this.mockConfig.getProperty("Log_Async", "false")).andReturn("false");
         expect(this.mockConfig.getProperty("Rig_Client_IP_Address")).andReturn(null);
         expect(this.mockConfig.getProperty("Listening_Network_Interface")).andReturn(null);
         expect(this.mockConfig.getProperty("Data_Transfer_Method", "WEBDAV")).andReturn("ATTACHMENT");
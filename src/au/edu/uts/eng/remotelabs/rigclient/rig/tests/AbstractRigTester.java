@@ -49,13 +49,20 @@ import static org.easymock.EasyMock.verify;
 
 import java.io.File;
 import java.lang.reflect.Field;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import junit.framework.TestCase;
 
+import org.easymock.IAnswer;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -63,12 +70,18 @@ import au.edu.uts.eng.remotelabs.rigclient.rig.AbstractRig;
 import au.edu.uts.eng.remotelabs.rigclient.rig.AbstractRig.ActionType;
 import au.edu.uts.eng.remotelabs.rigclient.rig.IAccessAction;
 import au.edu.uts.eng.remotelabs.rigclient.rig.IActivityDetectorAction;
+import au.edu.uts.eng.remotelabs.rigclient.rig.IConcurrentAction;
 import au.edu.uts.eng.remotelabs.rigclient.rig.IFilesDetectorAction;
+import au.edu.uts.eng.remotelabs.rigclient.rig.IMatchingFilesDetectorAction;
 import au.edu.uts.eng.remotelabs.rigclient.rig.INotifyAction;
+import au.edu.uts.eng.remotelabs.rigclient.rig.IPeriodicTestAction;
 import au.edu.uts.eng.remotelabs.rigclient.rig.IResetAction;
+import au.edu.uts.eng.remotelabs.rigclient.rig.IRig;
+import au.edu.uts.eng.remotelabs.rigclient.rig.IRigStatusListener;
 import au.edu.uts.eng.remotelabs.rigclient.rig.IRigSession.Session;
 import au.edu.uts.eng.remotelabs.rigclient.rig.ISlaveAccessAction;
 import au.edu.uts.eng.remotelabs.rigclient.rig.ITestAction;
+import au.edu.uts.eng.remotelabs.rigclient.rig.SessionSnapshot;
 import au.edu.uts.eng.remotelabs.rigclient.type.RigFactory;
 import au.edu.uts.eng.remotelabs.rigclient.util.ConfigFactory;
 import au.edu.uts.eng.remotelabs.rigclient.util.IConfig;
@@ -109,6 +122,8 @@ public class AbstractRigTester extends TestCase
         expect(this.mockConfig.getProperty("WARN_Log_Format")).andReturn(null);
         expect(this.mockConfig.getProperty("INFO_Log_Format")).andReturn(null);
         expect(this.mockConfig.getProperty("DEBUG_Log_Format")).andReturn(null);
+        expect(this.mockConfig.getProperty("Log_Buffer_Size", "2000")).andReturn("2000");
+        expect(this.mockConfig.getProperty("Log_Async", "false")).andReturn("false");
         expect(this.mockConfig.getProperty("Rig_Client_IP_Address")).andReturn("127.0.0.1");
         expect(this.mockConfig.getProperty("Listening_Network_Interface")).andReturn(null);
         expect(this.mockConfig.getProperty("Rig_Class")).andReturn("does.not.exist");
@@ -186,6 +201,78 @@ public class AbstractRigTester extends TestCase
         verify(mockSlave);
     }
     
+    /**
+     * Tests the session snapshot is consistent and unchanged by later
+     * session changes.
+     */
+    @Test
+    public void testSessionSnapshot()
+    {
+        final String master = "mastuser", passive = "passiveuser", active = "activeuser";
+        
+        SessionSnapshot empty = this.rig.getSessionSnapshot();
+        assertFalse(empty.isActive());
+        assertNull(empty.getMaster());
+        assertTrue(empty.getUsers().isEmpty());
+        
+        assertTrue(this.rig.assign(master));
+        assertTrue(this.rig.addSlave(active, false));
+        assertTrue(this.rig.addSlave(passive, true));
+        
+        SessionSnapshot snapshot = this.rig.getSessionSnapshot();
+        assertTrue(snapshot.isActive());
+        assertEquals(master, snapshot.getMaster());
+        assertEquals(1, snapshot.getActiveSlaves().size());
+        assertEquals(active, snapshot.getActiveSlaves().get(0));
+        assertEquals(1, snapshot.getPassiveSlaves().size());
+        assertEquals(passive, snapshot.getPassiveSlaves().get(0));
+        assertEquals(Session.SLAVE_PASSIVE, snapshot.getPermission(passive));
+        assertEquals(Session.NOT_IN, snapshot.getPermission("notinuser"));
+        assertEquals(3, this.rig.getSessionUsers().size());
+        
+        assertTrue(this.rig.revokeSlave(active));
+        assertEquals(Session.NOT_IN, this.rig.isInSession(active));
+        assertEquals(Session.SLAVE_ACTIVE, snapshot.getPermission(active));
+        assertEquals(1, snapshot.getActiveSlaves().size());
+        assertFalse(empty.isActive());
+        
+        try
+        {
+            this.rig.getSessionUsers().put(active, Session.MASTER);
+            fail("Session users should not be modifiable.");
+        }
+        catch (UnsupportedOperationException ex)
+        {
+            /* Expected. */
+        }
+    }
+    
+    /**
+     * Tests the deprecated session users field is a view of the session 
+     * snapshot.
+     */
+    @SuppressWarnings({ "unchecked", "deprecation" })
+    @Test
+    public void testSessionUsersView() throws Exception
+    {
+        Field field = AbstractRig.class.getDeclaredField("sessionUsers");
+        field.setAccessible(true);
+        Map<String, Session> users = (Map<String, Session>)field.get(this.rig);
+        assertTrue(users.isEmpty());
+        
+        assertTrue(this.rig.assign("mastuser"));
+        assertEquals(Session.MASTER, users.get("mastuser"));
+        assertEquals(1, users.size());
+        
+        assertNull(users.put("slaveuser", Session.SLAVE_ACTIVE));
+        assertEquals(Session.SLAVE_ACTIVE, this.rig.isInSession("slaveuser"));
+        assertEquals(Session.SLAVE_ACTIVE, users.remove("slaveuser"));
+        assertEquals(Session.NOT_IN, this.rig.isInSession("slaveuser"));
+        
+        users.clear();
+        assertFalse(this.rig.isSessionActive());
+    }
+    
     /**
      * Tests the <code>AbstractRig.revokeSlave</code> method.
      */
@@ -522,6 +609,94 @@ public class AbstractRigTester extends TestCase
         verify(mockAccess);
     }
     
+    /**
+     * Tests adjacent reset actions in the same ordering group are run 
+     * concurrently and subsequent actions are run after the group has 
+     * completed.
+     */
+    @Test
+    public void testRevokeConcurrentReset() throws Exception
+    {
+        reset(this.mockConfig);
+        expect(this.mockConfig.getProperty("Action_Concurrency", "4")).andReturn("4");
+        replay(this.mockConfig);
+        
+        final CountDownLatch latch = new CountDownLatch(3);
+        final AtomicInteger completed = new AtomicInteger();
+        
+        /* Each action waits for the others in its group to start, so the 
+         * group only succeeds if it is run concurrently. */
+        class ConcurrentReset implements IResetAction, IConcurrentAction
+        {
+            private final boolean succeed;
+            
+            ConcurrentReset(boolean succeed)
+            {
+                this.succeed = succeed;
+            }
+            
+            @Override
+            public boolean reset()
+            {
+                latch.countDown();
+                try
+                {
+                    if (!latch.await(5, TimeUnit.SECONDS)) return false;
+                }
+                catch (InterruptedException e)
+                {
+                    return false;
+                }
+                completed.incrementAndGet();
+                return this.succeed;
+            }
+
+            @Override
+            public int getOrderingGroup()
+            {
+                return 1;
+            }
+            
+            @Override
+            public String getActionType()
+            {
+                return "ConcurrentReset";
+            }
+
+            @Override
+            public String getFailureReason()
+            {
+                return this.succeed ? null : "Failed";
+            }
+        }
+        
+        IResetAction mockReset = createMock(IResetAction.class);
+        expect(mockReset.getActionType())
+            .andReturn("MockResetAction");
+        expect(mockReset.reset())
+            .andAnswer(new IAnswer<Boolean>()
+            {
+                @Override
+                public Boolean answer() throws Throwable
+                {
+                    return completed.get() == 3;
+                }
+            });
+        replay(mockReset);
+        
+        assertTrue(this.rig.register(new ConcurrentReset(true), ActionType.RESET));
+        assertTrue(this.rig.register(new ConcurrentReset(false), ActionType.RESET));
+        assertTrue(this.rig.register(new ConcurrentReset(true), ActionType.RESET));
+        assertTrue(this.rig.register(mockReset, ActionType.RESET));
+        
+        assertTrue(this.rig.assign("testuser"));
+        assertFalse(this.rig.revoke());
+        assertFalse(this.rig.isSessionActive());
+        assertEquals(3, completed.get());
+        
+        verify(mockReset);
+    }
+    
     /**
      * Tests the <code>AbstractRig.revoke</code> method.
      */
@@ -818,6 +993,94 @@ public class AbstractRigTester extends TestCase
         assertNull(this.rig.getMaintenanceReason());
     }
     
+    /**
+     * Tests rig status listeners are notified when maintenance is set and 
+     * cleared, but not when maintenance is cleared and it is not set.
+     */
+    @Test
+    public void testStatusListener()
+    {
+        IRigStatusListener listener = createMock(IRigStatusListener.class);
+        listener.statusChanged(this.rig);
+        expectLastCall().times(2);
+        replay(listener);
+        
+        this.rig.addStatusListener(listener);
+        assertTrue(this.rig.setMaintenance(true, "Test reason", false));
+        assertTrue(this.rig.setMaintenance(false, null, false));
+        assertTrue(this.rig.setMaintenance(false, null, false));
+        
+        this.rig.removeStatusListener(listener);
+        assertTrue(this.rig.setMaintenance(true, "Test reason", false));
+        
+        verify(listener);
+    }
+    
+    /**
+     * Tests the monitor status of periodic tests is published to the rig 
+     * and rig status listeners.
+     */
+    @Test
+    public void testPeriodicTestStatus() throws Exception
+    {
+        reset(this.mockConfig);
+        expect(this.mockConfig.getProperty("Test_Scheduler_Threads", "2")).andReturn("1");
+        expect(this.mockConfig.getProperty("Test_Schedule_Jitter", "10")).andReturn("0");
+        replay(this.mockConfig);
+        
+        final AtomicBoolean status = new AtomicBoolean(true);
+        final Semaphore changes = new Semaphore(0);
+        
+        IPeriodicTestAction test = createMock(IPeriodicTestAction.class);
+        expect(test.getActionType()).andReturn("PeriodicTest").anyTimes();
+        expect(test.getPeriod()).andReturn(10L).anyTimes();
+        test.runTest();
+        expectLastCall().anyTimes();
+        test.startTest();
+        expectLastCall().anyTimes();
+        expect(test.getStatus()).andAnswer(new IAnswer<Boolean>()
+        {
+            @Override
+            public Boolean answer() throws Throwable
+            {
+                return status.get();
+            }
+        }).anyTimes();
+        expect(test.getReason()).andReturn("broken").anyTimes();
+        replay(test);
+        
+        this.rig.addStatusListener(new IRigStatusListener()
+        {
+            @Override
+            public void statusChanged(IRig rig)
+            {
+                changes.release();
+            }
+        });
+        
+        assertTrue(this.rig.register(test, ActionType.TEST));
+        this.rig.startTests();
+        assertTrue(this.rig.isMonitorStatusGood());
+        assertNull(this.rig.getMonitorReason());
+        
+        status.set(false);
+        assertTrue(changes.tryAcquire(5, TimeUnit.SECONDS));
+        assertFalse(this.rig.isMonitorStatusGood());
+        assertEquals("PeriodicTest: broken ", this.rig.getMonitorReason());
+        
+        assertTrue(this.rig.setMaintenance(true, "Maintenance", true));
+        assertEquals("PeriodicTest: broken Maintenance", this.rig.getMonitorReason());
+        assertTrue(this.rig.setMaintenance(false, null, true));
+        changes.drainPermits();
+        
+        status.set(true);
+        assertTrue(changes.tryAcquire(5, TimeUnit.SECONDS));
+        assertTrue(this.rig.isMonitorStatusGood());
+        assertNull(this.rig.getMonitorReason());
+        
+        this.rig.cleanUp();
+    }
+    
     /**
      * Tests the <code>AbstractRig.getRigName()</code> method.
      */
@@ -1142,6 +1405,47 @@ public class AbstractRigTester extends TestCase
         verify(detector);
     }
     
+    /**
+     * Tests checking single files with a detector that can check single 
+     * files and one that can only list files.
+     */
+    @Test
+    public void testIsSessionFile()
+    {
+        File matched = new File("./matched").getAbsoluteFile();
+        File listed = new File("./listed").getAbsoluteFile();
+        File other = new File("./other").getAbsoluteFile();
+        
+        IMatchingFilesDetectorAction matching = createMock(IMatchingFilesDetectorAction.class);
+        expect(matching.getActionType()).andReturn("Mock Matching Files Detector").anyTimes();
+        expect(matching.isSessionFile(matched)).andReturn(true).anyTimes();
+        expect(matching.isSessionFile(listed)).andReturn(false).anyTimes();
+        expect(matching.isSessionFile(other)).andReturn(false).anyTimes();
+        expect(matching.listFiles()).andReturn(Collections.singleton(matched));
+        replay(matching);
+        
+        IFilesDetectorAction detector = createMock(IFilesDetectorAction.class);
+        expect(detector.getActionType()).andReturn("Mock Files Detector").anyTimes();
+        expect(detector.listFiles()).andReturn(Collections.singleton(new File("./listed")));
+        replay(detector);
+        
+        assertTrue(this.rig.register(matching, ActionType.FILES));
+        assertTrue(this.rig.register(detector, ActionType.FILES));
+        assertFalse(this.rig.isSessionFile(matched));
+        
+        assertTrue(this.rig.assign("mdiponio"));
+        assertTrue(this.rig.isSessionFile(matched));
+        
+        /* Listed files are only known once the files are detected. */
+        assertFalse(this.rig.isSessionFile(listed));
+        assertEquals(2, this.rig.detectSessionFiles().size());
+        assertTrue(this.rig.isSessionFile(listed));
+        assertFalse(this.rig.isSessionFile(other));
+        
+        verify(matching);
+        verify(detector);
+    }
+    
     /**
      * Test file detection with no detector.
      */
@@ -39,26 +39,42 @@
 
 package au.edu.uts.eng.remotelabs.rigclient.rig.transfer;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.rmi.RemoteException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.activation.DataHandler;
 import javax.activation.FileDataSource;
 
+import org.apache.axis2.AxisFault;
+
 import au.edu.uts.eng.remotelabs.rigclient.rig.IRig;
 import au.edu.uts.eng.remotelabs.rigclient.status.SchedulingServerProviderStub;
 import au.edu.uts.eng.remotelabs.rigclient.status.StatusUpdater;
@@ -74,6 +90,13 @@ import au.edu.uts.eng.remotelabs.rigclient.util.LoggerFactory;
 
 /**
  * Processes new session files to transfer them to the Scheduling Server.  
+ * <br />
+ * Session files are detected by periodically scanning the rig files 
+ * detectors. If data directories are configured to be watched, files 
+ * created or modified in those directories during a session are detected
+ * from file system events, once they have not been modified for the settle
+ * time and are accepted by the rig files detectors. The periodic scan then 
+ * only reconciles files the events missed.
  */
 public class DataTransferWatcher extends Thread
 {
@@ -86,14 +109,50 @@ public class DataTransferWatcher extends Thread
     /** Default data transfer restore file. */
     public static final String DEFAULT_RESTORE_FILE = "./dfrestore";
     
-    /** Delimiter for the list of files in the restore file. */
+    /** Delimiter for the list of files in restore files of the previous format. */
     public static final String RESTORE_FILE_DELIM = ":#:";
     
+    /** Default maximum number of files in a request. */
+    public static final int DEFAULT_BATCH_FILES = 100;
+    
+    /** Default size of the chunks large attachments are streamed in. A size
+     *  of zero disables streaming so large files are not transferred. */
+    public static final int DEFAULT_CHUNK_SIZE = 0;
+    
+    /** Default number of requests that may be sent concurrently. */
+    public static final int DEFAULT_PIPELINE_DEPTH = 2;
+    
+    /** Default number of times a session file may be rejected by the 
+     *  Scheduling Server before its transfer is abandoned. */
+    public static final int DEFAULT_MAX_ATTEMPTS = 10;
+    
+    /** Default time in milliseconds before a session file that failed to be
+     *  sent is sent again. The time doubles with each consecutive failure. */
+    public static final long DEFAULT_RETRY_BACKOFF = 5000;
+    
+    /** Maximum time in milliseconds before a session file that failed to be 
+     *  sent is sent again. */
+    public static final long MAX_RETRY_BACKOFF = 10 * 60 * 1000;
+    
+    /** Default period between session file scans in seconds. */
+    public static final int DEFAULT_SCAN_INTERVAL = 30;
+    
+    /** Default time in milliseconds a watched file must not be modified for 
+     *  before it is a session file. */
+    public static final int DEFAULT_SETTLE_TIME = 500;
+    
     /** The rig client. */
     private final IRig rig;
     
     /* Interface to Scheduling Server. */
     private SchedulingServerProviderStub stub;
+    
+    /** Scheduling Server endpoint. */
+    private String endpoint;
+    
+    /** Idle interfaces to Scheduling Server used by the send pool threads 
+     *  as the stubs cannot be shared between threads. */
+    private final Deque<SchedulingServerProviderStub> senderStubs;
 
     /** Configured transfer method. */
     private final TransferMethod transferMethod;
@@ -110,11 +169,36 @@ public class DataTransferWatcher extends Thread
     /** The current session user. */
     private String currentUser;
     
-    /** Session files. */
-    private final Map<String, Set<File>> sessionFiles;
+    /** Journal of session file transfers, <code>null</code> until the
+     *  restore file is loaded. */
+    private TransferJournal journal;
+    
+    /** Transfer state of session files keyed by user. */
+    private final Map<String, SessionFileTransfers> sessionFiles;
+    
+    /** Maximum number of files in a request. */
+    private int batchFiles;
+    
+    /** Maximum size of attachments in a request. */
+    private long batchSize;
+    
+    /** Number of requests that may be sent concurrently. */
+    private int pipelineDepth;
     
-    /** Transferred files. */
-    private final Map<String, List<File>> transferredFiles;
+    /** Number of times a session file may be rejected before its transfer
+     *  is abandoned. */
+    private int maxAttempts;
+    
+    /** Time in milliseconds before a session file that failed to be sent is
+     *  sent again after its first failure. */
+    private long retryBackoff;
+    
+    /** Size of the chunks files larger than the maximum attachment size are
+     *  streamed in, or zero if they are not streamed. */
+    private long chunkSize;
+    
+    /** Pool that sends concurrent requests. */
+    private ExecutorService sendPool;
     
     /** Whether to clean files after transfer. */
     private final boolean cleanFiles;
@@ -125,6 +209,24 @@ public class DataTransferWatcher extends Thread
     /** Whether to shutdown. */
     private boolean shutdown;
     
+    /** Watch service of data directories, <code>null</code> if data 
+     *  directories are not watched. */
+    private WatchService watchService;
+    
+    /** Watched directories keyed by their watch key. */
+    private final Map<WatchKey, Path> watchedDirs;
+    
+    /** Files with events that have yet to settle, with the time of their
+     *  last event. */
+    private final Map<File, Long> pendingFiles;
+    
+    /** Period between session file scans in milliseconds. */
+    private long scanInterval;
+    
+    /** Time in milliseconds a watched file must not be modified for before
+     *  it is a session file. */
+    private long settleTime;
+    
     /** Logger. */
     private final ILogger logger;
     
@@ -136,8 +238,16 @@ public class DataTransferWatcher extends Thread
         this.setName("Session Data Watcher");
         
         this.rig = rig;
-        this.sessionFiles = new HashMap<String, Set<File>>();
-        this.transferredFiles = new HashMap<String, List<File>>();
+        this.sessionFiles = new HashMap<String, SessionFileTransfers>();
+        this.batchFiles = DEFAULT_BATCH_FILES;
+        this.batchSize = TOTAL_ATTACHMENT_SIZE;
+        this.pipelineDepth = DEFAULT_PIPELINE_DEPTH;
+        this.maxAttempts = DEFAULT_MAX_ATTEMPTS;
+        this.retryBackoff = DEFAULT_RETRY_BACKOFF;
+        this.senderStubs = new ArrayDeque<SchedulingServerProviderStub>();
+        this.chunkSize = DEFAULT_CHUNK_SIZE;
+        this.watchedDirs = new HashMap<WatchKey, Path>();
+        this.pendingFiles = new LinkedHashMap<File, Long>();
 
         IConfig conf = ConfigFactory.getInstance();
         
@@ -170,7 +280,8 @@ public class DataTransferWatcher extends Thread
 
         try
         {
-            this.stub = new SchedulingServerProviderStub(StatusUpdater.getSchedulingServerEndpoint());
+            this.endpoint = StatusUpdater.getSchedulingServerEndpoint();
+            this.stub = new SchedulingServerProviderStub(this.endpoint);
         }
         catch (Exception e)
         {
@@ -199,21 +310,67 @@ public class DataTransferWatcher extends Thread
         /* Loading previous persisted data files. */
         this.loadRestoreFile();
         
+        /* Request batching configuration. */
+        this.loadBatchConfig();
+        
+        /* Watching configured data directories. */
+        this.setupWatchService();
+        
+        long lastScan = 0;
         while (!this.shutdown)
         {
+            long now = System.currentTimeMillis();
+            final boolean scan = now - lastScan >= this.scanInterval;
+            if (scan) lastScan = now;
+            
+            long wait;
             synchronized (this)
             {
-                this.transferFiles();
+                wait = this.settlePendingFiles(now);
             }
+            this.transferFiles(scan);
             
+            wait = Math.min(wait, lastScan + this.scanInterval - now);
             try
             {
-                Thread.sleep(30000);
+                if (this.watchService == null)
+                {
+                    Thread.sleep(wait);
+                }
+                else
+                {
+                    WatchKey key = this.watchService.poll(wait, TimeUnit.MILLISECONDS);
+                    while (key != null)
+                    {
+                        if (this.processEvents(key)) lastScan = 0;
+                        key = this.watchService.poll();
+                    }
+                }
             }
             catch (InterruptedException e)
             { /* Expected interrupt. */ }
+            catch (ClosedWatchServiceException e)
+            {
+                this.watchService = null;
+            }
+        }
+        
+        if (this.watchService != null)
+        {
+            try
+            {
+                this.watchService.close();
+            }
+            catch (IOException e)
+            { /* Not much to do. */ }
+        }
+        
+        if (this.sendPool != null) this.sendPool.shutdown();
+        synchronized (this.senderStubs)
+        {
+            for (SchedulingServerProviderStub sender : this.senderStubs) this.cleanupStub(sender);
+            this.senderStubs.clear();
         }
-
         
         /* We are persisting the lists of data files to send so on next load they
          * can be sent. */
@@ -221,202 +378,862 @@ public class DataTransferWatcher extends Thread
     }
 
     /**
-     * Checks if there are files to transfer and if there are, transfers them.
+     * Reads the configuration of how session files are batched into 
+     * requests.
      */
-    private void transferFiles()
+    private void loadBatchConfig()
     {
-        if (this.inSession)
+        final IConfig conf = ConfigFactory.getInstance();
+        
+        try
         {
-            /* Poll for session files. */
-            this.sessionFiles.get(this.currentUser).addAll(this.rig.detectSessionFiles());
+            this.batchFiles = Integer.parseInt(conf.getProperty("Data_Transfer_Batch_Files", 
+                    String.valueOf(DEFAULT_BATCH_FILES)));
+            if (this.batchFiles < 1) this.batchFiles = 1;
+        }
+        catch (NumberFormatException ex)
+        {
+            this.logger.warn("Invalid session data files batch size, it should be a number. Using the default of " +
+                    DEFAULT_BATCH_FILES + " files.");
         }
         
-        for (Entry<String, Set<File>> e : this.sessionFiles.entrySet())
+        try
         {
-            /* Nothing to send. */
-            if (e.getValue().size() == 0 || 
-                    e.getValue().size() == this.transferredFiles.get(e.getKey()).size()) continue; 
-            
-            /* Request parameters. */
-            AddSessionFiles request = new AddSessionFiles();
+            this.batchSize = Long.parseLong(conf.getProperty("Data_Transfer_Batch_Bytes", 
+                    String.valueOf(TOTAL_ATTACHMENT_SIZE)));
+        }
+        catch (NumberFormatException ex)
+        {
+            this.logger.warn("Invalid session data files batch attachment size, it should be a number. Using the " +
+                    "default of " + TOTAL_ATTACHMENT_SIZE + " bytes.");
+        }
+        
+        try
+        {
+            this.pipelineDepth = Integer.parseInt(conf.getProperty("Data_Transfer_Pipeline_Depth", 
+                    String.valueOf(DEFAULT_PIPELINE_DEPTH)));
+        }
+        catch (NumberFormatException ex)
+        {
+            this.logger.warn("Invalid session data files pipeline depth, it should be a number. Using the default of " +
+                    DEFAULT_PIPELINE_DEPTH + ".");
+        }
+        
+        try
+        {
+            this.maxAttempts = Integer.parseInt(conf.getProperty("Data_Transfer_Max_Attempts", 
+                    String.valueOf(DEFAULT_MAX_ATTEMPTS)));
+            if (this.maxAttempts < 1) this.maxAttempts = 1;
+        }
+        catch (NumberFormatException ex)
+        {
+            this.logger.warn("Invalid session data files maximum transfer attempts, it should be a number. Using the " +
+                    "default of " + DEFAULT_MAX_ATTEMPTS + " attempts.");
+        }
+        
+        try
+        {
+            this.chunkSize = Long.parseLong(conf.getProperty("Data_Transfer_Chunk_Size", 
+                    String.valueOf(DEFAULT_CHUNK_SIZE)));
+            if (this.chunkSize < 0) this.chunkSize = 0;
+        }
+        catch (NumberFormatException ex)
+        {
+            this.logger.warn("Invalid session data file chunk size, it should be a number. Using the default of " +
+                    DEFAULT_CHUNK_SIZE + " bytes.");
+        }
+        
+        if (this.chunkSize > 0 && this.transferMethod == TransferMethod.ATTACHMENT)
+        {
+            this.logger.warn("Large session data files will be streamed in chunks of " + this.chunkSize + " bytes. " +
+                    "The Scheduling Server must accept chunked session data files, otherwise the transfer of these " +
+                    "files will fail.");
+        }
+    }
+    
+    /**
+     * Reads the data directory watch configuration and registers the data 
+     * directories with a watch service. If no data directories are 
+     * configured, session files are only detected by scanning.
+     */
+    private void setupWatchService()
+    {
+        final IConfig conf = ConfigFactory.getInstance();
+        
+        this.scanInterval = DEFAULT_SCAN_INTERVAL * 1000;
+        try
+        {
+            this.scanInterval = Integer.parseInt(conf.getProperty("Data_Transfer_Scan_Interval", 
+                    String.valueOf(DEFAULT_SCAN_INTERVAL))) * 1000L;
+        }
+        catch (NumberFormatException ex)
+        {
+            this.logger.warn("Invalid session data file scan interval, it should be a number. Using the default of " +
+                    DEFAULT_SCAN_INTERVAL + " seconds.");
+        }
+        if (this.scanInterval < 1000) this.scanInterval = 1000;
+        
+        final String dirs = conf.getProperty("Data_Transfer_Watch_Directories", "");
+        if ("".equals(dirs.trim()))
+        {
+            this.logger.debug("No session data directories configured to be watched, session data files will be " +
+                    "detected every " + this.scanInterval / 1000 + " seconds.");
+            return;
+        }
+        
+        this.settleTime = DEFAULT_SETTLE_TIME;
+        try
+        {
+            this.settleTime = Integer.parseInt(conf.getProperty("Data_Transfer_Watch_Settle_Time", 
+                    String.valueOf(DEFAULT_SETTLE_TIME)));
+        }
+        catch (NumberFormatException ex)
+        {
+            this.logger.warn("Invalid session data file settle time, it should be a number. Using the default of " +
+                    DEFAULT_SETTLE_TIME + " milliseconds.");
+        }
+        
+        try
+        {
+            this.watchService = FileSystems.getDefault().newWatchService();
+            for (String dir : dirs.split(";"))
+            {
+                final File file = new File(dir.trim()).getAbsoluteFile();
+                if (file.isDirectory())
+                {
+                    this.registerDirectory(file);
+                }
+                else
+                {
+                    this.logger.warn("Cannot watch session data directory '" + file.getPath() + "' because it is " +
+                            "not a directory.");
+                }
+            }
+        }
+        catch (IOException ex)
+        {
+            this.logger.error("Failed to watch session data directories with error '" + ex.getClass().getSimpleName() + 
+                    ": " + ex.getMessage() + "'. Session data files will only be detected by scanning.");
+            if (this.watchService != null)
+            {
+                try
+                {
+                    this.watchService.close();
+                }
+                catch (IOException e)
+                { /* Not much to do. */ }
+            }
+            this.watchService = null;
+        }
+    }
+    
+    /**
+     * Registers a directory and its sub-directories with the watch service.
+     * 
+     * @param dir directory to register
+     * @throws IOException error registering directory
+     */
+    private void registerDirectory(File dir) throws IOException
+    {
+        final Path path = dir.toPath();
+        this.logger.debug("Watching session data directory '" + path + "'.");
+        this.watchedDirs.put(path.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE, 
+                StandardWatchEventKinds.ENTRY_MODIFY), path);
+        
+        final File children[] = dir.listFiles();
+        if (children == null) return;
+        for (File child : children)
+        {
+            if (child.isDirectory()) this.registerDirectory(child);
+        }
+    }
+    
+    /**
+     * Processes the events of a signalled watch key. Files that have been 
+     * created or modified in session are added as pending files and created
+     * directories are registered to be watched.
+     * 
+     * @param key signalled watch key
+     * @return true if events were lost and a scan is required
+     */
+    private synchronized boolean processEvents(WatchKey key)
+    {
+        boolean overflow = false;
+        final Path dir = this.watchedDirs.get(key);
+        final long now = System.currentTimeMillis();
+        
+        for (WatchEvent<?> event : key.pollEvents())
+        {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null)
+            {
+                overflow = true;
+                continue;
+            }
             
-            SessionFiles filesParam = new SessionFiles();
-            filesParam.setName(this.rig.getName());
-            filesParam.setUser(e.getKey());
-            request.setAddSessionFiles(filesParam);
+            final File file = dir.resolve((Path)event.context()).toFile();
+            if (file.isDirectory())
+            {
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE)
+                {
+                    try
+                    {
+                        this.registerDirectory(file);
+                    }
+                    catch (IOException ex)
+                    {
+                        this.logger.warn("Failed to watch session data directory '" + file.getPath() + "', error '" +
+                                ex.getMessage() + "'.");
+                    }
+                    
+                    /* Files may have been added before the directory was registered. */
+                    overflow = true;
+                }
+            }
+            else if (this.inSession)
+            {
+                this.pendingFiles.put(file, now);
+            }
+        }
+        
+        if (!key.reset()) this.watchedDirs.remove(key);
+        return overflow;
+    }
+    
+    /**
+     * Adds pending files which have not been modified for the settle time 
+     * as session files of the current session. Settled files are only added
+     * if the rig accepts them as session files, which is checked for each
+     * file without a full scan of the files detectors.
+     * 
+     * @param now current time
+     * @return time in milliseconds until the next pending file settles
+     */
+    private long settlePendingFiles(long now)
+    {
+        long wait = Long.MAX_VALUE;
+        final List<File> settled = new ArrayList<File>();
+        
+        final Iterator<Entry<File, Long>> it = this.pendingFiles.entrySet().iterator();
+        while (it.hasNext())
+        {
+            final Entry<File, Long> e = it.next();
+            final long remaining = e.getValue() + this.settleTime - now;
+            if (remaining > 0 && this.inSession)
+            {
+                wait = Math.min(wait, remaining);
+                continue;
+            }
             
-            /* Add the files to request. */
-            int attachmentSize = 0;
-            List<File> sentFiles = new ArrayList<File>();
-            for (File f : e.getValue())
-            {
-                /* We don't want to send a SOAP message to the Scheduling Server that is too large
-                 * so we limit it here. */
-                if (attachmentSize > TOTAL_ATTACHMENT_SIZE) break;
-                
-                /* Check the file has not already been sent. */
-                f = f.getAbsoluteFile();
-                if (this.transferredFiles.get(e.getKey()).contains(f)) continue;
-                this.transferredFiles.get(e.getKey()).add(f);
-                
-                if (!f.exists())
+            it.remove();
+            if (this.inSession && e.getKey().isFile()) settled.add(e.getKey());
+        }
+        
+        if (settled.size() > 0)
+        {
+            final List<File> files = new ArrayList<File>(settled.size());
+            for (File f : settled)
+            {
+                if (this.rig.isSessionFile(f))
                 {
-                    /* If a file no longer exists, there is no much point trying to send it. */
-                    this.logger.warn("Cannot transfer session data file '" + f.getName() + "' because it no longer exists.");
-                    continue;
+                    files.add(f);
                 }
-                
-                /* File name. */
-                SessionFile fileParam = new SessionFile();
-                fileParam.setName(f.getName());
-                
-                /* File path. */
-                String path = f.getAbsoluteFile().getParent();
-                if (!"".equals(this.localDirectory) && path.startsWith(this.localDirectory))
+                else
                 {
-                    path = path.substring(this.localDirectory.length());
+                    this.logger.debug("Watched file '" + f.getPath() + "' is not a session data file.");
                 }
-                fileParam.setPath(path);
-                
-                /* File timestamp. */
-                Calendar ts = Calendar.getInstance();
-                ts.setTimeInMillis(f.lastModified());
-                fileParam.setTimestamp(ts);
+            }
+            this.addSessionFiles(this.currentUser, files);
+        }
+        
+        return wait;
+    }
+    
+    /**
+     * Checks if there are files to transfer and if there are, transfers them.
+     */
+    private void transferFiles()
+    {
+        this.transferFiles(true);
+    }
+
+    /**
+     * Checks if there are files to transfer and if there are, transfers them.
+     * The files to send are selected and their results are recorded holding
+     * the watcher lock, but the requests are sent without holding it so
+     * session notifications are not blocked by the Scheduling Server.
+     * 
+     * @param scan whether to scan the files detectors for session files
+     */
+    private void transferFiles(final boolean scan)
+    {
+        final List<UserSend> sends = new ArrayList<UserSend>();
+        synchronized (this)
+        {
+            if (this.inSession && scan)
+            {
+                /* Poll for session files. */
+                this.addSessionFiles(this.currentUser, this.rig.detectSessionFiles());
+            }
+            
+            for (Entry<String, SessionFileTransfers> e : this.sessionFiles.entrySet())
+            {
+                /* Only send if there are files to send. */
+                if (e.getValue().hasPending()) sends.add(this.prepareSend(e.getKey(), e.getValue()));
+            }
+        }
+        
+        for (UserSend send : sends)
+        {
+            this.sendFiles(send);
+            for (File f : send.streamed) this.streamFile(send.user, send.transfers, f);
+        }
+        
+        synchronized (this)
+        {
+            final Iterator<Entry<String, SessionFileTransfers>> it = this.sessionFiles.entrySet().iterator();
+            while (it.hasNext())
+            {
+                /* Perform cleanup. */
+                final Entry<String, SessionFileTransfers> e = it.next();
+                if (!e.getKey().equals(this.currentUser) && e.getValue().isComplete()) it.remove();
+            }
+            
+            this.syncJournal();
+        }
+    }
+    
+    /**
+     * Selects the pending files of a user to send to the Scheduling Server,
+     * marking them as in flight. The files are split into requests that are
+     * limited by number of files and attachment size. Attachments larger 
+     * than the maximum attachment size are set to be streamed, if chunking 
+     * is configured. Must be called holding the watcher lock.
+     * 
+     * @param user user whose files to send
+     * @param transfers transfer state of the user's files
+     * @return files to send
+     */
+    private UserSend prepareSend(final String user, final SessionFileTransfers transfers)
+    {
+        final UserSend send = new UserSend(user, transfers);
+        
+        SessionFiles filesParam = null;
+        List<File> chunk = null;
+        long chunkSize = 0;
+        
+        final long now = System.currentTimeMillis();
+        for (File f : new ArrayList<File>(transfers.getPending()))
+        {
+            /* Files that failed to be sent are backed off. */
+            if (!transfers.isDue(f, now)) continue;
+            
+            if (!f.exists())
+            {
+                /* If a file no longer exists, there is no much point trying to send it. */
+                this.logger.warn("Cannot transfer session data file '" + f.getName() + "' because it no longer exists.");
+                transfers.failed(f);
+                this.journalDone(user, f);
+                continue;
+            }
+            
+            final long size = this.transferMethod == TransferMethod.ATTACHMENT ? f.length() : 0;
+            if (size > MAX_ATTACHMENT_SIZE && this.chunkSize > 0)
+            {
+                transfers.inFlight(f);
+                send.streamed.add(f);
+                continue;
+            }
+            else if (size > MAX_ATTACHMENT_SIZE) 
+            {
+                this.logger.error("File '" + f.getPath() + "' is larger than maximum allowed attachment size " +
+                        "so will not be transferred for user access. Choose a different transfer method (i.e. 'WEBDAV' " +
+                        "to allow a user to view it.");
+                transfers.failed(f);
+                this.journalDone(user, f);
+                continue;
+            }
+            
+            /* We don't want to send a SOAP message to the Scheduling Server that is too large
+             * so we limit it here. */
+            if (chunk == null || chunk.size() >= this.batchFiles || chunkSize + size > this.batchSize)
+            {
+                /* Request parameters. */
+                final AddSessionFiles request = new AddSessionFiles();
+                filesParam = new SessionFiles();
+                filesParam.setName(this.rig.getName());
+                filesParam.setUser(user);
+                request.setAddSessionFiles(filesParam);
+                send.requests.add(request);
                 
-                /* Transfer method. */
-                fileParam.setTransfer(SessionFileTransfer.Factory.fromValue(this.transferMethod.toString()));
-                if (this.transferMethod == TransferMethod.ATTACHMENT)
+                chunk = new ArrayList<File>();
+                send.chunks.add(chunk);
+                chunkSize = 0;
+            }
+            
+            final SessionFile fileParam = this.createSessionFile(f);
+            if (this.transferMethod == TransferMethod.ATTACHMENT)
+            {
+                /* Attachment has the file contents appended to the SOAP message. */
+                fileParam.setFile(new DataHandler(new FileDataSource(f)));
+            }
+            
+            filesParam.addFiles(fileParam);
+            transfers.inFlight(f);
+            chunk.add(f);
+            chunkSize += size;
+        }
+        
+        return send;
+    }
+    
+    /**
+     * Sends the requests of a user's files to the Scheduling Server. If 
+     * there is more than one request, the requests are sent concurrently up
+     * to the pipeline depth. The requests are sent without holding the 
+     * watcher lock, which is only taken to record their results.
+     * 
+     * @param send files to send
+     */
+    private void sendFiles(final UserSend send)
+    {
+        final List<AddSessionFiles> requests = send.requests;
+        
+        /* Send the requests. */
+        final SendResult results[] = new SendResult[requests.size()];
+        if (requests.size() == 1 || this.pipelineDepth < 2)
+        {
+            for (int i = 0; i < requests.size(); i++)
+            {
+                results[i] = this.sendRequest(this.stub, requests.get(i));
+            }
+        }
+        else
+        {
+            final List<Future<SendResult>> futures = new ArrayList<Future<SendResult>>(requests.size());
+            for (final AddSessionFiles request : requests)
+            {
+                futures.add(this.getSendPool().submit(new Callable<SendResult>()
                 {
-                        /* Attachment has the file contents appended to the SOAP message. */
-                        if (f.length() > MAX_ATTACHMENT_SIZE) 
+                    @Override
+                    public SendResult call()
+                    {
+                        final SchedulingServerProviderStub sender = DataTransferWatcher.this.borrowSenderStub();
+                        if (sender == null) return SendResult.FAILED;
+                        try
                         {
-                            this.logger.error("File '" + f.getPath() + "' is larger than maximum allowed attachment size " +
-                                    "so will not be transferred for user access. Choose a different transfer method (i.e. 'WEBDAV' " +
-                                    "to allow a user to view it.");
-                            continue;
+                            return DataTransferWatcher.this.sendRequest(sender, request);
                         }
+                        finally
+                        {
+                            DataTransferWatcher.this.returnSenderStub(sender);
+                        }
+                    }
+                }));
+            }
+            
+            /* The requests are waited on even if interrupted so the result 
+             * of each request is known. */
+            boolean interrupted = false;
+            for (int i = 0; i < futures.size(); i++)
+            {
+                while (true)
+                {
+                    try
+                    {
+                        results[i] = futures.get(i).get();
+                        break;
+                    }
+                    catch (InterruptedException ex)
+                    {
+                        interrupted = true;
+                    }
+                    catch (ExecutionException ex)
+                    {
+                        this.logger.error("Failed to send session data files, error is " + 
+                                ex.getCause().getClass().getSimpleName() + ": " + ex.getCause().getMessage() + '.');
+                        results[i] = SendResult.FAILED;
+                        break;
+                    }
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+        
+        final List<File> cleaned = new ArrayList<File>();
+        synchronized (this)
+        {
+            for (int i = 0; i < results.length; i++)
+            {
+                final List<File> sentFiles = send.chunks.get(i);
+                if (results[i] == SendResult.ACCEPTED)
+                {
+                    for (File f : sentFiles) 
+                    {
+                        send.transfers.acked(f);
+                        this.journalDone(send.user, f);
+                    }
+                    
+                    if (this.transferMethod == TransferMethod.WEBDAV)
+                    {
+                        /* For WebDAV files, we want to submit them for transfer. */
                         
-                        attachmentSize += f.length();
-                        fileParam.setFile(new DataHandler(new FileDataSource(f)));
-                }       
-
-                sentFiles.add(f);
-                filesParam.addFiles(fileParam);
+                    }
+                    else if (this.transferMethod == TransferMethod.ATTACHMENT && this.cleanFiles)
+                    {
+                        cleaned.addAll(sentFiles);
+                    }
+                }
+                else
+                {
+                    for (File f : sentFiles) this.retry(send.user, send.transfers, f, results[i] == SendResult.REJECTED);
+                }
+            }
+        }
+        
+        if (cleaned.size() > 0)
+        {
+            this.logger.debug("Cleaning data transfer files after attachment, files: " + cleaned);
+            for (File f : cleaned) f.delete();
+        }
+    }
+    
+    /**
+     * Streams a file to the Scheduling Server in chunks, with each chunk 
+     * sent as an attachment in its own request along with its offset and 
+     * checksum. Only one chunk is read at a time and the chunk is read from
+     * the file as the request is written. If a chunk is not accepted, the
+     * file is returned to pending and its transfer resumes from the last 
+     * accepted chunk. The chunks are sent without holding the watcher lock,
+     * which is only taken to record the transfer progress.
+     * <br />
+     * The offset, length and checksum session file elements are rejected by
+     * Scheduling Servers that do not accept chunked session data files, so 
+     * streaming must only be enabled once the Scheduling Server is upgraded.
+     * 
+     * @param user user whose file to send
+     * @param transfers transfer state of the user's files
+     * @param f file to stream
+     */
+    private void streamFile(final String user, final SessionFileTransfers transfers, final File f)
+    {
+        final long length = f.length();
+        long offset;
+        synchronized (this)
+        {
+            offset = transfers.getOffset(f);
+        }
+        
+        if (offset > length)
+        {
+            this.logger.warn("Session data file '" + f.getPath() + "' is smaller than the previously transferred " +
+                    "size so its transfer is being restarted.");
+            offset = 0;
+        }
+        else if (offset > 0)
+        {
+            this.logger.info("Resuming transfer of session data file '" + f.getPath() + "' from offset " + offset + '.');
+        }
+        
+        final String name = this.rig.getName();
+        
+        while (offset < length)
+        {
+            if (this.shutdown)
+            {
+                synchronized (this)
+                {
+                    transfers.defer(f);
+                }
+                return;
             }
             
+            final FileChunkDataSource source = new FileChunkDataSource(f, offset, Math.min(this.chunkSize, length - offset));
+            final SessionFile fileParam = this.createSessionFile(f);
             try
             {
-                /* Send the request. */
-                 AddSessionFilesResponse resp = this.stub.addSessionFiles(request);
-                 if (resp.getAddSessionFilesResponse().getSuccessful())
-                 {
-                     if (this.transferMethod == TransferMethod.WEBDAV)
-                     {
-                         /* For WebDAV files, we want to submit them for transfer. */
-                         
-                     }
-                     else if (this.transferMethod == TransferMethod.ATTACHMENT && this.cleanFiles)
-                     {
-                         this.logger.debug("Cleaning data transfer files after attachment, files: " + sentFiles);
-                         for (File f : sentFiles) f.delete();
-                     }
-                 }
-                 else
-                 {
-                     this.logger.error("Scheduling Server failed to accept session data files with reason: " + 
-                             resp.getAddSessionFilesResponse().getErrorReason() + ". Will attempt to send them " +
-                             "again at a later time.");
-                     for (File f : sentFiles) this.transferredFiles.get(e.getKey()).remove(f);
-                 }
+                fileParam.setChecksum(source.checksum());
             }
-            catch (RemoteException ex)
+            catch (IOException ex)
             {
-                this.logger.error("Failed to communicate with the Scheduling Server to send session data files. Error is " + 
-                        ex.getClass().getSimpleName() + ": " + ex.getMessage() + ". Will attempt to send them again at a later time.");
-                for (File f : sentFiles) this.transferredFiles.get(e.getKey()).remove(f);
+                this.logger.error("Failed to read session data file '" + f.getPath() + "' to transfer, error is " + 
+                        ex.getClass().getSimpleName() + ": " + ex.getMessage() + ". Will attempt to send it again at " +
+                        "a later time.");
+                synchronized (this)
+                {
+                    this.retry(user, transfers, f, true);
+                }
+                return;
             }
+            fileParam.setFile(new DataHandler(source));
+            fileParam.setOffset(offset);
+            fileParam.setLength(length);
             
-            /* Perform cleanup. */
-            if (!e.getKey().equals(this.currentUser) && 
-                    this.sessionFiles.get(e.getKey()).size() == this.transferredFiles.get(e.getKey()).size())
+            final SessionFiles filesParam = new SessionFiles();
+            filesParam.setName(name);
+            filesParam.setUser(user);
+            filesParam.addFiles(fileParam);
+            final AddSessionFiles request = new AddSessionFiles();
+            request.setAddSessionFiles(filesParam);
+            
+            final SendResult result = this.sendRequest(this.stub, request);
+            synchronized (this)
             {
-                this.sessionFiles.remove(e.getKey());
-                this.transferredFiles.remove(e.getKey());
+                if (result != SendResult.ACCEPTED)
+                {
+                    this.retry(user, transfers, f, result == SendResult.REJECTED);
+                    return;
+                }
+                
+                offset += source.getLength();
+                transfers.setOffset(f, offset);
             }
         }
+        
+        synchronized (this)
+        {
+            transfers.acked(f);
+            this.journalDone(user, f);
+        }
+        
+        if (this.cleanFiles)
+        {
+            this.logger.debug("Cleaning data transfer file after streamed attachment, file: " + f.getPath());
+            f.delete();
+        }
     }
     
     /**
-     * Loads a previously save data transfer restore file.
+     * Creates the request parameter of a session file, without its 
+     * contents attached.
+     * 
+     * @param f session file
+     * @return session file parameter
      */
-    private void loadRestoreFile()
+    private SessionFile createSessionFile(final File f)
+    {
+        /* File name. */
+        final SessionFile fileParam = new SessionFile();
+        fileParam.setName(f.getName());
+        
+        /* File path. */
+        String path = f.getParent();
+        if (!"".equals(this.localDirectory) && path.startsWith(this.localDirectory))
+        {
+            path = path.substring(this.localDirectory.length());
+        }
+        fileParam.setPath(path);
+        
+        /* File timestamp. */
+        final Calendar ts = Calendar.getInstance();
+        ts.setTimeInMillis(f.lastModified());
+        fileParam.setTimestamp(ts);
+        
+        /* Transfer method. */
+        fileParam.setTransfer(SessionFileTransfer.Factory.fromValue(this.transferMethod.toString()));
+        return fileParam;
+    }
+    
+    /**
+     * Returns a file that was not accepted to pending so its transfer is 
+     * retried once its back off time has elapsed. If the file was rejected
+     * the maximum number of times, its transfer is abandoned. Files that 
+     * could not be sent, for example because the Scheduling Server is not
+     * reachable, are always retried. Must be called holding the watcher 
+     * lock.
+     * 
+     * @param user user whose file was not accepted
+     * @param transfers transfer state of the user's files
+     * @param f file that was not accepted
+     * @param rejected whether the file was rejected rather than not sent
+     */
+    private void retry(final String user, final SessionFileTransfers transfers, final File f, final boolean rejected)
     {
-        File restore = new File(this.restoreFile);
-        if (!restore.exists())
+        if (!rejected)
         {
-            this.logger.debug("Session data transfer restore file does not exist, nothing to restore.");
+            transfers.defer(f);
+        }
+        else if (transfers.getRetries(f) + 1 >= this.maxAttempts)
+        {
+            this.logger.error("Giving up transferring session data file '" + f.getPath() + "' for user access after " +
+                    "it was rejected " + this.maxAttempts + " times.");
+            transfers.failed(f);
+            this.journalDone(user, f);
             return;
         }
+        else
+        {
+            transfers.retry(f);
+        }
         
-        BufferedReader reader = null;
+        final int shift = Math.min(transfers.getFailures(f) - 1, 16);
+        final long backoff = Math.min(this.retryBackoff << Math.max(shift, 0), MAX_RETRY_BACKOFF);
+        transfers.setRetryTime(f, System.currentTimeMillis() + backoff);
+    }
+    
+    /**
+     * Sends a request to add session files to the Scheduling Server.
+     * 
+     * @param sender interface to the Scheduling Server 
+     * @param request request to send
+     * @return result of sending the request
+     */
+    private SendResult sendRequest(final SchedulingServerProviderStub sender, final AddSessionFiles request)
+    {
         try
         {
-            reader = new BufferedReader(new InputStreamReader(new FileInputStream(restore)));
+            final AddSessionFilesResponse resp = sender.addSessionFiles(request);
+            if (resp.getAddSessionFilesResponse().getSuccessful()) return SendResult.ACCEPTED;
             
-            String line;
-            while ((line = reader.readLine()) != null)
+            this.logger.error("Scheduling Server failed to accept session data files with reason: " + 
+                    resp.getAddSessionFilesResponse().getErrorReason() + ". Will attempt to send them " +
+                    "again at a later time.");
+            return SendResult.REJECTED;
+        }
+        catch (RemoteException ex)
+        {
+            this.logger.error("Failed to communicate with the Scheduling Server to send session data files. Error is " + 
+                    ex.getClass().getSimpleName() + ": " + ex.getMessage() + ". Will attempt to send them again at a later time.");
+            return SendResult.FAILED;
+        }
+    }
+    
+    /**
+     * Borrows an idle Scheduling Server interface for a send pool thread, 
+     * creating one if none are idle.
+     * 
+     * @return interface or <code>null</code> if one could not be created
+     */
+    private SchedulingServerProviderStub borrowSenderStub()
+    {
+        synchronized (this.senderStubs)
+        {
+            if (!this.senderStubs.isEmpty()) return this.senderStubs.pop();
+        }
+        
+        try
+        {
+            return new SchedulingServerProviderStub(this.endpoint);
+        }
+        catch (AxisFault ex)
+        {
+            this.logger.error("Failed to create Scheduling Server interface to send session data files. Error is " + 
+                    ex.getClass().getSimpleName() + ": " + ex.getMessage() + ". Will attempt to send them again at a " +
+                    "later time.");
+            return null;
+        }
+    }
+    
+    /**
+     * Returns a borrowed Scheduling Server interface so it may be used by 
+     * another send pool thread.
+     * 
+     * @param sender borrowed interface
+     */
+    private void returnSenderStub(final SchedulingServerProviderStub sender)
+    {
+        synchronized (this.senderStubs)
+        {
+            if (this.senderStubs.size() < this.pipelineDepth)
             {
-                line = line.trim();
-                
-                /* The format of the line is '<name> <path>:$:<path>:$:...:$:<path>. */
-                int pos = line.indexOf(' ');
-                if (line.length() == 0 || pos < 1) continue;
-                
-                String user = line.substring(0, pos);
-                this.sessionFiles.put(user, new HashSet<File>());
-                this.transferredFiles.put(user, new ArrayList<File>());
+                this.senderStubs.push(sender);
+                return;
+            }
+        }
+        this.cleanupStub(sender);
+    }
+    
+    /**
+     * Releases the resources held by a Scheduling Server interface.
+     * 
+     * @param sender interface
+     */
+    private void cleanupStub(final SchedulingServerProviderStub sender)
+    {
+        try
+        {
+            sender._getServiceClient().cleanup();
+        }
+        catch (AxisFault ex)
+        {
+            /* Not much to do. */
+        }
+    }
+    
+    /**
+     * Returns the pool that sends concurrent requests, creating it if it 
+     * has not been created.
+     * 
+     * @return send pool
+     */
+    private ExecutorService getSendPool()
+    {
+        if (this.sendPool == null)
+        {
+            this.sendPool = Executors.newFixedThreadPool(this.pipelineDepth, new ThreadFactory()
+            {
+                private final AtomicInteger count = new AtomicInteger();
                 
-                for (String path : line.substring(pos).split(RESTORE_FILE_DELIM))
+                @Override
+                public Thread newThread(Runnable r)
+                {
+                    final Thread thr = new Thread(r, "Session Data Sender " + this.count.incrementAndGet());
+                    thr.setDaemon(true);
+                    return thr;
+                }
+            });
+        }
+        return this.sendPool;
+    }
+    
+    /**
+     * Loads the session files that were pending transfer when the Rig Client
+     * was last stopped from the transfer journal and opens the journal to
+     * record transfers.
+     */
+    private void loadRestoreFile()
+    {
+        this.journal = new TransferJournal(this.restoreFile);
+        try
+        {
+            for (Entry<String, Set<File>> e : this.journal.recover().entrySet())
+            {
+                final SessionFileTransfers transfers = new SessionFileTransfers();
+                for (File file : e.getValue())
                 {
-                    File file = new File(path.trim());
                     if (file.exists())
                     {
-                        this.logger.warn("Restore session file '" + path + "' for transfer.");
-                        this.sessionFiles.get(user).add(file);
+                        this.logger.warn("Restore session file '" + file.getPath() + "' for transfer.");
+                        transfers.add(file);
                     }
                     else
                     {
-                        this.logger.warn("Cannot set session data file '" + path + "' of user '" + user + "' for " +
-                        		"transfer for user access as it not longer exists.");
+                        this.logger.warn("Cannot set session data file '" + file.getPath() + "' of user '" + e.getKey() + 
+                                "' for transfer for user access as it not longer exists.");
                     }
                 }
                 
-                if (this.sessionFiles.get(user).size() == 0)
-                {
-                    /* All data files not valid, removing the user from list. */
-                    this.sessionFiles.remove(user);
-                    this.transferredFiles.remove(user);
-                }
+                /* If all data files are not valid, the user is not restored. */
+                if (transfers.size() > 0) this.sessionFiles.put(e.getKey(), transfers);
             }
         }
         catch (IOException ex)
         {
             this.logger.error("Failed to load session data transfer restore file with error '" + ex.getClass().getSimpleName() 
-                    + ": " + ex.getMessage() + "'. Attempting to delete restore file.");
+                    + ": " + ex.getMessage() + "'. The restore file will be kept and appended to.");
         }
-        finally
+        
+        /* The journal is rewritten with only the restored files, unless it
+         * could not be read in which case it is appended to. */
+        try
         {
-            if (reader != null)
-                try
-                {
-                    reader.close();
-                }
-                catch (IOException e)
-                { /* Not much to do. */ }
+            this.journal.compact(this.getUntransferredFiles());
+        }
+        catch (IOException ex)
+        {
+            this.logger.error("Failed to open session data transfer restore file with error '" + 
+                    ex.getClass().getSimpleName() + ": " + ex.getMessage() + "'. Session data files will not be " +
+                    "restored the next time the Rig Client is started.");
         }
-        
-        /* No more need for the restore file after it has been loaded. */
-        restore.delete();
     }
     
     /**
@@ -425,36 +1242,19 @@ public class DataTransferWatcher extends Thread
      */
     private void storeRestoreFile()
     {
+        if (this.journal == null) this.journal = new TransferJournal(this.restoreFile);
+        
         /* Nothing to restore. */
-        if (this.sessionFiles.size() == 0) return;
+        final Map<String, List<File>> untransferred = this.getUntransferredFiles();
+        if (untransferred.size() == 0)
+        {
+            this.journal.delete();
+            return;
+        }
         
-        PrintWriter writer = null;
         try
         {
-            writer = new PrintWriter(this.restoreFile);
-            
-            for (Entry<String, Set<File>> e : this.sessionFiles.entrySet())
-            {
-                /* No need to store user if they have no files pending transfer. */
-                if (e.getValue().size() == this.transferredFiles.get(e.getKey()).size()) continue;
-                
-                /* User name. */
-                writer.print(e.getKey());
-                writer.print(' ');
-                
-                /* List of files. */
-                Iterator<File> it = e.getValue().iterator();
-                while (it.hasNext())
-                {
-                    File f = it.next();
-                    if (this.transferredFiles.get(e.getKey()).contains(f)) continue;
-
-                    writer.print(f.getPath());
-                    if (it.hasNext()) writer.print(RESTORE_FILE_DELIM);
-                }
-                
-                writer.println();
-            }
+            this.journal.compact(untransferred);
         }
         catch (IOException ex)
         {
@@ -462,10 +1262,83 @@ public class DataTransferWatcher extends Thread
                     ex.getClass().getSimpleName() + ": " + ex.getMessage() + ". Remaining session data files will " +
                     "not be transferred the next time the Rig Client is started.");
         }
-        finally
+        this.journal.close();
+    }
+    
+    /**
+     * Returns the session files of each user that have not been 
+     * transferred.
+     * 
+     * @return untransferred files keyed by user
+     */
+    private Map<String, List<File>> getUntransferredFiles()
+    {
+        final Map<String, List<File>> untransferred = new LinkedHashMap<String, List<File>>();
+        for (Entry<String, SessionFileTransfers> e : this.sessionFiles.entrySet())
+        {
+            final List<File> files = e.getValue().getUntransferred();
+            if (files.size() > 0) untransferred.put(e.getKey(), files);
+        }
+        return untransferred;
+    }
+    
+    /**
+     * Adds session files of a user for transfer, recording newly added files
+     * in the transfer journal.
+     * 
+     * @param user user of files
+     * @param files session files
+     */
+    private void addSessionFiles(final String user, final Collection<File> files)
+    {
+        final SessionFileTransfers transfers = this.sessionFiles.get(user);
+        for (File f : files)
+        {
+            if (transfers.add(f) && this.journal != null) this.journal.added(user, f.getAbsoluteFile());
+        }
+    }
+    
+    /**
+     * Records in the transfer journal that a file no longer needs to be 
+     * transferred.
+     * 
+     * @param user user of file
+     * @param f session file
+     */
+    private void journalDone(final String user, final File f)
+    {
+        if (this.journal != null) this.journal.done(user, f);
+    }
+    
+    /**
+     * Synchronises the transfer journal, compacting it if it has grown 
+     * large compared to the number of untransferred files.
+     */
+    private void syncJournal()
+    {
+        if (this.journal == null) return;
+        
+        int pending = 0;
+        for (SessionFileTransfers transfers : this.sessionFiles.values())
+        {
+            pending += transfers.count(SessionFileTransfers.Status.PENDING) + 
+                    transfers.count(SessionFileTransfers.Status.IN_FLIGHT);
+        }
+        
+        if (this.journal.needsCompaction(pending))
         {
-            if (writer != null) writer.close();
+            try
+            {
+                this.journal.compact(this.getUntransferredFiles());
+                return;
+            }
+            catch (IOException ex)
+            {
+                this.logger.error("Failed to compact session data transfer restore file with error '" + 
+                        ex.getClass().getSimpleName() + ": " + ex.getMessage() + "'.");
+            }
         }
+        this.journal.sync();
     }
         
     /**
@@ -477,8 +1350,10 @@ public class DataTransferWatcher extends Thread
     {
         this.inSession = true;
         this.currentUser = user;
-        this.sessionFiles.put(this.currentUser, new HashSet<File>());
-        this.transferredFiles.put(this.currentUser, new ArrayList<File>());
+        
+        /* Files of a previous session of the user may still be being sent. */
+        if (!this.sessionFiles.containsKey(user)) this.sessionFiles.put(user, new SessionFileTransfers());
+        this.pendingFiles.clear();
     }
     
     /**
@@ -486,16 +1361,19 @@ public class DataTransferWatcher extends Thread
      */
     public synchronized void sessionComplete()
     {
-        this.sessionFiles.get(this.currentUser).addAll(this.rig.detectSessionFiles());
+        /* Files still being written to at session end are sent anyway if they
+         * are detected as session files. */
+        this.pendingFiles.clear();
+        this.addSessionFiles(this.currentUser, this.rig.detectSessionFiles());
+        if (this.journal != null) this.journal.sync();
         
         String releasedUser = this.currentUser;
         this.currentUser = null;
         this.inSession = false;
         
-        if (this.sessionFiles.get(releasedUser).size() == this.transferredFiles.get(releasedUser).size())
+        if (this.sessionFiles.get(releasedUser).isComplete())
         {
             this.sessionFiles.remove(releasedUser);
-            this.transferredFiles.remove(releasedUser);
         }
         else
         {
@@ -510,6 +1388,40 @@ public class DataTransferWatcher extends Thread
         this.interrupt();
     }
     
+    /** Files of a user selected to be sent to the Scheduling Server. */
+    private static class UserSend
+    {
+        /** User whose files are sent. */
+        final String user;
+        
+        /** Transfer state of the user's files. */
+        final SessionFileTransfers transfers;
+        
+        /** Requests to send. */
+        final List<AddSessionFiles> requests = new ArrayList<AddSessionFiles>();
+        
+        /** Files in each request. */
+        final List<List<File>> chunks = new ArrayList<List<File>>();
+        
+        /** Files to stream in chunks. */
+        final List<File> streamed = new ArrayList<File>();
+        
+        UserSend(final String user, final SessionFileTransfers transfers)
+        {
+            this.user = user;
+            this.transfers = transfers;
+        }
+    }
+    
+    /** Result of sending a request to the Scheduling Server. */
+    private enum SendResult
+    {
+        /** The files were accepted. */
+        ACCEPTED, /** The files were rejected by the Scheduling Server. */
+        REJECTED, /** The request could not be sent. */
+        FAILED
+    }
+    
     /** List of possible transfer methods. */
     public enum TransferMethod
     {
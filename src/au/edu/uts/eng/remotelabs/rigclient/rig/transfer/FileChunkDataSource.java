@@ -0,0 +1,186 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig.transfer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.zip.CRC32;
+
+import javax.activation.DataSource;
+
+/**
+ * Data source of a region of a file. The region is read from the file 
+ * when the data source stream is read, so attaching a file chunk to a 
+ * message does not buffer the chunk in memory.
+ */
+public class FileChunkDataSource implements DataSource
+{
+    /** Size of the buffer used to read the file. */
+    public static final int BUF_SIZE = 64 * 1024;
+    
+    /** File. */
+    private final File file;
+    
+    /** Offset of the chunk in the file. */
+    private final long offset;
+    
+    /** Length of the chunk. */
+    private final long length;
+    
+    public FileChunkDataSource(File file, long offset, long length)
+    {
+        this.file = file;
+        this.offset = offset;
+        this.length = length;
+    }
+    
+    /**
+     * Computes the CRC32 checksum of the chunk by reading it from the file.
+     * 
+     * @return checksum as hexadecimal 
+     * @throws IOException error reading file
+     */
+    public String checksum() throws IOException
+    {
+        final CRC32 crc = new CRC32();
+        final byte buf[] = new byte[BUF_SIZE];
+        
+        final InputStream in = this.getInputStream();
+        try
+        {
+            int read;
+            while ((read = in.read(buf)) > 0) crc.update(buf, 0, read);
+        }
+        finally
+        {
+            in.close();
+        }
+        
+        return Long.toHexString(crc.getValue());
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException
+    {
+        final RandomAccessFile raf = new RandomAccessFile(this.file, "r");
+        raf.seek(this.offset);
+        
+        return new InputStream()
+        {
+            /** Number of bytes of the chunk remaining to be read. */
+            private long remaining = FileChunkDataSource.this.length;
+            
+            @Override
+            public int read() throws IOException
+            {
+                if (this.remaining <= 0) return -1;
+                
+                final int b = raf.read();
+                if (b >= 0) this.remaining--;
+                return b;
+            }
+            
+            @Override
+            public int read(byte b[], int off, int len) throws IOException
+            {
+                if (this.remaining <= 0) return -1;
+                
+                final int read = raf.read(b, off, (int)Math.min(len, this.remaining));
+                if (read > 0) this.remaining -= read;
+                return read;
+            }
+            
+            @Override
+            public int available()
+            {
+                return (int)Math.min(Integer.MAX_VALUE, this.remaining);
+            }
+            
+            @Override
+            public void close() throws IOException
+            {
+                raf.close();
+            }
+        };
+    }
+    
+    /**
+     * Returns the offset of the chunk in the file.
+     * 
+     * @return offset
+     */
+    public long getOffset()
+    {
+        return this.offset;
+    }
+    
+    /**
+     * Returns the length of the chunk.
+     * 
+     * @return length
+     */
+    public long getLength()
+    {
+        return this.length;
+    }
+
+    @Override
+    public String getContentType()
+    {
+        return "application/octet-stream";
+    }
+
+    @Override
+    public String getName()
+    {
+        return this.file.getName();
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException
+    {
+        throw new IOException("Session file chunks cannot be written.");
+    }
+}
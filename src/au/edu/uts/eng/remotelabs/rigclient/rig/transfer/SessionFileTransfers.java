@@ -0,0 +1,397 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig.transfer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The transfer state of the session files of a user. Each file has a 
+ * transfer status, a count of the times its transfer has been rejected and
+ * the time before which a failed transfer is not retried. 
+ * Files are indexed by their absolute path and the number of files in each
+ * status is maintained as files change status, so checking whether there 
+ * are files to transfer does not need to iterate over the files.
+ * <br />
+ * This class is not thread safe.
+ */
+public class SessionFileTransfers
+{
+    /** Transfer status of a file. */
+    public enum Status
+    {
+        /** Waiting to be transferred. */
+        PENDING, 
+        /** Being transferred. */
+        IN_FLIGHT, 
+        /** Accepted by the Scheduling Server. */
+        ACKED, 
+        /** Cannot be transferred. */
+        FAILED
+    }
+    
+    /** Transfer state of a file. */
+    private static class FileState
+    {
+        /** Transfer status. */
+        Status status = Status.PENDING;
+        
+        /** Number of times the transfer has been rejected. */
+        int retries;
+        
+        /** Number of consecutive times the file has failed to be sent. */
+        int failures;
+        
+        /** Time before which the file is not sent again. */
+        long retryTime;
+        
+        /** Number of bytes of a streamed file that have been accepted. */
+        long offset;
+    }
+    
+    /** All files keyed by their absolute file. */
+    private final Map<File, FileState> files;
+    
+    /** Files that are pending transfer, in the order they were added or 
+     *  retried. */
+    private final Set<File> pending;
+    
+    /** Number of files in each status. */
+    private final int counts[];
+    
+    public SessionFileTransfers()
+    {
+        this.files = new HashMap<File, FileState>();
+        this.pending = new LinkedHashSet<File>();
+        this.counts = new int[Status.values().length];
+    }
+    
+    /**
+     * Adds a file to be transferred if it has not already been added.
+     * 
+     * @param file session file
+     * @return true if the file was added
+     */
+    public boolean add(File file)
+    {
+        file = file.getAbsoluteFile();
+        if (this.files.containsKey(file)) return false;
+        
+        this.files.put(file, new FileState());
+        this.pending.add(file);
+        this.counts[Status.PENDING.ordinal()]++;
+        return true;
+    }
+    
+    /**
+     * Adds files to be transferred that have not already been added.
+     * 
+     * @param add session files
+     */
+    public void addAll(Set<File> add)
+    {
+        for (File f : add) this.add(f);
+    }
+    
+    /**
+     * Returns whether the file has been added.
+     * 
+     * @param file file
+     * @return true if added
+     */
+    public boolean contains(File file)
+    {
+        return this.files.containsKey(file.getAbsoluteFile());
+    }
+    
+    /**
+     * Returns the transfer status of a file.
+     * 
+     * @param file file
+     * @return status or <code>null</code> if the file has not been added
+     */
+    public Status getStatus(File file)
+    {
+        final FileState state = this.files.get(file.getAbsoluteFile());
+        return state == null ? null : state.status;
+    }
+    
+    /**
+     * Returns the number of times the transfer of a file has been rejected
+     * and retried.
+     * 
+     * @param file file
+     * @return number of retries
+     */
+    public int getRetries(File file)
+    {
+        final FileState state = this.files.get(file.getAbsoluteFile());
+        return state == null ? 0 : state.retries;
+    }
+    
+    /**
+     * Returns the number of consecutive times a file has failed to be sent,
+     * whether it was rejected or could not be sent. 
+     * 
+     * @param file file
+     * @return number of consecutive failures
+     */
+    public int getFailures(File file)
+    {
+        final FileState state = this.files.get(file.getAbsoluteFile());
+        return state == null ? 0 : state.failures;
+    }
+    
+    /**
+     * Sets the time before which a file is not sent again.
+     * 
+     * @param file file
+     * @param time retry time in milliseconds since the epoch
+     */
+    public void setRetryTime(File file, long time)
+    {
+        final FileState state = this.files.get(file.getAbsoluteFile());
+        if (state != null) state.retryTime = time;
+    }
+    
+    /**
+     * Returns whether a pending file may be sent at the specified time.
+     * 
+     * @param file file
+     * @param now current time in milliseconds since the epoch
+     * @return true if the file is not waiting to be retried
+     */
+    public boolean isDue(File file, long now)
+    {
+        final FileState state = this.files.get(file.getAbsoluteFile());
+        return state != null && state.retryTime <= now;
+    }
+    
+    /**
+     * Returns the number of bytes of a file streamed in chunks that have 
+     * been accepted by the Scheduling Server.
+     * 
+     * @param file file
+     * @return accepted offset
+     */
+    public long getOffset(File file)
+    {
+        final FileState state = this.files.get(file.getAbsoluteFile());
+        return state == null ? 0 : state.offset;
+    }
+    
+    /**
+     * Sets the number of bytes of a file streamed in chunks that have been
+     * accepted by the Scheduling Server, so a failed transfer resumes from 
+     * this offset.
+     * 
+     * @param file file
+     * @param offset accepted offset
+     */
+    public void setOffset(File file, long offset)
+    {
+        final FileState state = this.files.get(file.getAbsoluteFile());
+        if (state == null) return;
+        
+        /* Accepted chunks mean the Scheduling Server is reachable again. */
+        state.offset = offset;
+        state.failures = 0;
+    }
+    
+    /**
+     * Returns the files pending transfer in order. The returned set must 
+     * not be modified.
+     * 
+     * @return pending files
+     */
+    public Set<File> getPending()
+    {
+        return this.pending;
+    }
+    
+    /**
+     * Returns the files that have not yet been accepted by the Scheduling
+     * Server and have not failed.
+     * 
+     * @return untransferred files
+     */
+    public List<File> getUntransferred()
+    {
+        final List<File> untransferred = new ArrayList<File>(this.pending);
+        if (this.counts[Status.IN_FLIGHT.ordinal()] > 0)
+        {
+            for (Map.Entry<File, FileState> e : this.files.entrySet())
+            {
+                if (e.getValue().status == Status.IN_FLIGHT) untransferred.add(e.getKey());
+            }
+        }
+        return untransferred;
+    }
+    
+    /**
+     * Marks a pending file as being transferred.
+     * 
+     * @param file file
+     */
+    public void inFlight(File file)
+    {
+        this.setStatus(file, Status.IN_FLIGHT);
+    }
+    
+    /**
+     * Marks a file as accepted by the Scheduling Server.
+     * 
+     * @param file file
+     */
+    public void acked(File file)
+    {
+        this.setStatus(file, Status.ACKED);
+    }
+    
+    /**
+     * Marks a file as not able to be transferred.
+     * 
+     * @param file file
+     */
+    public void failed(File file)
+    {
+        this.setStatus(file, Status.FAILED);
+    }
+    
+    /**
+     * Returns a file whose transfer was rejected to pending so its transfer 
+     * is retried.
+     * 
+     * @param file file
+     */
+    public void retry(File file)
+    {
+        final FileState state = this.files.get(file.getAbsoluteFile());
+        if (state == null) return;
+        
+        state.retries++;
+        state.failures++;
+        this.setStatus(file, Status.PENDING);
+    }
+    
+    /**
+     * Returns a file that could not be sent to pending so its transfer is
+     * retried, without counting it as a rejected transfer.
+     * 
+     * @param file file
+     */
+    public void defer(File file)
+    {
+        final FileState state = this.files.get(file.getAbsoluteFile());
+        if (state == null) return;
+        
+        state.failures++;
+        this.setStatus(file, Status.PENDING);
+    }
+    
+    /**
+     * Sets the status of a file, updating the status counts.
+     * 
+     * @param file file 
+     * @param status new status
+     */
+    private void setStatus(File file, Status status)
+    {
+        file = file.getAbsoluteFile();
+        final FileState state = this.files.get(file);
+        if (state == null || state.status == status) return;
+        
+        if (state.status == Status.PENDING) this.pending.remove(file);
+        if (status == Status.PENDING) this.pending.add(file);
+        
+        this.counts[state.status.ordinal()]--;
+        this.counts[status.ordinal()]++;
+        state.status = status;
+    }
+    
+    /**
+     * Returns the number of files with the status.
+     * 
+     * @param status status
+     * @return number of files
+     */
+    public int count(Status status)
+    {
+        return this.counts[status.ordinal()];
+    }
+    
+    /**
+     * Returns the total number of files.
+     * 
+     * @return number of files
+     */
+    public int size()
+    {
+        return this.files.size();
+    }
+    
+    /**
+     * Returns whether there are files pending transfer.
+     * 
+     * @return true if files are pending
+     */
+    public boolean hasPending()
+    {
+        return this.counts[Status.PENDING.ordinal()] > 0;
+    }
+    
+    /**
+     * Returns whether all files have either been transferred or have 
+     * failed.
+     * 
+     * @return true if complete
+     */
+    public boolean isComplete()
+    {
+        return this.counts[Status.PENDING.ordinal()] == 0 && this.counts[Status.IN_FLIGHT.ordinal()] == 0;
+    }
+}
@@ -0,0 +1,500 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig.transfer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import au.edu.uts.eng.remotelabs.rigclient.util.ILogger;
+import au.edu.uts.eng.remotelabs.rigclient.util.LoggerFactory;
+
+/**
+ * Append only journal of session file transfer events, used to recover the
+ * files pending transfer if the Rig Client is stopped or crashes. Each 
+ * event is a line with the format:
+ * <pre>
+ *   &lt;A|D&gt; &lt;user&gt; &lt;path&gt;
+ * </pre>
+ * where <tt>A</tt> records a file was added for transfer and <tt>D</tt> 
+ * records it no longer needs to be transferred. The user and path are URL 
+ * encoded so any path may be stored. 
+ * <br />
+ * Events are buffered and are written and synchronised to disk when 
+ * {@link #sync()} is called, or once enough events are buffered. Once the 
+ * journal contains many more events than there are pending files, it is 
+ * compacted by writing the pending files to a new journal that atomically
+ * replaces the old journal.
+ * <br />
+ * Restore files of the previous format (<tt>&lt;user&gt; &lt;path&gt;:#:&lt;path&gt;...</tt>)
+ * are read on recovery and replaced on the first compaction. If the journal 
+ * cannot be read on recovery, it is never replaced or deleted and events 
+ * are appended to it instead so the files it records are not lost.
+ */
+public class TransferJournal
+{
+    /** First line of a journal. */
+    public static final String HEADER = "# Session data transfer journal v1";
+    
+    /** Event a file was added for transfer. */
+    private static final char ADDED = 'A';
+    
+    /** Event a file no longer needs to be transferred. */
+    private static final char DONE = 'D';
+    
+    /** Number of buffered events after which the journal is synchronised. */
+    private static final int SYNC_EVENTS = 256;
+    
+    /** Minimum number of events in the journal before it is compacted. */
+    private static final int COMPACT_MIN_EVENTS = 1024;
+    
+    /** Journal file. */
+    private final File file;
+    
+    /** Journal file stream, <code>null</code> if not open. */
+    private FileOutputStream stream;
+    
+    /** Buffered journal writer. */
+    private Writer writer;
+    
+    /** Number of events in the journal. */
+    private int events;
+    
+    /** Number of events not yet synchronised. */
+    private int unsynced;
+    
+    /** Whether the journal could not be read on recovery. */
+    private boolean unrecovered;
+    
+    /** Logger. */
+    private final ILogger logger;
+    
+    /**
+     * Constructor.
+     * 
+     * @param path journal file path
+     */
+    public TransferJournal(final String path)
+    {
+        this.logger = LoggerFactory.getLoggerInstance();
+        this.file = new File(path);
+    }
+    
+    /**
+     * Reads the journal to recover the files that are pending transfer. 
+     * Malformed events, such as an event that was partially written before
+     * a crash, are skipped.
+     * 
+     * @return pending files keyed by user in journal order
+     * @throws IOException error reading journal
+     */
+    public Map<String, Set<File>> recover() throws IOException
+    {
+        final Map<String, Set<File>> pending = new LinkedHashMap<String, Set<File>>();
+        if (!this.file.exists()) return pending;
+        
+        BufferedReader reader = null;
+        try
+        {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(this.file), "UTF-8"));
+            String line = reader.readLine();
+            if (line != null && !HEADER.equals(line))
+            {
+                /* Restore file of the previous format. */
+                do
+                {
+                    this.recoverLegacy(line.trim(), pending);
+                }
+                while ((line = reader.readLine()) != null);
+                
+                return pending;
+            }
+            
+            while ((line = reader.readLine()) != null)
+            {
+                this.events++;
+                
+                final int pos = line.indexOf(' ', 2);
+                String user = null;
+                File f = null;
+                if (line.length() >= 4 && line.charAt(1) == ' ' && pos > 0)
+                {
+                    try
+                    {
+                        user = URLDecoder.decode(line.substring(2, pos), "UTF-8");
+                        f = new File(URLDecoder.decode(line.substring(pos + 1), "UTF-8"));
+                    }
+                    catch (IllegalArgumentException ex)
+                    { /* Malformed escape sequence. */ }
+                }
+                
+                if (f == null)
+                {
+                    /* Possibly a partially written event before a crash. */
+                    this.logger.warn("Ignoring malformed session data transfer journal entry '" + line + "'.");
+                    continue;
+                }
+                
+                Set<File> files = pending.get(user);
+                if (line.charAt(0) == ADDED)
+                {
+                    if (files == null) pending.put(user, files = new LinkedHashSet<File>());
+                    files.add(f);
+                }
+                else if (line.charAt(0) == DONE && files != null)
+                {
+                    files.remove(f);
+                    if (files.isEmpty()) pending.remove(user);
+                }
+            }
+        }
+        catch (IOException ex)
+        {
+            this.unrecovered = true;
+            throw ex;
+        }
+        finally
+        {
+            if (reader != null) reader.close();
+        }
+        
+        return pending;
+    }
+    
+    /**
+     * Reads a line of a previous format restore file.
+     * 
+     * @param line restore file line
+     * @param pending pending files to add to
+     */
+    private void recoverLegacy(final String line, final Map<String, Set<File>> pending)
+    {
+        /* The format of the line is '<name> <path>:#:<path>:#:...:#:<path>. */
+        final int pos = line.indexOf(' ');
+        if (line.length() == 0 || pos < 1) return;
+        
+        final String user = line.substring(0, pos);
+        Set<File> files = pending.get(user);
+        if (files == null) pending.put(user, files = new LinkedHashSet<File>());
+        
+        for (String path : line.substring(pos).split(DataTransferWatcher.RESTORE_FILE_DELIM))
+        {
+            if (path.trim().length() > 0) files.add(new File(path.trim()));
+        }
+    }
+    
+    /**
+     * Records a file was added for transfer.
+     * 
+     * @param user user of file
+     * @param f session file
+     */
+    public void added(final String user, final File f)
+    {
+        this.append(ADDED, user, f);
+    }
+    
+    /**
+     * Records a file no longer needs to be transferred because it was 
+     * transferred or cannot be transferred.
+     * 
+     * @param user user of file
+     * @param f session file
+     */
+    public void done(final String user, final File f)
+    {
+        this.append(DONE, user, f);
+    }
+    
+    /**
+     * Appends an event to the journal.
+     * 
+     * @param event event type
+     * @param user user of file
+     * @param f session file
+     */
+    private void append(final char event, final String user, final File f)
+    {
+        if (this.writer == null) return;
+        
+        try
+        {
+            this.writeEvent(this.writer, event, user, f);
+            
+            if (++this.unsynced >= SYNC_EVENTS) this.sync();
+        }
+        catch (IOException ex)
+        {
+            this.failed(ex);
+        }
+    }
+    
+    /**
+     * Writes an event line.
+     * 
+     * @param out writer to write to
+     * @param event event type
+     * @param user user of file
+     * @param f session file
+     * @throws IOException error writing
+     */
+    private void writeEvent(final Writer out, final char event, final String user, final File f) throws IOException
+    {
+        out.write(event);
+        out.write(' ');
+        out.write(URLEncoder.encode(user, "UTF-8"));
+        out.write(' ');
+        out.write(URLEncoder.encode(f.getPath(), "UTF-8"));
+        out.write('\n');
+        this.events++;
+    }
+    
+    /**
+     * Writes buffered events to the journal and synchronises the journal 
+     * to disk.
+     */
+    public void sync()
+    {
+        if (this.writer == null || this.unsynced == 0) return;
+        
+        try
+        {
+            this.writer.flush();
+            this.stream.getFD().sync();
+            this.unsynced = 0;
+        }
+        catch (IOException ex)
+        {
+            this.failed(ex);
+        }
+    }
+    
+    /**
+     * Returns whether the journal should be compacted because it contains
+     * many more events than there are pending files.
+     * 
+     * @param pendingCount number of pending files
+     * @return true if compaction is needed
+     */
+    public boolean needsCompaction(final int pendingCount)
+    {
+        if (this.unrecovered) return this.writer == null;
+        
+        return this.writer == null || 
+                this.events > COMPACT_MIN_EVENTS && this.events > 4 * pendingCount;
+    }
+    
+    /**
+     * Replaces the journal with a journal containing only the pending files
+     * and opens it to record events. If the journal could not be read on 
+     * recovery, the pending files are appended to it instead.
+     * 
+     * @param pending pending files keyed by user
+     * @throws IOException error writing journal
+     */
+    public void compact(final Map<String, ? extends Collection<File>> pending) throws IOException
+    {
+        this.close();
+        
+        if (this.unrecovered)
+        {
+            this.stream = new FileOutputStream(this.file, true);
+            this.writer = new BufferedWriter(new OutputStreamWriter(this.stream, "UTF-8"));
+            for (Entry<String, ? extends Collection<File>> e : pending.entrySet())
+            {
+                for (File f : e.getValue()) this.writeEvent(this.writer, ADDED, e.getKey(), f);
+            }
+            this.writer.flush();
+            this.stream.getFD().sync();
+            this.unsynced = 0;
+            return;
+        }
+        
+        final File tmp = new File(this.file.getPath() + ".tmp");
+        final FileOutputStream out = new FileOutputStream(tmp);
+        final Writer tmpWriter = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+        this.events = 0;
+        
+        try
+        {
+            tmpWriter.write(HEADER);
+            tmpWriter.write('\n');
+            for (Entry<String, ? extends Collection<File>> e : pending.entrySet())
+            {
+                for (File f : e.getValue()) this.writeEvent(tmpWriter, ADDED, e.getKey(), f);
+            }
+            
+            tmpWriter.flush();
+            out.getFD().sync();
+        }
+        finally
+        {
+            tmpWriter.close();
+        }
+        
+        Files.move(tmp.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, 
+                StandardCopyOption.ATOMIC_MOVE);
+        this.syncDirectory();
+        
+        this.stream = new FileOutputStream(this.file, true);
+        this.writer = new BufferedWriter(new OutputStreamWriter(this.stream, "UTF-8"));
+        this.unsynced = 0;
+    }
+    
+    /**
+     * Synchronises the directory containing the journal to disk so the 
+     * replacement of the journal is durable. Not all platforms allow 
+     * directories to be synchronised so failures are ignored.
+     */
+    private void syncDirectory()
+    {
+        final File dir = this.file.getAbsoluteFile().getParentFile();
+        if (dir == null) return;
+        
+        FileChannel channel = null;
+        try
+        {
+            channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ);
+            channel.force(true);
+        }
+        catch (IOException ex)
+        {
+            this.logger.debug("Unable to synchronise session data transfer journal directory '" + dir.getPath() + 
+                    "', error '" + ex.getMessage() + "'.");
+        }
+        finally
+        {
+            if (channel != null)
+            {
+                try
+                {
+                    channel.close();
+                }
+                catch (IOException ex)
+                { /* Not much to do. */ }
+            }
+        }
+    }
+    
+    /**
+     * Synchronises and closes the journal. 
+     */
+    public void close()
+    {
+        if (this.writer == null) return;
+        
+        this.sync();
+        try
+        {
+            this.writer.close();
+        }
+        catch (IOException ex)
+        {
+            this.logger.warn("Failed to close session data transfer journal, error '" + ex.getMessage() + "'.");
+        }
+        this.writer = null;
+        this.stream = null;
+    }
+    
+    /**
+     * Deletes the journal, unless it could not be read on recovery.
+     */
+    public void delete()
+    {
+        this.close();
+        if (this.unrecovered) return;
+        
+        if (this.file.exists() && !this.file.delete())
+        {
+            this.logger.warn("Failed to delete session data transfer journal '" + this.file.getPath() + "'.");
+        }
+    }
+    
+    /**
+     * Returns the number of events in the journal.
+     * 
+     * @return number of events
+     */
+    public int getEvents()
+    {
+        return this.events;
+    }
+    
+    /**
+     * Closes the journal after a write error. The journal will be reopened
+     * on the next compaction.
+     * 
+     * @param ex write error
+     */
+    private void failed(final IOException ex)
+    {
+        this.logger.error("Failed to write session data transfer journal '" + this.file.getPath() + "', error '" +
+                ex.getClass().getSimpleName() + ": " + ex.getMessage() + "'. Session data files pending transfer " +
+                "may not be restored if the Rig Client is stopped.");
+        try
+        {
+            this.writer.close();
+        }
+        catch (IOException e)
+        { /* Not much to do. */ }
+        this.writer = null;
+        this.stream = null;
+    }
+}
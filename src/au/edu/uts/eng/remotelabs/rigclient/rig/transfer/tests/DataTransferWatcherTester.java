@@ -39,6 +39,7 @@
 
 package au.edu.uts.eng.remotelabs.rigclient.rig.transfer.tests;
 
+import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.capture;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.classextension.EasyMock.createMock;
@@ -47,28 +48,59 @@ import static org.easymock.classextension.EasyMock.reset;
 import static org.easymock.classextension.EasyMock.verify;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
 
 import junit.framework.TestCase;
 
+import org.apache.axiom.attachments.Attachments;
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.util.StAXUtils;
+import org.apache.axiom.soap.SOAP11Constants;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFactory;
+import org.apache.axiom.soap.impl.builder.MTOMStAXSOAPModelBuilder;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.databinding.ADBException;
 import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.easymock.IAnswer;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
 import au.edu.uts.eng.remotelabs.rigclient.rig.IRig;
 import au.edu.uts.eng.remotelabs.rigclient.rig.transfer.DataTransferWatcher;
 import au.edu.uts.eng.remotelabs.rigclient.rig.transfer.DataTransferWatcher.TransferMethod;
+import au.edu.uts.eng.remotelabs.rigclient.rig.transfer.SessionFileTransfers;
+import au.edu.uts.eng.remotelabs.rigclient.rig.transfer.SessionFileTransfers.Status;
+import au.edu.uts.eng.remotelabs.rigclient.rig.transfer.TransferJournal;
 import au.edu.uts.eng.remotelabs.rigclient.status.SchedulingServerProviderStub;
 import au.edu.uts.eng.remotelabs.rigclient.status.types.AddSessionFiles;
 import au.edu.uts.eng.remotelabs.rigclient.status.types.AddSessionFilesResponse;
@@ -129,6 +161,8 @@ public class DataTransferWatcherTester extends TestCase
         expect(this.mockConfig.getProperty("WARN_Log_Format")).andReturn(null);
         expect(this.mockConfig.getProperty("INFO_Log_Format")).andReturn(null);
         expect(this.mockConfig.getProperty("DEBUG_Log_Format")).andReturn(null);
+        expect(this.mockConfig.getProperty("Log_Buffer_Size", "2000")).andReturn("2000");
+        expect(this.mockConfig.getProperty("Log_Async", "false")).andReturn("false");
         
         replay(this.mockConfig);
         
@@ -141,6 +175,11 @@ public class DataTransferWatcherTester extends TestCase
         field = DataTransferWatcher.class.getDeclaredField("stub");
         field.setAccessible(true);
         field.set(this.watcher, this.mockStub);
+        
+        /* Failed transfers are retried immediately unless a test sets a back off. */
+        field = DataTransferWatcher.class.getDeclaredField("retryBackoff");
+        field.setAccessible(true);
+        field.set(this.watcher, 0L);
     }
     
     @Test
@@ -233,11 +272,11 @@ public class DataTransferWatcherTester extends TestCase
         Field f = DataTransferWatcher.class.getDeclaredField("sessionFiles");
         f.setAccessible(true);
         
-        Map<String, Set<File>> sessionFiles = (Map<String, Set<File>>)f.get(df);
+        Map<String, SessionFileTransfers> sessionFiles = (Map<String, SessionFileTransfers>)f.get(df);
         assertEquals(3, sessionFiles.size());   
 
         assertTrue(sessionFiles.containsKey("user1"));
-        Set<File> files = sessionFiles.get("user1");
+        SessionFileTransfers files = sessionFiles.get("user1");
         assertEquals(3, files.size());
         assertTrue(files.contains(new File("./test/resources/DataTransfer/file1")));
         assertTrue(files.contains(new File("./test/resources/DataTransfer/file2")));
@@ -255,25 +294,35 @@ public class DataTransferWatcherTester extends TestCase
         assertTrue(files.contains(new File("./test/resources/DataTransfer/file3")));
         
         assertFalse(sessionFiles.containsKey("user4"));
-        
-        f = DataTransferWatcher.class.getDeclaredField("transferredFiles");
-        f.setAccessible(true);
-        Map<String, List<File>> transferredFiles = (Map<String, List<File>>)f.get(df);
 
-        assertEquals(3, transferredFiles.size());
+        assertEquals(3, sessionFiles.size());
         
-        assertTrue(transferredFiles.containsKey("user1"));
-        assertEquals(0, transferredFiles.get("user1").size());
+        assertTrue(sessionFiles.containsKey("user1"));
+        assertEquals(0, this.transferred(sessionFiles.get("user1")));
         
-        assertTrue(transferredFiles.containsKey("user2"));
-        assertEquals(0, transferredFiles.get("user2").size());
+        assertTrue(sessionFiles.containsKey("user2"));
+        assertEquals(0, this.transferred(sessionFiles.get("user2")));
         
-        assertTrue(transferredFiles.containsKey("user3"));
-        assertEquals(0, transferredFiles.get("user3").size());
+        assertTrue(sessionFiles.containsKey("user3"));
+        assertEquals(0, this.transferred(sessionFiles.get("user3")));
         
-        assertFalse(transferredFiles.containsKey("user4"));
+        assertFalse(sessionFiles.containsKey("user4"));
         
-        assertFalse(restoreFile.exists());
+        /* The restore file is replaced by a journal of the restored files. */
+        BufferedReader reader = new BufferedReader(new FileReader(restoreFile));
+        assertEquals(TransferJournal.HEADER, reader.readLine());
+        reader.close();
+        
+        Map<String, Set<File>> restored = new TransferJournal(restoreFile.getPath()).recover();
+        assertEquals(3, restored.size());
+        assertEquals(3, restored.get("user1").size());
+        assertEquals(2, restored.get("user2").size());
+        assertEquals(1, restored.get("user3").size());
+        
+        Field jf = DataTransferWatcher.class.getDeclaredField("journal");
+        jf.setAccessible(true);
+        ((TransferJournal)jf.get(df)).close();
+        restoreFile.delete();
     }
     
     @Test
@@ -298,14 +347,12 @@ public class DataTransferWatcherTester extends TestCase
         Field f = DataTransferWatcher.class.getDeclaredField("sessionFiles");
         f.setAccessible(true);
         
-        Map<String, Set<File>> sessionFiles = (Map<String, Set<File>>)f.get(df);
-        assertEquals(0, sessionFiles.size());   
-
-        f = DataTransferWatcher.class.getDeclaredField("transferredFiles");
-        f.setAccessible(true);
-        Map<String, List<File>> transferredFiles = (Map<String, List<File>>)f.get(df);
+        Map<String, SessionFileTransfers> sessionFiles = (Map<String, SessionFileTransfers>)f.get(df);
+        assertEquals(0, sessionFiles.size());
         
-        assertEquals(0, transferredFiles.size());
+        Field jf = DataTransferWatcher.class.getDeclaredField("journal");
+        jf.setAccessible(true);
+        ((TransferJournal)jf.get(df)).delete();
     }
    
     @SuppressWarnings("unchecked")
@@ -327,73 +374,38 @@ public class DataTransferWatcherTester extends TestCase
 
         Field f = DataTransferWatcher.class.getDeclaredField("sessionFiles");
         f.setAccessible(true);
-        Map<String, Set<File>> sessionFiles = (Map<String, Set<File>>)f.get(df);
-
-        f = DataTransferWatcher.class.getDeclaredField("transferredFiles");
-        f.setAccessible(true);
-        Map<String, List<File>> transferredFiles = (Map<String, List<File>>)f.get(df);
+        Map<String, SessionFileTransfers> sessionFiles = (Map<String, SessionFileTransfers>)f.get(df);
         
-        Set<File> files = new HashSet<File>();
+        SessionFileTransfers files = new SessionFileTransfers();
         files.add(new File("/store/file1"));
         files.add(new File("/store/file2"));
         sessionFiles.put("user1", files);
-        transferredFiles.put("user1", new ArrayList<File>());
         
-        files = new HashSet<File>();
+        files = new SessionFileTransfers();
         files.add(new File("/store/file3"));
         files.add(new File("/store/file4"));
+        files.acked(new File("/store/file4"));
         sessionFiles.put("user2", files);
         
-        List<File> transFiles = new ArrayList<File>();
-        transFiles.add(new File("/store/file4"));
-        transferredFiles.put("user2", transFiles);
-        
-        files = new HashSet<File>();
+        files = new SessionFileTransfers();
         files.add(new File("/store/file5"));
+        files.acked(new File("/store/file5"));
         sessionFiles.put("user3", files);
         
-        transFiles = new ArrayList<File>();
-        transFiles.add(new File("/store/file5"));
-        transferredFiles.put("user3", transFiles);
-        
         Method method = DataTransferWatcher.class.getDeclaredMethod("storeRestoreFile");
         method.setAccessible(true);
         method.invoke(df);
         
         assertTrue(restoreFile.exists());
         
-        BufferedReader reader = new BufferedReader(new FileReader(restoreFile));
-        
-        String line;
-        int count = 0;
-        boolean hasUser1 = false, hasUser2 = false;
-        while ((line = reader.readLine()) != null)
-        {
-            if ("".equals(line)) continue;
-            
-            count++;
-            if (line.startsWith("user1"))
-            {
-                assertEquals(5, line.indexOf(' '));
-                assertEquals(18, line.indexOf(":#:"));
-                assertTrue(line.contains("/store/file2"));
-                assertTrue(line.contains("/store/file1"));
-                hasUser1 = true;
-            }
-            else if (line.startsWith("user2"))
-            {
-                assertEquals("user2 /store/file3", line);
-                hasUser2 = true;
-            }
-            else
-            {
-                fail("Wrong line: " + line);
-            }
-        }
-        
-        assertTrue(hasUser1);
-        assertTrue(hasUser2);
-        assertEquals(2, count);
+        Map<String, Set<File>> restored = new TransferJournal(restoreFile.getPath()).recover();
+        assertEquals(2, restored.size());
+        assertEquals(2, restored.get("user1").size());
+        assertTrue(restored.get("user1").contains(new File("/store/file1")));
+        assertTrue(restored.get("user1").contains(new File("/store/file2")));
+        assertEquals(1, restored.get("user2").size());
+        assertTrue(restored.get("user2").contains(new File("/store/file3")));
+        assertFalse(restored.containsKey("user3"));
         
         restoreFile.delete();
     }
@@ -414,13 +426,8 @@ public class DataTransferWatcherTester extends TestCase
         
         Field f = DataTransferWatcher.class.getDeclaredField("sessionFiles");
         f.setAccessible(true);
-        Map<String, Set<File>> sessionFiles = (Map<String, Set<File>>)f.get(this.watcher);
+        Map<String, SessionFileTransfers> sessionFiles = (Map<String, SessionFileTransfers>)f.get(this.watcher);
         assertEquals(0, sessionFiles.size());
-
-        f = DataTransferWatcher.class.getDeclaredField("transferredFiles");
-        f.setAccessible(true);
-        Map<String, List<File>> transferredFiles = (Map<String, List<File>>)f.get(this.watcher);
-        assertEquals(0, transferredFiles.size());
     }
     
     @SuppressWarnings("unchecked")
@@ -442,15 +449,10 @@ public class DataTransferWatcherTester extends TestCase
         
         Field f = DataTransferWatcher.class.getDeclaredField("sessionFiles");
         f.setAccessible(true);
-        Map<String, Set<File>> sessionFiles = (Map<String, Set<File>>)f.get(this.watcher);
+        Map<String, SessionFileTransfers> sessionFiles = (Map<String, SessionFileTransfers>)f.get(this.watcher);
         assertEquals(1, sessionFiles.size());
         assertEquals(0, sessionFiles.get("user1").size());
-
-        f = DataTransferWatcher.class.getDeclaredField("transferredFiles");
-        f.setAccessible(true);
-        Map<String, List<File>> transferredFiles = (Map<String, List<File>>)f.get(this.watcher);
-        assertEquals(1, transferredFiles.size());
-        assertEquals(0, transferredFiles.get("user1").size());
+        assertEquals(0, this.transferred(sessionFiles.get("user1")));
     }
     
     @SuppressWarnings("unchecked")
@@ -501,16 +503,10 @@ public class DataTransferWatcherTester extends TestCase
         
         f = DataTransferWatcher.class.getDeclaredField("sessionFiles");
         f.setAccessible(true);
-        Map<String, Set<File>> sessionFiles = (Map<String, Set<File>>)f.get(dtw);
+        Map<String, SessionFileTransfers> sessionFiles = (Map<String, SessionFileTransfers>)f.get(dtw);
         assertEquals(1, sessionFiles.size());
         assertEquals(2, sessionFiles.get("user1").size());
-        
-
-        f = DataTransferWatcher.class.getDeclaredField("transferredFiles");
-        f.setAccessible(true);
-        Map<String, List<File>> transferredFiles = (Map<String, List<File>>)f.get(dtw);
-        assertEquals(1, transferredFiles.size());
-        assertEquals(2, transferredFiles.get("user1").size());
+        assertEquals(2, this.transferred(sessionFiles.get("user1")));
         
         AddSessionFiles request = cap.getValue();
         assertNotNull(request);
@@ -616,16 +612,10 @@ public class DataTransferWatcherTester extends TestCase
         
         f = DataTransferWatcher.class.getDeclaredField("sessionFiles");
         f.setAccessible(true);
-        Map<String, Set<File>> sessionFiles = (Map<String, Set<File>>)f.get(dtw);
+        Map<String, SessionFileTransfers> sessionFiles = (Map<String, SessionFileTransfers>)f.get(dtw);
         assertEquals(1, sessionFiles.size());
         assertEquals(3, sessionFiles.get("user1").size());
-        
-
-        f = DataTransferWatcher.class.getDeclaredField("transferredFiles");
-        f.setAccessible(true);
-        Map<String, List<File>> transferredFiles = (Map<String, List<File>>)f.get(dtw);
-        assertEquals(1, transferredFiles.size());
-        assertEquals(3, transferredFiles.get("user1").size());
+        assertEquals(3, this.transferred(sessionFiles.get("user1")));
         
         AddSessionFiles request = cap.getValue();
         assertNotNull(request);
@@ -727,16 +717,10 @@ public class DataTransferWatcherTester extends TestCase
         
         f = DataTransferWatcher.class.getDeclaredField("sessionFiles");
         f.setAccessible(true);
-        Map<String, Set<File>> sessionFiles = (Map<String, Set<File>>)f.get(dtw);
+        Map<String, SessionFileTransfers> sessionFiles = (Map<String, SessionFileTransfers>)f.get(dtw);
         assertEquals(1, sessionFiles.size());
         assertEquals(3, sessionFiles.get("user1").size());
-        
-
-        f = DataTransferWatcher.class.getDeclaredField("transferredFiles");
-        f.setAccessible(true);
-        Map<String, List<File>> transferredFiles = (Map<String, List<File>>)f.get(dtw);
-        assertEquals(1, transferredFiles.size());
-        assertEquals(3, transferredFiles.get("user1").size());
+        assertEquals(3, this.transferred(sessionFiles.get("user1")));
         
         AddSessionFiles request = cap.getValue();
         assertNotNull(request);
@@ -858,6 +842,10 @@ public class DataTransferWatcherTester extends TestCase
         Field f = DataTransferWatcher.class.getDeclaredField("stub");
         f.setAccessible(true);
         f.set(dtw, this.mockStub);
+        
+        f = DataTransferWatcher.class.getDeclaredField("retryBackoff");
+        f.setAccessible(true);
+        f.set(dtw, 0L);
 
         dtw.sessionStarted("user1");
 
@@ -870,16 +858,10 @@ public class DataTransferWatcherTester extends TestCase
 
         f = DataTransferWatcher.class.getDeclaredField("sessionFiles");
         f.setAccessible(true);
-        Map<String, Set<File>> sessionFiles = (Map<String, Set<File>>)f.get(dtw);
+        Map<String, SessionFileTransfers> sessionFiles = (Map<String, SessionFileTransfers>)f.get(dtw);
         assertEquals(1, sessionFiles.size());
         assertEquals(3, sessionFiles.get("user1").size());
-
-
-        f = DataTransferWatcher.class.getDeclaredField("transferredFiles");
-        f.setAccessible(true);
-        Map<String, List<File>> transferredFiles = (Map<String, List<File>>)f.get(dtw);
-        assertEquals(1, transferredFiles.size());
-        assertEquals(1, transferredFiles.get("user1").size());
+        assertEquals(1, this.transferred(sessionFiles.get("user1")));
 
         AddSessionFiles request = cap.getValue();
         assertNotNull(request);
@@ -904,7 +886,7 @@ public class DataTransferWatcherTester extends TestCase
         verify(this.mockRig);
 
         assertEquals(4, sessionFiles.get("user1").size());
-        assertEquals(4, transferredFiles.get("user1").size());
+        assertEquals(4, this.transferred(sessionFiles.get("user1")));
 
         request = cap.getValue();
         assertNotNull(request);
@@ -1006,6 +988,10 @@ public class DataTransferWatcherTester extends TestCase
         Field f = DataTransferWatcher.class.getDeclaredField("stub");
         f.setAccessible(true);
         f.set(dtw, this.mockStub);
+        
+        f = DataTransferWatcher.class.getDeclaredField("retryBackoff");
+        f.setAccessible(true);
+        f.set(dtw, 0L);
 
         dtw.sessionStarted("user1");
 
@@ -1018,16 +1004,10 @@ public class DataTransferWatcherTester extends TestCase
 
         f = DataTransferWatcher.class.getDeclaredField("sessionFiles");
         f.setAccessible(true);
-        Map<String, Set<File>> sessionFiles = (Map<String, Set<File>>)f.get(dtw);
+        Map<String, SessionFileTransfers> sessionFiles = (Map<String, SessionFileTransfers>)f.get(dtw);
         assertEquals(1, sessionFiles.size());
         assertEquals(2, sessionFiles.get("user1").size());
-
-
-        f = DataTransferWatcher.class.getDeclaredField("transferredFiles");
-        f.setAccessible(true);
-        Map<String, List<File>> transferredFiles = (Map<String, List<File>>)f.get(dtw);
-        assertEquals(1, transferredFiles.size());
-        assertEquals(2, transferredFiles.get("user1").size());
+        assertEquals(2, this.transferred(sessionFiles.get("user1")));
 
         AddSessionFiles request = cap.getValue();
         assertNotNull(request);
@@ -1051,8 +1031,546 @@ public class DataTransferWatcherTester extends TestCase
         verify(this.mockRig);
         
         assertEquals(0, sessionFiles.size());
-        assertEquals(0, transferredFiles.size());
         
         for (File file : files) assertFalse(file.exists());
     }   
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testWatchDirectories() throws Exception
+    {
+        File dir = new File(System.getProperty("java.io.tmpdir"), "dtwatch-" + System.nanoTime());
+        assertTrue(dir.mkdirs());
+        
+        reset(this.mockConfig);
+        expect(this.mockConfig.getProperty("Data_Transfer_Scan_Interval", "30")).andReturn("30");
+        expect(this.mockConfig.getProperty("Data_Transfer_Watch_Directories", "")).andReturn(dir.getAbsolutePath());
+        expect(this.mockConfig.getProperty("Data_Transfer_Watch_Settle_Time", "500")).andReturn("100");
+        replay(this.mockConfig);
+        
+        File data = new File(dir, "data.txt");
+        File temp = new File(dir, "data.tmp");
+        
+        /* Only files accepted by the files detectors are session files and 
+         * the files detectors are not scanned. */
+        expect(this.mockRig.isSessionFile(data)).andReturn(true);
+        expect(this.mockRig.isSessionFile(temp)).andReturn(false);
+        replay(this.mockRig);
+        replay(this.mockStub);
+        
+        Method meth = DataTransferWatcher.class.getDeclaredMethod("setupWatchService");
+        meth.setAccessible(true);
+        meth.invoke(this.watcher);
+        verify(this.mockConfig);
+        
+        Field f = DataTransferWatcher.class.getDeclaredField("watchService");
+        f.setAccessible(true);
+        WatchService ws = (WatchService)f.get(this.watcher);
+        assertNotNull(ws);
+        
+        try
+        {
+            this.watcher.sessionStarted("user1");
+            
+            File sub = new File(dir, "sub");
+            assertTrue(sub.mkdir());
+            PrintWriter writer = new PrintWriter(data);
+            writer.println("Session data");
+            writer.close();
+            writer = new PrintWriter(temp);
+            writer.println("Temporary data");
+            writer.close();
+            
+            f = DataTransferWatcher.class.getDeclaredField("pendingFiles");
+            f.setAccessible(true);
+            Map<File, Long> pending = (Map<File, Long>)f.get(this.watcher);
+            
+            /* The directory events may be delivered across several keys. */
+            Method process = DataTransferWatcher.class.getDeclaredMethod("processEvents", WatchKey.class);
+            process.setAccessible(true);
+            WatchKey key;
+            while (!(pending.containsKey(data) && pending.containsKey(temp)) && 
+                    (key = ws.poll(5, TimeUnit.SECONDS)) != null)
+            {
+                process.invoke(this.watcher, key);
+            }
+            
+            assertTrue(pending.containsKey(data));
+            assertTrue(pending.containsKey(temp));
+            assertFalse(pending.containsKey(sub));
+            
+            f = DataTransferWatcher.class.getDeclaredField("watchedDirs");
+            f.setAccessible(true);
+            assertEquals(2, ((Map<WatchKey, ?>)f.get(this.watcher)).size());
+            
+            f = DataTransferWatcher.class.getDeclaredField("sessionFiles");
+            f.setAccessible(true);
+            Map<String, SessionFileTransfers> sessionFiles = (Map<String, SessionFileTransfers>)f.get(this.watcher);
+            
+            /* Not yet settled. */
+            Method settle = DataTransferWatcher.class.getDeclaredMethod("settlePendingFiles", long.class);
+            settle.setAccessible(true);
+            long now = Math.max(pending.get(data), pending.get(temp));
+            assertEquals(100L, settle.invoke(this.watcher, now));
+            assertEquals(0, sessionFiles.get("user1").size());
+            
+            assertEquals(Long.MAX_VALUE, settle.invoke(this.watcher, now + 100));
+            assertTrue(sessionFiles.get("user1").contains(data));
+            assertFalse(sessionFiles.get("user1").contains(temp));
+            assertEquals(1, sessionFiles.get("user1").size());
+            assertEquals(0, pending.size());
+            
+            verify(this.mockRig);
+            verify(this.mockStub);
+        }
+        finally
+        {
+            ws.close();
+            for (File file : dir.listFiles()) file.delete();
+            dir.delete();
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testTransferBatched() throws Exception
+    {
+        Set<File> files = new HashSet<File>();
+        for (int i = 1; i <= 4; i++) files.add(new File("./test/resources/DataTransfer/file" + i));
+        files.add(new File("./test/resources/DataTransfer/file2-notexist"));
+        
+        expect(this.mockRig.detectSessionFiles()).andReturn(files);
+        expect(this.mockRig.getName()).andReturn("Rig 1").times(2);
+        replay(this.mockRig);
+        
+        AddSessionFilesResponse response = new AddSessionFilesResponse();
+        ProviderResponse resp = new ProviderResponse();
+        response.setAddSessionFilesResponse(resp);
+        resp.setSuccessful(false);
+        
+        Capture<AddSessionFiles> cap = new Capture<AddSessionFiles>(CaptureType.ALL);
+        expect(this.mockStub.addSessionFiles(capture(cap))).andReturn(response).times(2);
+        replay(this.mockStub);
+        
+        Field f = DataTransferWatcher.class.getDeclaredField("batchFiles");
+        f.setAccessible(true);
+        f.set(this.watcher, 2);
+        
+        /* The concurrent requests are sent with the send pool stubs. */
+        f = DataTransferWatcher.class.getDeclaredField("senderStubs");
+        f.setAccessible(true);
+        Deque<SchedulingServerProviderStub> senders = (Deque<SchedulingServerProviderStub>)f.get(this.watcher);
+        senders.push(this.mockStub);
+        senders.push(this.mockStub);
+        
+        this.watcher.sessionStarted("user1");
+        
+        Method meth = DataTransferWatcher.class.getDeclaredMethod("transferFiles");
+        meth.setAccessible(true);
+        meth.invoke(this.watcher);
+        
+        verify(this.mockRig);
+        verify(this.mockStub);
+        
+        /* Two requests of two files each, the missing file is not sent. */
+        assertEquals(2, cap.getValues().size());
+        for (AddSessionFiles request : cap.getValues())
+        {
+            assertEquals(2, request.getAddSessionFiles().getFiles().length);
+        }
+        
+        f = DataTransferWatcher.class.getDeclaredField("sessionFiles");
+        f.setAccessible(true);
+        SessionFileTransfers transfers = ((Map<String, SessionFileTransfers>)f.get(this.watcher)).get("user1");
+        assertEquals(5, transfers.size());
+        assertEquals(4, transfers.count(Status.PENDING));
+        assertEquals(1, transfers.count(Status.FAILED));
+        assertEquals(Status.FAILED, transfers.getStatus(new File("./test/resources/DataTransfer/file2-notexist")));
+        assertEquals(Status.PENDING, transfers.getStatus(new File("./test/resources/DataTransfer/file1")));
+        assertEquals(1, transfers.getRetries(new File("./test/resources/DataTransfer/file1")));
+        
+        /* Retry is accepted. */
+        reset(this.mockRig);
+        expect(this.mockRig.getName()).andReturn("Rig 1").times(2);
+        replay(this.mockRig);
+        
+        reset(this.mockStub);
+        expect(this.mockStub.addSessionFiles(capture(cap))).andReturn(response).times(2);
+        replay(this.mockStub);
+        resp.setSuccessful(true);
+        
+        Method transfer = DataTransferWatcher.class.getDeclaredMethod("transferFiles", boolean.class);
+        transfer.setAccessible(true);
+        transfer.invoke(this.watcher, false);
+        
+        verify(this.mockRig);
+        verify(this.mockStub);
+        
+        assertEquals(4, transfers.count(Status.ACKED));
+        assertEquals(0, transfers.count(Status.PENDING));
+        assertEquals(0, transfers.count(Status.IN_FLIGHT));
+        assertTrue(transfers.isComplete());
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testTransferMaxAttempts() throws Exception
+    {
+        File file = new File("./test/resources/DataTransfer/file1");
+        
+        expect(this.mockRig.detectSessionFiles()).andReturn(Collections.singleton(file));
+        expect(this.mockRig.getName()).andReturn("Rig 1").times(2);
+        replay(this.mockRig);
+        
+        AddSessionFilesResponse response = new AddSessionFilesResponse();
+        ProviderResponse resp = new ProviderResponse();
+        response.setAddSessionFilesResponse(resp);
+        resp.setSuccessful(false);
+        
+        expect(this.mockStub.addSessionFiles((AddSessionFiles)anyObject())).andReturn(response).times(2);
+        replay(this.mockStub);
+        
+        Field f = DataTransferWatcher.class.getDeclaredField("maxAttempts");
+        f.setAccessible(true);
+        f.set(this.watcher, 2);
+        
+        this.watcher.sessionStarted("user1");
+        
+        Method meth = DataTransferWatcher.class.getDeclaredMethod("transferFiles");
+        meth.setAccessible(true);
+        meth.invoke(this.watcher);
+        
+        f = DataTransferWatcher.class.getDeclaredField("sessionFiles");
+        f.setAccessible(true);
+        SessionFileTransfers transfers = ((Map<String, SessionFileTransfers>)f.get(this.watcher)).get("user1");
+        assertEquals(Status.PENDING, transfers.getStatus(file));
+        
+        /* Second failed attempt abandons the transfer. */
+        meth = DataTransferWatcher.class.getDeclaredMethod("transferFiles", boolean.class);
+        meth.setAccessible(true);
+        meth.invoke(this.watcher, false);
+        
+        verify(this.mockRig);
+        verify(this.mockStub);
+        
+        assertEquals(Status.FAILED, transfers.getStatus(file));
+        assertFalse(transfers.hasPending());
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testTransferUnreachable() throws Exception
+    {
+        File file = new File("./test/resources/DataTransfer/file1");
+        
+        expect(this.mockRig.detectSessionFiles()).andReturn(Collections.singleton(file));
+        expect(this.mockRig.getName()).andReturn("Rig 1").times(3);
+        replay(this.mockRig);
+        
+        expect(this.mockStub.addSessionFiles((AddSessionFiles)anyObject()))
+                .andThrow(new AxisFault("Connection refused")).times(3);
+        replay(this.mockStub);
+        
+        Field f = DataTransferWatcher.class.getDeclaredField("maxAttempts");
+        f.setAccessible(true);
+        f.set(this.watcher, 2);
+        
+        this.watcher.sessionStarted("user1");
+        
+        Method meth = DataTransferWatcher.class.getDeclaredMethod("transferFiles");
+        meth.setAccessible(true);
+        meth.invoke(this.watcher);
+        
+        meth = DataTransferWatcher.class.getDeclaredMethod("transferFiles", boolean.class);
+        meth.setAccessible(true);
+        meth.invoke(this.watcher, false);
+        meth.invoke(this.watcher, false);
+        
+        verify(this.mockRig);
+        verify(this.mockStub);
+        
+        /* Failing to communicate does not count as an attempt. */
+        f = DataTransferWatcher.class.getDeclaredField("sessionFiles");
+        f.setAccessible(true);
+        SessionFileTransfers transfers = ((Map<String, SessionFileTransfers>)f.get(this.watcher)).get("user1");
+        assertEquals(Status.PENDING, transfers.getStatus(file));
+        assertEquals(0, transfers.getRetries(file));
+        assertEquals(3, transfers.getFailures(file));
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testTransferBackoff() throws Exception
+    {
+        File file = new File("./test/resources/DataTransfer/file1");
+        
+        expect(this.mockRig.detectSessionFiles()).andReturn(Collections.singleton(file));
+        expect(this.mockRig.getName()).andReturn("Rig 1");
+        replay(this.mockRig);
+        
+        AddSessionFilesResponse response = new AddSessionFilesResponse();
+        ProviderResponse resp = new ProviderResponse();
+        response.setAddSessionFilesResponse(resp);
+        resp.setSuccessful(false);
+        
+        /* Only sent once as the retry is backed off. */
+        expect(this.mockStub.addSessionFiles((AddSessionFiles)anyObject())).andReturn(response);
+        replay(this.mockStub);
+        
+        Field f = DataTransferWatcher.class.getDeclaredField("retryBackoff");
+        f.setAccessible(true);
+        f.set(this.watcher, 60000L);
+        
+        this.watcher.sessionStarted("user1");
+        
+        Method meth = DataTransferWatcher.class.getDeclaredMethod("transferFiles");
+        meth.setAccessible(true);
+        meth.invoke(this.watcher);
+        
+        meth = DataTransferWatcher.class.getDeclaredMethod("transferFiles", boolean.class);
+        meth.setAccessible(true);
+        meth.invoke(this.watcher, false);
+        
+        f = DataTransferWatcher.class.getDeclaredField("sessionFiles");
+        f.setAccessible(true);
+        SessionFileTransfers transfers = ((Map<String, SessionFileTransfers>)f.get(this.watcher)).get("user1");
+        assertEquals(Status.PENDING, transfers.getStatus(file));
+        assertFalse(transfers.isDue(file, System.currentTimeMillis()));
+        
+        /* Sent again once the back off has elapsed. */
+        reset(this.mockRig);
+        expect(this.mockRig.getName()).andReturn("Rig 1");
+        replay(this.mockRig);
+        reset(this.mockStub);
+        expect(this.mockStub.addSessionFiles((AddSessionFiles)anyObject())).andReturn(response);
+        replay(this.mockStub);
+        resp.setSuccessful(true);
+        
+        transfers.setRetryTime(file, 0);
+        meth.invoke(this.watcher, false);
+        
+        verify(this.mockRig);
+        verify(this.mockStub);
+        assertEquals(Status.ACKED, transfers.getStatus(file));
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testTransferNotBlockingSession() throws Exception
+    {
+        File file = new File("./test/resources/DataTransfer/file1");
+        
+        expect(this.mockRig.detectSessionFiles()).andReturn(Collections.singleton(file)).times(2);
+        expect(this.mockRig.getName()).andReturn("Rig 1");
+        replay(this.mockRig);
+        
+        final AddSessionFilesResponse response = new AddSessionFilesResponse();
+        ProviderResponse resp = new ProviderResponse();
+        response.setAddSessionFilesResponse(resp);
+        resp.setSuccessful(true);
+        
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        expect(this.mockStub.addSessionFiles((AddSessionFiles)anyObject())).andAnswer(new IAnswer<AddSessionFilesResponse>()
+        {
+            @Override
+            public AddSessionFilesResponse answer() throws Throwable
+            {
+                sending.countDown();
+                release.await();
+                return response;
+            }
+        });
+        replay(this.mockStub);
+        
+        this.watcher.sessionStarted("user1");
+        
+        final Method meth = DataTransferWatcher.class.getDeclaredMethod("transferFiles");
+        meth.setAccessible(true);
+        final Thread transfer = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    meth.invoke(DataTransferWatcherTester.this.watcher);
+                }
+                catch (Exception e)
+                {
+                    fail(e.getMessage());
+                }
+            }
+        };
+        transfer.start();
+        assertTrue(sending.await(10, TimeUnit.SECONDS));
+        
+        /* The session completes while the request is being sent. */
+        final Thread complete = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                DataTransferWatcherTester.this.watcher.sessionComplete();
+            }
+        };
+        complete.start();
+        complete.join(10000);
+        assertFalse(complete.isAlive());
+        
+        release.countDown();
+        transfer.join(10000);
+        assertFalse(transfer.isAlive());
+        
+        verify(this.mockRig);
+        verify(this.mockStub);
+        
+        Field f = DataTransferWatcher.class.getDeclaredField("sessionFiles");
+        f.setAccessible(true);
+        assertTrue(((Map<String, SessionFileTransfers>)f.get(this.watcher)).isEmpty());
+    }
+    
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testTransferStreamed() throws Exception
+    {
+        final int chunk = 1024 * 1024;
+        final byte contents[] = new byte[5 * chunk + 12345];
+        new Random(42).nextBytes(contents);
+        
+        final File file = File.createTempFile("streamed", ".dat");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(contents);
+        out.close();
+        
+        /* Local Scheduling Server that accepts file chunks, failing the third 
+         * request. */
+        final byte received[] = new byte[contents.length];
+        final List<Long> offsets = new ArrayList<Long>();
+        final List<String> errors = new ArrayList<String>();
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler()
+        {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                final ProviderResponse resp = new ProviderResponse();
+                try
+                {
+                    if (!"chunked".equals(exchange.getRequestHeaders().getFirst("Transfer-Encoding")))
+                    {
+                        errors.add("Request not chunked");
+                    }
+                    
+                    final Attachments attachments = new Attachments(exchange.getRequestBody(), 
+                            exchange.getRequestHeaders().getFirst("Content-Type"));
+                    final MTOMStAXSOAPModelBuilder builder = new MTOMStAXSOAPModelBuilder(
+                            StAXUtils.createXMLStreamReader(attachments.getSOAPPartInputStream()), attachments, 
+                            SOAP11Constants.SOAP_ENVELOPE_NAMESPACE_URI);
+                    final SessionFile sf = AddSessionFiles.Factory.parse(builder.getSOAPEnvelope().getBody()
+                            .getFirstElement().getXMLStreamReaderWithoutCaching()).getAddSessionFiles().getFiles()[0];
+                    
+                    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    sf.getFile().writeTo(bytes);
+                    final CRC32 crc = new CRC32();
+                    crc.update(bytes.toByteArray());
+                    if (!Long.toHexString(crc.getValue()).equals(sf.getChecksum())) errors.add("Bad checksum");
+                    if (sf.getLength() != contents.length) errors.add("Bad length " + sf.getLength());
+                    
+                    offsets.add(sf.getOffset());
+                    resp.setSuccessful(offsets.size() != 3);
+                    if (resp.getSuccessful())
+                    {
+                        System.arraycopy(bytes.toByteArray(), 0, received, (int)sf.getOffset(), bytes.size());
+                    }
+                }
+                catch (Exception ex)
+                {
+                    errors.add(ex.toString());
+                    resp.setSuccessful(false);
+                }
+                
+                final AddSessionFilesResponse response = new AddSessionFilesResponse();
+                response.setAddSessionFilesResponse(resp);
+                final SOAPFactory factory = OMAbstractFactory.getSOAP11Factory();
+                final SOAPEnvelope env = factory.getDefaultEnvelope();
+                try
+                {
+                    env.getBody().addChild(response.getOMElement(AddSessionFilesResponse.MY_QNAME, factory));
+                }
+                catch (ADBException ex)
+                {
+                    throw new IOException(ex);
+                }
+                final byte body[] = env.toString().getBytes("UTF-8");
+                
+                exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            }
+        });
+        server.start();
+        
+        try
+        {
+            expect(this.mockRig.detectSessionFiles()).andReturn(Collections.singleton(file));
+            expect(this.mockRig.getName()).andReturn("Rig 1").anyTimes();
+            replay(this.mockRig);
+            
+            Field f = DataTransferWatcher.class.getDeclaredField("stub");
+            f.setAccessible(true);
+            f.set(this.watcher, new SchedulingServerProviderStub("http://localhost:" + 
+                    server.getAddress().getPort() + "/SchedulingServer-LocalRigProvider/services/LocalRigProvider"));
+            f = DataTransferWatcher.class.getDeclaredField("transferMethod");
+            f.setAccessible(true);
+            f.set(this.watcher, TransferMethod.ATTACHMENT);
+            f = DataTransferWatcher.class.getDeclaredField("chunkSize");
+            f.setAccessible(true);
+            f.set(this.watcher, (long)chunk);
+            
+            this.watcher.sessionStarted("user1");
+            
+            Method meth = DataTransferWatcher.class.getDeclaredMethod("transferFiles");
+            meth.setAccessible(true);
+            meth.invoke(this.watcher);
+            
+            f = DataTransferWatcher.class.getDeclaredField("sessionFiles");
+            f.setAccessible(true);
+            SessionFileTransfers transfers = ((Map<String, SessionFileTransfers>)f.get(this.watcher)).get("user1");
+            
+            /* Transfer stopped at the failed chunk. */
+            assertEquals(Status.PENDING, transfers.getStatus(file));
+            assertEquals(2L * chunk, transfers.getOffset(file));
+            
+            /* Transfer resumes from the failed chunk. */
+            meth = DataTransferWatcher.class.getDeclaredMethod("transferFiles", boolean.class);
+            meth.setAccessible(true);
+            meth.invoke(this.watcher, false);
+            
+            verify(this.mockRig);
+            assertEquals(Collections.emptyList(), errors);
+            assertEquals(Arrays.asList(0L, 1L * chunk, 2L * chunk, 2L * chunk, 3L * chunk, 4L * chunk, 5L * chunk), 
+                    offsets);
+            assertEquals(Status.ACKED, transfers.getStatus(file));
+            assertTrue(Arrays.equals(contents, received));
+        }
+        finally
+        {
+            server.stop(0);
+            file.delete();
+        }
+    }
+    
+    /**
+     * Returns the number of files that are no longer pending transfer.
+     * 
+     * @param transfers transfer state
+     * @return number of files
+     */
+    private int transferred(SessionFileTransfers transfers)
+    {
+        return transfers.size() - transfers.count(Status.PENDING);
+    }
 }
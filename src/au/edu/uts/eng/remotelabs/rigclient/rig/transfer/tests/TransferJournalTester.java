@@ -0,0 +1,220 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.rig.transfer.tests;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import au.edu.uts.eng.remotelabs.rigclient.rig.transfer.TransferJournal;
+
+/**
+ * Tests the {@link TransferJournal} class.
+ */
+public class TransferJournalTester extends TestCase
+{
+    /** Journal file. */
+    private File file;
+    
+    /** Object of class under test. */
+    private TransferJournal journal;
+    
+    @Override
+    @Before
+    public void setUp() throws Exception
+    {
+        this.file = new File(System.getProperty("java.io.tmpdir"), "journal-" + System.nanoTime());
+        this.journal = new TransferJournal(this.file.getPath());
+    }
+    
+    @Override
+    @After
+    public void tearDown() throws Exception
+    {
+        this.journal.delete();
+    }
+    
+    @Test
+    public void testRecoverNoJournal() throws Exception
+    {
+        assertEquals(0, this.journal.recover().size());
+    }
+    
+    @Test
+    public void testAppendRecover() throws Exception
+    {
+        this.journal.compact(new HashMap<String, List<File>>());
+        
+        /* Paths containing the previous delimiter and white space. */
+        File f1 = new File("/data/file:#:one");
+        File f2 = new File("/data/file two\nlines");
+        File f3 = new File("/data/file3");
+        this.journal.added("user1", f1);
+        this.journal.added("user1", f2);
+        this.journal.added("user 2", f3);
+        this.journal.done("user1", f1);
+        this.journal.sync();
+        
+        Map<String, Set<File>> pending = new TransferJournal(this.file.getPath()).recover();
+        assertEquals(2, pending.size());
+        assertEquals(1, pending.get("user1").size());
+        assertTrue(pending.get("user1").contains(f2));
+        assertEquals(1, pending.get("user 2").size());
+        assertTrue(pending.get("user 2").contains(f3));
+        
+        this.journal.done("user 2", f3);
+        this.journal.close();
+        pending = new TransferJournal(this.file.getPath()).recover();
+        assertEquals(1, pending.size());
+        assertFalse(pending.containsKey("user 2"));
+    }
+    
+    @Test
+    public void testRecoverPartialEntry() throws Exception
+    {
+        this.journal.compact(new HashMap<String, List<File>>());
+        this.journal.added("user1", new File("/data/file1"));
+        this.journal.close();
+        
+        /* Simulates a crash part way through writing an event. */
+        PrintWriter out = new PrintWriter(new FileWriter(this.file, true));
+        out.print("A us");
+        out.close();
+        
+        Map<String, Set<File>> pending = this.journal.recover();
+        assertEquals(1, pending.size());
+        assertTrue(pending.get("user1").contains(new File("/data/file1")));
+    }
+    
+    @Test
+    public void testRecoverTornEscape() throws Exception
+    {
+        this.journal.compact(new HashMap<String, List<File>>());
+        this.journal.added("user1", new File("/data/file1"));
+        this.journal.close();
+        
+        /* Simulates a crash part way through writing an escaped path. */
+        PrintWriter out = new PrintWriter(new FileWriter(this.file, true));
+        out.print("A user1 %2Fdata%2");
+        out.close();
+        
+        Map<String, Set<File>> pending = this.journal.recover();
+        assertEquals(1, pending.size());
+        assertEquals(1, pending.get("user1").size());
+        assertTrue(pending.get("user1").contains(new File("/data/file1")));
+        
+        /* Compaction keeps the recovered entry. */
+        this.journal.compact(Collections.singletonMap("user1", new ArrayList<File>(pending.get("user1"))));
+        this.journal.close();
+        assertTrue(new TransferJournal(this.file.getPath()).recover().get("user1").contains(new File("/data/file1")));
+    }
+    
+    @Test
+    public void testCompact() throws Exception
+    {
+        this.journal.compact(new HashMap<String, List<File>>());
+        for (int i = 0; i < 2000; i++)
+        {
+            File f = new File("/data/file" + i);
+            this.journal.added("user1", f);
+            if (i > 0) this.journal.done("user1", f);
+        }
+        assertEquals(3999, this.journal.getEvents());
+        assertTrue(this.journal.needsCompaction(1));
+        
+        Map<String, List<File>> live = new HashMap<String, List<File>>();
+        List<File> files = new ArrayList<File>();
+        files.add(new File("/data/file0"));
+        live.put("user1", files);
+        this.journal.compact(live);
+        
+        assertEquals(1, this.journal.getEvents());
+        assertFalse(this.journal.needsCompaction(1));
+        
+        this.journal.added("user1", new File("/data/other"));
+        this.journal.close();
+        
+        Map<String, Set<File>> pending = new TransferJournal(this.file.getPath()).recover();
+        assertEquals(2, pending.get("user1").size());
+        assertFalse(new File(this.file.getPath() + ".tmp").exists());
+    }
+    
+    @Test
+    public void testRecoverLegacy() throws Exception
+    {
+        PrintWriter out = new PrintWriter(this.file);
+        out.println("user1 /data/file1:#:/data/file2");
+        out.println("user2 /data/file3");
+        out.close();
+        
+        Map<String, Set<File>> pending = this.journal.recover();
+        assertEquals(2, pending.size());
+        assertEquals(2, pending.get("user1").size());
+        assertTrue(pending.get("user1").contains(new File("/data/file2")));
+        assertTrue(pending.get("user2").contains(new File("/data/file3")));
+        
+        /* Compaction replaces the legacy file with a journal. */
+        Map<String, List<File>> live = new HashMap<String, List<File>>();
+        live.put("user2", new ArrayList<File>(pending.get("user2")));
+        this.journal.compact(live);
+        this.journal.close();
+        
+        BufferedReader reader = new BufferedReader(new FileReader(this.file));
+        assertEquals(TransferJournal.HEADER, reader.readLine());
+        reader.close();
+        assertEquals(1, new TransferJournal(this.file.getPath()).recover().size());
+    }
+}
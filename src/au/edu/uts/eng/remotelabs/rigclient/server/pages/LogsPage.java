@@ -39,15 +39,37 @@
 package au.edu.uts.eng.remotelabs.rigclient.server.pages;
 
 import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import au.edu.uts.eng.remotelabs.rigclient.util.ILogger;
+import au.edu.uts.eng.remotelabs.rigclient.util.LogRing;
+
 /**
- * Logs viewer page.
+ * Logs viewer page. The logs may be filtered by message text and time range
+ * and the page is updated with the logs since the last displayed log.
  */
 public class LogsPage extends AbstractPage
 {
+    /** Maximum number of logs that are displayed. */
+    public static final int MAX_DISPLAYED_LOGS = 500;
+    
+    /** Format of time range parameters. */
+    private static final String TIME_FORMAT = "yyyy-MM-dd HH:mm:ss";
+    
+    /** Searched text. */
+    private String text;
+    
+    /** Start of searched time range. */
+    private String from;
+    
+    /** End of searched time range. */
+    private String to;
+    
     @Override
     public void preService(HttpServletRequest req)
     {
@@ -60,42 +82,58 @@ public class LogsPage extends AbstractPage
     @Override
     public void contents(HttpServletRequest req, HttpServletResponse resp) throws IOException
     {
-        String logs[] = this.logger.getLogBuffer();
+        this.text = this.getParameter(req, "text");
+        this.from = this.getParameter(req, "from");
+        this.to = this.getParameter(req, "to");
         
-        /* Reverse the array to get the latest logs first. */
-        for (int i = 0; i < logs.length / 2; i++)
-        {
-            String t = logs[i];
-            logs[i] = logs[logs.length - i - 1];
-            logs[logs.length - i - 1] = t;
-        }
+        final LogRing.Filter filter = new LogRing.Filter()
+                .text(this.text)
+                .between(this.parseTime(this.from, Long.MIN_VALUE), this.parseTime(this.to, Long.MAX_VALUE))
+                .limit(LogsPage.MAX_DISPLAYED_LOGS);
         
         if (req.getRequestURI().endsWith("update"))
         {
-            /* Update of the logs. */
-            this.generateLogList(logs);
+            /* Update of the logs, only the logs since the last displayed
+             * log are sent. */
+            try
+            {
+                filter.since(Long.parseLong(this.getParameter(req, "since")));
+            }
+            catch (NumberFormatException ex)
+            {
+                /* No previous log, so all are sent. */
+            }
+            
+            this.generateLogList(this.logger.getLogEntries(filter));
         }
         else
         {
             /* Normal logs page generation. */
-            this.indexPage(logs);
+            this.indexPage(this.logger.getLogEntries(filter));
         }
     }
 
     /**
      * Generates the index page.
      * 
-     * @param logs log messages
+     * @param logs log entries from oldest to newest
      */
-    private void indexPage(String logs[])
+    private void indexPage(final List<LogRing.Entry> logs)
     {
         /* Add the list of logs. */
-        if (logs.length == 0)
+        if (logs.size() == 0)
         {
             this.println("<div class='ui-state ui-state-highlight errdialog ui-corner-all'>");
             this.println("  <p>");
             this.println("      <span class='erricon ui-icon ui-icon-info'></span>");
-            this.println("      There has been no log messages since rig client startup.");
+            if (this.text == null && this.from == null && this.to == null)
+            {
+                this.println("      There has been no log messages since rig client startup.");
+            }
+            else
+            {
+                this.println("      There are no recent log messages that match the search.");
+            }
             this.println("  </p>");
             this.println("</div>");
         }
@@ -108,6 +146,19 @@ public class LogsPage extends AbstractPage
         this.println("              Logs:");
         this.println("          </p>");
         this.println("      </div>");
+        
+        /* Search of the logs. */
+        this.println("      <form id='logsearch' method='get' action='/logs'>");
+        this.println("          Text: <input type='text' name='text' size='20' value='" + 
+                this.escape(this.text) + "' />");
+        this.println("          From: <input type='text' name='from' size='19' value='" + 
+                this.escape(this.from) + "' title='" + LogsPage.TIME_FORMAT + "' />");
+        this.println("          To: <input type='text' name='to' size='19' value='" + 
+                this.escape(this.to) + "' title='" + LogsPage.TIME_FORMAT + "' />");
+        this.println("          <input type='submit' value='Search' />");
+        this.println("          <a href='/logs'>Clear</a>");
+        this.println("      </form>");
+        
         this.println("      <div id='logscontent' class='detailspanelcontents'>");
         this.println("          <ul id='logslist'>");
         
@@ -177,14 +228,20 @@ public class LogsPage extends AbstractPage
                 "    else $('.debuglog').slideUp();\n" + 
                 "});");
         
-        /* Logs auto-update script. */
+        /* Logs auto-update script, which requests the logs since the most
+         * recent displayed log with the same search. */
+        final long last = logs.isEmpty() ? -1 : logs.get(logs.size() - 1).getSequence();
+        this.println("var logSequence = " + last + ";");
+        this.println("var logMaxDisplayed = " + LogsPage.MAX_DISPLAYED_LOGS + ";");
+        this.println("var logSearch = { text: " + this.jsString(this.text) + ", from: " + 
+                this.jsString(this.from) + ", to: " + this.jsString(this.to) + " };");
         this.println(
                 "$(document).ready(function() {\n" +
                 "   setTimeout(updateLogs, 5000);\n" +
                 /* Contents pane height. */
-                "  $('#logscontent').css('height', $(window).height() - 258);" + 
+                "  $('#logscontent').css('height', $(window).height() - 288);" + 
                 "  $(window).resize(function() { " +
-                "    $('#logscontent').css('height', $(window).height() - 258);\n" +
+                "    $('#logscontent').css('height', $(window).height() - 288);\n" +
                 "  });" +
                 "});");
         
@@ -192,34 +249,96 @@ public class LogsPage extends AbstractPage
     }
 
     /**
-     * Generates the lists of logs.
+     * Generates the lists of logs, with the most recent log first.
      * 
-     * @param logs log messages
+     * @param logs log entries from oldest to newest
      */
-    private void generateLogList(String[] logs)
+    private void generateLogList(final List<LogRing.Entry> logs)
     {
-        for (int i = 0; i < logs.length; i++)
+        for (int i = logs.size() - 1; i >= 0; i--)
         {
-            String type = "";
-            if      (logs[i].contains("FATAL")) type = "fatallog";
-            else if (logs[i].contains("PRIORITY")) type = "prilog";
-            else if (logs[i].contains("ERROR")) type = "errorlog";
-            else if (logs[i].contains("WARN")) type = "warnlog";
-            else if (logs[i].contains("INFO")) type = "infolog";
-            else if (logs[i].contains("DEBUG")) type = "debuglog";
+            final LogRing.Entry log = logs.get(i);
             
-            /* Replace special characters. */
-            logs[i] = logs[i].replace("\"", "&quot;");
-            logs[i] = logs[i].replace("<", "&lt;");
-            logs[i] = logs[i].replace(">", "&gt;");
-            logs[i] = logs[i].replace("&", "&amp;");
+            String type = "";
+            switch (log.getLevel())
+            {
+                case ILogger.FATAL:    type = "fatallog"; break;
+                case ILogger.PRIORITY: type = "prilog";   break;
+                case ILogger.ERROR:    type = "errorlog"; break;
+                case ILogger.WARN:     type = "warnlog";  break;
+                case ILogger.INFO:     type = "infolog";  break;
+                case ILogger.DEBUG:    type = "debuglog"; break;
+            }
             
-            this.println("<li class='" + type + " " + (i % 2 == 0 ? "evenlog" : "oddlog")+ "'>");
-            this.println("  <span class='logmessage'>" + logs[i] + "</span>");
+            this.println("<li class='" + type + " " + ((logs.size() - 1 - i) % 2 == 0 ? "evenlog" : "oddlog") + 
+                    "' data-seq='" + log.getSequence() + "'>");
+            this.println("  <span class='logmessage'>" + this.escape(log.getMessage()) + "</span>");
             this.println("</li>");
         }
     }
     
+    /**
+     * Returns the trimmed value of a request parameter.
+     * 
+     * @param req request
+     * @param name parameter name
+     * @return value or <code>null</code> if not set or empty
+     */
+    private String getParameter(final HttpServletRequest req, final String name)
+    {
+        final String value = req.getParameter(name);
+        return value == null || value.trim().length() == 0 ? null : value.trim();
+    }
+    
+    /**
+     * Parses a time range parameter.
+     * 
+     * @param time time string, may be <code>null</code>
+     * @param def value if the time is not set or invalid
+     * @return time in milliseconds
+     */
+    private long parseTime(final String time, final long def)
+    {
+        if (time == null) return def;
+        
+        try
+        {
+            return new SimpleDateFormat(LogsPage.TIME_FORMAT).parse(time.replace('T', ' ')).getTime();
+        }
+        catch (ParseException ex)
+        {
+            return def;
+        }
+    }
+    
+    /**
+     * Returns a JavaScript string literal of the string.
+     * 
+     * @param str string, may be <code>null</code>
+     * @return string literal
+     */
+    private String jsString(final String str)
+    {
+        if (str == null) return "''";
+        
+        return "'" + str.replace("\\", "\\\\").replace("'", "\\'").replace("<", "\\x3C")
+                .replace(">", "\\x3E").replace("\n", "\\n").replace("\r", "\\r") + "'";
+    }
+    
+    /**
+     * Replaces the HTML special characters in a string.
+     * 
+     * @param str string, may be <code>null</code>
+     * @return escaped string
+     */
+    private String escape(final String str)
+    {
+        if (str == null) return "";
+        
+        return str.replace("&", "&amp;").replace("\"", "&quot;").replace("'", "&#39;")
+                .replace("<", "&lt;").replace(">", "&gt;");
+    }
+    
     @Override
     protected String getPageHeader()
     {
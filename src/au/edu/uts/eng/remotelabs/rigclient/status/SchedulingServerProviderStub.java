@@ -56,6 +56,7 @@ import org.apache.axiom.om.OMNamespace;
 import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axiom.soap.SOAPFactory;
 import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
 import org.apache.axis2.addressing.EndpointReference;
 import org.apache.axis2.client.OperationClient;
 import org.apache.axis2.client.ServiceClient;
@@ -67,6 +68,7 @@ import org.apache.axis2.description.AxisOperation;
 import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.OutInAxisOperation;
 import org.apache.axis2.description.WSDL2Constants;
+import org.apache.axis2.transport.http.HTTPConstants;
 import org.apache.axis2.wsdl.WSDLConstants;
 
 import au.edu.uts.eng.remotelabs.rigclient.status.types.AddSessionFiles;
@@ -79,6 +81,7 @@ import au.edu.uts.eng.remotelabs.rigclient.status.types.ReleaseCallback;
 import au.edu.uts.eng.remotelabs.rigclient.status.types.ReleaseCallbackResponse;
 import au.edu.uts.eng.remotelabs.rigclient.status.types.RemoveRig;
 import au.edu.uts.eng.remotelabs.rigclient.status.types.RemoveRigResponse;
+import au.edu.uts.eng.remotelabs.rigclient.status.types.SessionFile;
 import au.edu.uts.eng.remotelabs.rigclient.status.types.UpdateRigStatus;
 import au.edu.uts.eng.remotelabs.rigclient.status.types.UpdateRigStatusResponse;
 
@@ -540,7 +543,7 @@ public class SchedulingServerProviderStub extends Stub
         try
         {
             final OperationClient _operationClient = this._serviceClient
-                    .createClient(this._operations[1].getName());
+                    .createClient(this._operations[3].getName());
             _operationClient.getOptions().setAction("http://remotelabs.eng.uts.edu.au/schedserver/localrigprovider/allocateCallback");
             _operationClient.getOptions().setExceptionToBeThrownOnSOAPFault(true);
 
@@ -614,7 +617,7 @@ public class SchedulingServerProviderStub extends Stub
         try
         {
             final OperationClient _operationClient = this._serviceClient
-                    .createClient(this._operations[1].getName());
+                    .createClient(this._operations[4].getName());
             _operationClient.getOptions().setAction("http://remotelabs.eng.uts.edu.au/schedserver/localrigprovider/releaseCallback");
             _operationClient.getOptions().setExceptionToBeThrownOnSOAPFault(true);
 
@@ -688,9 +691,18 @@ public class SchedulingServerProviderStub extends Stub
         try
         {
             final OperationClient _operationClient = this._serviceClient
-                    .createClient(this._operations[1].getName());
+                    .createClient(this._operations[5].getName());
             _operationClient.getOptions().setAction("http://remotelabs.eng.uts.edu.au/schedserver/localrigprovider/addSessionFiles");
             _operationClient.getOptions().setExceptionToBeThrownOnSOAPFault(true);
+            
+            if (this.hasAttachments(addSessionFiles))
+            {
+                /* Attached files are sent as MTOM parts with chunked encoding 
+                 * so their contents are streamed from their data sources 
+                 * instead of being buffered as base64 text in the envelope. */
+                _operationClient.getOptions().setProperty(Constants.Configuration.ENABLE_MTOM, Constants.VALUE_TRUE);
+                _operationClient.getOptions().setProperty(HTTPConstants.CHUNKED, Boolean.TRUE);
+            }
 
             this.addPropertyToOperationClient(_operationClient, WSDL2Constants.ATTR_WHTTP_QUERY_PARAMETER_SEPARATOR, "&");
 
@@ -756,6 +768,24 @@ public class SchedulingServerProviderStub extends Stub
         }
     }
 
+    /**
+     * Returns whether any of the session files has its contents attached.
+     * 
+     * @param addSessionFiles request
+     * @return true if there are attachments
+     */
+    private boolean hasAttachments(final AddSessionFiles addSessionFiles)
+    {
+        if (addSessionFiles.getAddSessionFiles() == null || 
+                addSessionFiles.getAddSessionFiles().getFiles() == null) return false;
+        
+        for (SessionFile file : addSessionFiles.getAddSessionFiles().getFiles())
+        {
+            if (file.getFile() != null) return true;
+        }
+        return false;
+    }
+
     private SOAPEnvelope toEnvelope(final SOAPFactory factory, final RegisterRig param, final boolean optimizeContent) throws AxisFault
     {
 
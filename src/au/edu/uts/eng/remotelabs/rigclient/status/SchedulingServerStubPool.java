@@ -0,0 +1,307 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.status;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.client.Options;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.transport.http.HTTPConstants;
+import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
+
+import au.edu.uts.eng.remotelabs.rigclient.util.ConfigFactory;
+import au.edu.uts.eng.remotelabs.rigclient.util.IConfig;
+import au.edu.uts.eng.remotelabs.rigclient.util.ILogger;
+import au.edu.uts.eng.remotelabs.rigclient.util.LoggerFactory;
+
+/**
+ * Pool of Scheduling Server stubs. Stubs are created with a shared Axis2
+ * configuration context and a shared HTTP client, whose multi-threaded
+ * connection manager keeps connections to the Scheduling Server alive so
+ * they are reused between calls. Stubs are not thread safe, so a stub is 
+ * borrowed for a call and released back to the pool once the call has 
+ * completed.
+ * <br />
+ * This class is thread safe.
+ */
+public class SchedulingServerStubPool
+{
+    /** Default time in milliseconds to wait to establish a connection. */
+    public static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+    
+    /** Default time in milliseconds to wait for a response. */
+    public static final int DEFAULT_SOCKET_TIMEOUT = 60000;
+    
+    /** Default maximum number of connections to the Scheduling Server. */
+    public static final int DEFAULT_MAX_CONNECTIONS = 4;
+    
+    /** Pool instance. */
+    private static SchedulingServerStubPool instance;
+    
+    /** Configuration context shared by all stubs. */
+    private final ConfigurationContext context;
+    
+    /** Connection manager of the shared HTTP client. */
+    private final MultiThreadedHttpConnectionManager connections;
+    
+    /** Idle stubs keyed by their end point. */
+    private final Map<String, Deque<SchedulingServerProviderStub>> idle;
+    
+    /** Time in milliseconds to wait to establish a connection. */
+    private int connectTimeout;
+    
+    /** Time in milliseconds to wait for a response. */
+    private int socketTimeout;
+    
+    /** Maximum number of connections, which is also the maximum number of 
+     *  idle stubs kept for each end point. */
+    private int maxConnections;
+    
+    /** Whether the pool has been shutdown. */
+    private boolean shutdown;
+    
+    /** Logger. */
+    private final ILogger logger;
+    
+    private SchedulingServerStubPool() throws AxisFault
+    {
+        this.logger = LoggerFactory.getLoggerInstance();
+        this.idle = new HashMap<String, Deque<SchedulingServerProviderStub>>();
+        
+        final IConfig conf = ConfigFactory.getInstance();
+        
+        this.connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+        try
+        {
+            this.connectTimeout = Integer.parseInt(conf.getProperty("Scheduling_Server_Connect_Timeout", 
+                    String.valueOf(DEFAULT_CONNECT_TIMEOUT)));
+        }
+        catch (NumberFormatException ex)
+        {
+            this.logger.warn("Invalid Scheduling Server connect timeout, it should be a number. Using the default of " +
+                    DEFAULT_CONNECT_TIMEOUT + " milliseconds.");
+        }
+        
+        this.socketTimeout = DEFAULT_SOCKET_TIMEOUT;
+        try
+        {
+            this.socketTimeout = Integer.parseInt(conf.getProperty("Scheduling_Server_Socket_Timeout", 
+                    String.valueOf(DEFAULT_SOCKET_TIMEOUT)));
+        }
+        catch (NumberFormatException ex)
+        {
+            this.logger.warn("Invalid Scheduling Server socket timeout, it should be a number. Using the default of " +
+                    DEFAULT_SOCKET_TIMEOUT + " milliseconds.");
+        }
+        
+        this.maxConnections = DEFAULT_MAX_CONNECTIONS;
+        try
+        {
+            this.maxConnections = Integer.parseInt(conf.getProperty("Scheduling_Server_Max_Connections", 
+                    String.valueOf(DEFAULT_MAX_CONNECTIONS)));
+            if (this.maxConnections < 1) this.maxConnections = 1;
+        }
+        catch (NumberFormatException ex)
+        {
+            this.logger.warn("Invalid Scheduling Server maximum connections, it should be a number. Using the " +
+                    "default of " + DEFAULT_MAX_CONNECTIONS + " connections.");
+        }
+        
+        this.logger.debug("Scheduling Server connections have a connect timeout of " + this.connectTimeout + 
+                " ms, a socket timeout of " + this.socketTimeout + " ms and a maximum of " + this.maxConnections + 
+                " connections.");
+        
+        this.connections = new MultiThreadedHttpConnectionManager();
+        final HttpConnectionManagerParams params = this.connections.getParams();
+        params.setDefaultMaxConnectionsPerHost(this.maxConnections);
+        params.setMaxTotalConnections(this.maxConnections);
+        params.setConnectionTimeout(this.connectTimeout);
+        params.setSoTimeout(this.socketTimeout);
+        params.setStaleCheckingEnabled(true);
+        
+        this.context = ConfigurationContextFactory.createConfigurationContextFromFileSystem(null, null);
+        this.context.setProperty(HTTPConstants.REUSE_HTTP_CLIENT, Boolean.TRUE);
+        this.context.setProperty(HTTPConstants.CACHED_HTTP_CLIENT, new HttpClient(this.connections));
+    }
+    
+    /**
+     * Returns the pool instance, creating it if it has not been created.
+     * 
+     * @return pool
+     * @throws AxisFault error creating the Axis2 configuration context
+     */
+    public static synchronized SchedulingServerStubPool getInstance() throws AxisFault
+    {
+        if (SchedulingServerStubPool.instance == null)
+        {
+            SchedulingServerStubPool.instance = new SchedulingServerStubPool();
+        }
+        return SchedulingServerStubPool.instance;
+    }
+    
+    /**
+     * Borrows a stub to the end point. The stub must be released once the 
+     * call using the stub has completed.
+     * 
+     * @param endpoint Scheduling Server end point
+     * @return stub
+     * @throws AxisFault error creating stub
+     */
+    public SchedulingServerProviderStub borrow(String endpoint) throws AxisFault
+    {
+        synchronized (this.idle)
+        {
+            final Deque<SchedulingServerProviderStub> stubs = this.idle.get(endpoint);
+            if (stubs != null && !stubs.isEmpty()) return stubs.pop();
+        }
+        
+        final SchedulingServerProviderStub stub = new SchedulingServerProviderStub(this.context, endpoint);
+        final Options options = stub._getServiceClient().getOptions();
+        options.setTimeOutInMilliSeconds(this.socketTimeout);
+        options.setProperty(HTTPConstants.SO_TIMEOUT, this.socketTimeout);
+        options.setProperty(HTTPConstants.CONNECTION_TIMEOUT, this.connectTimeout);
+        options.setProperty(HTTPConstants.REUSE_HTTP_CLIENT, Boolean.TRUE);
+        return stub;
+    }
+    
+    /**
+     * Releases a borrowed stub back to the pool. If the pool already has 
+     * the maximum number of idle stubs to the stub end point or the pool
+     * has been shutdown, the stub is discarded. A stub must be released to 
+     * the pool it was borrowed from.
+     * 
+     * @param stub borrowed stub
+     */
+    public void release(SchedulingServerProviderStub stub)
+    {
+        if (stub == null) return;
+        
+        final String endpoint = stub._getServiceClient().getOptions().getTo().getAddress();
+        synchronized (this.idle)
+        {
+            if (this.shutdown)
+            {
+                this.discard(stub);
+                return;
+            }
+            
+            Deque<SchedulingServerProviderStub> stubs = this.idle.get(endpoint);
+            if (stubs == null)
+            {
+                stubs = new ArrayDeque<SchedulingServerProviderStub>();
+                this.idle.put(endpoint, stubs);
+            }
+            
+            if (stubs.size() < this.maxConnections)
+            {
+                stubs.push(stub);
+                return;
+            }
+        }
+        
+        this.discard(stub);
+    }
+    
+    /**
+     * Returns the number of idle stubs to the end point.
+     * 
+     * @param endpoint Scheduling Server end point
+     * @return number of idle stubs
+     */
+    public int getIdle(String endpoint)
+    {
+        synchronized (this.idle)
+        {
+            final Deque<SchedulingServerProviderStub> stubs = this.idle.get(endpoint);
+            return stubs == null ? 0 : stubs.size();
+        }
+    }
+    
+    /**
+     * Discards a stub, closing its transport and removing its service from
+     * the shared configuration context.
+     * 
+     * @param stub stub to discard
+     */
+    private void discard(SchedulingServerProviderStub stub)
+    {
+        try
+        {
+            stub._getServiceClient().cleanupTransport();
+            stub._getServiceClient().cleanup();
+        }
+        catch (AxisFault e)
+        {
+            this.logger.debug("Failed to clean up discarded Scheduling Server stub, error: " + e.getMessage() + '.');
+        }
+    }
+    
+    /**
+     * Shuts down the pool, discarding the idle stubs and closing the pooled 
+     * connections. Stubs that are borrowed must not be used after the pool 
+     * is shutdown and are discarded when they are released.
+     */
+    public static synchronized void shutdown()
+    {
+        final SchedulingServerStubPool pool = SchedulingServerStubPool.instance;
+        if (pool == null) return;
+        
+        SchedulingServerStubPool.instance = null;
+        synchronized (pool.idle)
+        {
+            pool.shutdown = true;
+            for (Deque<SchedulingServerProviderStub> stubs : pool.idle.values())
+            {
+                for (SchedulingServerProviderStub stub : stubs) pool.discard(stub);
+            }
+            pool.idle.clear();
+        }
+        pool.connections.shutdown();
+    }
+}
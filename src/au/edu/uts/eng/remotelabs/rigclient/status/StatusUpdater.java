@@ -43,11 +43,14 @@ import java.net.UnknownHostException;
 import java.rmi.RemoteException;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Random;
 
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.databinding.types.URI;
 
+import au.edu.uts.eng.remotelabs.rigclient.rig.AbstractRig;
 import au.edu.uts.eng.remotelabs.rigclient.rig.IRig;
+import au.edu.uts.eng.remotelabs.rigclient.rig.IRigStatusListener;
 import au.edu.uts.eng.remotelabs.rigclient.status.types.ProviderResponse;
 import au.edu.uts.eng.remotelabs.rigclient.status.types.RegisterRig;
 import au.edu.uts.eng.remotelabs.rigclient.status.types.RegisterRigResponse;
@@ -69,10 +72,15 @@ import au.edu.uts.eng.remotelabs.rigclient.util.LoggerFactory;
  * Registers the rig client with a scheduling server, then periodically 
  * updates the scheduling server with the rig clients status.
  * <br />
+ * A change of the rig status is pushed to the scheduling server as soon as
+ * it is detected, otherwise the periodic update is a heartbeat. If the 
+ * scheduling server cannot be reached, attempts back off exponentially 
+ * with jitter up to a maximum period.
+ * <br />
  * Interrupting the status updater will cause the status updater to 
  * shutdown by removing the scheduling server's rig client registration.
  */
-public class StatusUpdater implements Runnable
+public class StatusUpdater implements Runnable, IRigStatusListener
 {
     /** Suffix for the Scheduling Server Rig Provider SOAP interface 
      *  end point. */
@@ -85,9 +93,19 @@ public class StatusUpdater implements Runnable
     /** Default status update interval. */
     public static final int DEFAULT_UPDATE_PERIOD = 30;
     
+    /** Default maximum time in seconds between attempts to reach an 
+     *  unreachable Scheduling Server. */
+    public static final int DEFAULT_MAX_BACKOFF = 300;
+    
+    /** Period in milliseconds the monitor status is checked for changes. */
+    public static final int STATUS_CHECK_PERIOD = 1000;
+    
     /** Scheduling server SOAP stub. */
     private SchedulingServerProviderStub schedServerStub;
     
+    /** Pool the Scheduling Server stub was borrowed from. */
+    private SchedulingServerStubPool stubPool;
+    
     /** Scheduling server end point. */
     private String endPoint;
     
@@ -100,6 +118,24 @@ public class StatusUpdater implements Runnable
     /** The period to provide status updates. */
     private int updatePeriod;
     
+    /** Maximum time in seconds between attempts to reach an unreachable 
+     *  Scheduling Server. */
+    private int maxBackoff;
+    
+    /** The online status last provided to the Scheduling Server, 
+     *  <code>null</code> if the last update did not succeed. */
+    private volatile Boolean lastOnline;
+    
+    /** Whether a rig status listener notification has been received since
+     *  the last update. */
+    private boolean statusChanged;
+    
+    /** Lock for rig status change notifications. */
+    private final Object changeLock = new Object();
+    
+    /** Random source for back off jitter. */
+    private final Random random = new Random();
+    
     /** The identity tokens from registration. The 0th value is current 
      *  identity token, the 1st identity token is the identity token 
      *  directly before the current identity token. */
@@ -139,181 +175,45 @@ public class StatusUpdater implements Runnable
                     "using the default of every " + StatusUpdater.DEFAULT_UPDATE_PERIOD + " seconds.");
             this.updatePeriod = StatusUpdater.DEFAULT_UPDATE_PERIOD;
         }
+        if (this.updatePeriod < 1) this.updatePeriod = 1;
+        
+        tmp = config.getProperty("Scheduling_Server_Max_Backoff", String.valueOf(StatusUpdater.DEFAULT_MAX_BACKOFF));
+        try
+        {
+            this.maxBackoff = Integer.parseInt(tmp);
+        }
+        catch (NumberFormatException ex)
+        {
+            this.logger.warn("Invalid scheduling server maximum back off set ('Scheduling_Server_Max_Backoff'), " +
+                    "using the default of " + StatusUpdater.DEFAULT_MAX_BACKOFF + " seconds.");
+            this.maxBackoff = StatusUpdater.DEFAULT_MAX_BACKOFF;
+        }
     }
     
     @Override
     public void run()
     {
+        if (this.rig instanceof AbstractRig) ((AbstractRig)this.rig).addStatusListener(this);
+        
+        int failures = 0;
         while (!Thread.interrupted())
         {
-            try
+            long delay;
+            if (this.updateStatus())
             {
-                if (this.schedServerStub == null)
-                {
-                    this.schedServerStub = new SchedulingServerProviderStub(this.endPoint);
-                }
-                
-                ProviderResponse provResp;
-                if (StatusUpdater.isRegistered)
-                {
-                    /* --------------------------------------------------------
-                     * -- Registered - providing status update.              --
-                     * ------------------------------------------------------*/
-                    /* 1) Set up message. */
-                    UpdateRigStatus request = new UpdateRigStatus();
-                    UpdateRigType updateType = new UpdateRigType();
-                    request.setUpdateRigStatus(updateType);
-                    updateType.setName(this.rig.getName());
-                    
-                    StatusType status = new StatusType();
-                    updateType.setStatus(status);
-                    status.setIsOnline(this.rig.isMonitorStatusGood());
-                    if (!this.rig.isMonitorStatusGood()) status.setOfflineReason(this.rig.getMonitorReason());
-                    
-                    /* 2) Send message. */
-                    UpdateRigStatusResponse response = this.schedServerStub.updateRigStatus(request);
-                    provResp = response.getUpdateRigStatusResponse();
-                }
-                else
-                {
-                    /* --------------------------------------------------------
-                     * -- Not registered - attempt to register.              --
-                     * ------------------------------------------------------*/
-                    /* 1) Set up message. */
-                    RegisterRig request = new RegisterRig();
-                    RegisterRigType registerType = new RegisterRigType();
-                    request.setRegisterRig(registerType);
-                    registerType.setName(this.rig.getName());
-                    registerType.setType(this.rig.getType());
-                    
-                    String caps[] = this.rig.getCapabilities();
-                    StringBuilder capBuilder = new StringBuilder();
-                    for (int i = 0; i < caps.length; i++)
-                    {
-                        capBuilder.append(caps[i]);
-                        if ((i + 1) != caps.length) capBuilder.append(',');
-                    }
-                    registerType.setCapabilities(capBuilder.toString());
-                    registerType.setContactUrl(this.rigClientAddress);
-                    
-                    StatusType status = new StatusType();
-                    registerType.setStatus(status);
-                    status.setIsOnline(this.rig.isMonitorStatusGood());
-                    status.setOfflineReason(this.rig.getMonitorReason());
-                    
-                    /* 2) Send message. */
-                    RegisterRigResponse response = this.schedServerStub.registerRig(request);
-                    provResp = response.getRegisterRigResponse();
-                }
-                
-                /* 3) Check response. */
-                if (provResp.getSuccessful())
-                {
-                    this.logger.debug("Successfully communicated with the scheduling server to " +
-                            (StatusUpdater.isRegistered ? "update the rig status." : "register the rig."));
-                    StatusUpdater.isRegistered = true;
-                    String identTok = provResp.getIdentityToken();
-                    if (identTok != null && !identTok.equals(identToks[0]))
-                    {
-                        synchronized (StatusUpdater.class)
-                        {
-                            StatusUpdater.identToks[1] = StatusUpdater.identToks[0];
-                            StatusUpdater.identToks[0] = identTok;
-                        }
-                        this.logger.info("Obtained new identity token with value '" + StatusUpdater.identToks[0] + "'.");
-                        StatusUpdater.isRegistered = true;
-                    }
-                }
-                else
-                {
-                    /* Assuming the Scheduling Server does not have the rig client registered. */
-                    synchronized (StatusUpdater.class)
-                    {
-                        StatusUpdater.identToks[1] = null;
-                        StatusUpdater.identToks[0] = null;
-                    }
-                    this.logger.error("Failed to " + (StatusUpdater.isRegistered ? "update" : "register") + " the " +
-                    		"Scheduling Server. The provided reason for failing is '" + 
-                    		this.getNiceErrorMessage(provResp.getErrorReason()) + "'.");
-                    StatusUpdater.isRegistered = false;
-                }
-            }
-            catch (AxisFault ex)
-            {   
-                synchronized (StatusUpdater.class)
-                {
-                    StatusUpdater.identToks[1] = null;
-                    StatusUpdater.identToks[0] = null;
-                }
-                StatusUpdater.isRegistered = false;
-                this.schedServerStub = null;
-                
-                if (ex.getCause() instanceof ConnectException)
-                {
-                    this.logger.error("Unable to" + (StatusUpdater.isRegistered ? " update the rigs status" : 
-                            " register the rig") + ". Error reason is connection error: " + ex.getMessage() +
-                            ". Ensure the Scheduling Server is running and listening on the configured port number.");
-                }
-                else if (ex.getCause() instanceof UnknownHostException)
-                {
-                    this.logger.error("Unable to" + (StatusUpdater.isRegistered ? " update the rig's status" : 
-                            " register the rig") + ". Error reason is unknown host " + ex.getMessage() + ". " +
-                            "Configure the scheduling server host as a valid host name.");
-                }
-                else if (ex.getReason() != null && ex.getReason().contains("404"))
-                {
-                    /* May be an earlier Scheduling Server version. */
-                    this.logger.error("Unable to" + (StatusUpdater.isRegistered ? " update the rig's status" : 
-                            " register the rig") + ". Error reason is '404 Not Found' which may mean a different " +
-                            " version of the Scheduling Server is running.");
-                    if (this.endPoint.endsWith(SS_URL_SUFFIX))
-                    {
-                        this.endPoint = this.endPoint.replace(SS_URL_SUFFIX, SSv2_URL_SUFFIX);
-                        this.logger.error("Tried Scheduling Server v3+ update address which failed, going to try Scheduling " +
-                        		"Server v2 address '" + this.endPoint + "'.");
-                    }
-                    else
-                    {
-                        this.endPoint = this.endPoint.replace(SSv2_URL_SUFFIX, SS_URL_SUFFIX);
-                        this.logger.error("Tried Scheduling Server v2 update address which failed, going to try Scheduling " +
-                                "Server v3+ address '" + this.endPoint + "'.");
-                    }
-                }
-                else
-                {
-                    this.logger.error("Unable to" + (StatusUpdater.isRegistered ? " update the rig's status" : 
-                    " register the rig") + ". Error reason is '" + ex.getReason() + "'.");
-                }
-                
-                if (this.rig.isSessionActive())
-                {
-                    this.logger.error("Terminating an in progress session because of error updating the rig's status.");
-                    this.rig.revoke();
-                }
+                failures = 0;
+                delay = this.updatePeriod * 1000L;
             }
-            catch (RemoteException ex)
+            else
             {
-                synchronized (StatusUpdater.class)
-                {
-                    StatusUpdater.identToks[1] = null;
-                    StatusUpdater.identToks[0] = null;
-                }
-                StatusUpdater.isRegistered = false;
-                this.schedServerStub = null;
-                
-                this.logger.error("Remote exception when trying to" + (StatusUpdater.isRegistered ? " update the rigs " +
-                		"status" : " register the rig") + ". Exception message is '" + ex.getMessage() + "'.");
-                
-                if (this.rig.isSessionActive())
-                {
-                    this.logger.error("Terminating an in progress session because of error updating the rig's status.");
-                    this.rig.revoke();
-                }
+                delay = this.getBackoff(++failures);
+                this.logger.info("Scheduling Server is unreachable, going to try again in " + delay / 1000 + 
+                        " seconds.");
             }
             
             try
             {
-                Thread.sleep(this.updatePeriod * 1000);
+                this.awaitUpdate(delay, failures == 0);
             }
             catch (InterruptedException e)
             {
@@ -321,10 +221,16 @@ public class StatusUpdater implements Runnable
             }
         }
         
+        if (this.rig instanceof AbstractRig) ((AbstractRig)this.rig).removeStatusListener(this);
+        
         /* --------------------------------------------------------------------
          * -- 3) Unregister the rig.                                         --
          * ------------------------------------------------------------------*/
-        if (!StatusUpdater.isRegistered) return;
+        if (!StatusUpdater.isRegistered)
+        {
+            this.releaseStub();
+            return;
+        }
         this.logger.debug("Received interrupt for the status updater, removing the rig client's registration.");
         
         /* 1) Set up message. */
@@ -358,8 +264,276 @@ public class StatusUpdater implements Runnable
         }
         
         StatusUpdater.isRegistered = false;
+        this.releaseStub();
     }
     
+    /**
+     * Releases the Scheduling Server stub back to the stub pool.
+     */
+    private void releaseStub()
+    {
+        if (this.schedServerStub == null) return;
+        
+        this.stubPool.release(this.schedServerStub);
+        this.schedServerStub = null;
+        this.stubPool = null;
+    }
+    
+    /**
+     * Registers the rig or updates the rig status with the Scheduling Server.
+     * 
+     * @return false if the Scheduling Server could not be reached
+     */
+    private boolean updateStatus()
+    {
+        try
+        {
+            if (this.schedServerStub == null)
+            {
+                this.stubPool = SchedulingServerStubPool.getInstance();
+                this.schedServerStub = this.stubPool.borrow(this.endPoint);
+            }
+            
+            final boolean online = this.rig.isMonitorStatusGood();
+            ProviderResponse provResp;
+            if (StatusUpdater.isRegistered)
+            {
+                /* --------------------------------------------------------
+                 * -- Registered - providing status update.              --
+                 * ------------------------------------------------------*/
+                /* 1) Set up message. */
+                UpdateRigStatus request = new UpdateRigStatus();
+                UpdateRigType updateType = new UpdateRigType();
+                request.setUpdateRigStatus(updateType);
+                updateType.setName(this.rig.getName());
+                
+                StatusType status = new StatusType();
+                updateType.setStatus(status);
+                status.setIsOnline(online);
+                if (!online) status.setOfflineReason(this.rig.getMonitorReason());
+                
+                /* 2) Send message. */
+                UpdateRigStatusResponse response = this.schedServerStub.updateRigStatus(request);
+                provResp = response.getUpdateRigStatusResponse();
+            }
+            else
+            {
+                /* --------------------------------------------------------
+                 * -- Not registered - attempt to register.              --
+                 * ------------------------------------------------------*/
+                /* 1) Set up message. */
+                RegisterRig request = new RegisterRig();
+                RegisterRigType registerType = new RegisterRigType();
+                request.setRegisterRig(registerType);
+                registerType.setName(this.rig.getName());
+                registerType.setType(this.rig.getType());
+                
+                String caps[] = this.rig.getCapabilities();
+                StringBuilder capBuilder = new StringBuilder();
+                for (int i = 0; i < caps.length; i++)
+                {
+                    capBuilder.append(caps[i]);
+                    if ((i + 1) != caps.length) capBuilder.append(',');
+                }
+                registerType.setCapabilities(capBuilder.toString());
+                registerType.setContactUrl(this.rigClientAddress);
+                
+                StatusType status = new StatusType();
+                registerType.setStatus(status);
+                status.setIsOnline(online);
+                status.setOfflineReason(this.rig.getMonitorReason());
+                
+                /* 2) Send message. */
+                RegisterRigResponse response = this.schedServerStub.registerRig(request);
+                provResp = response.getRegisterRigResponse();
+            }
+            
+            /* 3) Check response. */
+            if (provResp.getSuccessful())
+            {
+                this.logger.debug("Successfully communicated with the scheduling server to " +
+                        (StatusUpdater.isRegistered ? "update the rig status." : "register the rig."));
+                StatusUpdater.isRegistered = true;
+                this.lastOnline = online;
+                String identTok = provResp.getIdentityToken();
+                if (identTok != null && !identTok.equals(identToks[0]))
+                {
+                    synchronized (StatusUpdater.class)
+                    {
+                        StatusUpdater.identToks[1] = StatusUpdater.identToks[0];
+                        StatusUpdater.identToks[0] = identTok;
+                    }
+                    this.logger.info("Obtained new identity token with value '" + StatusUpdater.identToks[0] + "'.");
+                    StatusUpdater.isRegistered = true;
+                }
+            }
+            else
+            {
+                /* Assuming the Scheduling Server does not have the rig client registered. */
+                synchronized (StatusUpdater.class)
+                {
+                    StatusUpdater.identToks[1] = null;
+                    StatusUpdater.identToks[0] = null;
+                }
+                this.logger.error("Failed to " + (StatusUpdater.isRegistered ? "update" : "register") + " the " +
+                		"Scheduling Server. The provided reason for failing is '" + 
+                		this.getNiceErrorMessage(provResp.getErrorReason()) + "'.");
+                StatusUpdater.isRegistered = false;
+                this.lastOnline = null;
+            }
+        }
+        catch (AxisFault ex)
+        {   
+            synchronized (StatusUpdater.class)
+            {
+                StatusUpdater.identToks[1] = null;
+                StatusUpdater.identToks[0] = null;
+            }
+            StatusUpdater.isRegistered = false;
+            this.lastOnline = null;
+            
+            if (ex.getCause() instanceof ConnectException)
+            {
+                this.logger.error("Unable to" + (StatusUpdater.isRegistered ? " update the rigs status" : 
+                        " register the rig") + ". Error reason is connection error: " + ex.getMessage() +
+                        ". Ensure the Scheduling Server is running and listening on the configured port number.");
+            }
+            else if (ex.getCause() instanceof UnknownHostException)
+            {
+                this.logger.error("Unable to" + (StatusUpdater.isRegistered ? " update the rig's status" : 
+                        " register the rig") + ". Error reason is unknown host " + ex.getMessage() + ". " +
+                        "Configure the scheduling server host as a valid host name.");
+            }
+            else if (ex.getReason() != null && ex.getReason().contains("404"))
+            {
+                /* May be an earlier Scheduling Server version. */
+                this.logger.error("Unable to" + (StatusUpdater.isRegistered ? " update the rig's status" : 
+                        " register the rig") + ". Error reason is '404 Not Found' which may mean a different " +
+                        " version of the Scheduling Server is running.");
+                /* The stub is bound to the failed address so is returned 
+                 * and a stub to the other address is borrowed. */
+                this.releaseStub();
+                if (this.endPoint.endsWith(SS_URL_SUFFIX))
+                {
+                    this.endPoint = this.endPoint.replace(SS_URL_SUFFIX, SSv2_URL_SUFFIX);
+                    this.logger.error("Tried Scheduling Server v3+ update address which failed, going to try Scheduling " +
+                    		"Server v2 address '" + this.endPoint + "'.");
+                }
+                else
+                {
+                    this.endPoint = this.endPoint.replace(SSv2_URL_SUFFIX, SS_URL_SUFFIX);
+                    this.logger.error("Tried Scheduling Server v2 update address which failed, going to try Scheduling " +
+                            "Server v3+ address '" + this.endPoint + "'.");
+                }
+            }
+            else
+            {
+                this.logger.error("Unable to" + (StatusUpdater.isRegistered ? " update the rig's status" : 
+                " register the rig") + ". Error reason is '" + ex.getReason() + "'.");
+            }
+            
+            if (this.rig.isSessionActive())
+            {
+                this.logger.error("Terminating an in progress session because of error updating the rig's status.");
+                this.rig.revoke();
+            }
+            return false;
+        }
+        catch (RemoteException ex)
+        {
+            synchronized (StatusUpdater.class)
+            {
+                StatusUpdater.identToks[1] = null;
+                StatusUpdater.identToks[0] = null;
+            }
+            StatusUpdater.isRegistered = false;
+            this.lastOnline = null;
+            
+            this.logger.error("Remote exception when trying to" + (StatusUpdater.isRegistered ? " update the rigs " +
+            		"status" : " register the rig") + ". Exception message is '" + ex.getMessage() + "'.");
+            
+            if (this.rig.isSessionActive())
+            {
+                this.logger.error("Terminating an in progress session because of error updating the rig's status.");
+                this.rig.revoke();
+            }
+            return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Waits until the next status update is due. If the last update reached
+     * the Scheduling Server, the wait ends early when the rig status 
+     * changes, either from a rig status listener notification or from the
+     * monitor status differing from the last provided status. Monitor tests 
+     * do not notify when their status changes so the monitor status is 
+     * checked every second.
+     * 
+     * @param delay time in milliseconds until the next update is due
+     * @param pushChanges whether a status change ends the wait
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private void awaitUpdate(final long delay, final boolean pushChanges) throws InterruptedException
+    {
+        final long end = System.currentTimeMillis() + delay;
+        synchronized (this.changeLock)
+        {
+            long now;
+            while ((now = System.currentTimeMillis()) < end)
+            {
+                if (pushChanges && (this.statusChanged || this.isMonitorStatusChanged()))
+                {
+                    this.logger.debug("Rig status has changed, pushing status update to the Scheduling Server.");
+                    break;
+                }
+                this.changeLock.wait(Math.min(end - now, STATUS_CHECK_PERIOD));
+            }
+            
+            this.statusChanged = false;
+        }
+    }
+    
+    /**
+     * Returns whether the monitor status is different to the status that
+     * was last provided to the Scheduling Server.
+     * 
+     * @return true if the monitor status has changed
+     */
+    private boolean isMonitorStatusChanged()
+    {
+        final Boolean last = this.lastOnline;
+        return last != null && last.booleanValue() != this.rig.isMonitorStatusGood();
+    }
+    
+    /**
+     * Returns the time to wait before retrying to reach the Scheduling 
+     * Server. The wait doubles from the update period for each consecutive
+     * failure, up to the maximum back off, and is randomly jittered over
+     * its upper half so rig clients that lost the Scheduling Server at the 
+     * same time do not retry in lock step.
+     * 
+     * @param failures number of consecutive failures
+     * @return wait in milliseconds
+     */
+    private long getBackoff(final int failures)
+    {
+        final long max = Math.max(this.maxBackoff, this.updatePeriod) * 1000L;
+        final long backoff = Math.min(max, (this.updatePeriod * 1000L) << Math.min(failures - 1, 16));
+        return backoff / 2 + (long)(this.random.nextDouble() * (backoff / 2));
+    }
+    
+    @Override
+    public void statusChanged(final IRig changed)
+    {
+        synchronized (this.changeLock)
+        {
+            this.statusChanged = true;
+            this.changeLock.notifyAll();
+        }
+    }
+
     /**
      * Returns the current identity token and the identity token directly 
      * before the current identity token. The 0th value is the current
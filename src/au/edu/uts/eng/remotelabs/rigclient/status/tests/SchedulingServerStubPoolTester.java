@@ -0,0 +1,251 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.status.tests;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.classextension.EasyMock.createMock;
+import static org.easymock.classextension.EasyMock.replay;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.net.InetSocketAddress;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFactory;
+import org.apache.axis2.databinding.ADBException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import au.edu.uts.eng.remotelabs.rigclient.status.SchedulingServerProviderStub;
+import au.edu.uts.eng.remotelabs.rigclient.status.SchedulingServerStubPool;
+import au.edu.uts.eng.remotelabs.rigclient.status.types.AllocateCallback;
+import au.edu.uts.eng.remotelabs.rigclient.status.types.AllocateCallbackResponse;
+import au.edu.uts.eng.remotelabs.rigclient.status.types.CallbackRequestType;
+import au.edu.uts.eng.remotelabs.rigclient.status.types.ProviderResponse;
+import au.edu.uts.eng.remotelabs.rigclient.util.ConfigFactory;
+import au.edu.uts.eng.remotelabs.rigclient.util.IConfig;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the {@link SchedulingServerStubPool} class.
+ */
+public class SchedulingServerStubPoolTester extends TestCase
+{
+    /** Local Scheduling Server. */
+    private HttpServer server;
+    
+    /** Remote ports of the connections to the local Scheduling Server. */
+    private Set<Integer> ports;
+    
+    /** Local Scheduling Server end point. */
+    private String endpoint;
+    
+    @Override
+    @Before
+    public void setUp() throws Exception
+    {
+        IConfig mockConfig = createMock(IConfig.class);
+        expect(mockConfig.getProperty("Scheduling_Server_Connect_Timeout", "10000")).andReturn("5000");
+        expect(mockConfig.getProperty("Scheduling_Server_Socket_Timeout", "60000")).andReturn("5000");
+        expect(mockConfig.getProperty("Scheduling_Server_Max_Connections", "4")).andReturn("2");
+        
+        /* Logging configuration. */
+        expect(mockConfig.getProperty("Logger_Type")).andReturn("SystemErr");
+        expect(mockConfig.getProperty("Log_Level")).andReturn("WARN");
+        expect(mockConfig.getProperty("Default_Log_Format", "[__LEVEL__] - [__ISO8601__] - __MESSAGE__"))
+            .andReturn("[__LEVEL__] - [__ISO8601__] - __MESSAGE__");
+        expect(mockConfig.getProperty("FATAL_Log_Format")).andReturn(null);
+        expect(mockConfig.getProperty("PRIORITY_Log_Format")).andReturn(null);
+        expect(mockConfig.getProperty("ERROR_Log_Format")).andReturn(null);
+        expect(mockConfig.getProperty("WARN_Log_Format")).andReturn(null);
+        expect(mockConfig.getProperty("INFO_Log_Format")).andReturn(null);
+        expect(mockConfig.getProperty("DEBUG_Log_Format")).andReturn(null);
+        expect(mockConfig.getProperty("Log_Buffer_Size", "2000")).andReturn("2000");
+        expect(mockConfig.getProperty("Log_Async", "false")).andReturn("false");
+        replay(mockConfig);
+        
+        Field field = ConfigFactory.class.getDeclaredField("instance");
+        field.setAccessible(true);
+        field.set(null, mockConfig);
+        
+        /* Without no delay, the local server's small writes are held by 
+         * delayed acknowledgements which would dominate call latency. */
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        
+        this.ports = new HashSet<Integer>();
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext("/", new HttpHandler()
+        {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                synchronized (SchedulingServerStubPoolTester.this.ports)
+                {
+                    SchedulingServerStubPoolTester.this.ports.add(exchange.getRemoteAddress().getPort());
+                }
+                
+                final InputStream in = exchange.getRequestBody();
+                final byte buf[] = new byte[1024];
+                while (in.read(buf) > 0) { /* Drain request. */ }
+                
+                final ProviderResponse resp = new ProviderResponse();
+                resp.setSuccessful(true);
+                final AllocateCallbackResponse response = new AllocateCallbackResponse();
+                response.setAllocateCallbackResponse(resp);
+                
+                final SOAPFactory factory = OMAbstractFactory.getSOAP11Factory();
+                final SOAPEnvelope env = factory.getDefaultEnvelope();
+                try
+                {
+                    env.getBody().addChild(response.getOMElement(AllocateCallbackResponse.MY_QNAME, factory));
+                }
+                catch (ADBException ex)
+                {
+                    throw new IOException(ex);
+                }
+                final byte body[] = env.toString().getBytes("UTF-8");
+                
+                exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            }
+        });
+        this.server.start();
+        
+        this.endpoint = "http://localhost:" + this.server.getAddress().getPort() + 
+                "/SchedulingServer-RigProvider/services/RigProvider";
+    }
+    
+    @Override
+    @After
+    public void tearDown() throws Exception
+    {
+        SchedulingServerStubPool.shutdown();
+        this.server.stop(0);
+    }
+    
+    @Test
+    public void testBorrowRelease() throws Exception
+    {
+        SchedulingServerStubPool pool = SchedulingServerStubPool.getInstance();
+        
+        SchedulingServerProviderStub stub1 = pool.borrow(this.endpoint);
+        SchedulingServerProviderStub stub2 = pool.borrow(this.endpoint);
+        SchedulingServerProviderStub stub3 = pool.borrow(this.endpoint);
+        assertNotSame(stub1, stub2);
+        assertEquals(0, pool.getIdle(this.endpoint));
+        
+        pool.release(stub1);
+        pool.release(stub2);
+        pool.release(stub3);
+        
+        /* Only the maximum number of connections are kept idle. */
+        assertEquals(2, pool.getIdle(this.endpoint));
+        assertSame(stub2, pool.borrow(this.endpoint));
+        assertEquals(1, pool.getIdle(this.endpoint));
+        assertEquals(0, pool.getIdle("http://localhost:1/other"));
+    }
+    
+    @Test
+    public void testConnectionReuse() throws Exception
+    {
+        SchedulingServerStubPool pool = SchedulingServerStubPool.getInstance();
+        
+        for (int i = 0; i < 10; i++)
+        {
+            SchedulingServerProviderStub stub = pool.borrow(this.endpoint);
+            try
+            {
+                assertTrue(stub.allocateCallback(this.request()).getAllocateCallbackResponse().getSuccessful());
+            }
+            finally
+            {
+                pool.release(stub);
+            }
+        }
+        
+        /* All calls use the same persistent connection. */
+        assertEquals(1, this.ports.size());
+    }
+    
+    @Test
+    public void testReleaseAfterShutdown() throws Exception
+    {
+        SchedulingServerStubPool pool = SchedulingServerStubPool.getInstance();
+        SchedulingServerProviderStub stub = pool.borrow(this.endpoint);
+        
+        SchedulingServerStubPool.shutdown();
+        pool.release(stub);
+        
+        /* The stub is discarded and a new pool is not created. */
+        assertEquals(0, pool.getIdle(this.endpoint));
+        Field field = SchedulingServerStubPool.class.getDeclaredField("instance");
+        field.setAccessible(true);
+        assertNull(field.get(null));
+    }
+    
+    /**
+     * Returns an allocate callback request.
+     * 
+     * @return request
+     */
+    private AllocateCallback request()
+    {
+        AllocateCallback request = new AllocateCallback();
+        CallbackRequestType callback = new CallbackRequestType();
+        callback.setName("Rig 1");
+        callback.setSuccess(true);
+        request.setAllocateCallback(callback);
+        return request;
+    }
+}
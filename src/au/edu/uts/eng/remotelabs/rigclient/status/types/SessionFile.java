@@ -148,6 +148,52 @@ public class SessionFile implements ADBBean
         this.fileTracker = param != null;
     }
 
+    /** Offset of the file chunk in the attachment, only set when the file 
+     *  is streamed in chunks. */
+    protected long offset;
+    protected boolean offsetTracker = false;
+
+    public long getOffset()
+    {
+        return this.offset;
+    }
+
+    public void setOffset(final long param)
+    {
+        this.offset = param;
+        this.offsetTracker = true;
+    }
+
+    /** Total length of a file streamed in chunks. */
+    protected long length;
+    protected boolean lengthTracker = false;
+
+    public long getLength()
+    {
+        return this.length;
+    }
+
+    public void setLength(final long param)
+    {
+        this.length = param;
+        this.lengthTracker = true;
+    }
+
+    /** Checksum of the file chunk in the attachment. */
+    protected String checksum;
+    protected boolean checksumTracker = false;
+
+    public String getChecksum()
+    {
+        return this.checksum;
+    }
+
+    public void setChecksum(final String param)
+    {
+        this.checksum = param;
+        this.checksumTracker = param != null;
+    }
+
     @SuppressWarnings("deprecation")
     public static boolean isReaderMTOMAware(final XMLStreamReader reader)
     {
@@ -280,6 +326,27 @@ public class SessionFile implements ADBBean
             xmlWriter.writeEndElement();
         }
         
+        if (this.offsetTracker)
+        {
+            xmlWriter.writeStartElement("offset");
+            xmlWriter.writeCharacters(ConverterUtil.convertToString(this.offset));
+            xmlWriter.writeEndElement();
+        }
+        
+        if (this.lengthTracker)
+        {
+            xmlWriter.writeStartElement("length");
+            xmlWriter.writeCharacters(ConverterUtil.convertToString(this.length));
+            xmlWriter.writeEndElement();
+        }
+        
+        if (this.checksumTracker)
+        {
+            xmlWriter.writeStartElement("checksum");
+            xmlWriter.writeCharacters(this.checksum);
+            xmlWriter.writeEndElement();
+        }
+        
         xmlWriter.writeEndElement();
     }
 
@@ -362,6 +429,24 @@ public class SessionFile implements ADBBean
             elementList.add(new QName("", "file"));
             elementList.add(this.file);
         }
+        
+        if (this.offsetTracker)
+        {
+            elementList.add(new QName("", "offset"));
+            elementList.add(ConverterUtil.convertToString(this.offset));
+        }
+        
+        if (this.lengthTracker)
+        {
+            elementList.add(new QName("", "length"));
+            elementList.add(ConverterUtil.convertToString(this.length));
+        }
+        
+        if (this.checksumTracker)
+        {
+            elementList.add(new QName("", "checksum"));
+            elementList.add(this.checksum);
+        }
 
         return new ADBXMLStreamReaderImpl(qName, elementList.toArray(), new Object[0]);
     }
@@ -480,6 +565,7 @@ public class SessionFile implements ADBBean
                     {
                         //MTOM aware reader - get the datahandler directly and put it in the object
                         object.setFile((DataHandler) reader.getProperty(OMConstants.DATA_HANDLER));
+                        reader.next();
                     }
                     else
                     {
@@ -505,6 +591,42 @@ public class SessionFile implements ADBBean
                     reader.next();
                 }
 
+                while (!reader.isStartElement() && !reader.isEndElement())
+                {
+                    reader.next();
+                }
+
+                if (reader.isStartElement() && new QName("", "offset").equals(reader.getName()))
+                {
+                    final String content = reader.getElementText();
+                    object.setOffset(ConverterUtil.convertToLong(content));
+                    reader.next();
+                }
+
+                while (!reader.isStartElement() && !reader.isEndElement())
+                {
+                    reader.next();
+                }
+
+                if (reader.isStartElement() && new QName("", "length").equals(reader.getName()))
+                {
+                    final String content = reader.getElementText();
+                    object.setLength(ConverterUtil.convertToLong(content));
+                    reader.next();
+                }
+
+                while (!reader.isStartElement() && !reader.isEndElement())
+                {
+                    reader.next();
+                }
+
+                if (reader.isStartElement() && new QName("", "checksum").equals(reader.getName()))
+                {
+                    final String content = reader.getElementText();
+                    object.setChecksum(ConverterUtil.convertToString(content));
+                    reader.next();
+                }
+
                 while (!reader.isStartElement() && !reader.isEndElement())
                 {
                     reader.next();
@@ -72,6 +72,7 @@ import au.edu.uts.eng.remotelabs.rigclient.intf.types.tests.NotificationRequestT
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.tests.NotifyResponseTester;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.tests.NotifyTester;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.tests.OperationResponseTypeTester;
+import au.edu.uts.eng.remotelabs.rigclient.intf.types.tests.PrimitiveControlBatchRequestTypeTester;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.tests.ReleaseResponseTester;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.tests.ReleaseTester;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.tests.SlaveUserTypeTester;
@@ -81,17 +82,26 @@ import au.edu.uts.eng.remotelabs.rigclient.intf.types.tests.TypeSlaveUserTester;
 import au.edu.uts.eng.remotelabs.rigclient.intf.types.tests.UserTypeTester;
 import au.edu.uts.eng.remotelabs.rigclient.rig.control.tests.AbstractBatchRunnerTester;
 import au.edu.uts.eng.remotelabs.rigclient.rig.control.tests.ConfiguredBatchRunnerTester;
+import au.edu.uts.eng.remotelabs.rigclient.rig.control.tests.ScrollbackBufferTester;
+import au.edu.uts.eng.remotelabs.rigclient.rig.internal.tests.TestSchedulerTester;
 import au.edu.uts.eng.remotelabs.rigclient.rig.internal.tests.DirectoryCopierTester;
 import au.edu.uts.eng.remotelabs.rigclient.rig.internal.tests.DirectoryZipperTester;
 import au.edu.uts.eng.remotelabs.rigclient.rig.internal.tests.BatchMacroSubstituerTester;
+import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.tests.ExecutionPolicyTester;
 import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.tests.PrimitiveCacheTester;
+import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.tests.PrimitiveCoalescerTester;
+import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.tests.PrimitiveDispatchTableTester;
 import au.edu.uts.eng.remotelabs.rigclient.rig.primitive.tests.PrimitiveFrontTester;
 import au.edu.uts.eng.remotelabs.rigclient.rig.tests.AbstractControlledRigTester;
 import au.edu.uts.eng.remotelabs.rigclient.rig.tests.AbstractRigTester;
 import au.edu.uts.eng.remotelabs.rigclient.rig.tests.ConfiguredControlledRigTester;
 import au.edu.uts.eng.remotelabs.rigclient.rig.tests.ConfiguredRigTester;
+import au.edu.uts.eng.remotelabs.rigclient.rig.transfer.tests.TransferJournalTester;
+import au.edu.uts.eng.remotelabs.rigclient.status.tests.SchedulingServerStubPoolTester;
 import au.edu.uts.eng.remotelabs.rigclient.type.tests.RigFactoryTester;
 import au.edu.uts.eng.remotelabs.rigclient.util.tests.LogFormatterTester;
+import au.edu.uts.eng.remotelabs.rigclient.util.tests.LogRingTester;
+import au.edu.uts.eng.remotelabs.rigclient.util.tests.LoggerTester;
 import au.edu.uts.eng.remotelabs.rigclient.util.tests.PropertiesConfigTester;
 
 /**
@@ -100,12 +110,15 @@ import au.edu.uts.eng.remotelabs.rigclient.util.tests.PropertiesConfigTester;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
     LogFormatterTester.class,
+    LoggerTester.class,
+    LogRingTester.class,
     TestIntervalRequestTypeTester.class,
     TypeSlaveUserTester.class,
     SlaveUserTypeTester.class,
     StatusResponseTypeTester.class,
     ReleaseTester.class,
     ReleaseResponseTester.class,
+    PrimitiveControlBatchRequestTypeTester.class,
     OperationResponseTypeTester.class,
     NotifyTester.class,
     NotifyResponseTester.class,
@@ -141,12 +154,19 @@ import au.edu.uts.eng.remotelabs.rigclient.util.tests.PropertiesConfigTester;
     ConfiguredBatchRunnerTester.class,
     PrimitiveFrontTester.class,
     PrimitiveCacheTester.class,
+    PrimitiveDispatchTableTester.class,
+    ExecutionPolicyTester.class,
+    PrimitiveCoalescerTester.class,
     DirectoryCopierTester.class,
     DirectoryZipperTester.class,
     BatchMacroSubstituerTester.class,
     AbstractBatchRunnerTester.class,
+    ScrollbackBufferTester.class,
     AbstractControlledRigTester.class,
     AbstractRigTester.class,
+    TransferJournalTester.class,
+    SchedulingServerStubPoolTester.class,
+    TestSchedulerTester.class,
     ConfiguredBatchRunnerTester.class,
     PropertiesConfigTester.class
 })
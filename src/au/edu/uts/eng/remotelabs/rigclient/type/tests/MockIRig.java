@@ -269,6 +269,15 @@ public class MockIRig implements IRig
     {
         return Collections.emptySet();
     }
+    
+    /*
+     * @see au.edu.uts.eng.remotelabs.rigclient.rig.IRigSession#isSessionFile(java.io.File)
+     */
+    @Override
+    public boolean isSessionFile(File file)
+    {
+        return false;
+    }
 
     /*
      * @see au.edu.uts.eng.remotelabs.rigclient.rig.IRig#cleanUp()
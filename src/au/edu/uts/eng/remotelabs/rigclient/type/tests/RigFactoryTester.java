@@ -95,6 +95,10 @@ public class RigFactoryTester extends TestCase
             .andReturn(null);
         expect(this.mockConfig.getProperty("DEBUG_Log_Format"))
             .andReturn(null);
+        expect(this.mockConfig.getProperty("Log_Buffer_Size", "2000"))
+            .andReturn("2000");
+        expect(this.mockConfig.getProperty("Log_Async", "false"))
+            .andReturn("false");
         replay(this.mockConfig);
         
         ConfigFactory.getInstance();
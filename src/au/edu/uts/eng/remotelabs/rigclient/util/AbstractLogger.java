@@ -38,19 +38,20 @@
  */
 package au.edu.uts.eng.remotelabs.rigclient.util;
 
-import java.util.ArrayDeque;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 
 import org.apache.log4j.Logger;
 import org.apache.log4j.varia.NullAppender;
 
+import au.edu.uts.eng.remotelabs.rigclient.util.AsyncLogDispatcher.LogEvent;
+
 /**
  * Abstract logger, fills in some boilerplate code.
  */
 abstract class AbstractLogger implements ILogger
 {
-    /** The default of the internal log buffer. */
+    /** The number of recent logs returned by the log buffer. */
     public static final int LOG_BUFFER_SIZE = 50;
     
     /** Level to log to. */
@@ -62,11 +63,14 @@ abstract class AbstractLogger implements ILogger
     /** Format strings for each log type. */
     private final Map<Integer, String> formatStrings;
     
-    /** The max buffer size. */
-    private final int bufferLength;
+    /** Ring of recent logs. */
+    private final LogRing ring;
+    
+    /** Whether the format string of each level has caller location macros. */
+    private final boolean locationMacros[];
     
-    /** The buffer of recent logs. */
-    private final Queue<String> buffer;
+    /** Asynchronous log dispatcher, <code>null</code> if logging is synchronous. */
+    private final AsyncLogDispatcher dispatcher;
     
     /**
      * Constructor - loads the logging level.
@@ -80,8 +84,14 @@ abstract class AbstractLogger implements ILogger
         /* Set up log4j loggers. */
         Logger.getRootLogger().addAppender(new NullAppender());
 
-        this.bufferLength = AbstractLogger.LOG_BUFFER_SIZE;
-        this.buffer = new ArrayDeque<String>(this.bufferLength);
+        this.ring = new LogRing(LoggerFactory.getLogRingSize());
+        
+        this.locationMacros = new boolean[ILogger.DEBUG + 1];
+        for (int i = 0; i < this.locationMacros.length; i++)
+        {
+            this.locationMacros[i] = LogFormatter.hasLocationMacro(this.formatStrings.get(i));
+        }
+        this.dispatcher = LoggerFactory.getAsyncDispatcher(this);
      }
 
     @Override
@@ -89,23 +99,62 @@ abstract class AbstractLogger implements ILogger
     {
         if (ILogger.DEBUG <= this.logLevel)
         {
-            this.innerLog(ILogger.DEBUG, 
-                    this.formatter.formatLog(this.formatStrings.get(ILogger.DEBUG), message, "DEBUG"));
+            this.innerLog(ILogger.DEBUG, "DEBUG", message);
+        }
+    }
+
+    @Override
+    public void debug(final String format, final Object arg)
+    {
+        if (ILogger.DEBUG <= this.logLevel)
+        {
+            this.innerLog(ILogger.DEBUG, "DEBUG", LogFormatter.formatMessage(format, arg));
         }
     }
+    
+    @Override
+    public void debug(final String format, final Object arg1, final Object arg2)
+    {
+        if (ILogger.DEBUG <= this.logLevel)
+        {
+            this.innerLog(ILogger.DEBUG, "DEBUG", LogFormatter.formatMessage(format, arg1, arg2));
+        }
+    }
+    
+    @Override
+    public void debug(final String format, final Object... args)
+    {
+        if (ILogger.DEBUG <= this.logLevel)
+        {
+            this.innerLog(ILogger.DEBUG, "DEBUG", LogFormatter.formatMessage(format, args));
+        }
+    }
+    
+    @Override
+    public void debug(final ILogSupplier supplier)
+    {
+        if (ILogger.DEBUG <= this.logLevel)
+        {
+            this.innerLog(ILogger.DEBUG, "DEBUG", supplier.get());
+        }
+    }
+    
+    @Override
+    public boolean isDebugEnabled()
+    {
+        return ILogger.DEBUG <= this.logLevel;
+    }
 
     @Override
     public void error(final String message)
     {
-        this.innerLog(ILogger.ERROR, 
-                this.formatter.formatLog(this.formatStrings.get(ILogger.ERROR), message, "ERROR"));
+        this.innerLog(ILogger.ERROR, "ERROR", message);
     }
 
     @Override
     public void fatal(final String message)
     {
-        this.innerLog(ILogger.FATAL, 
-                this.formatter.formatLog(this.formatStrings.get(ILogger.FATAL), message, "FATAL"));        
+        this.innerLog(ILogger.FATAL, "FATAL", message);
     }
 
     @Override
@@ -113,16 +162,14 @@ abstract class AbstractLogger implements ILogger
     {
         if (ILogger.INFO <= this.logLevel)
         {
-            this.innerLog(ILogger.INFO, 
-                    this.formatter.formatLog(this.formatStrings.get(ILogger.INFO), message, "INFO"));
+            this.innerLog(ILogger.INFO, "INFO", message);
         }
     }
 
     @Override
     public void priority(final String message)
     {
-        this.innerLog(ILogger.PRIORITY, 
-                this.formatter.formatLog(this.formatStrings.get(ILogger.PRIORITY), message, "PRIORITY"));        
+        this.innerLog(ILogger.PRIORITY, "PRIORITY", message);
     }
 
     @Override
@@ -130,40 +177,98 @@ abstract class AbstractLogger implements ILogger
     {
         if (ILogger.WARN <= this.logLevel)
         {
-            this.innerLog(ILogger.WARN, 
-                    this.formatter.formatLog(this.formatStrings.get(ILogger.WARN), message, "WARN"));
+            this.innerLog(ILogger.WARN, "WARN", message);
         }
     }
     
     /**
-     * Does some common required work for logging.
+     * Does some common required work for logging. If asynchronous logging
+     * is enabled, the message is handed to the dispatcher to be formatted
+     * and written on the log writer thread, otherwise it is formatted and
+     * written on the calling thread.
      * 
      * @param level log level
+     * @param levelName log level name
      * @param message message to log
      */
-    private void innerLog(final int level, final String message)
+    private void innerLog(final int level, final String levelName, final String message)
     {
-        if (message == null) return;
-        
-        synchronized (this.buffer)
+        if (this.dispatcher != null)
         {
-            /* Bound the size of buffer. */
-            if (this.buffer.size() >= this.bufferLength)
-            {
-                this.buffer.poll();
-            }
-            this.buffer.add(message);
+            /* The caller location can only be determined on the logging thread. */
+            final StackTraceElement frame = this.locationMacros[level] ? LogFormatter.getCallerFrame() : null;
+            if (this.dispatcher.offer(new LogEvent(level, levelName, message, frame))) return;
         }
         
+        this.write(level, levelName, this.formatter.formatLog(this.formatStrings.get(level), message, levelName), 
+                System.currentTimeMillis(), Thread.currentThread().getId());
+    }
+    
+    /**
+     * Formats and writes a log event that was captured asynchronously. 
+     * 
+     * @param event log event
+     */
+    void write(final LogEvent event)
+    {
+        if (event.level > this.logLevel) return;
+        
+        this.write(event.level, event.levelName, this.formatter.formatLog(this.formatStrings.get(event.level), 
+                event.message, event.levelName, event.time, event.tid, event.frame), event.time, event.tid);
+    }
+    
+    /**
+     * Stores a formatted message in the log ring and writes it to the 
+     * log destination.
+     * 
+     * @param level log level
+     * @param levelName log level name
+     * @param message formatted message
+     * @param time time the message was logged
+     * @param tid id of the thread that logged the message
+     */
+    private void write(final int level, final String levelName, final String message, final long time, 
+            final long tid)
+    {
+        if (message == null) return;
+        
+        this.ring.append(level, levelName, message, time, tid);
         this.log(level, message);
     }
     
+    @Override
+    public void flush()
+    {
+        if (this.dispatcher != null) this.dispatcher.flush();
+    }
+    
+    /**
+     * Returns the number of log messages that have been dropped because the 
+     * asynchronous log queue was full.
+     * 
+     * @return number of dropped messages
+     */
+    public long getDroppedCount()
+    {
+        return this.dispatcher == null ? 0 : this.dispatcher.getDropped();
+    }
+    
     @Override
     public String[] getLogBuffer()
     {
-        synchronized (this.buffer)
+        final List<LogRing.Entry> entries = this.ring.find(new LogRing.Filter().limit(AbstractLogger.LOG_BUFFER_SIZE));
+        final String logs[] = new String[entries.size()];
+        for (int i = 0; i < logs.length; i++)
         {
-            return this.buffer.toArray(new String[this.buffer.size()]);
+            logs[i] = entries.get(i).getMessage();
         }
+        return logs;
+    }
+    
+    @Override
+    public List<LogRing.Entry> getLogEntries(final LogRing.Filter filter)
+    {
+        return this.ring.find(filter);
     }
+
 }
@@ -0,0 +1,436 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Dispatches log messages asynchronously. Logging threads enqueue raw log
+ * events into a bounded, lock-free queue and a single writer thread formats
+ * and writes them in batches. When the queue is full, the overflow policy
+ * determines whether the logging thread waits for space or the event is
+ * dropped. Dropped events are counted and reported in the log.
+ */
+class AsyncLogDispatcher implements Runnable
+{
+    /** 
+     * Policies for when the queue is full.
+     */
+    enum Overflow
+    {
+        /** Wait for space in the queue. */
+        BLOCK,
+        /** Drop debug messages, wait for space for other messages. */
+        DROP_DEBUG,
+        /** Once the queue is half full, only keep a sample of debug and
+         *  informational messages. Drop them when the queue is full and
+         *  wait for space for other messages. */
+        SAMPLE
+    }
+    
+    /** Default queue size. */
+    public static final int DEFAULT_QUEUE_SIZE = 4096;
+    
+    /** Default sample rate, which is one in how many messages are kept. */
+    public static final int DEFAULT_SAMPLE_RATE = 10;
+    
+    /** Maximum number of events written in a batch. */
+    private static final int BATCH_SIZE = 256;
+    
+    /** Time to wait for the queue to be flushed in milliseconds. */
+    private static final long FLUSH_TIMEOUT = 5000;
+    
+    /** Logger that formats and writes events. */
+    private final AbstractLogger logger;
+    
+    /** Queue of events to write. */
+    private final Queue<LogEvent> queue;
+    
+    /** Number of events in the queue. */
+    private final AtomicInteger size;
+    
+    /** Maximum number of events in the queue. */
+    private final int capacity;
+    
+    /** Overflow policy. */
+    private final Overflow overflow;
+    
+    /** One in how many messages are kept when sampling. */
+    private final int sampleRate;
+    
+    /** Count of messages that may be sampled. */
+    private final AtomicLong sampled;
+    
+    /** Number of enqueued events. */
+    private final AtomicLong enqueued;
+    
+    /** Number of written events. */
+    private volatile long written;
+    
+    /** Number of dropped events. */
+    private final AtomicLong dropped;
+    
+    /** Writer thread. */
+    private final Thread writer;
+    
+    /** Number of dropped events that have been reported. */
+    private long reported;
+    
+    /** Time the dropped events were last reported. */
+    private long lastReport;
+    
+    /** Whether the writer thread is waiting for events. */
+    private volatile boolean waiting;
+    
+    /** Whether the dispatcher has been shutdown. */
+    private volatile boolean shutdown;
+    
+    /** Number of logging threads that are enqueuing events. */
+    private final AtomicInteger offering;
+    
+    /**
+     * Constructor.
+     * 
+     * @param logger logger that formats and writes events
+     * @param capacity maximum number of events in the queue
+     * @param overflow overflow policy
+     * @param sampleRate one in how many messages are kept when sampling
+     */
+    AsyncLogDispatcher(final AbstractLogger logger, final int capacity, final Overflow overflow, 
+            final int sampleRate)
+    {
+        this.logger = logger;
+        this.capacity = capacity;
+        this.overflow = overflow;
+        this.sampleRate = sampleRate;
+        
+        this.queue = new ConcurrentLinkedQueue<LogEvent>();
+        this.size = new AtomicInteger();
+        this.sampled = new AtomicLong();
+        this.enqueued = new AtomicLong();
+        this.dropped = new AtomicLong();
+        this.offering = new AtomicInteger();
+        
+        this.writer = new Thread(this, "Log Writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        
+        /* Make sure logged messages are not lost on exit. */
+        Runtime.getRuntime().addShutdownHook(new Thread("Log Flusher")
+        {
+            @Override
+            public void run()
+            {
+                AsyncLogDispatcher.this.shutdown();
+            }
+        });
+    }
+    
+    /**
+     * Enqueues a log event to be written.
+     * 
+     * @param event log event
+     * @return true if the event was enqueued or dropped, false if the 
+     *      dispatcher is shutdown so the event should be written by caller
+     */
+    boolean offer(final LogEvent event)
+    {
+        final boolean droppable = this.overflow == Overflow.DROP_DEBUG && event.level == ILogger.DEBUG || 
+                this.overflow == Overflow.SAMPLE && event.level >= ILogger.INFO;
+        
+        /* Shutdown waits for threads that are enqueuing, so an event is 
+         * either enqueued before the queue is drained or it is written by 
+         * the caller. */
+        this.offering.incrementAndGet();
+        try
+        {
+            return this.enqueue(event, droppable);
+        }
+        finally
+        {
+            this.offering.decrementAndGet();
+        }
+    }
+    
+    /**
+     * Enqueues a log event unless the dispatcher is shutdown.
+     * 
+     * @param event log event
+     * @param droppable whether the event may be dropped
+     * @return true if the event was enqueued or dropped
+     */
+    private boolean enqueue(final LogEvent event, final boolean droppable)
+    {
+        while (!this.shutdown)
+        {
+            final int n = this.size.get();
+            if (n >= this.capacity)
+            {
+                if (droppable)
+                {
+                    this.dropped.incrementAndGet();
+                    return true;
+                }
+                
+                /* Wait for the writer to make space. */
+                this.wakeWriter();
+                LockSupport.parkNanos(this, TimeUnit.MICROSECONDS.toNanos(100));
+                continue;
+            }
+            
+            if (droppable && this.overflow == Overflow.SAMPLE && n >= this.capacity / 2 && 
+                    this.sampled.incrementAndGet() % this.sampleRate != 0)
+            {
+                this.dropped.incrementAndGet();
+                return true;
+            }
+            
+            if (this.size.compareAndSet(n, n + 1))
+            {
+                this.enqueued.incrementAndGet();
+                this.queue.offer(event);
+                this.wakeWriter();
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Waits until the events enqueued before this call have been written.
+     */
+    void flush()
+    {
+        final long target = this.enqueued.get();
+        final long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT;
+        
+        synchronized (this)
+        {
+            while (this.written < target && this.writer.isAlive())
+            {
+                final long wait = deadline - System.currentTimeMillis();
+                if (wait <= 0) break;
+                
+                this.wakeWriter();
+                try
+                {
+                    this.wait(Math.min(wait, 100));
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Stops the writer thread after it has written the enqueued events.
+     * Events subsequently logged are written by the logging thread. Events
+     * enqueued while the writer thread was stopping are written by the
+     * shutting down thread.
+     */
+    void shutdown()
+    {
+        this.shutdown = true;
+        LockSupport.unpark(this.writer);
+        try
+        {
+            this.writer.join(FLUSH_TIMEOUT);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        
+        if (this.writer.isAlive()) return;
+        
+        /* Wait for logging threads that may have enqueued after the writer
+         * thread last polled the queue. */
+        while (this.offering.get() > 0) Thread.yield();
+        
+        LogEvent event;
+        while ((event = this.queue.poll()) != null)
+        {
+            this.size.decrementAndGet();
+            try
+            {
+                this.logger.write(event);
+            }
+            catch (RuntimeException ex)
+            {
+                System.err.println("Failed writing log message: " + ex.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Returns the number of events that have been dropped.
+     * 
+     * @return dropped count
+     */
+    long getDropped()
+    {
+        return this.dropped.get();
+    }
+    
+    @Override
+    public void run()
+    {
+        final List<LogEvent> batch = new ArrayList<LogEvent>(BATCH_SIZE);
+        
+        while (true)
+        {
+            LogEvent event;
+            while (batch.size() < BATCH_SIZE && (event = this.queue.poll()) != null)
+            {
+                batch.add(event);
+            }
+            
+            if (batch.isEmpty())
+            {
+                this.reportDropped();
+                if (this.shutdown) break;
+                
+                this.waiting = true;
+                if (this.queue.isEmpty() && !this.shutdown) 
+                {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+                }
+                this.waiting = false;
+                continue;
+            }
+            
+            this.size.addAndGet(-batch.size());
+            for (LogEvent e : batch)
+            {
+                try
+                {
+                    this.logger.write(e);
+                }
+                catch (RuntimeException ex)
+                {
+                    System.err.println("Failed writing log message: " + ex.getMessage());
+                }
+            }
+            
+            this.reportDropped();
+            
+            synchronized (this)
+            {
+                this.written += batch.size();
+                this.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+    
+    /**
+     * Logs a warning with the number of events that have been dropped since
+     * the last report. To not flood the log, this is at most once a second
+     * until the dispatcher is shutdown.
+     */
+    private void reportDropped()
+    {
+        final long drops = this.dropped.get();
+        if (drops == this.reported) return;
+        
+        final long now = System.currentTimeMillis();
+        if (!this.shutdown && now - this.lastReport < 1000) return;
+        
+        this.logger.write(new LogEvent(ILogger.WARN, "WARN", (drops - this.reported) + " log messages were " +
+                "dropped because the log queue was full. In total " + drops + " messages have been dropped.", null));
+        this.reported = drops;
+        this.lastReport = now;
+    }
+    
+    /**
+     * Wakes the writer thread if it is waiting for events.
+     */
+    private void wakeWriter()
+    {
+        if (this.waiting) LockSupport.unpark(this.writer);
+    }
+    
+    /**
+     * Log message captured on the logging thread.
+     */
+    static final class LogEvent
+    {
+        /** Log level. */
+        final int level;
+        
+        /** Log level name. */
+        final String levelName;
+        
+        /** Log message. */
+        final String message;
+        
+        /** Time the message was logged. */
+        final long time;
+        
+        /** Id of the thread that logged the message. */
+        final long tid;
+        
+        /** Frame of where the message was logged, may be <code>null</code>. */
+        final StackTraceElement frame;
+        
+        LogEvent(final int level, final String levelName, final String message, final StackTraceElement frame)
+        {
+            this.level = level;
+            this.levelName = levelName;
+            this.message = message;
+            this.frame = frame;
+            this.time = System.currentTimeMillis();
+            this.tid = Thread.currentThread().getId();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.util;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Locates the stack frame that called a logger. Where the runtime provides
+ * a stack walker (Java 9 and later), only the frames up to the caller are 
+ * walked, so the cost doesn't depend on the depth of the stack. On older 
+ * runtimes, the stack trace of a throwable is scanned. In both cases, 
+ * logger frames are identified as frames of classes that implement 
+ * <code>ILogger</code>.
+ * <br />
+ * The stack walker is loaded reflectively so the rig client continues to 
+ * build and run on runtimes without it. It is invoked through exact method
+ * handles and the function it is passed is generated with the lambda 
+ * metafactory, so each lookup calls the walker directly rather than through
+ * a reflective proxy.
+ */
+final class CallerLocator
+{
+    /** Maximum number of class names that are cached as loggers or not. */
+    private static final int MAX_CACHED_CLASSES = 4096;
+    
+    /** Maximum number of frames that are walked to find the caller. */
+    private static final int MAX_FRAMES = 32;
+    
+    /** Stack walker instance, <code>null</code> if not supported. */
+    private static final Object WALKER;
+    
+    /** Function that is passed to the stack walker to find the caller. */
+    private static final Object FINDER;
+    
+    /** <code>StackWalker.walk(Function)</code> method. */
+    private static final MethodHandle WALK;
+    
+    /** <code>Stream.iterator()</code> method. */
+    private static final MethodHandle ITERATOR;
+    
+    /** <code>StackFrame.getDeclaringClass()</code> method. */
+    private static final MethodHandle GET_DECLARING_CLASS;
+    
+    /** <code>StackFrame.toStackTraceElement()</code> method. */
+    private static final MethodHandle TO_STACK_TRACE_ELEMENT;
+    
+    /** Whether classes are loggers keyed by class name, used when scanning 
+     *  stack traces. */
+    private static final ConcurrentMap<String, Boolean> LOGGER_CLASSES = 
+            new ConcurrentHashMap<String, Boolean>();
+    
+    static
+    {
+        Object walker = null, finder = null;
+        MethodHandle walk = null, iterator = null, declaringClass = null, element = null;
+        try
+        {
+            final Class<?> walkerClass = Class.forName("java.lang.StackWalker");
+            final Class<?> optionClass = Class.forName("java.lang.StackWalker$Option");
+            final Class<?> frameClass = Class.forName("java.lang.StackWalker$StackFrame");
+            final Class<?> functionClass = Class.forName("java.util.function.Function");
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            
+            walker = walkerClass.getMethod("getInstance", optionClass).invoke(null, 
+                    optionClass.getField("RETAIN_CLASS_REFERENCE").get(null));
+            walk = CallerLocator.generic(lookup, walkerClass.getMethod("walk", functionClass));
+            iterator = CallerLocator.generic(lookup, Class.forName("java.util.stream.BaseStream").getMethod("iterator"));
+            declaringClass = CallerLocator.generic(lookup, frameClass.getMethod("getDeclaringClass"));
+            element = CallerLocator.generic(lookup, frameClass.getMethod("toStackTraceElement"));
+            
+            /* Equivalent to the lambda 'stream -> findCaller(stream)'. */
+            final MethodType findType = MethodType.methodType(StackTraceElement.class, Object.class);
+            final CallSite lambda = (CallSite)Class.forName(
+                    "java.lang.invoke.LambdaMetafactory").getMethod("metafactory", MethodHandles.Lookup.class, 
+                    String.class, MethodType.class, MethodType.class, MethodHandle.class, MethodType.class).invoke(
+                    null, lookup, "apply", MethodType.methodType(functionClass), findType.generic(), 
+                    lookup.findStatic(CallerLocator.class, "findCaller", findType), findType);
+            finder = lambda.getTarget().invoke();
+        }
+        catch (Throwable ex)
+        {
+            /* Stack walker not supported, the stack trace is scanned instead. */
+            walker = null;
+        }
+        
+        WALKER = walker;
+        FINDER = finder;
+        WALK = walk;
+        ITERATOR = iterator;
+        GET_DECLARING_CLASS = declaringClass;
+        TO_STACK_TRACE_ELEMENT = element;
+    }
+    
+    /**
+     * Don't want instances of this class.
+     */
+    private CallerLocator()
+    {
+        /* Utility class. */
+    }
+    
+    /**
+     * Returns a handle to the method with all parameter and return types as
+     * <code>Object</code> so it can be invoked without the types being 
+     * available at compile time.
+     * 
+     * @param lookup method lookup
+     * @param method method
+     * @return generic method handle
+     * @throws IllegalAccessException method not accessible
+     */
+    private static MethodHandle generic(final MethodHandles.Lookup lookup, final Method method) 
+            throws IllegalAccessException
+    {
+        final MethodHandle handle = lookup.unreflect(method);
+        return handle.asType(handle.type().generic());
+    }
+    
+    /**
+     * Returns the stack frame of the method that called a logger. This is 
+     * the first frame after the logger frames.
+     * 
+     * @return caller frame or <code>null</code> if not found
+     */
+    static StackTraceElement getCallerFrame()
+    {
+        if (CallerLocator.WALKER != null)
+        {
+            try
+            {
+                return (StackTraceElement)(Object)CallerLocator.WALK.invokeExact(
+                        CallerLocator.WALKER, CallerLocator.FINDER);
+            }
+            catch (Throwable thr)
+            {
+                /* Falls through to scanning the stack trace. */
+            }
+        }
+        
+        return CallerLocator.scanCallerFrame();
+    }
+    
+    /**
+     * Returns the stack frame of the method that called a logger by scanning
+     * the stack trace of a throwable.
+     * 
+     * @return caller frame or <code>null</code> if not found
+     */
+    private static StackTraceElement scanCallerFrame()
+    {
+        /* As the stack level is inconsistent across platforms and deployment 
+         * mechanisms, the stack is scanned from position 0 (i.e. here) till
+         * the first stack frame that is after a logger. */
+        final StackTraceElement stack[] = new Throwable().getStackTrace();
+        boolean foundLogger = false;
+        for (StackTraceElement frame : stack)
+        {
+            if (CallerLocator.isLogger(frame.getClassName()))
+            {
+                foundLogger = true;
+            }
+            else if (foundLogger)
+            {
+                return frame;
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Returns whether the named class is a logger, that is it implements 
+     * <code>ILogger</code>. Classes that cannot be loaded are not loggers.
+     * 
+     * @param className name of class
+     * @return true if the class is a logger
+     */
+    private static boolean isLogger(final String className)
+    {
+        Boolean logger = CallerLocator.LOGGER_CLASSES.get(className);
+        if (logger == null)
+        {
+            try
+            {
+                logger = ILogger.class.isAssignableFrom(
+                        Class.forName(className, false, CallerLocator.class.getClassLoader()));
+            }
+            catch (ClassNotFoundException ex)
+            {
+                logger = Boolean.FALSE;
+            }
+            catch (LinkageError ex)
+            {
+                logger = Boolean.FALSE;
+            }
+            
+            if (CallerLocator.LOGGER_CLASSES.size() < CallerLocator.MAX_CACHED_CLASSES)
+            {
+                CallerLocator.LOGGER_CLASSES.put(className, logger);
+            }
+        }
+        return logger;
+    }
+    
+    /**
+     * Finds the caller frame in the stream of frames from the stack walker.
+     * 
+     * @param stream stream of stack frames
+     * @return caller frame or <code>null</code> if not found
+     * @throws Throwable error invoking stack walker methods 
+     */
+    private static StackTraceElement findCaller(final Object stream) throws Throwable
+    {
+        final Iterator<?> it = (Iterator<?>)(Object)CallerLocator.ITERATOR.invokeExact(stream);
+        boolean foundLogger = false;
+        for (int i = 0; i < CallerLocator.MAX_FRAMES && it.hasNext(); i++)
+        {
+            final Object frame = it.next();
+            final Class<?> cls = (Class<?>)(Object)CallerLocator.GET_DECLARING_CLASS.invokeExact(frame);
+            if (ILogger.class.isAssignableFrom(cls))
+            {
+                foundLogger = true;
+            }
+            else if (foundLogger)
+            {
+                return (StackTraceElement)(Object)CallerLocator.TO_STACK_TRACE_ELEMENT.invokeExact(frame);
+            }
+        }
+        
+        return null;
+    }
+}
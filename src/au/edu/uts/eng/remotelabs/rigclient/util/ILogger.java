@@ -42,6 +42,8 @@
 
 package au.edu.uts.eng.remotelabs.rigclient.util;
 
+import java.util.List;
+
 /**
  * Logger interface.
  */
@@ -106,6 +108,52 @@ public interface ILogger
      * @param message message to log
      */
     public void debug(String message);
+    
+    /**
+     * Logs a debugging message, substituting the argument for the first 
+     * <code>{}</code> placeholder in the format. The message is only built
+     * if debugging messages are logged.
+     * 
+     * @param format message format
+     * @param arg argument
+     */
+    public void debug(String format, Object arg);
+    
+    /**
+     * Logs a debugging message, substituting the arguments for the first two
+     * <code>{}</code> placeholders in the format. The message is only built
+     * if debugging messages are logged.
+     * 
+     * @param format message format
+     * @param arg1 first argument
+     * @param arg2 second argument
+     */
+    public void debug(String format, Object arg1, Object arg2);
+    
+    /**
+     * Logs a debugging message, substituting the arguments for the 
+     * <code>{}</code> placeholders in the format. The message is only built
+     * if debugging messages are logged.
+     * 
+     * @param format message format
+     * @param args arguments
+     */
+    public void debug(String format, Object... args);
+    
+    /**
+     * Logs a debugging message that is only obtained from the supplier if
+     * debugging messages are logged.
+     * 
+     * @param supplier message supplier
+     */
+    public void debug(ILogSupplier supplier);
+    
+    /**
+     * Returns whether debugging messages are logged.
+     * 
+     * @return true if debugging messages are logged
+     */
+    public boolean isDebugEnabled();
 
     /**
      * Logs a message to the specified level.
@@ -121,4 +169,20 @@ public interface ILogger
      * @return log buffer
      */
     public String[] getLogBuffer();
+    
+    /**
+     * Gets the recent log entries that match the filter, in order from 
+     * oldest to newest.
+     * 
+     * @param filter log entry filter, may be <code>null</code> for all 
+     *      recent entries 
+     * @return matching log entries
+     */
+    public List<LogRing.Entry> getLogEntries(LogRing.Filter filter);
+    
+    /**
+     * Waits until the messages that have been logged are written to the 
+     * log destination.
+     */
+    public void flush();
 }
@@ -41,9 +41,13 @@
  */
 package au.edu.uts.eng.remotelabs.rigclient.util;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Formats the message to their specifying format. The following is a list of 
@@ -87,8 +91,28 @@ public class LogFormatter
     /** List of macros. */
     private final Map<String, Macro> macros;
     
-    /** The stack position . */
-    private static int stackPos = -1;
+    /** Compiled format strings. */
+    private final ConcurrentMap<String, Segment[]> templates;
+    
+    /** Time stamps of the most recently formatted second. */
+    private volatile TimeStamp timeStamp;
+    
+    /** Builder of formatted messages of each thread. */
+    private static final ThreadLocal<StringBuilder> BUILDER = new ThreadLocal<StringBuilder>()
+    {
+        @Override
+        protected StringBuilder initialValue()
+        {
+            return new StringBuilder(LogFormatter.BUILDER_SIZE);
+        }
+    };
+    
+    /** Initial size of the message builder. */
+    private static final int BUILDER_SIZE = 256;
+    
+    /** Size above which the message builder is not reused so a single 
+     *  large message does not pin memory. */
+    private static final int MAX_BUILDER_SIZE = 8192;
     
     /**
      * Constructor.
@@ -106,6 +130,8 @@ public class LogFormatter
         this.macros.put("SOURCE", Macro.SOURCE);
         this.macros.put("LINE_NUM", Macro.LINE_NUM);
         this.macros.put("TID", Macro.TID);
+        
+        this.templates = new ConcurrentHashMap<String, Segment[]>();
     }
     
     /**
@@ -118,94 +144,192 @@ public class LogFormatter
      */
     public String formatLog(final String fmt, final String msg, final String lvl)
     {
-        final Calendar cal = Calendar.getInstance();
-        StackTraceElement frame = null;
-        
+        return this.format(fmt, msg, lvl, System.currentTimeMillis(), Thread.currentThread().getId(), null, true);
+    }
+    
+    /**
+     * Format a log message that was captured on another thread, using the 
+     * time, thread and caller frame of when the message was logged.
+     * 
+     * @param fmt format string
+     * @param msg log message
+     * @param lvl log level
+     * @param time time the message was logged
+     * @param tid id of the thread that logged the message
+     * @param frame caller frame, may be <code>null</code> if the format 
+     *      string has no location macros
+     * @return formatted log message
+     */
+    public String formatLog(final String fmt, final String msg, final String lvl, final long time, 
+            final long tid, final StackTraceElement frame)
+    {
+        return this.format(fmt, msg, lvl, time, tid, frame, false);
+    }
+    
+    /**
+     * Format the log message using the provided format string.
+     * 
+     * @param fmt format string
+     * @param msg log message
+     * @param lvl log level
+     * @param time time the message was logged
+     * @param tid id of the thread that logged the message
+     * @param callerFrame caller frame
+     * @param resolveFrame whether to resolve the caller frame from the
+     *      current stack
+     * @return formatted log message
+     */
+    private String format(final String fmt, final String msg, final String lvl, final long time, final long tid, 
+            final StackTraceElement callerFrame, final boolean resolveFrame)
+    {
         if (fmt == null) return null;
         
-        final String elements[] = fmt.split("__");
-        final StringBuffer buf = new StringBuffer(fmt.length());
-
-        for (String e : elements)
+        final Segment template[] = this.getTemplate(fmt);
+        StackTraceElement frame = callerFrame;
+        TimeStamp ts = null;
+        
+        StringBuilder buf = LogFormatter.BUILDER.get();
+        if (buf.capacity() > LogFormatter.MAX_BUILDER_SIZE)
         {
-            if (this.macros.containsKey(e))
+            buf = new StringBuilder(LogFormatter.BUILDER_SIZE);
+            LogFormatter.BUILDER.set(buf);
+        }
+        buf.setLength(0);
+        
+        for (Segment seg : template)
+        {
+            if (seg.macro == null)
             {
-                switch (this.macros.get(e))
-                {
-                    case MESSAGE:
-                        buf.append(msg);
-                        break;
-                    case LEVEL:
-                        buf.append(lvl);
-                        break;
-                        
-                    case DATE:
-                        buf.append(this.addLeadingZeros(cal.get(Calendar.DAY_OF_MONTH)));
-                        buf.append('-');
-                        buf.append(this.addLeadingZeros(cal.get(Calendar.MONTH) + 1));
-                        buf.append('-');
-                        buf.append(cal.get(Calendar.YEAR));
-                        break;
-                    case TIME:
-                        buf.append(this.addLeadingZeros(cal.get(Calendar.HOUR_OF_DAY)));
-                        buf.append(':');
-                        buf.append(this.addLeadingZeros(cal.get(Calendar.MINUTE)));
-                        buf.append(':');
-                        buf.append(this.addLeadingZeros(cal.get(Calendar.SECOND)));
-                        break;
-                    case ISO8601:
-                        /* Format of ISO 8061 date and time can be found at 
-                         * http://www.iso.org/iso/date_and_time_format#what-iso-8601-covers. */
-                        buf.append(cal.get(Calendar.YEAR));
-                        buf.append('-');
-                        buf.append(this.addLeadingZeros(cal.get(Calendar.MONTH) + 1));
-                        buf.append('-');
-                        buf.append(this.addLeadingZeros(cal.get(Calendar.DAY_OF_MONTH)));
-                        buf.append('T');
-                        buf.append(this.addLeadingZeros(cal.get(Calendar.HOUR_OF_DAY)));
-                        buf.append(':');
-                        buf.append(this.addLeadingZeros(cal.get(Calendar.MINUTE)));
-                        buf.append(':');
-                        buf.append(this.addLeadingZeros(cal.get(Calendar.SECOND)));
-                        break;
-                        
-                    case CLASS:
-                        if ((frame = LogFormatter.getStackTrace(frame)) != null)
-                        {
-                            buf.append(frame.getClassName());
-                        }
-                        break;
-                    case METHOD:
-                        if ((frame = LogFormatter.getStackTrace(frame)) != null)
-                        {
-                            buf.append(frame.getMethodName());
-                        }
-                        break;
-                    case SOURCE:
-                        if ((frame = LogFormatter.getStackTrace(frame)) != null)
-                        {
-                            buf.append(frame.getFileName());
-                        }
-                        break;
-                    case LINE_NUM:
-                        if ((frame = LogFormatter.getStackTrace(frame)) != null)
-                        {
-                            buf.append(frame.getLineNumber());
-                        }
-                        break;
-                    case TID:
-                        buf.append(Thread.currentThread().getId());
-                        break;
-                }
+                buf.append(seg.text);
+                continue;
             }
-            else
+            
+            switch (seg.macro)
             {
-                buf.append(e);
+                case MESSAGE:
+                    buf.append(msg);
+                    break;
+                case LEVEL:
+                    buf.append(lvl);
+                    break;
+                    
+                case DATE:
+                    if (ts == null) ts = this.getTimeStamp(time);
+                    buf.append(ts.date);
+                    break;
+                case TIME:
+                    if (ts == null) ts = this.getTimeStamp(time);
+                    buf.append(ts.time);
+                    break;
+                case ISO8601:
+                    if (ts == null) ts = this.getTimeStamp(time);
+                    buf.append(ts.iso8601);
+                    break;
+                    
+                case CLASS:
+                    if (resolveFrame) frame = LogFormatter.getStackTrace(frame);
+                    if (frame != null)
+                    {
+                        buf.append(frame.getClassName());
+                    }
+                    break;
+                case METHOD:
+                    if (resolveFrame) frame = LogFormatter.getStackTrace(frame);
+                    if (frame != null)
+                    {
+                        buf.append(frame.getMethodName());
+                    }
+                    break;
+                case SOURCE:
+                    if (resolveFrame) frame = LogFormatter.getStackTrace(frame);
+                    if (frame != null)
+                    {
+                        buf.append(frame.getFileName());
+                    }
+                    break;
+                case LINE_NUM:
+                    if (resolveFrame) frame = LogFormatter.getStackTrace(frame);
+                    if (frame != null)
+                    {
+                        buf.append(frame.getLineNumber());
+                    }
+                    break;
+                case TID:
+                    buf.append(tid);
+                    break;
             }
         }
         
         return buf.toString();
     }
+    
+    /**
+     * Returns the compiled template of the format string, compiling it if
+     * it is the first time it is used. 
+     * 
+     * @param fmt format string
+     * @return template segments
+     */
+    private Segment[] getTemplate(final String fmt)
+    {
+        Segment template[] = this.templates.get(fmt);
+        if (template == null)
+        {
+            /* Format strings are split on the macro delimiter and each 
+             * element that names a macro is substituted, other elements are
+             * literal text. */
+            final String elements[] = fmt.split("__");
+            final List<Segment> segments = new ArrayList<Segment>(elements.length);
+            StringBuilder text = new StringBuilder();
+            for (String e : elements)
+            {
+                final Macro macro = this.macros.get(e);
+                if (macro == null)
+                {
+                    text.append(e);
+                    continue;
+                }
+                
+                if (text.length() > 0)
+                {
+                    segments.add(new Segment(null, text.toString()));
+                    text = new StringBuilder();
+                }
+                segments.add(new Segment(macro, null));
+            }
+            if (text.length() > 0) segments.add(new Segment(null, text.toString()));
+            
+            template = segments.toArray(new Segment[segments.size()]);
+            this.templates.put(fmt, template);
+        }
+        
+        return template;
+    }
+    
+    /**
+     * Returns the time stamps of the second the time is in. The time stamps
+     * are only generated once a second and reused for each message logged 
+     * in that second.
+     * 
+     * @param time time in milliseconds
+     * @return time stamps
+     */
+    private TimeStamp getTimeStamp(final long time)
+    {
+        final long second = time / 1000;
+        TimeStamp ts = this.timeStamp;
+        if (ts == null || ts.second != second)
+        {
+            ts = new TimeStamp(second);
+            
+            /* Only cache the latest second so messages captured earlier do
+             * not move the cache backwards. */
+            final TimeStamp current = this.timeStamp;
+            if (current == null || current.second < second) this.timeStamp = ts;
+        }
+        
+        return ts;
+    }
 
     /**
      * Returns a string containing a two digit representation of the provided
@@ -226,47 +350,115 @@ public class LogFormatter
         return str;
     }
     
-    private static StackTraceElement getStackTrace(StackTraceElement frame)
+    /**
+     * Builds a log message by substituting each argument, in order, for a 
+     * <code>{}</code> placeholder in the message format. Placeholders 
+     * without a matching argument are left as is and arguments without a
+     * placeholder are ignored.
+     * 
+     * @param format message format
+     * @param args arguments
+     * @return log message
+     */
+    public static String formatMessage(final String format, final Object... args)
     {
-        if (frame != null) return frame;
+        if (format == null || args == null || args.length == 0) return format;
         
-        StackTraceElement[] thrStack = Thread.currentThread().getStackTrace();
-        if (LogFormatter.stackPos < 0)
+        final StringBuilder buf = new StringBuilder(format.length() + 16 * args.length);
+        int start = 0, pos, arg = 0;
+        while (arg < args.length && (pos = format.indexOf("{}", start)) >= 0)
         {
-            synchronized (LogFormatter.class)
-            {
-                /* As the stack level is inconsistent accross platforms and deployment mechanisms,
-                 * we parse the StackTrace to set the pointer to the appropriate stack frame in order  
-                 * to get the details of the caller method (filename, line number etc.)
-                 * The stack is parsed from position 0 (i.e. here) till the first stack frame that is 
-                 * after a logger. */
-                
-                String fileName;
-                int newStackPos = 1;
-                boolean foundLogger = false;
-                
-                while (thrStack.length > newStackPos)
-                {
-                    fileName = thrStack[newStackPos].getFileName();
-                    if (fileName == null || fileName.endsWith("Logger.java") )
-                    {
-                        foundLogger = true;
-                        newStackPos++;
-                    }
-                    else if (!foundLogger)
-                    {
-                        newStackPos++;
-                    }
-                    else
-                    {
-                        LogFormatter.stackPos = newStackPos;
-                        break;
-                    }
-                }
-            }
+            buf.append(format, start, pos);
+            buf.append(args[arg++]);
+            start = pos + 2;
         }
+        buf.append(format, start, format.length());
         
-        return LogFormatter.stackPos < thrStack.length && LogFormatter.stackPos >= 0 ?
-                thrStack[LogFormatter.stackPos] : null;
+        return buf.toString();
+    }
+    
+    /**
+     * Returns whether the format string contains a macro of where the log
+     * message originated.
+     * 
+     * @param fmt format string
+     * @return true if the caller frame is needed to format messages
+     */
+    static boolean hasLocationMacro(final String fmt)
+    {
+        return fmt != null && (fmt.contains("__CLASS__") || fmt.contains("__METHOD__") || 
+                fmt.contains("__SOURCE__") || fmt.contains("__LINE_NUM__"));
+    }
+    
+    /**
+     * Returns the stack frame of the caller of the logger.
+     * 
+     * @return caller frame or <code>null</code> if not found
+     */
+    static StackTraceElement getCallerFrame()
+    {
+        return CallerLocator.getCallerFrame();
+    }
+    
+    private static StackTraceElement getStackTrace(final StackTraceElement frame)
+    {
+        return frame != null ? frame : CallerLocator.getCallerFrame();
+    }
+    
+    /**
+     * Segment of a compiled format string, either a macro or literal text.
+     */
+    private static final class Segment
+    {
+        /** Macro to substitute, <code>null</code> if literal text. */
+        final Macro macro;
+        
+        /** Literal text. */
+        final String text;
+        
+        Segment(final Macro macro, final String text)
+        {
+            this.macro = macro;
+            this.text = text;
+        }
+    }
+    
+    /**
+     * Formatted date and time stamps of a second.
+     */
+    private final class TimeStamp
+    {
+        /** Second since the epoch. */
+        final long second;
+        
+        /** Date with day of month, month and year. */
+        final String date;
+        
+        /** Time with hour of day, minute and second. */
+        final String time;
+        
+        /** ISO8601 date time. */
+        final String iso8601;
+        
+        TimeStamp(final long second)
+        {
+            this.second = second;
+            
+            final Calendar cal = Calendar.getInstance();
+            cal.setTimeInMillis(second * 1000);
+            
+            final String day = LogFormatter.this.addLeadingZeros(cal.get(Calendar.DAY_OF_MONTH));
+            final String month = LogFormatter.this.addLeadingZeros(cal.get(Calendar.MONTH) + 1);
+            final String year = String.valueOf(cal.get(Calendar.YEAR));
+            
+            this.date = day + '-' + month + '-' + year;
+            this.time = LogFormatter.this.addLeadingZeros(cal.get(Calendar.HOUR_OF_DAY)) + ':' + 
+                    LogFormatter.this.addLeadingZeros(cal.get(Calendar.MINUTE)) + ':' + 
+                    LogFormatter.this.addLeadingZeros(cal.get(Calendar.SECOND));
+            
+            /* Format of ISO 8061 date and time can be found at 
+             * http://www.iso.org/iso/date_and_time_format#what-iso-8601-covers. */
+            this.iso8601 = year + '-' + month + '-' + day + 'T' + this.time;
+        }
     }
 }
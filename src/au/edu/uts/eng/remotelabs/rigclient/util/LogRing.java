@@ -0,0 +1,338 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ring of recent log entries that may be searched. Each logged message is
+ * stored as an entry with its level, time, thread and sequence number, so
+ * readers can filter the entries and request only the entries they haven't
+ * seen.
+ * <br />
+ * Appending is lock-free: a sequence number is claimed and the entry is
+ * stored in its slot, overwriting the oldest entry once the ring is full.
+ * Readers check the sequence number of each slot, so entries that have 
+ * been overwritten during a read are skipped.
+ */
+public class LogRing
+{
+    /** Default number of entries in the ring. */
+    public static final int DEFAULT_SIZE = 2000;
+    
+    /** Maximum length of stored messages, longer messages are truncated 
+     *  so the memory used by the ring stays bounded. */
+    public static final int MAX_MESSAGE_LENGTH = 2048;
+    
+    /** Entries, indexed by sequence number modulo the ring size. */
+    private final AtomicReferenceArray<Entry> entries;
+    
+    /** Next sequence number. */
+    private final AtomicLong sequence;
+    
+    /**
+     * Constructor.
+     * 
+     * @param size number of entries stored
+     */
+    public LogRing(final int size)
+    {
+        this.entries = new AtomicReferenceArray<Entry>(size);
+        this.sequence = new AtomicLong();
+    }
+    
+    /**
+     * Appends an entry to the ring.
+     * 
+     * @param level log level
+     * @param levelName log level name
+     * @param message formatted log message
+     * @param time time the message was logged
+     * @param tid id of the thread that logged the message
+     */
+    public void append(final int level, final String levelName, final String message, final long time, 
+            final long tid)
+    {
+        final String stored = message != null && message.length() > LogRing.MAX_MESSAGE_LENGTH ? 
+                message.substring(0, LogRing.MAX_MESSAGE_LENGTH) + "..." : message;
+        
+        final long seq = this.sequence.getAndIncrement();
+        this.entries.set((int)(seq % this.entries.length()), new Entry(seq, level, levelName, stored, time, tid));
+    }
+    
+    /**
+     * Returns the entries that match the filter, in order from oldest to
+     * newest. If the filter has a limit, the newest matching entries up to 
+     * the limit are returned.
+     * 
+     * @param filter filter, may be <code>null</code> to return all entries
+     * @return matching entries
+     */
+    public List<Entry> find(final Filter filter)
+    {
+        final long next = this.sequence.get();
+        long seq = Math.max(0, next - this.entries.length());
+        if (filter != null && filter.since >= seq) seq = filter.since + 1;
+        
+        final List<Entry> found = new ArrayList<Entry>();
+        for ( ; seq < next; seq++)
+        {
+            final Entry entry = this.entries.get((int)(seq % this.entries.length()));
+            
+            /* Entries after a slot that is yet to be written may not have 
+             * been written either, so only the contiguous written entries 
+             * are returned. */
+            if (entry == null || entry.sequence < seq) break;
+            
+            /* The slot has been overwritten by a newer entry. */
+            if (entry.sequence != seq) continue;
+            
+            if (filter == null || filter.matches(entry)) found.add(entry);
+        }
+        
+        if (filter != null && filter.limit > 0 && found.size() > filter.limit)
+        {
+            return new ArrayList<Entry>(found.subList(found.size() - filter.limit, found.size()));
+        }
+        return found;
+    }
+    
+    /**
+     * Returns the sequence number of the most recently appended entry.
+     * 
+     * @return sequence number or -1 if no entries have been appended
+     */
+    public long getLastSequence()
+    {
+        return this.sequence.get() - 1;
+    }
+    
+    /**
+     * Returns the number of entries the ring stores.
+     * 
+     * @return ring size
+     */
+    public int getSize()
+    {
+        return this.entries.length();
+    }
+    
+    /**
+     * Log entry.
+     */
+    public static final class Entry
+    {
+        /** Sequence number. */
+        private final long sequence;
+        
+        /** Log level. */
+        private final int level;
+        
+        /** Log level name. */
+        private final String levelName;
+        
+        /** Formatted log message. */
+        private final String message;
+        
+        /** Time the message was logged. */
+        private final long time;
+        
+        /** Id of the thread that logged the message. */
+        private final long threadId;
+        
+        Entry(final long sequence, final int level, final String levelName, final String message, 
+                final long time, final long threadId)
+        {
+            this.sequence = sequence;
+            this.level = level;
+            this.levelName = levelName;
+            this.message = message;
+            this.time = time;
+            this.threadId = threadId;
+        }
+
+        public long getSequence()
+        {
+            return this.sequence;
+        }
+
+        public int getLevel()
+        {
+            return this.level;
+        }
+
+        public String getLevelName()
+        {
+            return this.levelName;
+        }
+
+        public String getMessage()
+        {
+            return this.message;
+        }
+
+        public long getTime()
+        {
+            return this.time;
+        }
+
+        public long getThreadId()
+        {
+            return this.threadId;
+        }
+    }
+    
+    /**
+     * Filter of log entries. By default all entries match.
+     */
+    public static class Filter
+    {
+        /** Only entries after this sequence number match. */
+        private long since = -1;
+        
+        /** Whether each log level matches. */
+        private final boolean levels[];
+        
+        /** Text the message must contain, in lower case. */
+        private String text;
+        
+        /** Earliest time of matching entries. */
+        private long from = Long.MIN_VALUE;
+        
+        /** Latest time of matching entries. */
+        private long to = Long.MAX_VALUE;
+        
+        /** Maximum number of entries to return, 0 for no limit. */
+        private int limit;
+        
+        public Filter()
+        {
+            this.levels = new boolean[ILogger.DEBUG + 1];
+            for (int i = 0; i < this.levels.length; i++) this.levels[i] = true;
+        }
+        
+        /**
+         * Only entries logged after the entry with the sequence number match.
+         * 
+         * @param seq sequence number
+         * @return this filter
+         */
+        public Filter since(final long seq)
+        {
+            this.since = seq;
+            return this;
+        }
+        
+        /**
+         * Only entries of the specified levels match.
+         * 
+         * @param lvls log levels
+         * @return this filter
+         */
+        public Filter levels(final int... lvls)
+        {
+            for (int i = 0; i < this.levels.length; i++) this.levels[i] = false;
+            for (int l : lvls)
+            {
+                if (l >= 0 && l < this.levels.length) this.levels[l] = true;
+            }
+            return this;
+        }
+        
+        /**
+         * Only entries whose message contains the text, ignoring case, match.
+         * 
+         * @param txt text
+         * @return this filter
+         */
+        public Filter text(final String txt)
+        {
+            this.text = txt == null || txt.length() == 0 ? null : txt.toLowerCase(Locale.ENGLISH);
+            return this;
+        }
+        
+        /**
+         * Only entries logged in the time range match.
+         * 
+         * @param start earliest time in milliseconds
+         * @param end latest time in milliseconds
+         * @return this filter
+         */
+        public Filter between(final long start, final long end)
+        {
+            this.from = start;
+            this.to = end;
+            return this;
+        }
+        
+        /**
+         * Only the newest matching entries up to the limit are returned.
+         * 
+         * @param max maximum number of entries
+         * @return this filter
+         */
+        public Filter limit(final int max)
+        {
+            this.limit = max;
+            return this;
+        }
+        
+        /**
+         * Returns whether the entry matches the filter.
+         * 
+         * @param entry log entry
+         * @return true if matches
+         */
+        public boolean matches(final Entry entry)
+        {
+            if (entry.sequence <= this.since) return false;
+            if (entry.level < 0 || entry.level >= this.levels.length || !this.levels[entry.level]) return false;
+            if (entry.time < this.from || entry.time > this.to) return false;
+            return this.text == null || 
+                    entry.message != null && entry.message.toLowerCase(Locale.ENGLISH).contains(this.text);
+        }
+    }
+}
@@ -237,4 +237,80 @@ public class LoggerFactory
         
         return frmStrings;
     }
+    
+    /**
+     * Returns the configured number of recent log entries that are kept in
+     * memory.
+     * 
+     * @return log ring size
+     */
+    static int getLogRingSize()
+    {
+        int size = LogRing.DEFAULT_SIZE;
+        try
+        {
+            size = Integer.parseInt(ConfigFactory.getInstance().getProperty("Log_Buffer_Size", 
+                    String.valueOf(LogRing.DEFAULT_SIZE)));
+            if (size < 1) size = LogRing.DEFAULT_SIZE;
+        }
+        catch (NumberFormatException ex)
+        {
+            System.err.println("WARNING: Invalid 'Log_Buffer_Size' configuration, using the default of " + 
+                    LogRing.DEFAULT_SIZE + '.');
+        }
+        return size;
+    }
+    
+    /**
+     * Returns an asynchronous log dispatcher for the logger if asynchronous
+     * logging is enabled with the <code>Log_Async</code> configuration.
+     * 
+     * @param logger logger that writes the dispatched messages
+     * @return dispatcher or <code>null</code> if logging is synchronous
+     */
+    static AsyncLogDispatcher getAsyncDispatcher(final AbstractLogger logger)
+    {
+        final IConfig config = ConfigFactory.getInstance();
+        if (!Boolean.parseBoolean(config.getProperty("Log_Async", "false"))) return null;
+        
+        int size = AsyncLogDispatcher.DEFAULT_QUEUE_SIZE;
+        try
+        {
+            size = Integer.parseInt(config.getProperty("Log_Async_Queue_Size", 
+                    String.valueOf(AsyncLogDispatcher.DEFAULT_QUEUE_SIZE)));
+            if (size < 1) size = AsyncLogDispatcher.DEFAULT_QUEUE_SIZE;
+        }
+        catch (NumberFormatException ex)
+        {
+            System.err.println("WARNING: Invalid 'Log_Async_Queue_Size' configuration, using the default of " + 
+                    AsyncLogDispatcher.DEFAULT_QUEUE_SIZE + '.');
+        }
+        
+        AsyncLogDispatcher.Overflow overflow = AsyncLogDispatcher.Overflow.DROP_DEBUG;
+        try
+        {
+            overflow = AsyncLogDispatcher.Overflow.valueOf(
+                    config.getProperty("Log_Async_Overflow", "DROP_DEBUG").trim().toUpperCase());
+        }
+        catch (IllegalArgumentException ex)
+        {
+            System.err.println("WARNING: Invalid 'Log_Async_Overflow' configuration, it should be one of 'BLOCK', " +
+                    "'DROP_DEBUG' or 'SAMPLE'. Using the default of 'DROP_DEBUG'.");
+        }
+        
+        int rate = AsyncLogDispatcher.DEFAULT_SAMPLE_RATE;
+        try
+        {
+            rate = Integer.parseInt(config.getProperty("Log_Async_Sample_Rate", 
+                    String.valueOf(AsyncLogDispatcher.DEFAULT_SAMPLE_RATE)));
+            if (rate < 1) rate = AsyncLogDispatcher.DEFAULT_SAMPLE_RATE;
+        }
+        catch (NumberFormatException ex)
+        {
+            System.err.println("WARNING: Invalid 'Log_Async_Sample_Rate' configuration, using the default of " + 
+                    AsyncLogDispatcher.DEFAULT_SAMPLE_RATE + '.');
+        }
+        
+        return new AsyncLogDispatcher(logger, size, overflow, rate);
+    }
 }
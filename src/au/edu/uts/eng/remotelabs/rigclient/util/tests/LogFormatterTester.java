@@ -133,4 +133,41 @@ public class LogFormatterTester extends TestCase
         assertEquals(2, p[1].length());
         assertEquals(2, p[2].length());
     }
+    
+    @Test
+    public void testFormatLogCaptured()
+    {
+        Calendar cal = Calendar.getInstance();
+        cal.set(2010, Calendar.MARCH, 4, 5, 6, 7);
+        long time = cal.getTimeInMillis();
+        
+        assertEquals("[INFO] - [2010-03-04T05:06:07] - T42 - Test message", this.formatter.formatLog(
+                "[__LEVEL__] - [__ISO8601__] - T__TID__ - __MESSAGE__", "Test message", "INFO", time, 42, null));
+        assertEquals("04-03-2010 05:06:07 Test message", this.formatter.formatLog(
+                "__DATE__ __TIME__ __MESSAGE__", "Test message", "INFO", time, 42, null));
+        
+        /* Elements that are not macros are literal text, without the delimiters. */
+        assertEquals("[UNKNOWN] Test message", this.formatter.formatLog(
+                "[__UNKNOWN__] __MESSAGE__", "Test message", "INFO", time, 42, null));
+        
+        /* Time stamps of an earlier second must not be reused. */
+        assertEquals("05:06:06", this.formatter.formatLog("__TIME__", "", "INFO", time - 1000, 42, null));
+        assertEquals("05:06:07", this.formatter.formatLog("__TIME__", "", "INFO", time, 42, null));
+        
+        StackTraceElement frame = new StackTraceElement("a.b.C", "method", "C.java", 10);
+        assertEquals("a.b.C.method (C.java:10) Test message", this.formatter.formatLog(
+                "__CLASS__.__METHOD__ (__SOURCE__:__LINE_NUM__) __MESSAGE__", "Test message", "INFO", time, 42, frame));
+    }
+    
+    @Test
+    public void testFormatMessage()
+    {
+        assertEquals("Requested controller is Test.", LogFormatter.formatMessage("Requested controller is {}.", "Test"));
+        assertEquals("Invoked a on b.", LogFormatter.formatMessage("Invoked {} on {}.", "a", "b"));
+        assertEquals("Value 1 is null.", LogFormatter.formatMessage("Value {} is {}.", 1, null));
+        assertEquals("Too few {} args {}.", LogFormatter.formatMessage("Too few {} args {}."));
+        assertEquals("Too few a args {}.", LogFormatter.formatMessage("Too few {} args {}.", "a"));
+        assertEquals("Too many a.", LogFormatter.formatMessage("Too many {}.", "a", "b"));
+        assertNull(LogFormatter.formatMessage(null, "a"));
+    }
 }
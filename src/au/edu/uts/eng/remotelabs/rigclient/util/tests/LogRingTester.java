@@ -0,0 +1,217 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.util.tests;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import au.edu.uts.eng.remotelabs.rigclient.util.ILogger;
+import au.edu.uts.eng.remotelabs.rigclient.util.LogRing;
+
+/**
+ * Tests the <code>LogRing</code> class.
+ */
+public class LogRingTester extends TestCase
+{
+    /** Object of class under test. */
+    private LogRing ring;
+    
+    @Override
+    @Before
+    public void setUp()
+    {
+        this.ring = new LogRing(5);
+    }
+    
+    @Test
+    public void testAppend()
+    {
+        assertEquals(-1, this.ring.getLastSequence());
+        assertTrue(this.ring.find(null).isEmpty());
+        
+        this.ring.append(ILogger.INFO, "INFO", "First message", 1000, 1);
+        this.ring.append(ILogger.WARN, "WARN", "Second message", 2000, 2);
+        
+        List<LogRing.Entry> entries = this.ring.find(null);
+        assertEquals(2, entries.size());
+        assertEquals(1, this.ring.getLastSequence());
+        
+        LogRing.Entry entry = entries.get(0);
+        assertEquals(0, entry.getSequence());
+        assertEquals(ILogger.INFO, entry.getLevel());
+        assertEquals("INFO", entry.getLevelName());
+        assertEquals("First message", entry.getMessage());
+        assertEquals(1000, entry.getTime());
+        assertEquals(1, entry.getThreadId());
+        assertEquals("Second message", entries.get(1).getMessage());
+    }
+    
+    @Test
+    public void testOverwrite()
+    {
+        for (int i = 0; i < 12; i++)
+        {
+            this.ring.append(ILogger.INFO, "INFO", "Message " + i, i, 1);
+        }
+        
+        List<LogRing.Entry> entries = this.ring.find(null);
+        assertEquals(5, entries.size());
+        for (int i = 0; i < 5; i++)
+        {
+            assertEquals(7 + i, entries.get(i).getSequence());
+            assertEquals("Message " + (7 + i), entries.get(i).getMessage());
+        }
+    }
+    
+    @Test
+    public void testTruncate()
+    {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < LogRing.MAX_MESSAGE_LENGTH + 10; i++) buf.append('a');
+        this.ring.append(ILogger.INFO, "INFO", buf.toString(), 0, 1);
+        
+        assertEquals(LogRing.MAX_MESSAGE_LENGTH + 3, this.ring.find(null).get(0).getMessage().length());
+    }
+    
+    @Test
+    public void testFilter()
+    {
+        this.ring.append(ILogger.ERROR, "ERROR", "Failed allocation", 1000, 1);
+        this.ring.append(ILogger.INFO, "INFO", "Allocated user", 2000, 1);
+        this.ring.append(ILogger.DEBUG, "DEBUG", "Requested controller", 3000, 1);
+        this.ring.append(ILogger.INFO, "INFO", "Released user", 4000, 1);
+        
+        List<LogRing.Entry> entries = this.ring.find(new LogRing.Filter().levels(ILogger.ERROR, ILogger.INFO));
+        assertEquals(3, entries.size());
+        
+        entries = this.ring.find(new LogRing.Filter().text("ALLOC"));
+        assertEquals(2, entries.size());
+        assertEquals("Failed allocation", entries.get(0).getMessage());
+        assertEquals("Allocated user", entries.get(1).getMessage());
+        
+        entries = this.ring.find(new LogRing.Filter().between(2000, 3000));
+        assertEquals(2, entries.size());
+        assertEquals(1, entries.get(0).getSequence());
+        assertEquals(2, entries.get(1).getSequence());
+        
+        entries = this.ring.find(new LogRing.Filter().text("user").limit(1));
+        assertEquals(1, entries.size());
+        assertEquals("Released user", entries.get(0).getMessage());
+    }
+    
+    @Test
+    public void testSince()
+    {
+        this.ring.append(ILogger.INFO, "INFO", "Message 0", 0, 1);
+        this.ring.append(ILogger.INFO, "INFO", "Message 1", 0, 1);
+        this.ring.append(ILogger.INFO, "INFO", "Message 2", 0, 1);
+        
+        List<LogRing.Entry> entries = this.ring.find(new LogRing.Filter().since(1));
+        assertEquals(1, entries.size());
+        assertEquals("Message 2", entries.get(0).getMessage());
+        
+        assertTrue(this.ring.find(new LogRing.Filter().since(2)).isEmpty());
+        
+        /* Entries that have been overwritten are not returned. */
+        for (int i = 3; i < 10; i++)
+        {
+            this.ring.append(ILogger.INFO, "INFO", "Message " + i, 0, 1);
+        }
+        entries = this.ring.find(new LogRing.Filter().since(1));
+        assertEquals(5, entries.size());
+        assertEquals(5, entries.get(0).getSequence());
+    }
+    
+    @Test
+    public void testPendingSlot() throws Exception
+    {
+        this.ring.append(ILogger.INFO, "INFO", "Message 0", 0, 1);
+        
+        /* Simulates a logging thread that has reserved sequence 1 but not
+         * yet written its entry. */
+        Field field = LogRing.class.getDeclaredField("sequence");
+        field.setAccessible(true);
+        ((AtomicLong)field.get(this.ring)).incrementAndGet();
+        this.ring.append(ILogger.INFO, "INFO", "Message 2", 0, 1);
+        
+        /* Entries after the pending slot are not returned so they are not 
+         * skipped by a later search since the last returned entry. */
+        List<LogRing.Entry> entries = this.ring.find(null);
+        assertEquals(1, entries.size());
+        assertEquals(0, entries.get(0).getSequence());
+        assertTrue(this.ring.find(new LogRing.Filter().since(0)).isEmpty());
+    }
+    
+    @Test
+    public void testConcurrentAppend() throws Exception
+    {
+        final LogRing large = new LogRing(4000);
+        Thread threads[] = new Thread[4];
+        for (int t = 0; t < threads.length; t++)
+        {
+            final int id = t;
+            threads[t] = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    for (int i = 0; i < 1000; i++) large.append(ILogger.INFO, "INFO", "Message", i, id);
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+        
+        List<LogRing.Entry> entries = large.find(null);
+        assertEquals(4000, entries.size());
+        for (int i = 0; i < entries.size(); i++)
+        {
+            assertEquals(i, entries.get(i).getSequence());
+        }
+    }
+}
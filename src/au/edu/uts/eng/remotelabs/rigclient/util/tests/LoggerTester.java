@@ -0,0 +1,268 @@
+/**
+ * SAHARA Rig Client
+ * 
+ * Software abstraction of physical rig to provide rig session control
+ * and rig device control. Automatically tests rig hardware and reports
+ * the rig status to ensure rig goodness.
+ *
+ * @license See LICENSE in the top level directory for complete license terms.
+ *
+ * Copyright (c) 2009, University of Technology, Sydney
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer.
+ *  * Redistributions in binary form must reproduce the above copyright 
+ *    notice, this list of conditions and the following disclaimer in the 
+ *    documentation and/or other materials provided with the distribution.
+ *  * Neither the name of the University of Technology, Sydney nor the names 
+ *    of its contributors may be used to endorse or promote products derived from 
+ *    this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE 
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE 
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL 
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR 
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER 
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, 
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE 
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * @author Michael Diponio (mdiponio)
+ * @date 18th October 2026
+ *
+ * Changelog:
+ * - 18/10/2026 - mdiponio - Initial file creation.
+ */
+package au.edu.uts.eng.remotelabs.rigclient.util.tests;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import au.edu.uts.eng.remotelabs.rigclient.util.ConfigFactory;
+import au.edu.uts.eng.remotelabs.rigclient.util.IConfig;
+import au.edu.uts.eng.remotelabs.rigclient.util.ILogSupplier;
+import au.edu.uts.eng.remotelabs.rigclient.util.ILogger;
+import au.edu.uts.eng.remotelabs.rigclient.util.LoggerFactory;
+
+/**
+ * Tests the logger parameterised and lazy logging methods.
+ */
+public class LoggerTester extends TestCase
+{
+    /** Object of class under test. */
+    private ILogger logger;
+    
+    /** Logging level field of the logger. */
+    private Field levelField;
+    
+    /** Original logging level. */
+    private short originalLevel;
+    
+    @Override
+    @Before
+    public void setUp() throws Exception
+    {
+        IConfig mockConfig = createMock(IConfig.class);
+        expect(mockConfig.getProperty("Logger_Type")).andReturn("SystemErr");
+        expect(mockConfig.getProperty("Log_Level")).andReturn("INFO");
+        expect(mockConfig.getProperty("Default_Log_Format", "[__LEVEL__] - [__ISO8601__] - __MESSAGE__"))
+            .andReturn("[__LEVEL__] - [__ISO8601__] - __MESSAGE__");
+        expect(mockConfig.getProperty("Log_Buffer_Size", "2000")).andReturn("2000");
+        expect(mockConfig.getProperty("Log_Async", "false")).andReturn("false");
+        expect(mockConfig.getProperty((String)anyObject())).andReturn(null).anyTimes();
+        replay(mockConfig);
+        
+        ConfigFactory.getInstance();
+        Field field = ConfigFactory.class.getDeclaredField("instance");
+        field.setAccessible(true);
+        field.set(null, mockConfig);
+        
+        this.logger = LoggerFactory.getLoggerInstance();
+        
+        /* The logger may have already been loaded with another level. */
+        this.levelField = this.logger.getClass().getSuperclass().getDeclaredField("logLevel");
+        this.levelField.setAccessible(true);
+        this.originalLevel = this.levelField.getShort(this.logger);
+        this.levelField.setShort(this.logger, (short)ILogger.INFO);
+    }
+    
+    @Override
+    @After
+    public void tearDown() throws Exception
+    {
+        this.levelField.setShort(this.logger, this.originalLevel);
+    }
+    
+    @Test
+    public void testIsDebugEnabled() throws Exception
+    {
+        assertFalse(this.logger.isDebugEnabled());
+        
+        this.levelField.setShort(this.logger, (short)ILogger.DEBUG);
+        assertTrue(this.logger.isDebugEnabled());
+    }
+    
+    @Test
+    public void testDebugSupplierNotCalled()
+    {
+        final int called[] = new int[1];
+        ILogSupplier supplier = new ILogSupplier()
+        {
+            @Override
+            public String get()
+            {
+                called[0]++;
+                return "Supplied message.";
+            }
+        };
+        
+        this.logger.debug(supplier);
+        assertEquals(0, called[0]);
+    }
+    
+    @Test
+    public void testDebugSupplierCalled() throws Exception
+    {
+        this.levelField.setShort(this.logger, (short)ILogger.DEBUG);
+        
+        final int called[] = new int[1];
+        this.logger.debug(new ILogSupplier()
+        {
+            @Override
+            public String get()
+            {
+                called[0]++;
+                return "Supplied debug message.";
+            }
+        });
+        assertEquals(1, called[0]);
+        
+        this.logger.debug("Parameterised {} message {}.", "debug", 1);
+        
+        String buf[] = this.logger.getLogBuffer();
+        assertTrue(buf[buf.length - 2].endsWith("Supplied debug message."));
+        assertTrue(buf[buf.length - 1].endsWith("Parameterised debug message 1."));
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCallerLocation() throws Exception
+    {
+        this.levelField.setShort(this.logger, (short)ILogger.DEBUG);
+        
+        Field field = this.logger.getClass().getSuperclass().getDeclaredField("formatStrings");
+        field.setAccessible(true);
+        Map<Integer, String> formats = (Map<Integer, String>)field.get(this.logger);
+        String original = formats.get(ILogger.DEBUG);
+        try
+        {
+            formats.put(ILogger.DEBUG, "__CLASS__.__METHOD__ (__SOURCE__) __MESSAGE__");
+            this.logger.debug("Location message.");
+            this.logger.debug("Location message {}.", 2);
+        }
+        finally
+        {
+            formats.put(ILogger.DEBUG, original);
+        }
+        
+        String buf[] = this.logger.getLogBuffer();
+        assertEquals(LoggerTester.class.getName() + ".testCallerLocation (LoggerTester.java) Location message.",
+                buf[buf.length - 2]);
+        assertEquals(LoggerTester.class.getName() + ".testCallerLocation (LoggerTester.java) Location message 2.",
+                buf[buf.length - 1]);
+    }
+    
+    /**
+     * Tests the caller is found by scanning the stack trace after the frames
+     * of a logger facade whose source file isn't named as a logger.
+     */
+    @Test
+    public void testCallerLocationScanned() throws Exception
+    {
+        StackTraceElement frame = FacadeLogger.locate();
+        assertNotNull(frame);
+        assertEquals(LoggerTester.class.getName(), frame.getClassName());
+        assertEquals("testCallerLocationScanned", frame.getMethodName());
+    }
+    
+    /**
+     * Tests disabled parameterised debug logging does not format its 
+     * arguments or log a message.
+     */
+    @Test
+    public void testDisabledDebugNotFormatted() throws Exception
+    {
+        final int formatted[] = new int[1];
+        final Object arg = new Object()
+        {
+            @Override
+            public String toString()
+            {
+                formatted[0]++;
+                return "arg";
+            }
+        };
+        final int called[] = new int[1];
+        final ILogSupplier supplier = new ILogSupplier()
+        {
+            @Override
+            public String get()
+            {
+                called[0]++;
+                return "Supplied message.";
+            }
+        };
+        
+        final int buffered = this.logger.getLogBuffer().length;
+        this.logger.debug("{}", arg);
+        this.logger.debug("{} {}", arg, arg);
+        this.logger.debug("{} {} {}", arg, arg, arg);
+        this.logger.debug(supplier);
+        
+        assertEquals(0, formatted[0]);
+        assertEquals(0, called[0]);
+        assertEquals(buffered, this.logger.getLogBuffer().length);
+        
+        /* Once enabled, the same calls are formatted. */
+        this.levelField.setShort(this.logger, (short)ILogger.DEBUG);
+        this.logger.debug("{}", arg);
+        this.logger.debug(supplier);
+        assertEquals(1, formatted[0]);
+        assertEquals(1, called[0]);
+        
+        String buf[] = this.logger.getLogBuffer();
+        assertTrue(buf[buf.length - 2].endsWith("arg"));
+    }
+    
+    /**
+     * Logger facade that locates its caller by scanning the stack trace.
+     */
+    private static abstract class FacadeLogger implements ILogger
+    {
+        static StackTraceElement locate() throws Exception
+        {
+            final Method meth = Class.forName("au.edu.uts.eng.remotelabs.rigclient.util.CallerLocator")
+                    .getDeclaredMethod("scanCallerFrame");
+            meth.setAccessible(true);
+            return (StackTraceElement)meth.invoke(null);
+        }
+    }
+}